@@ -0,0 +1,133 @@
+package io.aregger.oracle_statement_caching.benchmark;
+
+import io.aregger.oracle_statement_caching.helper.AsyncStatements;
+import io.aregger.oracle_statement_caching.helper.CacheableStatement;
+import io.aregger.oracle_statement_caching.helper.ImplicitCacheableStatement;
+import io.aregger.oracle_statement_caching.helper.ResultCache;
+import io.aregger.oracle_statement_caching.standin.StandInQuery;
+import io.aregger.oracle_statement_caching.standin.StandInServer;
+import oracle.jdbc.OracleConnection;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Queries per second of {@link AsyncStatements} with {@code requests} concurrent queries over {@code connections}
+ * connections of a stand-in server whose round trips block, like socket reads. {@code virtualThreads} runs each query
+ * on a virtual thread of its own, {@code platformPool} on a fixed pool of {@code platformThreads} platform threads.
+ * Before Java 21 {@code virtualThreads} falls back to a pool of one platform thread per busy connection, run with
+ * Java 21 or later for the comparison. The {@code queries} counter is the queries per second, the primary score the
+ * rounds of {@code requests} queries per second.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class AsyncQueryBenchmark {
+
+  @Param({"10000"})
+  int requests;
+
+  @Param({"100"})
+  int connections;
+
+  @Param({"200"})
+  int platformThreads;
+
+  @Param({"1000000"})
+  long roundTripNanos;
+
+  private final CacheableStatement statement = new ImplicitCacheableStatement(StatementCacheBenchmark.QUERY);
+  private List<OracleConnection> opened;
+  private ExecutorService platformPool;
+  private AsyncStatements virtualStatements;
+  private AsyncStatements platformStatements;
+
+  /**
+   * Counts the completed queries, JMH reports them per second.
+   */
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.OPERATIONS)
+  public static class Queries {
+
+    public long queries;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+      queries = 0;
+    }
+  }
+
+  @Setup
+  public void setUp() throws SQLException {
+    StandInServer server = new StandInServer(roundTripNanos, true);
+    server.registerQuery(StatementCacheBenchmark.QUERY, StandInQuery.varchar(10, row -> new Object[]{"X"}, "DUMMY"));
+    opened = new ArrayList<>();
+    virtualStatements = new AsyncStatements(connect(server));
+    if (!virtualStatements.usesVirtualThreads()) {
+      System.out.println("Virtual threads need Java 21, virtualThreads runs on a pool of one platform thread per busy connection");
+    }
+    platformPool = Executors.newFixedThreadPool(platformThreads);
+    platformStatements = new AsyncStatements(connect(server), platformPool);
+  }
+
+  @TearDown
+  public void tearDown() throws SQLException {
+    virtualStatements.close();
+    platformStatements.close();
+    platformPool.shutdown();
+    for (OracleConnection connection : opened) {
+      CachingMode.close(connection);
+    }
+  }
+
+  @Benchmark
+  public void virtualThreads(Queries counter) {
+    run(virtualStatements, counter);
+  }
+
+  @Benchmark
+  public void platformPool(Queries counter) {
+    run(platformStatements, counter);
+  }
+
+  private void run(AsyncStatements statements, Queries counter) {
+    CompletableFuture<?>[] futures = new CompletableFuture<?>[requests];
+    for (int i = 0; i < requests; i++) {
+      CompletableFuture<ResultCache.Rows> future = statements.query(statement, "X");
+      futures[i] = future;
+    }
+    CompletableFuture.allOf(futures).join();
+    counter.queries += requests;
+  }
+
+  private List<OracleConnection> connect(StandInServer server) throws SQLException {
+    List<OracleConnection> connected = new ArrayList<>(connections);
+    for (int i = 0; i < connections; i++) {
+      connected.add(CachingMode.IMPLICIT.connect(server, 20));
+    }
+    opened.addAll(connected);
+    return connected;
+  }
+}
@@ -0,0 +1,133 @@
+package io.aregger.oracle_statement_caching.benchmark;
+
+import io.aregger.oracle_statement_caching.helper.AutoSizedCacheableStatement;
+import io.aregger.oracle_statement_caching.helper.CacheSizeController;
+import io.aregger.oracle_statement_caching.helper.CacheableStatement;
+import io.aregger.oracle_statement_caching.helper.ImplicitCacheableStatement;
+import io.aregger.oracle_statement_caching.standin.RoundTrip;
+import io.aregger.oracle_statement_caching.standin.StandInServer;
+import oracle.jdbc.OracleConnection;
+import oracle.jdbc.OraclePreparedStatement;
+
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Shows how the {@link CacheSizeController} follows a shifting SQL mix. Every connection draws its SQL texts from a
+ * working set of its own with a Zipf distribution. The working set sizes rotate among the connections with every phase,
+ * so the connection with the largest working set changes. Each round looks up the same SQL texts on connections sized
+ * by the controller and on connections with a fixed, equal share of the budget, and prints the cache sizes, the hit
+ * ratios and the parses of both.
+ * <p>
+ * Arguments are {@code name=value} pairs, the defaults are:
+ * <pre>
+ * workingSets=10,40,160,2000 distinct SQL texts per connection, one connection per working set
+ * budget=120                 statements all caches may retain together
+ * phases=3                   number of rotations of the working sets
+ * rounds=15                  adjust rounds per phase
+ * lookups=5000               lookups per connection and round
+ * skew=0.8                   Zipf exponent of the SQL mix of a working set, 0 for a uniform mix
+ * seed=1                     seed of the SQL mix
+ * </pre>
+ */
+public final class AutoSizeConvergence {
+
+  private static final long STATEMENT_BYTES = 1;
+
+  private AutoSizeConvergence() {
+    throw new AssertionError("non-instantiable class");
+  }
+
+  public static void main(String[] args) throws SQLException {
+    Map<String, String> options = Workload.options(args);
+    int[] workingSets = Arrays.stream(Workload.option(options, "workingSets", "10,40,160,2000").split(",")).mapToInt(Integer::parseInt).toArray();
+    int budget = Integer.parseInt(Workload.option(options, "budget", "120"));
+    int phases = Integer.parseInt(Workload.option(options, "phases", "3"));
+    int rounds = Integer.parseInt(Workload.option(options, "rounds", "15"));
+    int lookups = Integer.parseInt(Workload.option(options, "lookups", "5000"));
+    double skew = Double.parseDouble(Workload.option(options, "skew", "0.8"));
+    Random random = new Random(Long.parseLong(Workload.option(options, "seed", "1")));
+    if (!options.isEmpty()) {
+      throw new IllegalArgumentException("Unknown options: " + options.keySet());
+    }
+
+    int connections = workingSets.length;
+    int fixedSize = budget / connections;
+    CacheSizeController controller = new CacheSizeController(budget * STATEMENT_BYTES, sql -> STATEMENT_BYTES);
+    StandInServer[] autoServers = new StandInServer[connections];
+    StandInServer[] fixedServers = new StandInServer[connections];
+    OracleConnection[] autoSized = new OracleConnection[connections];
+    OracleConnection[] fixed = new OracleConnection[connections];
+    double[][] mixes = new double[connections][];
+    for (int c = 0; c < connections; c++) {
+      autoServers[c] = new StandInServer(0);
+      fixedServers[c] = new StandInServer(0);
+      autoSized[c] = CachingMode.IMPLICIT.connect(autoServers[c], fixedSize);
+      fixed[c] = CachingMode.IMPLICIT.connect(fixedServers[c], fixedSize);
+      controller.register(autoSized[c]);
+      mixes[c] = Workload.zipf(workingSets[c], skew);
+    }
+
+    System.out.printf("%d connections, budget %d statements, fixed size %d, working sets %s%n", connections, budget, fixedSize, Arrays.toString(workingSets));
+    System.out.printf("%5s %5s  %-" + 6 * connections + "s %-" + 7 * connections + "s %7s  %-" + 7 * connections + "s%n",
+        "phase", "round", "sizes", "auto hit ratios", "retained", "fixed hit ratios");
+    try {
+      for (int phase = 0; phase < phases; phase++) {
+        long autoParses = 0;
+        long fixedParses = 0;
+        for (int round = 0; round < rounds; round++) {
+          long[] autoBefore = parses(autoServers);
+          long[] fixedBefore = parses(fixedServers);
+          for (int i = 0; i < lookups; i++) {
+            for (int c = 0; c < connections; c++) {
+              // the working set of a connection is the one of the connection phase places to the left
+              int workload = (c + phase) % connections;
+              int sql = workload * 1_000_000 + Workload.nextSql(random, mixes[workload]);
+              CacheableStatement statement = new AutoSizedCacheableStatement(new ImplicitCacheableStatement("select " + sql + " from dual"), controller);
+              lookup(statement, autoSized[c]);
+              lookup(statement, fixed[c]);
+            }
+          }
+          controller.adjust();
+
+          long[] autoAfter = parses(autoServers);
+          long[] fixedAfter = parses(fixedServers);
+          StringBuilder sizes = new StringBuilder();
+          StringBuilder autoRatios = new StringBuilder();
+          StringBuilder fixedRatios = new StringBuilder();
+          for (int c = 0; c < connections; c++) {
+            sizes.append(String.format("%5d ", autoSized[c].getStatementCacheSize()));
+            autoRatios.append(String.format("%6.1f ", 100.0 * (lookups - autoAfter[c] + autoBefore[c]) / lookups));
+            fixedRatios.append(String.format("%6.1f ", 100.0 * (lookups - fixedAfter[c] + fixedBefore[c]) / lookups));
+            autoParses += autoAfter[c] - autoBefore[c];
+            fixedParses += fixedAfter[c] - fixedBefore[c];
+          }
+          System.out.printf("%5d %5d  %s %s %7d  %s%n", phase, round, sizes, autoRatios, controller.getRetainedBytes() / STATEMENT_BYTES, fixedRatios);
+        }
+        System.out.printf("phase %d parses: auto-sized %,d, fixed %,d%n", phase, autoParses, fixedParses);
+      }
+    } finally {
+      for (int c = 0; c < connections; c++) {
+        controller.unregister(autoSized[c]);
+        CachingMode.close(autoSized[c]);
+        CachingMode.close(fixed[c]);
+      }
+    }
+  }
+
+  private static void lookup(CacheableStatement statement, OracleConnection connection) throws SQLException {
+    OraclePreparedStatement preparedStatement = CachingMode.checkOut(statement, connection);
+    statement.closePreparedStatement(preparedStatement);
+  }
+
+  private static long[] parses(StandInServer[] servers) {
+    long[] parses = new long[servers.length];
+    for (int i = 0; i < servers.length; i++) {
+      parses[i] = servers[i].getRoundTrips(RoundTrip.PARSE);
+    }
+    return parses;
+  }
+
+}
@@ -0,0 +1,109 @@
+package io.aregger.oracle_statement_caching.benchmark;
+
+import io.aregger.oracle_statement_caching.helper.BulkCall;
+import io.aregger.oracle_statement_caching.standin.StandInServer;
+import oracle.jdbc.OracleCallableStatement;
+import oracle.jdbc.OracleConnection;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rows per second inserted through a PL/SQL procedure with one cached call per row ({@code oneCallPerRow}), with a
+ * JDBC batch of the cached call ({@code callableBatch}) and with index-by tables bound to a bulk variant of the
+ * procedure ({@code indexTables}). The {@code rows} counter is the rows per second, the primary score the calls per
+ * second.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class BulkCallBenchmark {
+
+  private static final String ROW_CALL = "begin insertLob(pi_data => ?); end;";
+  private static final String BULK_CALL = "begin lob_api.insert_lobs(pi_data => ?); end;";
+
+  @Param({"10", "100", "1000"})
+  int rows;
+
+  @Param({"100000"})
+  long roundTripNanos;
+
+  private OracleConnection connection;
+  private List<Object[]> values;
+  private BulkCall callableBatch;
+  private BulkCall indexTables;
+
+  /**
+   * Counts the inserted rows, JMH reports them per second.
+   */
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.OPERATIONS)
+  public static class Rows {
+
+    public long rows;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+      rows = 0;
+    }
+  }
+
+  @Setup
+  public void setUp() throws SQLException {
+    connection = CachingMode.IMPLICIT.connect(new StandInServer(roundTripNanos), 20);
+    values = new ArrayList<>(rows);
+    for (int i = 0; i < rows; i++) {
+      values.add(new Object[]{"document " + i + " with a few hundred characters of text"});
+    }
+    callableBatch = new BulkCall(ROW_CALL);
+    indexTables = new BulkCall(ROW_CALL, BULK_CALL, new int[]{Types.VARCHAR}, 4000);
+  }
+
+  @TearDown
+  public void tearDown() throws SQLException {
+    CachingMode.close(connection);
+  }
+
+  @Benchmark
+  public void oneCallPerRow(Rows counter) throws SQLException {
+    for (Object[] row : values) {
+      OracleCallableStatement statement = (OracleCallableStatement) connection.prepareCall(ROW_CALL);
+      statement.setObject(1, row[0]);
+      statement.execute();
+      statement.close();
+    }
+    counter.rows += rows;
+  }
+
+  @Benchmark
+  public void callableBatch(Rows counter) throws SQLException {
+    callableBatch.execute(connection, values);
+    counter.rows += rows;
+  }
+
+  @Benchmark
+  public void indexTables(Rows counter) throws SQLException {
+    indexTables.execute(connection, values);
+    counter.rows += rows;
+  }
+}
@@ -0,0 +1,97 @@
+package io.aregger.oracle_statement_caching.benchmark;
+
+import io.aregger.oracle_statement_caching.helper.CacheableStatement;
+import io.aregger.oracle_statement_caching.helper.ExplicitCacheableStatement;
+import io.aregger.oracle_statement_caching.helper.ImplicitCacheableStatement;
+import io.aregger.oracle_statement_caching.helper.LruCacheableStatement;
+import io.aregger.oracle_statement_caching.helper.PreparedStatementHelper;
+import io.aregger.oracle_statement_caching.helper.StatementCache;
+import io.aregger.oracle_statement_caching.standin.StandInServer;
+import oracle.jdbc.OracleConnection;
+import oracle.jdbc.OraclePreparedStatement;
+
+import java.sql.SQLException;
+
+/**
+ * The statement caching methods compared by the benchmarks.
+ */
+public enum CachingMode {
+
+  /**
+   * Every statement is prepared with {@link PreparedStatementHelper#prepare} and closed physically.
+   */
+  NONE {
+    @Override
+    void configure(OracleConnection connection, int cacheSize) {
+    }
+
+    @Override
+    CacheableStatement createStatement(String sql, int index) {
+      return new ImplicitCacheableStatement(sql);
+    }
+  },
+
+  IMPLICIT {
+    @Override
+    void configure(OracleConnection connection, int cacheSize) throws SQLException {
+      connection.setImplicitCachingEnabled(true);
+      connection.setStatementCacheSize(cacheSize);
+    }
+
+    @Override
+    CacheableStatement createStatement(String sql, int index) {
+      return new ImplicitCacheableStatement(sql);
+    }
+  },
+
+  EXPLICIT {
+    @Override
+    void configure(OracleConnection connection, int cacheSize) throws SQLException {
+      connection.setExplicitCachingEnabled(true);
+      connection.setStatementCacheSize(cacheSize);
+    }
+
+    @Override
+    CacheableStatement createStatement(String sql, int index) {
+      return new ExplicitCacheableStatement(sql, "benchmark-" + index);
+    }
+  },
+
+  /**
+   * The project's own {@link StatementCache} with the driver's cache disabled.
+   */
+  LRU {
+    @Override
+    void configure(OracleConnection connection, int cacheSize) throws SQLException {
+      StatementCache.enable(connection, cacheSize);
+    }
+
+    @Override
+    CacheableStatement createStatement(String sql, int index) {
+      return new LruCacheableStatement(sql);
+    }
+  };
+
+  abstract void configure(OracleConnection connection, int cacheSize) throws SQLException;
+
+  abstract CacheableStatement createStatement(String sql, int index);
+
+  OracleConnection connect(StandInServer server, int cacheSize) throws SQLException {
+    OracleConnection connection = server.connect();
+    configure(connection, cacheSize);
+    return connection;
+  }
+
+  static void close(OracleConnection connection) throws SQLException {
+    StatementCache.disable(connection);
+    connection.close();
+  }
+
+  /**
+   * Gets the statement from the cache or prepares it if it is not cached.
+   */
+  static OraclePreparedStatement checkOut(CacheableStatement statement, OracleConnection connection) throws SQLException {
+    OraclePreparedStatement cached = statement.getCachedStatement(connection);
+    return cached != null ? cached : PreparedStatementHelper.prepare(connection, statement.getSql());
+  }
+}
@@ -0,0 +1,281 @@
+package io.aregger.oracle_statement_caching.benchmark;
+
+import io.aregger.oracle_statement_caching.helper.CacheableStatement;
+import io.aregger.oracle_statement_caching.standin.RoundTrip;
+import io.aregger.oracle_statement_caching.standin.StandInQuery;
+import io.aregger.oracle_statement_caching.standin.StandInServer;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedClass;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import oracle.jdbc.OracleConnection;
+import oracle.jdbc.OraclePreparedStatement;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.ResultSet;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Drives {@link CacheableStatement#getCachedStatement} and {@link CacheableStatement#closePreparedStatement} from many
+ * threads sharing a few stand-in connections and reports the throughput, the checkout and return latency percentiles
+ * and the contended monitor enters recorded by JFR. Every checked out statement is verified to be used by one thread
+ * only, the run fails if a statement is handed out twice.
+ * <p>
+ * Arguments are {@code name=value} pairs, the defaults are:
+ * <pre>
+ * mode=IMPLICIT        caching mode, see {@link CachingMode}
+ * threads=64           number of threads
+ * threadKind=both      platform, virtual or both; virtual threads need Java 21 and fall back to platform threads
+ * connections=4        connections shared by the threads, thread i uses connection i % connections
+ * cacheSize=20         statement cache size per connection
+ * distinctSql=50       number of SQL texts
+ * skew=1.0             Zipf exponent of the SQL mix, 0 for a uniform mix
+ * roundTripNanos=0     simulated round trip latency
+ * execute=true         whether each checkout executes the query
+ * warmupSeconds=1      duration of an unreported run before each run
+ * seconds=5            duration of a run
+ * jfrThresholdMicros=10 minimum duration of a recorded monitor enter
+ * </pre>
+ */
+public final class ContentionStress {
+
+  private static final String QUERY = "select * from dual where dummy = ?";
+  private static final int VERIFIER_STRIPES = 64;
+
+  private final CachingMode mode;
+  private final int threads;
+  private final int connections;
+  private final int cacheSize;
+  private final int distinctSql;
+  private final long roundTripNanos;
+  private final boolean execute;
+  private final Duration warmup;
+  private final Duration duration;
+  private final Duration jfrThreshold;
+  private final double[] cumulativeMix;
+
+  private static final class Worker {
+
+    private final LatencyHistogram checkOut = new LatencyHistogram();
+    private final LatencyHistogram closing = new LatencyHistogram();
+  }
+
+  private static final class MonitorStats {
+
+    private long events;
+    private Duration total = Duration.ZERO;
+  }
+
+  private ContentionStress(Map<String, String> options) {
+    this.mode = CachingMode.valueOf(Workload.option(options, "mode", "IMPLICIT"));
+    this.threads = Integer.parseInt(Workload.option(options, "threads", "64"));
+    this.connections = Integer.parseInt(Workload.option(options, "connections", "4"));
+    this.cacheSize = Integer.parseInt(Workload.option(options, "cacheSize", "20"));
+    this.distinctSql = Integer.parseInt(Workload.option(options, "distinctSql", "50"));
+    this.roundTripNanos = Long.parseLong(Workload.option(options, "roundTripNanos", "0"));
+    this.execute = Boolean.parseBoolean(Workload.option(options, "execute", "true"));
+    this.warmup = Duration.ofSeconds(Long.parseLong(Workload.option(options, "warmupSeconds", "1")));
+    this.duration = Duration.ofSeconds(Long.parseLong(Workload.option(options, "seconds", "5")));
+    this.jfrThreshold = Duration.ofNanos(1000 * Long.parseLong(Workload.option(options, "jfrThresholdMicros", "10")));
+    this.cumulativeMix = Workload.zipf(distinctSql, Double.parseDouble(Workload.option(options, "skew", "1.0")));
+    if (!options.isEmpty()) {
+      throw new IllegalArgumentException("Unknown options: " + options.keySet());
+    }
+  }
+
+  public static void main(String[] args) throws Exception {
+    Map<String, String> options = Workload.options(args);
+    String threadKind = Workload.option(options, "threadKind", "both");
+    ContentionStress stress = new ContentionStress(options);
+
+    boolean failed = false;
+    if (!threadKind.equals("virtual")) {
+      failed |= stress.run("platform", Thread::new);
+    }
+    if (!threadKind.equals("platform")) {
+      ThreadFactory virtual = virtualThreadFactory();
+      if (virtual == null) {
+        System.out.println("Virtual threads need Java 21, running platform threads instead");
+        virtual = Thread::new;
+      }
+      failed |= stress.run("virtual", virtual);
+    }
+    if (failed) {
+      System.exit(1);
+    }
+  }
+
+  /**
+   * Runs the stress with threads of the given factory and returns whether a statement was handed out twice.
+   */
+  private boolean run(String threadKind, ThreadFactory threadFactory) throws Exception {
+    boolean failed = !warmup.isZero() && run(threadKind, threadFactory, warmup, false);
+    return run(threadKind, threadFactory, duration, true) || failed;
+  }
+
+  private boolean run(String threadKind, ThreadFactory threadFactory, Duration duration, boolean report) throws Exception {
+    StandInServer server = new StandInServer(roundTripNanos);
+    CacheableStatement[] statements = new CacheableStatement[distinctSql];
+    for (int i = 0; i < distinctSql; i++) {
+      String sql = QUERY + " /* " + i + " */";
+      server.registerQuery(sql, StandInQuery.varchar(10, row -> new Object[]{"X"}, "DUMMY"));
+      statements[i] = mode.createStatement(sql, i);
+    }
+    OracleConnection[] shared = new OracleConnection[connections];
+    for (int i = 0; i < connections; i++) {
+      shared[i] = mode.connect(server, cacheSize);
+    }
+    List<Set<OraclePreparedStatement>> checkedOut = new ArrayList<>(VERIFIER_STRIPES);
+    for (int i = 0; i < VERIFIER_STRIPES; i++) {
+      checkedOut.add(Collections.newSetFromMap(new IdentityHashMap<>()));
+    }
+    LongAdder operations = new LongAdder();
+    LongAdder doubleCheckOuts = new LongAdder();
+    AtomicReference<Throwable> failure = new AtomicReference<>();
+    Worker[] workers = new Worker[threads];
+    Thread[] running = new Thread[threads];
+    long deadline = System.nanoTime() + duration.toNanos();
+
+    Path jfrFile = Files.createTempFile("contention", ".jfr");
+    try (Recording recording = new Recording()) {
+      recording.enable("jdk.JavaMonitorEnter").withThreshold(jfrThreshold);
+      recording.enable("jdk.VirtualThreadPinned").withThreshold(jfrThreshold);
+      recording.start();
+      long start = System.nanoTime();
+      for (int t = 0; t < threads; t++) {
+        Worker worker = new Worker();
+        OracleConnection connection = shared[t % connections];
+        workers[t] = worker;
+        running[t] = threadFactory.newThread(() -> {
+          try {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            while (System.nanoTime() < deadline) {
+              CacheableStatement cacheableStatement = statements[Workload.nextSql(random, cumulativeMix)];
+              long checkOutStart = System.nanoTime();
+              OraclePreparedStatement statement = CachingMode.checkOut(cacheableStatement, connection);
+              worker.checkOut.record(System.nanoTime() - checkOutStart);
+
+              Set<OraclePreparedStatement> stripe = checkedOut.get((System.identityHashCode(statement) & 0x7fffffff) % VERIFIER_STRIPES);
+              synchronized (stripe) {
+                if (!stripe.add(statement)) {
+                  doubleCheckOuts.increment();
+                }
+              }
+              if (execute) {
+                statement.setString(1, "X");
+                try (ResultSet resultSet = cacheableStatement.executeQuery(statement)) {
+                  resultSet.next();
+                }
+              }
+              synchronized (stripe) {
+                stripe.remove(statement);
+              }
+
+              long closeStart = System.nanoTime();
+              cacheableStatement.closePreparedStatement(statement);
+              worker.closing.record(System.nanoTime() - closeStart);
+              operations.increment();
+            }
+          } catch (Throwable e) {
+            failure.compareAndSet(null, e);
+          }
+        });
+        running[t].start();
+      }
+      for (Thread thread : running) {
+        thread.join();
+      }
+      long elapsed = System.nanoTime() - start;
+      recording.stop();
+      recording.dump(jfrFile);
+
+      if (failure.get() != null) {
+        throw new IllegalStateException("Worker failed", failure.get());
+      }
+      if (report) {
+        report(threadKind, server, elapsed, operations.sum(), workers, doubleCheckOuts.sum(), monitorStats(jfrFile));
+      }
+    } finally {
+      Files.deleteIfExists(jfrFile);
+      for (OracleConnection connection : shared) {
+        CachingMode.close(connection);
+      }
+    }
+    return doubleCheckOuts.sum() > 0;
+  }
+
+  private void report(String threadKind, StandInServer server, long elapsedNanos, long operations, Worker[] workers, long doubleCheckOuts, Map<String, MonitorStats> monitors) {
+    LatencyHistogram checkOut = new LatencyHistogram();
+    LatencyHistogram closing = new LatencyHistogram();
+    for (Worker worker : workers) {
+      checkOut.add(worker.checkOut);
+      closing.add(worker.closing);
+    }
+    System.out.printf("%n%s, %d %s threads, %d connections, cache size %d, %d SQL texts%n", mode, threads, threadKind, connections, cacheSize, distinctSql);
+    System.out.printf("  throughput      %,12.0f ops/s%n", operations * 1e9 / elapsedNanos);
+    System.out.printf("  parses          %,12d (%.2f%% of checkouts)%n", server.getRoundTrips(RoundTrip.PARSE),
+        100.0 * server.getRoundTrips(RoundTrip.PARSE) / Math.max(operations, 1));
+    System.out.printf("  %-14s %10s %10s %10s %10s  (ns)%n", "", "p50", "p99", "p999", "max");
+    printLatencies("checkout", checkOut);
+    printLatencies("return", closing);
+    System.out.printf("  monitor enters >= %d us:%n", jfrThreshold.toNanos() / 1000);
+    if (monitors.isEmpty()) {
+      System.out.println("    none");
+    }
+    for (Map.Entry<String, MonitorStats> entry : monitors.entrySet()) {
+      System.out.printf("    %-60s %,10d events %,10d ms%n", entry.getKey(), entry.getValue().events, entry.getValue().total.toMillis());
+    }
+    if (doubleCheckOuts > 0) {
+      System.out.printf("  FAILED: %d statements were checked out by two threads%n", doubleCheckOuts);
+    }
+  }
+
+  private static void printLatencies(String name, LatencyHistogram histogram) {
+    System.out.printf("  %-14s %10d %10d %10d %10d%n", name, histogram.getPercentile(0.5), histogram.getPercentile(0.99),
+        histogram.getPercentile(0.999), histogram.getMax());
+  }
+
+  /**
+   * Counts the recorded contended monitor enters and pinned virtual threads per monitor class or event type.
+   */
+  private static Map<String, MonitorStats> monitorStats(Path jfrFile) throws IOException {
+    Map<String, MonitorStats> stats = new TreeMap<>();
+    for (RecordedEvent event : RecordingFile.readAllEvents(jfrFile)) {
+      String name = event.getEventType().getName();
+      if (name.equals("jdk.JavaMonitorEnter")) {
+        RecordedClass monitorClass = event.getClass("monitorClass");
+        name = monitorClass == null ? "unknown monitor" : monitorClass.getName();
+      }
+      MonitorStats monitor = stats.computeIfAbsent(name, key -> new MonitorStats());
+      monitor.events++;
+      monitor.total = monitor.total.plus(event.getDuration());
+    }
+    return stats;
+  }
+
+  /**
+   * Returns the factory of virtual threads or {@code null} before Java 21. The module is compiled for Java 11, so the
+   * builder is looked up reflectively.
+   */
+  private static ThreadFactory virtualThreadFactory() {
+    try {
+      Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+      return (ThreadFactory) Class.forName("java.lang.Thread$Builder").getMethod("factory").invoke(builder);
+    } catch (ReflectiveOperationException e) {
+      return null;
+    }
+  }
+}
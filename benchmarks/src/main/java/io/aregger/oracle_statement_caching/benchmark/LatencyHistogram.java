@@ -0,0 +1,70 @@
+package io.aregger.oracle_statement_caching.benchmark;
+
+/**
+ * Histogram of latencies in nanoseconds with logarithmic buckets of 32 linear sub-buckets each, so a percentile is off
+ * by at most 1/32 of its value. Not thread-safe, each thread records into its own histogram and they are merged.
+ */
+final class LatencyHistogram {
+
+  private static final int SUB_BUCKET_BITS = 5;
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+  private final long[] counts = new long[(64 - SUB_BUCKET_BITS) * SUB_BUCKETS];
+  private long total;
+  private long max;
+
+  void record(long nanos) {
+    long value = Math.max(nanos, 0);
+    counts[index(value)]++;
+    total++;
+    max = Math.max(max, value);
+  }
+
+  void add(LatencyHistogram other) {
+    for (int i = 0; i < counts.length; i++) {
+      counts[i] += other.counts[i];
+    }
+    total += other.total;
+    max = Math.max(max, other.max);
+  }
+
+  long getCount() {
+    return total;
+  }
+
+  long getMax() {
+    return max;
+  }
+
+  /**
+   * Returns the upper bound of the bucket containing the given quantile, e.g. 0.99.
+   */
+  long getPercentile(double quantile) {
+    long rank = (long) Math.ceil(quantile * total);
+    long seen = 0;
+    for (int i = 0; i < counts.length; i++) {
+      seen += counts[i];
+      if (seen >= rank && seen > 0) {
+        return Math.min(upperBound(i), max);
+      }
+    }
+    return max;
+  }
+
+  private static int index(long value) {
+    if (value < SUB_BUCKETS) {
+      return (int) value;
+    }
+    int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+    return SUB_BUCKETS + shift * SUB_BUCKETS + (int) (value >>> shift) - SUB_BUCKETS;
+  }
+
+  private static long upperBound(int index) {
+    if (index < SUB_BUCKETS) {
+      return index;
+    }
+    int shift = (index - SUB_BUCKETS) / SUB_BUCKETS;
+    int subBucket = (index - SUB_BUCKETS) % SUB_BUCKETS;
+    return ((long) (SUB_BUCKETS + subBucket) << shift) + (1L << shift) - 1;
+  }
+}
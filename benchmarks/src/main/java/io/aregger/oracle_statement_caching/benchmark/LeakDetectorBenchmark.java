@@ -0,0 +1,106 @@
+package io.aregger.oracle_statement_caching.benchmark;
+
+import io.aregger.oracle_statement_caching.helper.CacheableStatement;
+import io.aregger.oracle_statement_caching.helper.LeakTrackingCacheableStatement;
+import io.aregger.oracle_statement_caching.helper.StatementLeakDetector;
+import oracle.jdbc.OracleConnection;
+import oracle.jdbc.OraclePreparedStatement;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Proxy;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Overhead of {@link LeakTrackingCacheableStatement} on the hit path, with a statement which is always a hit and whose
+ * methods are never called, so only the tracking is measured.
+ * <ul>
+ * <li>{@code stubHit}: checkout and close without tracking</li>
+ * <li>{@code trackedStubHit}: with tracking, the call site of one in 256 checkouts is captured</li>
+ * <li>{@code trackedStubHitEveryCallSite}: with tracking, every call site is captured</li>
+ * </ul>
+ * The detector is shared by all threads, run with {@code -t 8} to see that the tracking does not contend, and with
+ * {@code -prof gc} for the allocation of the sampled stack traces.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LeakDetectorBenchmark {
+
+  /**
+   * The detectors shared by all threads.
+   */
+  @State(Scope.Benchmark)
+  public static class Detectors {
+
+    final StatementLeakDetector sampled = new StatementLeakDetector(Duration.ofMinutes(1));
+    final StatementLeakDetector everyCallSite = new StatementLeakDetector(Duration.ofMinutes(1), 1, 8192);
+  }
+
+  /**
+   * The statements of one thread.
+   */
+  @State(Scope.Thread)
+  public static class Statements {
+
+    CacheableStatement stubStatement;
+    CacheableStatement trackedStubStatement;
+    CacheableStatement everyCallSiteStatement;
+
+    @Setup
+    public void setUp(Detectors detectors) {
+      OraclePreparedStatement stub = (OraclePreparedStatement) Proxy.newProxyInstance(OraclePreparedStatement.class.getClassLoader(),
+          new Class<?>[]{OraclePreparedStatement.class}, (proxy, method, args) -> null);
+      stubStatement = new CacheableStatement() {
+        @Override
+        public String getSql() {
+          return StatementCacheBenchmark.QUERY;
+        }
+
+        @Override
+        public void closePreparedStatement(OraclePreparedStatement statement) {
+        }
+
+        @Override
+        public OraclePreparedStatement getCachedStatement(OracleConnection connection) {
+          return stub;
+        }
+      };
+      trackedStubStatement = new LeakTrackingCacheableStatement(stubStatement, detectors.sampled);
+      everyCallSiteStatement = new LeakTrackingCacheableStatement(stubStatement, detectors.everyCallSite);
+    }
+  }
+
+  @Benchmark
+  public OraclePreparedStatement stubHit(Statements statements) throws SQLException {
+    OraclePreparedStatement statement = statements.stubStatement.getCachedStatement(null);
+    statements.stubStatement.closePreparedStatement(statement);
+    return statement;
+  }
+
+  @Benchmark
+  public OraclePreparedStatement trackedStubHit(Statements statements) throws SQLException {
+    OraclePreparedStatement statement = statements.trackedStubStatement.getCachedStatement(null);
+    statements.trackedStubStatement.closePreparedStatement(statement);
+    return statement;
+  }
+
+  @Benchmark
+  public OraclePreparedStatement trackedStubHitEveryCallSite(Statements statements) throws SQLException {
+    OraclePreparedStatement statement = statements.everyCallSiteStatement.getCachedStatement(null);
+    statements.everyCallSiteStatement.closePreparedStatement(statement);
+    return statement;
+  }
+}
@@ -0,0 +1,165 @@
+package io.aregger.oracle_statement_caching.benchmark;
+
+import io.aregger.oracle_statement_caching.helper.CacheMetrics;
+import io.aregger.oracle_statement_caching.helper.CacheableStatement;
+import io.aregger.oracle_statement_caching.helper.ImplicitCacheableStatement;
+import io.aregger.oracle_statement_caching.helper.LruCacheableStatement;
+import io.aregger.oracle_statement_caching.helper.MeteredCacheableStatement;
+import io.aregger.oracle_statement_caching.standin.StandInServer;
+import oracle.jdbc.OracleConnection;
+import oracle.jdbc.OraclePreparedStatement;
+import oracle.jdbc.OracleStatement;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Proxy;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Overhead of {@link MeteredCacheableStatement} on the hit path.
+ * <ul>
+ * <li>{@code implicitHit} and {@code meteredImplicitHit}: checkout and close of the stand-in without and with the
+ * decorator</li>
+ * <li>{@code lruHit} and {@code meteredLruHit}: the same with the {@code StatementCache} of the connection, whose hits
+ * the decorator asks the cache for</li>
+ * <li>{@code stubHit} and {@code meteredStubHit}: checkout and close of a statement which is always a hit and whose
+ * methods return constants, plus in {@code stubHit} the statement calls the decorator makes</li>
+ * </ul>
+ * The stand-in answers every statement call through a reflective proxy, whose cost varies with inlining by more than
+ * the metrics cost, so only {@code meteredStubHit - stubHit} measures the bookkeeping of the decorator: counting,
+ * sampling the latency and comparing the properties. With the thin driver the statement calls read fields. Run with
+ * {@code -prof gc} to see that the decorator does not allocate on top of the boxing of the proxies, and with
+ * {@code -t 8} for striped recording under contention.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MeteredCacheBenchmark {
+
+  private OracleConnection connection;
+  private CacheableStatement implicitStatement;
+  private CacheableStatement meteredImplicitStatement;
+
+  private OracleConnection lruConnection;
+  private CacheableStatement lruStatement;
+  private CacheableStatement meteredLruStatement;
+
+  private OraclePreparedStatement stub;
+  private CacheableStatement stubStatement;
+  private CacheableStatement meteredStubStatement;
+
+  @Setup
+  public void setUp() throws SQLException {
+    connection = CachingMode.IMPLICIT.connect(new StandInServer(0), 20);
+    implicitStatement = new ImplicitCacheableStatement(StatementCacheBenchmark.QUERY);
+    meteredImplicitStatement = new MeteredCacheableStatement(new ImplicitCacheableStatement(StatementCacheBenchmark.QUERY + " /* metered */"), new CacheMetrics());
+    // the first checkout is the miss
+    meteredImplicitStatement.closePreparedStatement(meteredImplicitStatement.getCachedStatement(connection));
+
+    lruConnection = CachingMode.LRU.connect(new StandInServer(0), 20);
+    lruStatement = new LruCacheableStatement(StatementCacheBenchmark.QUERY);
+    meteredLruStatement = new MeteredCacheableStatement(new LruCacheableStatement(StatementCacheBenchmark.QUERY + " /* metered */"), new CacheMetrics());
+    meteredLruStatement.closePreparedStatement(meteredLruStatement.getCachedStatement(lruConnection));
+
+    int[] creationState = {OracleStatement.NEW};
+    stub = (OraclePreparedStatement) Proxy.newProxyInstance(OraclePreparedStatement.class.getClassLoader(), new Class<?>[]{OraclePreparedStatement.class},
+        (proxy, method, args) -> {
+          switch (method.getName()) {
+            case "creationState":
+              return creationState[0];
+            case "getConnection":
+              return connection;
+            case "getRowPrefetch":
+              return 10;
+            case "getLobPrefetchSize":
+              return 4000;
+            default:
+              return method.getReturnType() == int.class ? 0 : null;
+          }
+        });
+    stubStatement = new CacheableStatement() {
+      @Override
+      public String getSql() {
+        return StatementCacheBenchmark.QUERY;
+      }
+
+      @Override
+      public void closePreparedStatement(OraclePreparedStatement statement) {
+      }
+
+      @Override
+      public OraclePreparedStatement getCachedStatement(OracleConnection connection) {
+        return stub;
+      }
+    };
+    meteredStubStatement = new MeteredCacheableStatement(stubStatement, new CacheMetrics());
+    meteredStubStatement.closePreparedStatement(meteredStubStatement.getCachedStatement(connection));
+    creationState[0] = OracleStatement.IMPLICIT;
+  }
+
+  @TearDown
+  public void tearDown() throws SQLException {
+    CachingMode.close(connection);
+    CachingMode.close(lruConnection);
+  }
+
+  @Benchmark
+  public OraclePreparedStatement implicitHit() throws SQLException {
+    OraclePreparedStatement statement = implicitStatement.getCachedStatement(connection);
+    implicitStatement.closePreparedStatement(statement);
+    return statement;
+  }
+
+  @Benchmark
+  public OraclePreparedStatement meteredImplicitHit() throws SQLException {
+    OraclePreparedStatement statement = meteredImplicitStatement.getCachedStatement(connection);
+    meteredImplicitStatement.closePreparedStatement(statement);
+    return statement;
+  }
+
+  @Benchmark
+  public OraclePreparedStatement lruHit() throws SQLException {
+    OraclePreparedStatement statement = lruStatement.getCachedStatement(lruConnection);
+    lruStatement.closePreparedStatement(statement);
+    return statement;
+  }
+
+  @Benchmark
+  public OraclePreparedStatement meteredLruHit() throws SQLException {
+    OraclePreparedStatement statement = meteredLruStatement.getCachedStatement(lruConnection);
+    meteredLruStatement.closePreparedStatement(statement);
+    return statement;
+  }
+
+  @Benchmark
+  @SuppressWarnings("deprecation")
+  public int stubHit() throws SQLException {
+    OraclePreparedStatement statement = stubStatement.getCachedStatement(connection);
+    int calls = statement.creationState();
+    calls += statement.getConnection() == connection ? 1 : 0;
+    calls += statement.creationState();
+    calls += statement.getRowPrefetch() + statement.getLobPrefetchSize() + statement.getMaxFieldSize() + statement.getQueryTimeout();
+    stubStatement.closePreparedStatement(statement);
+    return calls;
+  }
+
+  @Benchmark
+  public OraclePreparedStatement meteredStubHit() throws SQLException {
+    OraclePreparedStatement statement = meteredStubStatement.getCachedStatement(connection);
+    meteredStubStatement.closePreparedStatement(statement);
+    return statement;
+  }
+}
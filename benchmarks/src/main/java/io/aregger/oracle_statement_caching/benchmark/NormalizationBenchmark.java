@@ -0,0 +1,99 @@
+package io.aregger.oracle_statement_caching.benchmark;
+
+import io.aregger.oracle_statement_caching.helper.NormalizedSql;
+import io.aregger.oracle_statement_caching.helper.PreparedStatementHelper;
+import io.aregger.oracle_statement_caching.helper.SqlNormalizer;
+import io.aregger.oracle_statement_caching.standin.StandInServer;
+import oracle.jdbc.OracleConnection;
+import oracle.jdbc.OraclePreparedStatement;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the {@link SqlNormalizer} compared to the parse it saves, for statements which differ only in a literal.
+ * <ul>
+ * <li>{@code rewriteMemoized}: the rewrite of a SQL text seen before</li>
+ * <li>{@code rewrite}: the rewrite of a SQL text without memo</li>
+ * <li>{@code prepareWithLiterals}: prepare and close with the literal in the SQL text, every text misses the implicit
+ * cache and costs a parse round trip</li>
+ * <li>{@code prepareNormalized}: prepare and close with {@link PreparedStatementHelper#prepareNormalized}, every text
+ * hits the cache entry of the rewritten text</li>
+ * </ul>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class NormalizationBenchmark {
+
+  private static final int DISTINCT_LITERALS = 1000;
+
+  @Param({"0", "100000"})
+  long roundTripNanos;
+
+  private final String[] sqlTexts = new String[DISTINCT_LITERALS];
+  private SqlNormalizer normalizer;
+  private SqlNormalizer unmemoizedNormalizer;
+  private OracleConnection connection;
+  private int next;
+
+  @Setup
+  public void setUp() throws SQLException {
+    for (int i = 0; i < DISTINCT_LITERALS; i++) {
+      sqlTexts[i] = "select c1, c2, c3 from t1 where c2 = 'customer-" + i + "' and c1 > ? and rownum <= 100";
+    }
+    normalizer = new SqlNormalizer(2 * DISTINCT_LITERALS);
+    unmemoizedNormalizer = new SqlNormalizer(0);
+    connection = CachingMode.IMPLICIT.connect(new StandInServer(roundTripNanos), 20);
+  }
+
+  @TearDown
+  public void tearDown() throws SQLException {
+    CachingMode.close(connection);
+  }
+
+  @Benchmark
+  public NormalizedSql rewriteMemoized() {
+    return normalizer.normalize(nextSql());
+  }
+
+  @Benchmark
+  public NormalizedSql rewrite() {
+    return unmemoizedNormalizer.normalize(nextSql());
+  }
+
+  @Benchmark
+  public OraclePreparedStatement prepareWithLiterals() throws SQLException {
+    OraclePreparedStatement statement = PreparedStatementHelper.prepare(connection, nextSql());
+    statement.close();
+    return statement;
+  }
+
+  @Benchmark
+  public OraclePreparedStatement prepareNormalized() throws SQLException {
+    OraclePreparedStatement statement = PreparedStatementHelper.prepareNormalized(connection, nextSql(), normalizer);
+    statement.close();
+    return statement;
+  }
+
+  private String nextSql() {
+    String sql = sqlTexts[next];
+    next = (next + 1) % DISTINCT_LITERALS;
+    return sql;
+  }
+}
@@ -0,0 +1,70 @@
+package io.aregger.oracle_statement_caching.benchmark;
+
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.profile.InternalProfiler;
+import org.openjdk.jmh.results.AggregationPolicy;
+import org.openjdk.jmh.results.IterationResult;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.ScalarResult;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Reports the peak heap usage of an iteration. {@code peak.heap} is the sum of the peaks of all heap pools, an upper
+ * bound as the pools may peak at different times, {@code peak.heap.old} the peak of the pools which survive a young
+ * collection, which grows with the data a benchmark retains. Run with {@code -prof
+ * io.aregger.oracle_statement_caching.benchmark.PeakHeapProfiler}.
+ */
+public class PeakHeapProfiler implements InternalProfiler {
+
+  @Override
+  public String getDescription() {
+    return "Peak heap usage per iteration";
+  }
+
+  @Override
+  public void beforeIteration(BenchmarkParams benchmarkParams, IterationParams iterationParams) {
+    System.gc();
+    for (MemoryPoolMXBean pool : heapPools()) {
+      pool.resetPeakUsage();
+    }
+  }
+
+  @Override
+  @SuppressWarnings("rawtypes") // the signature of InternalProfiler
+  public Collection<? extends Result> afterIteration(BenchmarkParams benchmarkParams, IterationParams iterationParams, IterationResult result) {
+    long peak = 0;
+    long oldPeak = 0;
+    for (MemoryPoolMXBean pool : heapPools()) {
+      long used = pool.getPeakUsage().getUsed();
+      peak += used;
+      if (isOld(pool.getName())) {
+        oldPeak += used;
+      }
+    }
+    List<ScalarResult> results = new ArrayList<>();
+    results.add(new ScalarResult("peak.heap", peak / (1024.0 * 1024.0), "MB", AggregationPolicy.MAX));
+    results.add(new ScalarResult("peak.heap.old", oldPeak / (1024.0 * 1024.0), "MB", AggregationPolicy.MAX));
+    return results;
+  }
+
+  private static List<MemoryPoolMXBean> heapPools() {
+    List<MemoryPoolMXBean> pools = new ArrayList<>();
+    for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+      if (pool.getType() == MemoryType.HEAP) {
+        pools.add(pool);
+      }
+    }
+    return pools;
+  }
+
+  private static boolean isOld(String poolName) {
+    return poolName.contains("Old") || poolName.contains("Tenured");
+  }
+}
@@ -0,0 +1,95 @@
+package io.aregger.oracle_statement_caching.benchmark;
+
+import io.aregger.oracle_statement_caching.helper.CacheableStatement;
+import io.aregger.oracle_statement_caching.helper.ImplicitCacheableStatement;
+import io.aregger.oracle_statement_caching.helper.PropertyPreservingCacheableStatement;
+import io.aregger.oracle_statement_caching.standin.StandInServer;
+import oracle.jdbc.OracleConnection;
+import oracle.jdbc.OraclePreparedStatement;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of an implicit cache hit with and without re-applying the tuned statement properties.
+ * <ul>
+ * <li>{@code implicitHit}: checkout and close, the properties are the defaults</li>
+ * <li>{@code implicitHitRetuned}: checkout, set the four properties by hand and close, what a call site does today</li>
+ * <li>{@code propertyPreservingHit}: checkout and close with {@link PropertyPreservingCacheableStatement}</li>
+ * </ul>
+ * Every getter and setter is a call through the proxy of the stand-in, which costs more than the field access of the
+ * thin driver, so the difference to {@code implicitHit} is an upper bound of the re-apply cost.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PropertyPreservingBenchmark {
+
+  private static final int PREFETCH_SIZE = 1000;
+  private static final int LOB_PREFETCH_SIZE = 8000;
+  private static final int MAX_FIELD_SIZE = 100;
+  private static final int QUERY_TIMEOUT = 100;
+
+  private OracleConnection connection;
+  private CacheableStatement implicitStatement;
+  private CacheableStatement propertyPreservingStatement;
+
+  @Setup
+  public void setUp() throws SQLException {
+    connection = CachingMode.IMPLICIT.connect(new StandInServer(0), 20);
+    implicitStatement = new ImplicitCacheableStatement(StatementCacheBenchmark.QUERY);
+    propertyPreservingStatement = new PropertyPreservingCacheableStatement(StatementCacheBenchmark.QUERY + " /* preserving */");
+
+    OraclePreparedStatement statement = propertyPreservingStatement.getCachedStatement(connection);
+    tune(statement);
+    propertyPreservingStatement.closePreparedStatement(statement);
+  }
+
+  @TearDown
+  public void tearDown() throws SQLException {
+    CachingMode.close(connection);
+  }
+
+  @Benchmark
+  public OraclePreparedStatement implicitHit() throws SQLException {
+    OraclePreparedStatement statement = implicitStatement.getCachedStatement(connection);
+    implicitStatement.closePreparedStatement(statement);
+    return statement;
+  }
+
+  @Benchmark
+  public OraclePreparedStatement implicitHitRetuned() throws SQLException {
+    OraclePreparedStatement statement = implicitStatement.getCachedStatement(connection);
+    tune(statement);
+    implicitStatement.closePreparedStatement(statement);
+    return statement;
+  }
+
+  @Benchmark
+  public OraclePreparedStatement propertyPreservingHit() throws SQLException {
+    OraclePreparedStatement statement = propertyPreservingStatement.getCachedStatement(connection);
+    propertyPreservingStatement.closePreparedStatement(statement);
+    return statement;
+  }
+
+  private static void tune(OraclePreparedStatement statement) throws SQLException {
+    statement.setRowPrefetch(PREFETCH_SIZE);
+    statement.setLobPrefetchSize(LOB_PREFETCH_SIZE);
+    statement.setMaxFieldSize(MAX_FIELD_SIZE);
+    statement.setQueryTimeout(QUERY_TIMEOUT);
+  }
+}
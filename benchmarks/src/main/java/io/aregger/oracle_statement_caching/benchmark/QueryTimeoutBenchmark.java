@@ -0,0 +1,149 @@
+package io.aregger.oracle_statement_caching.benchmark;
+
+import io.aregger.oracle_statement_caching.helper.CacheableStatement;
+import io.aregger.oracle_statement_caching.helper.ImplicitCacheableStatement;
+import io.aregger.oracle_statement_caching.helper.QueryTimeouts;
+import io.aregger.oracle_statement_caching.standin.StandInServer;
+import oracle.jdbc.OracleConnection;
+import oracle.jdbc.OraclePreparedStatement;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Executions per second of an implicitly cached query with a timeout, from 8 threads with a connection each: without a
+ * timeout ({@code noTimeout}), with a cancel task scheduled per execution on a shared
+ * {@link ScheduledThreadPoolExecutor} ({@code scheduledTask}) and with the timing wheel of {@link QueryTimeouts}
+ * ({@code timingWheel}). None of the timeouts fires.
+ * <p>
+ * The stand-in does not model the timeout thread of the driver, so {@code setQueryTimeout} is not part of the
+ * comparison, the scheduled task is the per-execution timer an application sets up itself. Run with {@code -prof gc} to
+ * get the allocation per execution ({@code gc.alloc.rate.norm}).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+public class QueryTimeoutBenchmark {
+
+  private static final String QUERY = "select * from dual where dummy = ?";
+  private static final long TIMEOUT_MILLIS = 30_000;
+
+  /**
+   * The timer services shared by all threads.
+   */
+  @State(Scope.Benchmark)
+  public static class Timers {
+
+    ScheduledThreadPoolExecutor executor;
+    QueryTimeouts timeouts;
+
+    @Setup
+    public void setUp() {
+      executor = new ScheduledThreadPoolExecutor(1);
+      executor.setRemoveOnCancelPolicy(true);
+      timeouts = new QueryTimeouts();
+    }
+
+    @TearDown
+    public void tearDown() {
+      executor.shutdownNow();
+      timeouts.close();
+    }
+  }
+
+  /**
+   * The connection of one thread.
+   */
+  @State(Scope.Thread)
+  public static class Session {
+
+    @Param({"0"})
+    long roundTripNanos;
+
+    OracleConnection connection;
+    CacheableStatement statement = new ImplicitCacheableStatement(QUERY);
+
+    @Setup
+    public void setUp() throws SQLException {
+      connection = CachingMode.IMPLICIT.connect(new StandInServer(roundTripNanos), 20);
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+      CachingMode.close(connection);
+    }
+  }
+
+  @Benchmark
+  public int noTimeout(Session session) throws SQLException {
+    OraclePreparedStatement statement = session.statement.getCachedStatement(session.connection);
+    try {
+      return execute(statement);
+    } finally {
+      session.statement.closePreparedStatement(statement);
+    }
+  }
+
+  @Benchmark
+  public int scheduledTask(Session session, Timers timers) throws SQLException {
+    OraclePreparedStatement statement = session.statement.getCachedStatement(session.connection);
+    ScheduledFuture<?> timeout = timers.executor.schedule(() -> cancel(statement), TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+    try {
+      return execute(statement);
+    } finally {
+      timeout.cancel(false);
+      session.statement.closePreparedStatement(statement);
+    }
+  }
+
+  @Benchmark
+  public int timingWheel(Session session, Timers timers) throws SQLException {
+    OraclePreparedStatement statement = session.statement.getCachedStatement(session.connection);
+    QueryTimeouts.Timeout timeout = timers.timeouts.arm(statement, TIMEOUT_MILLIS);
+    try {
+      return execute(statement);
+    } finally {
+      timeout.disarm();
+      session.statement.closePreparedStatement(statement);
+    }
+  }
+
+  private static int execute(OraclePreparedStatement statement) throws SQLException {
+    statement.setString(1, "X");
+    int length = 0;
+    try (ResultSet resultSet = statement.executeQuery()) {
+      while (resultSet.next()) {
+        length += resultSet.getString(1).length();
+      }
+    }
+    return length;
+  }
+
+  private static void cancel(Statement statement) {
+    try {
+      statement.cancel();
+    } catch (SQLException e) {
+      // the execution completed
+    }
+  }
+}
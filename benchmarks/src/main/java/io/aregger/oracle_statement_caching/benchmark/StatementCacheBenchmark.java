@@ -0,0 +1,89 @@
+package io.aregger.oracle_statement_caching.benchmark;
+
+import io.aregger.oracle_statement_caching.helper.CacheableStatement;
+import io.aregger.oracle_statement_caching.standin.StandInQuery;
+import io.aregger.oracle_statement_caching.standin.StandInServer;
+import oracle.jdbc.OracleConnection;
+import oracle.jdbc.OraclePreparedStatement;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Prepare/execute/close cycles per second of the caching methods. The statements cycle round robin through
+ * {@code distinctSql} SQL texts, so with more texts than cache slots every cycle is a cache miss.
+ * <p>
+ * Run with {@code -prof gc} to get the allocation per cycle ({@code gc.alloc.rate.norm}).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class StatementCacheBenchmark {
+
+  static final String QUERY = "select * from dual where dummy = ? connect by rownum <= 10";
+
+  @Param({"NONE", "IMPLICIT", "EXPLICIT", "LRU"})
+  CachingMode cachingMode;
+
+  @Param({"20", "100"})
+  int cacheSize;
+
+  @Param({"1", "10", "50", "200"})
+  int distinctSql;
+
+  @Param({"0", "50000"})
+  long roundTripNanos;
+
+  private OracleConnection connection;
+  private CacheableStatement[] statements;
+  private int next;
+
+  @Setup
+  public void setUp() throws SQLException {
+    StandInServer server = new StandInServer(roundTripNanos);
+    statements = new CacheableStatement[distinctSql];
+    for (int i = 0; i < distinctSql; i++) {
+      String sql = QUERY + " /* " + i + " */";
+      server.registerQuery(sql, StandInQuery.varchar(10, row -> new Object[]{"X"}, "DUMMY"));
+      statements[i] = cachingMode.createStatement(sql, i);
+    }
+    connection = cachingMode.connect(server, cacheSize);
+  }
+
+  @TearDown
+  public void tearDown() throws SQLException {
+    CachingMode.close(connection);
+  }
+
+  @Benchmark
+  public int prepareExecuteClose() throws SQLException {
+    CacheableStatement cacheableStatement = statements[next];
+    next = (next + 1) % statements.length;
+
+    OraclePreparedStatement statement = CachingMode.checkOut(cacheableStatement, connection);
+    statement.setString(1, "X");
+    int rows = 0;
+    ResultSet resultSet = statement.executeQuery();
+    while (resultSet.next()) {
+      rows++;
+    }
+    cacheableStatement.closePreparedStatement(statement);
+    return rows;
+  }
+}
@@ -0,0 +1,169 @@
+package io.aregger.oracle_statement_caching.benchmark;
+
+import io.aregger.oracle_statement_caching.helper.CacheableStatement;
+import io.aregger.oracle_statement_caching.helper.StatementCache;
+import io.aregger.oracle_statement_caching.standin.StandInQuery;
+import io.aregger.oracle_statement_caching.standin.StandInServer;
+import oracle.jdbc.OracleConnection;
+import oracle.jdbc.OraclePreparedStatement;
+import org.openjdk.jol.info.GraphLayout;
+
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Measures the heap retained per cache entry for every caching mode, with the scenarios of {@code StatementCacheTest}:
+ * a query with tuned row and LOB prefetch, a batch and a stream bound string. The retained heap is the difference of the
+ * object graph reachable from the connection, measured with JOL, before and after filling the cache, divided by the
+ * number of entries.
+ * <p>
+ * Without arguments the measurement runs against the stand-in server, which models the define buffers and bind data of
+ * the thin driver but not its exact layout. Pass a JDBC URL to measure the driver against a database, the table
+ * {@code T1} of the user is dropped and re-created.
+ */
+public final class StatementFootprint {
+
+  private static final int ENTRIES = 20;
+  private static final int BATCH_SIZE = 100;
+  // strings longer than 32766 characters are stream bound
+  private static final int STREAM_BIND_LENGTH = 100_000;
+
+  private static final int[] ROW_PREFETCH_SIZES = {10, 100, 1000};
+  private static final int[] LOB_PREFETCH_SIZES = {4000, 32000};
+
+  private enum Scenario {
+
+    QUERY {
+      @Override
+      String getSql(int index) {
+        return "select c2, c3 from t1 where c2 = ? and " + index + " = " + index;
+      }
+
+      @Override
+      void run(OraclePreparedStatement statement, int rowPrefetch, int lobPrefetch) throws SQLException {
+        statement.setRowPrefetch(rowPrefetch);
+        statement.setLobPrefetchSize(lobPrefetch);
+        statement.setString(1, "X");
+        ResultSet resultSet = statement.executeQuery();
+        resultSet.next();
+      }
+    },
+
+    BATCH {
+      @Override
+      String getSql(int index) {
+        return "insert into t1 (c2, c3) values ('" + index + "', ?)";
+      }
+
+      @Override
+      void run(OraclePreparedStatement statement, int rowPrefetch, int lobPrefetch) throws SQLException {
+        for (int i = 0; i < BATCH_SIZE; i++) {
+          statement.setString(1, "X");
+          statement.addBatch();
+        }
+        statement.executeBatch();
+      }
+    },
+
+    STREAM_BIND {
+      @Override
+      String getSql(int index) {
+        return "insert into t1 (c2, c3) values ('" + index + "', ?)";
+      }
+
+      @Override
+      void run(OraclePreparedStatement statement, int rowPrefetch, int lobPrefetch) throws SQLException {
+        char[] chars = new char[STREAM_BIND_LENGTH];
+        Arrays.fill(chars, 'b');
+        statement.setString(1, String.valueOf(chars));
+        statement.executeUpdate();
+      }
+    };
+
+    abstract String getSql(int index);
+
+    abstract void run(OraclePreparedStatement statement, int rowPrefetch, int lobPrefetch) throws SQLException;
+  }
+
+  private interface ConnectionSource {
+    OracleConnection open() throws SQLException;
+  }
+
+  private StatementFootprint() {
+    throw new AssertionError("non-instantiable class");
+  }
+
+  public static void main(String[] args) throws SQLException {
+    ConnectionSource source = args.length == 0 ? StatementFootprint::openStandIn : database(args[0]);
+
+    System.out.printf("Retained heap per cache entry, %d entries%n%n", ENTRIES);
+    System.out.printf("%-10s %-12s %12s %12s %16s%n", "mode", "scenario", "rowPrefetch", "lobPrefetch", "bytes/entry");
+    for (CachingMode mode : CachingMode.values()) {
+      for (int rowPrefetch : ROW_PREFETCH_SIZES) {
+        for (int lobPrefetch : LOB_PREFETCH_SIZES) {
+          long bytes = measure(source, mode, Scenario.QUERY, rowPrefetch, lobPrefetch);
+          System.out.printf("%-10s %-12s %12d %12d %16d%n", mode, Scenario.QUERY, rowPrefetch, lobPrefetch, bytes);
+        }
+      }
+      for (Scenario scenario : Arrays.asList(Scenario.BATCH, Scenario.STREAM_BIND)) {
+        long bytes = measure(source, mode, scenario, 0, 0);
+        System.out.printf("%-10s %-12s %12s %12s %16d%n", mode, scenario, "-", "-", bytes);
+      }
+    }
+  }
+
+  private static long measure(ConnectionSource source, CachingMode mode, Scenario scenario, int rowPrefetch, int lobPrefetch) throws SQLException {
+    OracleConnection connection = source.open();
+    try {
+      mode.configure(connection, ENTRIES);
+      long before = footprint(connection);
+      for (int i = 0; i < ENTRIES; i++) {
+        CacheableStatement cacheableStatement = mode.createStatement(scenario.getSql(i), i);
+        OraclePreparedStatement statement = CachingMode.checkOut(cacheableStatement, connection);
+        scenario.run(statement, rowPrefetch, lobPrefetch);
+        cacheableStatement.closePreparedStatement(statement);
+      }
+      return (footprint(connection) - before) / ENTRIES;
+    } finally {
+      CachingMode.close(connection);
+    }
+  }
+
+  /**
+   * Size of the object graph reachable from the connection and from its {@link StatementCache}, if any.
+   */
+  private static long footprint(OracleConnection connection) throws SQLException {
+    Object[] roots = Arrays.stream(new Object[]{connection, StatementCache.get(connection)})
+        .filter(Objects::nonNull)
+        .toArray();
+    return GraphLayout.parseInstance(roots).totalSize();
+  }
+
+  private static OracleConnection openStandIn() {
+    StandInServer server = new StandInServer(0);
+    StandInQuery query = new StandInQuery(new String[]{"C2", "C3"}, new int[]{Types.VARCHAR, Types.CLOB}, BATCH_SIZE, row -> new Object[]{"X", "c"})
+        .withColumnDisplaySizes(10, 86);
+    for (int i = 0; i < ENTRIES; i++) {
+      server.registerQuery(Scenario.QUERY.getSql(i), query);
+    }
+    return server.connect();
+  }
+
+  private static ConnectionSource database(String url) throws SQLException {
+    try (OracleConnection connection = DriverManager.getConnection(url).unwrap(OracleConnection.class);
+         Statement statement = connection.createStatement()) {
+      ResultSet resultSet = statement.executeQuery("select count(*) from user_tables where table_name = 'T1'");
+      resultSet.next();
+      if (resultSet.getInt(1) > 0) {
+        statement.execute("drop table t1");
+      }
+      statement.execute("create table t1 (c1 NUMBER GENERATED by default on null as IDENTITY, c2 varchar2(10), c3 clob)");
+    }
+    return () -> DriverManager.getConnection(url).unwrap(OracleConnection.class);
+  }
+}
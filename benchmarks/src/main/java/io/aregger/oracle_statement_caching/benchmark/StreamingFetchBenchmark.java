@@ -0,0 +1,89 @@
+package io.aregger.oracle_statement_caching.benchmark;
+
+import io.aregger.oracle_statement_caching.helper.CacheableStatement;
+import io.aregger.oracle_statement_caching.helper.ImplicitCacheableStatement;
+import io.aregger.oracle_statement_caching.standin.StandInQuery;
+import io.aregger.oracle_statement_caching.standin.StandInServer;
+import oracle.jdbc.OracleConnection;
+import oracle.jdbc.OraclePreparedStatement;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to fetch a large result set through an implicitly cached statement with scroll-insensitive, updatable result
+ * sets ({@code streaming=false}) and with forward-only, read-only result sets ({@code streaming=true}). The first keeps
+ * every row and its ROWID until the result set is closed, the second only the current row.
+ * <p>
+ * Run with {@code -prof io.aregger.oracle_statement_caching.benchmark.PeakHeapProfiler} to get the peak heap per
+ * iteration.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx1g")
+@State(Scope.Thread)
+public class StreamingFetchBenchmark {
+
+  private static final String QUERY = "select id, name, payload from export_source where batch = ?";
+  private static final int ROW_PREFETCH = 500;
+
+  @Param({"false", "true"})
+  boolean streaming;
+
+  @Param({"10000", "100000", "1000000"})
+  int rows;
+
+  @Param({"0"})
+  long roundTripNanos;
+
+  private OracleConnection connection;
+  private CacheableStatement statement;
+
+  @Setup
+  public void setUp() throws SQLException {
+    StandInServer server = new StandInServer(roundTripNanos);
+    server.registerQuery(QUERY, new StandInQuery(
+        new String[]{"ID", "NAME", "PAYLOAD"},
+        new int[]{Types.NUMERIC, Types.VARCHAR, Types.VARCHAR},
+        rows,
+        row -> new Object[]{row, "name-" + row, "payload of row " + row + " with some more text to fill it"})
+        .withColumnDisplaySizes(22, 30, 100));
+    connection = CachingMode.IMPLICIT.connect(server, 20);
+    statement = new ImplicitCacheableStatement(QUERY, streaming);
+  }
+
+  @TearDown
+  public void tearDown() throws SQLException {
+    CachingMode.close(connection);
+  }
+
+  @Benchmark
+  public long fetchAll() throws SQLException {
+    OraclePreparedStatement preparedStatement = statement.getCachedStatement(connection);
+    preparedStatement.setRowPrefetch(ROW_PREFETCH);
+    preparedStatement.setString(1, "X");
+    long checksum = 0;
+    ResultSet resultSet = statement.executeQuery(preparedStatement);
+    while (resultSet.next()) {
+      checksum += resultSet.getLong(1) + resultSet.getString(2).length() + resultSet.getString(3).length();
+    }
+    statement.closePreparedStatement(preparedStatement);
+    return checksum;
+  }
+}
@@ -0,0 +1,127 @@
+package io.aregger.oracle_statement_caching.benchmark;
+
+import io.aregger.oracle_statement_caching.helper.CacheableStatement;
+import io.aregger.oracle_statement_caching.helper.ImplicitCacheableStatement;
+import io.aregger.oracle_statement_caching.helper.StreamingBinds;
+import io.aregger.oracle_statement_caching.standin.StandInServer;
+import oracle.jdbc.OracleConnection;
+import oracle.jdbc.OraclePreparedStatement;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to insert a large CLOB through an implicitly cached statement, read from a reader into a {@code String} which is
+ * bound with {@code setString} ({@code materialized}) and bound as a stream with {@link StreamingBinds}
+ * ({@code streamed}). The first needs the whole value and the buffers it was built in on the heap, the second one chunk.
+ * <p>
+ * Run with {@code -prof io.aregger.oracle_statement_caching.benchmark.PeakHeapProfiler} to get the peak heap per
+ * iteration.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Thread)
+public class StreamingLobBindBenchmark {
+
+  private static final String INSERT = "insert into documents (id, body) values (?, ?)";
+
+  @Param({"1048576", "10485760", "104857600"})
+  long lobSize;
+
+  @Param({"0"})
+  long roundTripNanos;
+
+  private StandInServer server;
+  private OracleConnection connection;
+  private CacheableStatement statement;
+
+  @Setup
+  public void setUp() throws SQLException {
+    server = new StandInServer(roundTripNanos);
+    connection = CachingMode.IMPLICIT.connect(server, 20);
+    statement = new ImplicitCacheableStatement(INSERT);
+  }
+
+  @TearDown
+  public void tearDown() throws SQLException {
+    CachingMode.close(connection);
+  }
+
+  @Benchmark
+  public int materialized() throws SQLException, IOException {
+    String body = readFully(new GeneratedReader(lobSize));
+    OraclePreparedStatement preparedStatement = statement.getCachedStatement(connection);
+    preparedStatement.setLong(1, 1);
+    preparedStatement.setString(2, body);
+    int rows = preparedStatement.executeUpdate();
+    statement.closePreparedStatement(preparedStatement);
+    return rows;
+  }
+
+  @Benchmark
+  public long streamed() throws SQLException {
+    OraclePreparedStatement preparedStatement = statement.getCachedStatement(connection);
+    try (StreamingBinds binds = new StreamingBinds(preparedStatement)) {
+      preparedStatement.setLong(1, 1);
+      binds.setClob(2, new GeneratedReader(lobSize), -1);
+      preparedStatement.executeUpdate();
+    }
+    statement.closePreparedStatement(preparedStatement);
+    return server.getStreamedLength();
+  }
+
+  private static String readFully(Reader reader) throws IOException {
+    StringBuilder builder = new StringBuilder();
+    char[] buffer = new char[StreamingBinds.DEFAULT_CHUNK_SIZE];
+    int read;
+    while ((read = reader.read(buffer)) >= 0) {
+      builder.append(buffer, 0, read);
+    }
+    return builder.toString();
+  }
+
+  /**
+   * Generates text without a backing string, like a reader over a file or a network stream.
+   */
+  private static final class GeneratedReader extends Reader {
+
+    private long remaining;
+
+    private GeneratedReader(long length) {
+      this.remaining = length;
+    }
+
+    @Override
+    public int read(char[] buffer, int offset, int len) {
+      if (remaining == 0) {
+        return -1;
+      }
+      int n = (int) Math.min(len, remaining);
+      Arrays.fill(buffer, offset, offset + n, 'x');
+      remaining -= n;
+      return n;
+    }
+
+    @Override
+    public void close() {
+    }
+  }
+}
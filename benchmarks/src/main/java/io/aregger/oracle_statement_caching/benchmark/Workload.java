@@ -0,0 +1,64 @@
+package io.aregger.oracle_statement_caching.benchmark;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Command line options and the skewed SQL mix shared by the stand-alone workloads {@link ContentionStress} and
+ * {@link AutoSizeConvergence}.
+ */
+final class Workload {
+
+  private Workload() {
+    throw new AssertionError("non-instantiable class");
+  }
+
+  /**
+   * Parses arguments of the form {@code name=value}, in order.
+   */
+  static Map<String, String> options(String[] args) {
+    Map<String, String> options = new LinkedHashMap<>();
+    for (String arg : args) {
+      int separator = arg.indexOf('=');
+      if (separator < 0) {
+        throw new IllegalArgumentException("Expected name=value: " + arg);
+      }
+      options.put(arg.substring(0, separator), arg.substring(separator + 1));
+    }
+    return options;
+  }
+
+  /**
+   * Removes an option and returns its value, so the options left over at the end are unknown ones.
+   */
+  static String option(Map<String, String> options, String name, String defaultValue) {
+    String value = options.remove(name);
+    return value != null ? value : defaultValue;
+  }
+
+  /**
+   * Returns the cumulative probabilities of a Zipf distribution, the SQL text with index 0 is the most frequent one.
+   */
+  static double[] zipf(int size, double exponent) {
+    double[] cumulative = new double[size];
+    double sum = 0;
+    for (int i = 0; i < size; i++) {
+      sum += 1 / Math.pow(i + 1, exponent);
+      cumulative[i] = sum;
+    }
+    for (int i = 0; i < size; i++) {
+      cumulative[i] /= sum;
+    }
+    return cumulative;
+  }
+
+  /**
+   * Returns the index of a SQL text drawn from the cumulative probabilities of {@link #zipf}.
+   */
+  static int nextSql(Random random, double[] cumulativeMix) {
+    int index = Arrays.binarySearch(cumulativeMix, random.nextDouble());
+    return Math.min(index < 0 ? -index - 1 : index, cumulativeMix.length - 1);
+  }
+}
@@ -0,0 +1,94 @@
+package io.aregger.oracle_statement_caching;
+
+import io.aregger.oracle_statement_caching.helper.AdaptiveLobPrefetchCacheableStatement;
+import io.aregger.oracle_statement_caching.helper.AdaptiveRowPrefetchCacheableStatement;
+import io.aregger.oracle_statement_caching.helper.CacheableStatement;
+import io.aregger.oracle_statement_caching.helper.ImplicitCacheableStatement;
+import io.aregger.oracle_statement_caching.helper.LobPrefetchTuner;
+import io.aregger.oracle_statement_caching.helper.MetadataCache;
+import io.aregger.oracle_statement_caching.helper.RowPrefetchTuner;
+import io.aregger.oracle_statement_caching.standin.RoundTrip;
+import io.aregger.oracle_statement_caching.standin.StandInQuery;
+import io.aregger.oracle_statement_caching.standin.StandInServer;
+import oracle.jdbc.OracleConnection;
+import oracle.jdbc.OraclePreparedStatement;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests the {@link LobPrefetchTuner} against the stand-in server.
+ */
+public class AdaptiveLobPrefetchTest {
+
+  private static final String QUERY = "select c3, c4 from t1 where c2 = ?";
+  private static final int ROWS = 100;
+
+  private StandInServer server;
+  private OracleConnection connection;
+
+  @BeforeEach
+  void setUp() throws SQLException {
+    MetadataCache.invalidateAll();
+    server = new StandInServer(0);
+    connection = server.connect();
+    connection.setImplicitCachingEnabled(true);
+    connection.setStatementCacheSize(20);
+  }
+
+  @Test
+  public void testMostLobsComeInline() throws SQLException {
+    // 5000 to 6980 characters, longer than the default LOB prefetch size
+    registerLobQuery(row -> "c".repeat(5000 + row * 20));
+    CacheableStatement statement = new AdaptiveLobPrefetchCacheableStatement(new ImplicitCacheableStatement(QUERY), new LobPrefetchTuner(1 << 20, 0.9));
+
+    readAll(statement);
+    assertEquals(2 * ROWS, server.getRoundTrips(RoundTrip.LOB_READ));
+
+    server.resetRoundTrips();
+    readAll(statement);
+    assertEquals(0, server.getRoundTrips(RoundTrip.LOB_READ));
+  }
+
+  @Test
+  public void testHugeLobsAreCapped() throws SQLException {
+    registerLobQuery(row -> "c".repeat(1_000_000));
+    CacheableStatement statement = new AdaptiveLobPrefetchCacheableStatement(new ImplicitCacheableStatement(QUERY), new LobPrefetchTuner(32_768, 0.9));
+    readAll(statement);
+
+    assertEquals(32_768, statement.getCachedStatement(connection).getLobPrefetchSize());
+  }
+
+  @Test
+  public void testComposesWithAdaptiveRowPrefetch() throws SQLException {
+    registerLobQuery(row -> "c".repeat(100));
+    RowPrefetchTuner rowPrefetchTuner = new RowPrefetchTuner(64L << 20, 10_000);
+    LobPrefetchTuner lobPrefetchTuner = new LobPrefetchTuner(1 << 20, 0.9);
+    CacheableStatement statement = new AdaptiveLobPrefetchCacheableStatement(new AdaptiveRowPrefetchCacheableStatement(new ImplicitCacheableStatement(QUERY), rowPrefetchTuner), lobPrefetchTuner);
+    readAll(statement);
+
+    assertEquals(ROWS + 1, rowPrefetchTuner.recommend(QUERY));
+    assertEquals(128, lobPrefetchTuner.recommend(QUERY));
+  }
+
+  private void registerLobQuery(IntFunction<String> lob) {
+    server.registerQuery(QUERY, new StandInQuery(new String[]{"C3", "C4"}, new int[]{Types.CLOB, Types.CLOB}, ROWS, row -> new Object[]{lob.apply(row), lob.apply(row)}));
+  }
+
+  private void readAll(CacheableStatement cacheableStatement) throws SQLException {
+    OraclePreparedStatement statement = cacheableStatement.getCachedStatement(connection);
+    statement.setString(1, "X");
+    ResultSet resultSet = cacheableStatement.executeQuery(statement);
+    while (resultSet.next()) {
+      resultSet.getString(1);
+      resultSet.getString("C4");
+    }
+    cacheableStatement.closePreparedStatement(statement);
+  }
+}
@@ -0,0 +1,102 @@
+package io.aregger.oracle_statement_caching;
+
+import io.aregger.oracle_statement_caching.helper.AdaptiveRowPrefetchCacheableStatement;
+import io.aregger.oracle_statement_caching.helper.ImplicitCacheableStatement;
+import io.aregger.oracle_statement_caching.helper.MetadataCache;
+import io.aregger.oracle_statement_caching.helper.RowPrefetchTuner;
+import io.aregger.oracle_statement_caching.standin.RoundTrip;
+import io.aregger.oracle_statement_caching.standin.StandInQuery;
+import io.aregger.oracle_statement_caching.standin.StandInServer;
+import oracle.jdbc.OracleConnection;
+import oracle.jdbc.OraclePreparedStatement;
+import oracle.jdbc.OracleResultSet;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests the {@link RowPrefetchTuner} against the stand-in server. The VARCHAR2 columns of the stand-in are 4000 bytes
+ * wide.
+ */
+public class AdaptiveRowPrefetchTest {
+
+  private static final String LARGE_QUERY = "select * from large_table where c1 = ?";
+  private static final String LOOKUP_QUERY = "select * from small_table where id = ?";
+
+  private StandInServer server;
+  private OracleConnection connection;
+
+  @BeforeEach
+  void setUp() throws SQLException {
+    MetadataCache.invalidateAll();
+    server = new StandInServer(0);
+    server.registerQuery(LARGE_QUERY, StandInQuery.varchar(10_000, row -> new Object[]{"X"}, "C1"));
+    server.registerQuery(LOOKUP_QUERY, StandInQuery.varchar(1, row -> new Object[]{"X"}, "C1"));
+    connection = server.connect();
+    connection.setImplicitCachingEnabled(true);
+    connection.setStatementCacheSize(20);
+  }
+
+  @Test
+  public void testLargeResultGetsLargePrefetch() throws SQLException {
+    AdaptiveRowPrefetchCacheableStatement statement = new AdaptiveRowPrefetchCacheableStatement(new ImplicitCacheableStatement(LARGE_QUERY), new RowPrefetchTuner(64L << 20, 100_000));
+
+    assertEquals(10_000, fetchAll(statement));
+    assertEquals(1000, server.getRoundTrips(RoundTrip.FETCH));
+
+    server.resetRoundTrips();
+    assertEquals(10_000, fetchAll(statement));
+    assertEquals(0, server.getRoundTrips(RoundTrip.FETCH));
+  }
+
+  @Test
+  public void testPrefetchIsCappedByMemoryBudget() throws SQLException {
+    AdaptiveRowPrefetchCacheableStatement statement = new AdaptiveRowPrefetchCacheableStatement(new ImplicitCacheableStatement(LARGE_QUERY), new RowPrefetchTuner(4_000_000, 100_000));
+    fetchAll(statement);
+
+    OraclePreparedStatement cached = statement.getCachedStatement(connection);
+    assertEquals(1000, cached.getRowPrefetch());
+  }
+
+  @Test
+  public void testSingleRowLookupGetsSmallPrefetch() throws SQLException {
+    AdaptiveRowPrefetchCacheableStatement statement = new AdaptiveRowPrefetchCacheableStatement(new ImplicitCacheableStatement(LOOKUP_QUERY), new RowPrefetchTuner(64L << 20, 100_000));
+    fetchAll(statement);
+
+    OraclePreparedStatement cached = statement.getCachedStatement(connection);
+    assertEquals(2, cached.getRowPrefetch());
+  }
+
+  @Test
+  public void testRowsAreRecordedWhenStatementIsReturnedWithOpenResultSet() throws SQLException {
+    AdaptiveRowPrefetchCacheableStatement cacheableStatement = new AdaptiveRowPrefetchCacheableStatement(new ImplicitCacheableStatement(LOOKUP_QUERY), new RowPrefetchTuner(64L << 20, 100_000));
+    OraclePreparedStatement statement = cacheableStatement.getCachedStatement(connection);
+    statement.setString(1, "X");
+    ResultSet resultSet = cacheableStatement.executeQuery(statement);
+    assertTrue(resultSet.next());
+    assertTrue(resultSet.isWrapperFor(OracleResultSet.class));
+    assertNotNull(resultSet.unwrap(OracleResultSet.class));
+    cacheableStatement.closePreparedStatement(statement);
+
+    OraclePreparedStatement cached = cacheableStatement.getCachedStatement(connection);
+    assertEquals(2, cached.getRowPrefetch());
+  }
+
+  private int fetchAll(AdaptiveRowPrefetchCacheableStatement cacheableStatement) throws SQLException {
+    OraclePreparedStatement statement = cacheableStatement.getCachedStatement(connection);
+    statement.setString(1, "X");
+    ResultSet resultSet = cacheableStatement.executeQuery(statement);
+    int rows = 0;
+    while (resultSet.next()) {
+      rows++;
+    }
+    cacheableStatement.closePreparedStatement(statement);
+    return rows;
+  }
+}
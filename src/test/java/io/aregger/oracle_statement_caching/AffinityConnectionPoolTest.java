@@ -0,0 +1,117 @@
+package io.aregger.oracle_statement_caching;
+
+import io.aregger.oracle_statement_caching.helper.AffinityConnectionPool;
+import io.aregger.oracle_statement_caching.helper.ImplicitCacheableStatement;
+import io.aregger.oracle_statement_caching.standin.RoundTrip;
+import io.aregger.oracle_statement_caching.standin.StandInServer;
+import oracle.jdbc.OracleConnection;
+import oracle.jdbc.OraclePreparedStatement;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests the {@link AffinityConnectionPool} against the stand-in server.
+ */
+public class AffinityConnectionPoolTest {
+
+  private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+  private StandInServer server;
+  private List<OracleConnection> connections;
+
+  @BeforeEach
+  void setUp() throws SQLException {
+    server = new StandInServer(0);
+    connections = new ArrayList<>();
+    for (int i = 0; i < 4; i++) {
+      OracleConnection connection = server.connect();
+      connection.setImplicitCachingEnabled(true);
+      connection.setStatementCacheSize(5);
+      connections.add(connection);
+    }
+  }
+
+  @Test
+  public void testEachStatementIsParsedOnce() throws Exception {
+    AffinityConnectionPool pool = new AffinityConnectionPool(connections);
+    Random random = new Random(42);
+    for (int i = 0; i < 1000; i++) {
+      String sql = "select " + random.nextInt(20) + " from dual";
+      try (AffinityConnectionPool.Lease lease = pool.borrow(sql, TIMEOUT)) {
+        execute(lease.getConnection(), sql);
+      }
+    }
+    assertEquals(20, server.getRoundTrips(RoundTrip.PARSE));
+    assertEquals(20, pool.getFallbacks());
+    assertEquals(980, pool.getAffinityHits());
+  }
+
+  @Test
+  public void testRoundRobinParsesOnEveryConnection() throws SQLException {
+    Random random = new Random(42);
+    for (int i = 0; i < 1000; i++) {
+      String sql = "select " + random.nextInt(20) + " from dual";
+      execute(connections.get(i % connections.size()), sql);
+    }
+    assertTrue(server.getRoundTrips(RoundTrip.PARSE) > 500);
+  }
+
+  @Test
+  public void testFallbackWhenCachedConnectionIsLent() throws Exception {
+    AffinityConnectionPool pool = new AffinityConnectionPool(connections);
+    OracleConnection cached;
+    try (AffinityConnectionPool.Lease lease = pool.borrow("select 1 from dual", TIMEOUT)) {
+      cached = lease.getConnection();
+    }
+    try (AffinityConnectionPool.Lease first = pool.borrow("select 1 from dual", TIMEOUT);
+         AffinityConnectionPool.Lease second = pool.borrow("select 1 from dual", TIMEOUT)) {
+      assertSame(cached, first.getConnection());
+      assertNotSame(cached, second.getConnection());
+    }
+    assertEquals(2, pool.getFallbacks());
+    assertEquals(1, pool.getAffinityHits());
+  }
+
+  @Test
+  public void testEvictedStatementLosesAffinity() throws Exception {
+    AffinityConnectionPool pool = new AffinityConnectionPool(connections.subList(0, 1));
+    try (AffinityConnectionPool.Lease lease = pool.borrow("select 0 from dual", TIMEOUT)) {
+      for (int i = 1; i <= 5; i++) {
+        lease.use("select " + i + " from dual");
+      }
+    }
+    pool.borrow("select 0 from dual", TIMEOUT).close();
+    assertEquals(2, pool.getFallbacks());
+    pool.borrow("select 5 from dual", TIMEOUT).close();
+    assertEquals(1, pool.getAffinityHits());
+  }
+
+  @Test
+  public void testTimeoutWhenAllConnectionsAreLent() throws Exception {
+    AffinityConnectionPool pool = new AffinityConnectionPool(connections.subList(0, 1));
+    AffinityConnectionPool.Lease lease = pool.borrow("select 1 from dual", TIMEOUT);
+    assertThrows(SQLTimeoutException.class, () -> pool.borrow("select 1 from dual", Duration.ofMillis(10)));
+    lease.close();
+    pool.borrow("select 1 from dual", TIMEOUT).close();
+  }
+
+  private static void execute(OracleConnection connection, String sql) throws SQLException {
+    ImplicitCacheableStatement cacheableStatement = new ImplicitCacheableStatement(sql);
+    OraclePreparedStatement statement = cacheableStatement.getCachedStatement(connection);
+    statement.executeQuery().close();
+    cacheableStatement.closePreparedStatement(statement);
+  }
+}
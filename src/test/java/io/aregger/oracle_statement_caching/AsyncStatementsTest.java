@@ -0,0 +1,144 @@
+package io.aregger.oracle_statement_caching;
+
+import io.aregger.oracle_statement_caching.helper.AsyncStatements;
+import io.aregger.oracle_statement_caching.helper.CacheableStatement;
+import io.aregger.oracle_statement_caching.helper.ImplicitCacheableStatement;
+import io.aregger.oracle_statement_caching.helper.ResultCache;
+import io.aregger.oracle_statement_caching.standin.RoundTrip;
+import io.aregger.oracle_statement_caching.standin.StandInQuery;
+import io.aregger.oracle_statement_caching.standin.StandInServer;
+import oracle.jdbc.OracleConnection;
+import oracle.jdbc.OraclePreparedStatement;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests that {@link AsyncStatements} runs queries on cached statements and never uses a connection for two queries at
+ * once.
+ */
+public class AsyncStatementsTest {
+
+  private static final String T1_QUERY = "select c1, c2 from t1 where c1 = ?";
+
+  @Test
+  public void testQueryCompletesWithRows() throws Exception {
+    StandInServer server = newServer(0, false);
+    server.registerQuery(T1_QUERY, StandInQuery.varchar(3, row -> new Object[]{"c1-" + row, "c2-" + row}, "C1", "C2"));
+    try (AsyncStatements statements = new AsyncStatements(connect(server, 1))) {
+      ResultCache.Rows rows = statements.query(new ImplicitCacheableStatement(T1_QUERY), 1).get(10, TimeUnit.SECONDS);
+
+      assertEquals(3, rows.getRowCount());
+      assertEquals("C2", rows.getColumnLabel(2));
+      assertEquals("c2-2", rows.getObject(2, 2));
+    }
+  }
+
+  @Test
+  public void testConnectionRunsOneQueryAtATime() throws Exception {
+    StandInServer server = newServer(TimeUnit.MICROSECONDS.toNanos(200), true);
+    Map<OracleConnection, AtomicInteger> running = new ConcurrentHashMap<>();
+    AtomicInteger maxRunning = new AtomicInteger();
+    CacheableStatement statement = new ImplicitCacheableStatement(StatementCacheTest.QUERY) {
+      @Override
+      public OraclePreparedStatement getCachedStatement(OracleConnection connection) throws SQLException {
+        int queries = running.computeIfAbsent(connection, key -> new AtomicInteger()).incrementAndGet();
+        maxRunning.accumulateAndGet(queries, Math::max);
+        return super.getCachedStatement(connection);
+      }
+
+      @Override
+      public void closePreparedStatement(OraclePreparedStatement statement) throws SQLException {
+        running.get(statement.getConnection()).decrementAndGet();
+        super.closePreparedStatement(statement);
+      }
+    };
+
+    List<CompletableFuture<ResultCache.Rows>> futures = new ArrayList<>();
+    try (AsyncStatements statements = new AsyncStatements(connect(server, 2))) {
+      for (int i = 0; i < 200; i++) {
+        futures.add(statements.query(statement, "X"));
+      }
+    }
+    for (CompletableFuture<ResultCache.Rows> future : futures) {
+      assertEquals(10, future.get().getRowCount());
+    }
+    assertEquals(1, maxRunning.get());
+    assertEquals(2, running.size());
+    assertEquals(2, server.getRoundTrips(RoundTrip.PARSE));
+  }
+
+  @Test
+  public void testDependentQueryRunsOnSingleConnection() throws Exception {
+    StandInServer server = newServer(0, false);
+    CacheableStatement statement = new ImplicitCacheableStatement(StatementCacheTest.QUERY);
+    try (AsyncStatements statements = new AsyncStatements(connect(server, 1))) {
+      CompletableFuture<ResultCache.Rows> dependent = statements.query(statement, "X")
+          .thenApply(rows -> statements.query(statement, "X").join());
+
+      assertEquals(10, dependent.get(10, TimeUnit.SECONDS).getRowCount());
+    }
+  }
+
+  @Test
+  public void testFailedQueryCompletesExceptionally() throws SQLException {
+    CacheableStatement failing = new ImplicitCacheableStatement(StatementCacheTest.QUERY) {
+      @Override
+      public OraclePreparedStatement getCachedStatement(OracleConnection connection) throws SQLException {
+        throw new SQLException("ORA-00942: table or view does not exist", "42000", 942);
+      }
+    };
+    StandInServer server = newServer(0, false);
+    try (AsyncStatements statements = new AsyncStatements(connect(server, 1))) {
+      ExecutionException e = assertThrows(ExecutionException.class, () -> statements.query(failing).get(10, TimeUnit.SECONDS));
+      assertTrue(e.getCause() instanceof SQLException);
+      assertEquals(942, ((SQLException) e.getCause()).getErrorCode());
+
+      // the connection was returned
+      assertEquals(10, statements.query(new ImplicitCacheableStatement(StatementCacheTest.QUERY), "X").join().getRowCount());
+    }
+  }
+
+  @Test
+  public void testUsesVirtualThreadsFromJava21() throws SQLException {
+    try (AsyncStatements statements = new AsyncStatements(connect(newServer(0, false), 1))) {
+      assertEquals(Runtime.version().feature() >= 21, statements.usesVirtualThreads());
+    }
+  }
+
+  @Test
+  public void testQueryAfterCloseFails() throws SQLException {
+    AsyncStatements statements = new AsyncStatements(connect(newServer(0, false), 1));
+    statements.close();
+    assertThrows(IllegalStateException.class, () -> statements.query(new ImplicitCacheableStatement(StatementCacheTest.QUERY), "X"));
+  }
+
+  private static StandInServer newServer(long roundTripNanos, boolean blocking) {
+    StandInServer server = new StandInServer(roundTripNanos, blocking);
+    server.registerQuery(StatementCacheTest.QUERY, StandInQuery.varchar(10, row -> new Object[]{"X"}, "DUMMY"));
+    return server;
+  }
+
+  private static List<OracleConnection> connect(StandInServer server, int count) throws SQLException {
+    List<OracleConnection> connections = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      OracleConnection connection = server.connect();
+      connection.setImplicitCachingEnabled(true);
+      connection.setStatementCacheSize(20);
+      connections.add(connection);
+    }
+    return connections;
+  }
+}
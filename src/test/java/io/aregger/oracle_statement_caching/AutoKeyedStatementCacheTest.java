@@ -0,0 +1,98 @@
+package io.aregger.oracle_statement_caching;
+
+import io.aregger.oracle_statement_caching.helper.AutoKeyedCacheableStatement;
+import io.aregger.oracle_statement_caching.helper.ExplicitCacheKeys;
+import io.aregger.oracle_statement_caching.helper.StatementKey;
+import io.aregger.oracle_statement_caching.standin.RoundTrip;
+import io.aregger.oracle_statement_caching.standin.StandInServer;
+import oracle.jdbc.OracleConnection;
+import oracle.jdbc.OraclePreparedStatement;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests the {@link AutoKeyedCacheableStatement} against the stand-in server.
+ */
+public class AutoKeyedStatementCacheTest {
+
+  private static final String QUERY = "select 1 from dual";
+  private static final String INSERT = "insert into t1 (c2) values (?)";
+
+  private StandInServer server;
+  private OracleConnection connection;
+
+  @BeforeEach
+  void setUp() throws SQLException {
+    server = new StandInServer(0);
+    connection = server.connect();
+    connection.setExplicitCachingEnabled(true);
+    connection.setStatementCacheSize(10);
+  }
+
+  @Test
+  public void testKeyIsDerivedOnceAndInterned() {
+    String first = new AutoKeyedCacheableStatement(QUERY).getCacheKey();
+    String second = new AutoKeyedCacheableStatement(new String(QUERY.toCharArray())).getCacheKey();
+    assertSame(first, second);
+    assertTrue(first.matches("auto:[0-9a-f]{16}"), first);
+  }
+
+  @Test
+  public void testKeyDependsOnShape() {
+    String scrollable = ExplicitCacheKeys.derive(new StatementKey(QUERY, ResultSet.TYPE_SCROLL_INSENSITIVE, ResultSet.CONCUR_UPDATABLE));
+    String streaming = ExplicitCacheKeys.derive(new StatementKey(QUERY, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY));
+    String otherSql = ExplicitCacheKeys.derive(new StatementKey("select 2 from dual", ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY));
+    String generatedKeys = ExplicitCacheKeys.derive(new StatementKey(INSERT, new String[]{"C1"}));
+    String otherGeneratedKeys = ExplicitCacheKeys.derive(new StatementKey(INSERT, new String[]{"C1", "C2"}));
+    String noGeneratedKeys = ExplicitCacheKeys.derive(new StatementKey(INSERT, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY));
+
+    assertNotEquals(scrollable, streaming);
+    assertNotEquals(streaming, otherSql);
+    assertNotEquals(generatedKeys, otherGeneratedKeys);
+    assertNotEquals(generatedKeys, noGeneratedKeys);
+  }
+
+  @Test
+  public void testCachedWithProperties() throws SQLException {
+    AutoKeyedCacheableStatement cacheableStatement = new AutoKeyedCacheableStatement(QUERY);
+    OraclePreparedStatement statement = cacheableStatement.getCachedStatement(connection);
+    statement.setRowPrefetch(100);
+    statement.executeQuery().close();
+    cacheableStatement.closePreparedStatement(statement);
+
+    server.resetRoundTrips();
+    statement = cacheableStatement.getCachedStatement(connection);
+    assertEquals(100, statement.getRowPrefetch());
+    assertEquals(0, server.getRoundTrips(RoundTrip.PARSE));
+  }
+
+  @Test
+  public void testMissPreparesShapeOfKey() throws SQLException {
+    OraclePreparedStatement streaming = new AutoKeyedCacheableStatement(QUERY, true).getCachedStatement(connection);
+    assertEquals(ResultSet.TYPE_FORWARD_ONLY, streaming.getResultSetType());
+    assertEquals(ResultSet.CONCUR_READ_ONLY, streaming.getResultSetConcurrency());
+
+    OraclePreparedStatement scrollable = new AutoKeyedCacheableStatement(QUERY).getCachedStatement(connection);
+    assertEquals(ResultSet.TYPE_SCROLL_INSENSITIVE, scrollable.getResultSetType());
+    assertEquals(ResultSet.CONCUR_UPDATABLE, scrollable.getResultSetConcurrency());
+  }
+
+  @Test
+  public void testShapesDoNotShareCacheEntry() throws SQLException {
+    AutoKeyedCacheableStatement scrollable = new AutoKeyedCacheableStatement(QUERY);
+    AutoKeyedCacheableStatement streaming = new AutoKeyedCacheableStatement(QUERY, true);
+    scrollable.closePreparedStatement(scrollable.getCachedStatement(connection));
+
+    OraclePreparedStatement statement = streaming.getCachedStatement(connection);
+    assertEquals(ResultSet.TYPE_FORWARD_ONLY, statement.getResultSetType());
+    assertEquals(2, server.getRoundTrips(RoundTrip.PARSE));
+  }
+}
@@ -0,0 +1,165 @@
+package io.aregger.oracle_statement_caching;
+
+import io.aregger.oracle_statement_caching.helper.BatchingWriter;
+import io.aregger.oracle_statement_caching.helper.ExplicitCacheableStatement;
+import io.aregger.oracle_statement_caching.helper.ImplicitCacheableStatement;
+import io.aregger.oracle_statement_caching.standin.RoundTrip;
+import io.aregger.oracle_statement_caching.standin.StandInServer;
+import oracle.jdbc.OracleConnection;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests the {@link BatchingWriter} against the stand-in server.
+ */
+public class BatchingWriterTest {
+
+  private static final String INSERT = "insert into t1 (c2) values (?)";
+  private static final Duration NEVER = Duration.ofHours(1);
+
+  private StandInServer server;
+  private OracleConnection connection;
+
+  @BeforeEach
+  void setUp() throws SQLException {
+    server = new StandInServer(0);
+    connection = server.connect();
+    connection.setImplicitCachingEnabled(true);
+    connection.setStatementCacheSize(20);
+  }
+
+  @Test
+  public void testFlushByRowCount() throws Exception {
+    List<CompletableFuture<Integer>> futures = new ArrayList<>();
+    try (BatchingWriter writer = new BatchingWriter(connection, ImplicitCacheableStatement::new, 10, Long.MAX_VALUE, NEVER)) {
+      for (int i = 0; i < 25; i++) {
+        futures.add(writer.insert(INSERT, "X"));
+      }
+      assertEquals(2, server.getRoundTrips(RoundTrip.EXECUTE));
+      assertTrue(futures.get(19).isDone());
+      assertFalse(futures.get(20).isDone());
+    }
+    assertEquals(3, server.getRoundTrips(RoundTrip.EXECUTE));
+    assertEquals(1, server.getRoundTrips(RoundTrip.PARSE));
+    assertEquals(25, server.getRowCount("t1"));
+    for (CompletableFuture<Integer> future : futures) {
+      assertEquals(1, (int) future.get());
+    }
+  }
+
+  @Test
+  public void testFlushByBytes() throws Exception {
+    try (BatchingWriter writer = new BatchingWriter(connection, ImplicitCacheableStatement::new, 1000, 1000, NEVER)) {
+      CompletableFuture<Integer> small = writer.insert(INSERT, "X");
+      assertFalse(small.isDone());
+      writer.insert(INSERT, "b".repeat(500));
+      assertEquals(1, (int) small.get());
+      assertEquals(2, server.getRowCount("t1"));
+    }
+  }
+
+  @Test
+  public void testFlushByAge() throws Exception {
+    try (BatchingWriter writer = new BatchingWriter(connection, ImplicitCacheableStatement::new, 1000, Long.MAX_VALUE, Duration.ofMillis(20))) {
+      assertEquals(1, (int) writer.insert(INSERT, "X").get(10, TimeUnit.SECONDS));
+      assertEquals(1, server.getRowCount("t1"));
+    }
+  }
+
+  @Test
+  public void testCloseWaitsForRunningAgeFlush() throws Exception {
+    server = new StandInServer(TimeUnit.MILLISECONDS.toNanos(100), true);
+    connection = server.connect();
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    BatchingWriter writer = new BatchingWriter(connection, ImplicitCacheableStatement::new, 2, Long.MAX_VALUE, Duration.ofMillis(50));
+    try {
+      CompletableFuture<Integer> aged = writer.insert(INSERT, "X");
+      // holds the connection while the age flush of the first row starts and waits for it
+      Future<?> full = executor.submit(() -> {
+        writer.insert("insert into t2 (c2) values (?)", "X");
+        writer.insert("insert into t2 (c2) values (?)", "X");
+      });
+      Thread.sleep(100);
+      writer.close();
+      assertTrue(aged.isDone());
+      assertEquals(1, server.getRowCount("t1"));
+      full.get(10, TimeUnit.SECONDS);
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void testExplicitlyCachedStatementDoesNotRerunBatch() throws SQLException {
+    connection.setImplicitCachingEnabled(false);
+    connection.setExplicitCachingEnabled(true);
+    try (BatchingWriter writer = new BatchingWriter(connection, sql -> new ExplicitCacheableStatement(sql, "writer"), 2, Long.MAX_VALUE, NEVER)) {
+      for (int i = 0; i < 4; i++) {
+        writer.insert(INSERT, "X");
+      }
+    }
+    assertEquals(4, server.getRowCount("t1"));
+    assertEquals(1, server.getRoundTrips(RoundTrip.PARSE));
+  }
+
+  @Test
+  public void testConcurrentInserts() throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    List<Future<List<CompletableFuture<Integer>>>> results = new ArrayList<>();
+    try (BatchingWriter writer = new BatchingWriter(connection, ImplicitCacheableStatement::new, 50, Long.MAX_VALUE, NEVER)) {
+      for (int thread = 0; thread < 8; thread++) {
+        results.add(executor.submit(() -> {
+          List<CompletableFuture<Integer>> futures = new ArrayList<>();
+          for (int i = 0; i < 100; i++) {
+            futures.add(writer.insert(INSERT, "X"));
+          }
+          return futures;
+        }));
+      }
+      for (Future<List<CompletableFuture<Integer>>> result : results) {
+        for (CompletableFuture<Integer> future : result.get()) {
+          assertEquals(1, (int) future.get(10, TimeUnit.SECONDS));
+        }
+      }
+    } finally {
+      executor.shutdown();
+    }
+    assertEquals(800, server.getRowCount("t1"));
+    assertEquals(16, server.getRoundTrips(RoundTrip.EXECUTE));
+  }
+
+  @Test
+  public void testFailedBatchFailsItsRows() {
+    try (BatchingWriter writer = new BatchingWriter(connection, ImplicitCacheableStatement::new, 2, Long.MAX_VALUE, NEVER)) {
+      CompletableFuture<Integer> first = writer.insert("insert into t1 (c2, c3) values (?, ?)", "X");
+      CompletableFuture<Integer> second = writer.insert("insert into t1 (c2, c3) values (?, ?)", "X");
+      ExecutionException exception = assertThrows(ExecutionException.class, first::get);
+      assertTrue(exception.getCause() instanceof SQLException);
+      assertThrows(ExecutionException.class, second::get);
+    }
+    assertEquals(0, server.getRowCount("t1"));
+  }
+
+  @Test
+  public void testInsertAfterClose() {
+    BatchingWriter writer = new BatchingWriter(connection, ImplicitCacheableStatement::new, 2, Long.MAX_VALUE, NEVER);
+    writer.close();
+    assertThrows(IllegalStateException.class, () -> writer.insert(INSERT, "X"));
+  }
+}
@@ -0,0 +1,144 @@
+package io.aregger.oracle_statement_caching;
+
+import io.aregger.oracle_statement_caching.helper.BindMemoryBudget;
+import io.aregger.oracle_statement_caching.helper.BoundedExplicitCacheableStatement;
+import io.aregger.oracle_statement_caching.helper.CacheableStatement;
+import io.aregger.oracle_statement_caching.helper.PreparedStatementHelper;
+import io.aregger.oracle_statement_caching.standin.RoundTrip;
+import io.aregger.oracle_statement_caching.standin.StandInServer;
+import oracle.jdbc.OracleConnection;
+import oracle.jdbc.OraclePreparedStatement;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests the {@link BindMemoryBudget} of explicitly cached statements against the stand-in server.
+ */
+public class BoundedExplicitStatementCacheTest {
+
+  private static final String INSERT = "insert into t1 (c3) values (?)";
+  private static final int VALUE_LENGTH = 1000;
+  // estimate of a bound String of VALUE_LENGTH characters
+  private static final long VALUE_BYTES = 24 + 2 * VALUE_LENGTH;
+
+  private StandInServer server;
+  private OracleConnection connection;
+
+  @BeforeEach
+  void setUp() throws SQLException {
+    server = new StandInServer(0);
+    connection = server.connect();
+    connection.setExplicitCachingEnabled(true);
+    connection.setStatementCacheSize(20);
+  }
+
+  @Test
+  public void testRetainedBytesAreReported() throws SQLException {
+    BindMemoryBudget budget = new BindMemoryBudget(1 << 20, 1 << 20);
+    CacheableStatement cacheableStatement = new BoundedExplicitCacheableStatement(INSERT, "insert", budget);
+    executeAndClose(cacheableStatement, BoundedExplicitCacheableStatement.track(PreparedStatementHelper.prepare(connection, INSERT)));
+    assertEquals(VALUE_BYTES, budget.getRetainedBytes());
+
+    // the cached statement still retains its binds and re-executes with them, as with the plain explicit cache
+    OraclePreparedStatement statement = cacheableStatement.getCachedStatement(connection);
+    assertEquals(0, budget.getRetainedBytes());
+    statement.executeUpdate();
+    cacheableStatement.closePreparedStatement(statement);
+
+    assertEquals(VALUE_BYTES, budget.getRetainedBytes());
+    assertEquals(2, server.getRowCount("t1"));
+  }
+
+  @Test
+  public void testOversizedBindsAreCleared() throws SQLException {
+    BindMemoryBudget budget = new BindMemoryBudget(1 << 20, VALUE_BYTES - 1);
+    CacheableStatement cacheableStatement = new BoundedExplicitCacheableStatement(INSERT, "insert", budget);
+    executeAndClose(cacheableStatement, BoundedExplicitCacheableStatement.track(PreparedStatementHelper.prepare(connection, INSERT)));
+
+    OraclePreparedStatement statement = cacheableStatement.getCachedStatement(connection);
+    assertThrows(SQLException.class, statement::executeUpdate);
+    assertEquals(0, budget.getRetainedBytes());
+    assertEquals(1, budget.getClearedEntries());
+  }
+
+  @Test
+  public void testLeastRecentEntryIsEvicted() throws SQLException {
+    BindMemoryBudget budget = new BindMemoryBudget(VALUE_BYTES * 3 / 2, VALUE_BYTES);
+    CacheableStatement first = new BoundedExplicitCacheableStatement(INSERT, "first", budget);
+    CacheableStatement second = new BoundedExplicitCacheableStatement(INSERT, "second", budget);
+    executeAndClose(first, BoundedExplicitCacheableStatement.track(PreparedStatementHelper.prepare(connection, INSERT)));
+    executeAndClose(second, BoundedExplicitCacheableStatement.track(PreparedStatementHelper.prepare(connection, INSERT)));
+
+    assertEquals(VALUE_BYTES, budget.getRetainedBytes());
+    assertEquals(1, budget.getEvictions());
+    assertNull(first.getCachedStatement(connection));
+  }
+
+  @Test
+  public void testEvictedStatementIsNotCachedImplicitly() throws SQLException {
+    connection.setImplicitCachingEnabled(true);
+    BindMemoryBudget budget = new BindMemoryBudget(VALUE_BYTES * 3 / 2, VALUE_BYTES);
+    CacheableStatement first = new BoundedExplicitCacheableStatement(INSERT, "first", budget);
+    CacheableStatement second = new BoundedExplicitCacheableStatement(INSERT, "second", budget);
+    executeAndClose(first, BoundedExplicitCacheableStatement.track(PreparedStatementHelper.prepare(connection, INSERT)));
+    executeAndClose(second, BoundedExplicitCacheableStatement.track(PreparedStatementHelper.prepare(connection, INSERT)));
+    long parses = server.getRoundTrips(RoundTrip.PARSE);
+
+    // the evicted statement would otherwise be reused here, with the binds the budget no longer counts
+    connection.prepareStatement(INSERT).close();
+    assertEquals(parses + 1, server.getRoundTrips(RoundTrip.PARSE));
+  }
+
+  @Test
+  public void testTrackerIsKeptWithCachedEntry() throws SQLException {
+    BindMemoryBudget budget = new BindMemoryBudget(1 << 20, 1 << 20);
+    CacheableStatement cacheableStatement = new BoundedExplicitCacheableStatement(INSERT, "insert", budget);
+    executeAndClose(cacheableStatement, BoundedExplicitCacheableStatement.track(PreparedStatementHelper.prepare(connection, INSERT)));
+
+    OraclePreparedStatement statement = cacheableStatement.getCachedStatement(connection);
+    cacheableStatement.closePreparedStatement(statement);
+    assertSame(statement, cacheableStatement.getCachedStatement(connection));
+  }
+
+  @Test
+  public void testStreamIsCountedAsObject() throws SQLException {
+    BindMemoryBudget budget = new BindMemoryBudget(1 << 20, 1 << 20);
+    CacheableStatement cacheableStatement = new BoundedExplicitCacheableStatement(INSERT, "insert", budget);
+    OraclePreparedStatement statement = BoundedExplicitCacheableStatement.track(PreparedStatementHelper.prepare(connection, INSERT));
+    statement.setCharacterStream(1, new StringReader("b".repeat(VALUE_LENGTH)), VALUE_LENGTH);
+    statement.executeUpdate();
+    cacheableStatement.closePreparedStatement(statement);
+
+    assertEquals(24, budget.getRetainedBytes());
+  }
+
+  @Test
+  public void testBatchIsAccounted() throws SQLException {
+    BindMemoryBudget budget = new BindMemoryBudget(1 << 20, 1 << 20);
+    CacheableStatement cacheableStatement = new BoundedExplicitCacheableStatement(INSERT, "insert", budget);
+    OraclePreparedStatement statement = BoundedExplicitCacheableStatement.track(PreparedStatementHelper.prepare(connection, INSERT));
+    statement.setString(1, "b".repeat(VALUE_LENGTH));
+    statement.addBatch();
+    statement.setString(1, "b".repeat(VALUE_LENGTH));
+    statement.addBatch();
+    statement.executeBatch();
+    cacheableStatement.closePreparedStatement(statement);
+
+    // two batched rows and the current binds
+    assertEquals(3 * VALUE_BYTES, budget.getRetainedBytes());
+  }
+
+  private void executeAndClose(CacheableStatement cacheableStatement, OraclePreparedStatement statement) throws SQLException {
+    statement.setString(1, "b".repeat(VALUE_LENGTH));
+    statement.executeUpdate();
+    cacheableStatement.closePreparedStatement(statement);
+  }
+}
@@ -0,0 +1,102 @@
+package io.aregger.oracle_statement_caching;
+
+import io.aregger.oracle_statement_caching.helper.BulkCall;
+import io.aregger.oracle_statement_caching.standin.RoundTrip;
+import io.aregger.oracle_statement_caching.standin.StandInServer;
+import oracle.jdbc.OracleConnection;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests the {@link BulkCall} against the stand-in server.
+ */
+public class BulkCallTest {
+
+  private static final String ROW_CALL = "begin insertLob(pi_id => ?, pi_data => ?); end;";
+  private static final String BULK_CALL = "begin lob_api.insert_lobs(pi_id => ?, pi_data => ?); end;";
+  private static final int[] ELEMENT_TYPES = {Types.NUMERIC, Types.VARCHAR};
+
+  private StandInServer server;
+  private OracleConnection connection;
+  private List<Object> inserted;
+
+  @BeforeEach
+  void setUp() throws SQLException {
+    server = new StandInServer(0);
+    inserted = new ArrayList<>();
+    server.registerCall(ROW_CALL, values -> inserted.add(values[1]));
+    server.registerCall(BULK_CALL, values -> inserted.addAll(Arrays.asList((Object[]) values[1])));
+    connection = server.connect();
+    connection.setImplicitCachingEnabled(true);
+    connection.setStatementCacheSize(20);
+  }
+
+  @Test
+  public void testRowsAreSentAsIndexTablesInOneRoundTrip() throws SQLException {
+    BulkCall call = new BulkCall(ROW_CALL, BULK_CALL, ELEMENT_TYPES, 4000);
+    call.execute(connection, rows(100, 10));
+    call.execute(connection, rows(100, 10));
+
+    assertEquals(200, inserted.size());
+    assertEquals(2, server.getRoundTrips(RoundTrip.EXECUTE));
+    assertEquals(1, server.getRoundTrips(RoundTrip.PARSE));
+    assertEquals(2, call.getBulkExecutions());
+    assertEquals(0, call.getFallbackExecutions());
+  }
+
+  @Test
+  public void testLongValuesFallBackToRowCalls() throws SQLException {
+    BulkCall call = new BulkCall(ROW_CALL, BULK_CALL, ELEMENT_TYPES, 4000);
+    List<Object[]> rows = rows(10, 10);
+    rows.add(new Object[]{10, new String(new char[4001])});
+    call.execute(connection, rows);
+
+    assertEquals(11, inserted.size());
+    assertEquals(11, server.getRoundTrips(RoundTrip.EXECUTE));
+    assertEquals(0, call.getBulkExecutions());
+    assertEquals(1, call.getFallbackExecutions());
+  }
+
+  @Test
+  public void testProcedureWithoutBulkVariant() throws SQLException {
+    BulkCall call = new BulkCall(ROW_CALL);
+    call.execute(connection, rows(5, 10));
+    call.execute(connection, rows(5, 10));
+
+    assertEquals(10, inserted.size());
+    assertEquals(10, server.getRoundTrips(RoundTrip.EXECUTE));
+    assertEquals(1, server.getRoundTrips(RoundTrip.PARSE));
+    assertEquals(2, call.getFallbackExecutions());
+  }
+
+  @Test
+  public void testBulkAndFallbackSendSameValues() throws SQLException {
+    List<Object[]> rows = rows(3, 5);
+    rows.get(1)[1] = null;
+    new BulkCall(ROW_CALL, BULK_CALL, ELEMENT_TYPES, 4000).execute(connection, rows);
+    Object[] bulk = inserted.toArray();
+    inserted.clear();
+    new BulkCall(ROW_CALL).execute(connection, rows);
+
+    assertArrayEquals(bulk, inserted.toArray());
+  }
+
+  private static List<Object[]> rows(int count, int length) {
+    List<Object[]> rows = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      char[] data = new char[length];
+      Arrays.fill(data, (char) ('a' + i % 26));
+      rows.add(new Object[]{i, new String(data)});
+    }
+    return rows;
+  }
+}
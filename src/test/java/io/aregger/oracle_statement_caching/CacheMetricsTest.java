@@ -0,0 +1,185 @@
+package io.aregger.oracle_statement_caching;
+
+import io.aregger.oracle_statement_caching.helper.CacheMetrics;
+import io.aregger.oracle_statement_caching.helper.CacheableStatement;
+import io.aregger.oracle_statement_caching.helper.ExplicitCacheableStatement;
+import io.aregger.oracle_statement_caching.helper.ImplicitCacheableStatement;
+import io.aregger.oracle_statement_caching.helper.LruCacheableStatement;
+import io.aregger.oracle_statement_caching.helper.MeteredCacheableStatement;
+import io.aregger.oracle_statement_caching.helper.PreparedStatementHelper;
+import io.aregger.oracle_statement_caching.helper.StatementCache;
+import io.aregger.oracle_statement_caching.standin.StandInServer;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import oracle.jdbc.OracleConnection;
+import oracle.jdbc.OraclePreparedStatement;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests the {@link MeteredCacheableStatement} against the stand-in server.
+ */
+public class CacheMetricsTest {
+
+  private static final String SQL = "select 1 from dual";
+
+  private StandInServer server;
+  private CacheMetrics metrics;
+
+  @BeforeEach
+  void setUp() {
+    server = new StandInServer(0);
+    metrics = new CacheMetrics(1);
+  }
+
+  @Test
+  public void testImplicitHitsAndMisses() throws SQLException {
+    OracleConnection connection = server.connect();
+    connection.setImplicitCachingEnabled(true);
+    connection.setStatementCacheSize(10);
+    CacheableStatement statement = new MeteredCacheableStatement(new ImplicitCacheableStatement(SQL), metrics);
+    for (int i = 0; i < 5; i++) {
+      use(statement, connection, 10);
+    }
+
+    CacheMetrics.Snapshot snapshot = metrics.snapshot(SQL);
+    assertEquals(4, snapshot.getHits());
+    assertEquals(1, snapshot.getMisses());
+    assertEquals(0, snapshot.getEvictions());
+    assertEquals(0.8, snapshot.getHitRatio(), 1e-9);
+    assertTrue(snapshot.getCheckOutNanos(0.5) > 0);
+    assertTrue(snapshot.getCheckOutNanos(0.999) >= snapshot.getCheckOutNanos(0.5));
+  }
+
+  @Test
+  public void testEvictions() throws SQLException {
+    OracleConnection connection = server.connect();
+    connection.setImplicitCachingEnabled(true);
+    connection.setStatementCacheSize(1);
+    CacheableStatement first = new MeteredCacheableStatement(new ImplicitCacheableStatement("select 1 from dual"), metrics);
+    CacheableStatement second = new MeteredCacheableStatement(new ImplicitCacheableStatement("select 2 from dual"), metrics);
+    for (int i = 0; i < 3; i++) {
+      use(first, connection, 10);
+      use(second, connection, 10);
+    }
+
+    CacheMetrics.Snapshot snapshot = metrics.snapshot("select 1 from dual");
+    assertEquals(0, snapshot.getHits());
+    assertEquals(3, snapshot.getMisses());
+    assertEquals(2, snapshot.getEvictions());
+    assertEquals(2, metrics.snapshot().size());
+  }
+
+  @Test
+  public void testNoEvictionsWithoutCache() throws SQLException {
+    OracleConnection connection = server.connect();
+    CacheableStatement statement = new MeteredCacheableStatement(new ImplicitCacheableStatement(SQL), metrics);
+    for (int i = 0; i < 3; i++) {
+      use(statement, connection, 10);
+    }
+    assertEquals(3, metrics.snapshot(SQL).getMisses());
+    assertEquals(0, metrics.snapshot(SQL).getEvictions());
+  }
+
+  @Test
+  public void testResetsOfImplicitCache() throws SQLException {
+    OracleConnection connection = server.connect();
+    connection.setImplicitCachingEnabled(true);
+    connection.setStatementCacheSize(10);
+    CacheableStatement statement = new MeteredCacheableStatement(new ImplicitCacheableStatement(SQL), metrics);
+    for (int i = 0; i < 3; i++) {
+      use(statement, connection, 100);
+    }
+    // the statement tuned after the miss is reset as well
+    assertEquals(3, metrics.snapshot(SQL).getResets());
+  }
+
+  @Test
+  public void testExplicitCacheDoesNotReset() throws SQLException {
+    OracleConnection connection = server.connect();
+    connection.setExplicitCachingEnabled(true);
+    connection.setStatementCacheSize(10);
+    CacheableStatement statement = new MeteredCacheableStatement(new ExplicitCacheableStatement(SQL, "key"), metrics);
+    for (int i = 0; i < 3; i++) {
+      use(statement, connection, 100);
+    }
+    CacheMetrics.Snapshot snapshot = metrics.snapshot(SQL);
+    assertEquals(2, snapshot.getHits());
+    assertEquals(1, snapshot.getMisses());
+    assertEquals(0, snapshot.getResets());
+  }
+
+  @Test
+  public void testStatementCacheHits() throws SQLException {
+    OracleConnection connection = server.connect();
+    StatementCache.enable(connection, 10);
+    CacheableStatement statement = new MeteredCacheableStatement(new LruCacheableStatement(SQL), metrics);
+    for (int i = 0; i < 3; i++) {
+      use(statement, connection, 100);
+    }
+    CacheMetrics.Snapshot snapshot = metrics.snapshot(SQL);
+    assertEquals(2, snapshot.getHits());
+    assertEquals(1, snapshot.getMisses());
+    assertEquals(3, snapshot.getResets());
+    StatementCache.disable(connection);
+  }
+
+  @Test
+  public void testJfrEvents() throws Exception {
+    OracleConnection connection = server.connect();
+    connection.setImplicitCachingEnabled(true);
+    connection.setStatementCacheSize(1);
+    CacheableStatement first = new MeteredCacheableStatement(new ImplicitCacheableStatement("select 1 from dual"), metrics);
+    CacheableStatement second = new MeteredCacheableStatement(new ImplicitCacheableStatement("select 2 from dual"), metrics);
+
+    Path file = Files.createTempFile("metrics", ".jfr");
+    try (Recording recording = new Recording()) {
+      recording.enable("io.aregger.StatementCacheMiss");
+      recording.enable("io.aregger.StatementCacheEviction");
+      recording.enable("io.aregger.StatementStateReset");
+      recording.start();
+      use(first, connection, 10);
+      use(second, connection, 10);
+      use(first, connection, 10);
+      use(first, connection, 100);
+      recording.stop();
+      recording.dump(file);
+
+      List<String> events = RecordingFile.readAllEvents(file).stream()
+          .map(event -> event.getEventType().getName().substring("io.aregger.".length()) + ":" + sql(event))
+          .collect(Collectors.toList());
+      assertEquals(List.of(
+          "StatementCacheMiss:select 1 from dual",
+          "StatementCacheMiss:select 2 from dual",
+          "StatementCacheMiss:select 1 from dual",
+          "StatementCacheEviction:select 1 from dual",
+          "StatementStateReset:select 1 from dual"), events);
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  private static String sql(RecordedEvent event) {
+    return event.getString("sql");
+  }
+
+  private static void use(CacheableStatement cacheableStatement, OracleConnection connection, int rowPrefetch) throws SQLException {
+    OraclePreparedStatement statement = cacheableStatement.getCachedStatement(connection);
+    if (statement == null) {
+      statement = PreparedStatementHelper.prepare(connection, cacheableStatement.getSql());
+    }
+    statement.setRowPrefetch(rowPrefetch);
+    cacheableStatement.executeQuery(statement).close();
+    cacheableStatement.closePreparedStatement(statement);
+  }
+}
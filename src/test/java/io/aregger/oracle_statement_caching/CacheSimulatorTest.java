@@ -0,0 +1,134 @@
+package io.aregger.oracle_statement_caching;
+
+import io.aregger.oracle_statement_caching.helper.BindMemoryBudget;
+import io.aregger.oracle_statement_caching.helper.BoundedExplicitCacheableStatement;
+import io.aregger.oracle_statement_caching.helper.CacheableStatement;
+import io.aregger.oracle_statement_caching.helper.ExplicitCacheableStatement;
+import io.aregger.oracle_statement_caching.helper.ImplicitCacheableStatement;
+import io.aregger.oracle_statement_caching.helper.PropertyPreservingCacheableStatement;
+import io.aregger.oracle_statement_caching.helper.TracingCacheableStatement;
+import io.aregger.oracle_statement_caching.simulation.CacheSimulator;
+import io.aregger.oracle_statement_caching.simulation.EvictionPolicy;
+import io.aregger.oracle_statement_caching.simulation.Policy;
+import io.aregger.oracle_statement_caching.standin.StandInServer;
+import oracle.jdbc.OracleConnection;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests the eviction policies and the {@link CacheSimulator}.
+ */
+public class CacheSimulatorTest {
+
+  @Test
+  public void testLruMissesCyclicScanLargerThanCache() {
+    EvictionPolicy lru = Policy.LRU.create(2);
+    int hits = 0;
+    for (int i = 0; i < 30; i++) {
+      hits += lru.access("select " + i % 3, 1) ? 1 : 0;
+    }
+    assertEquals(0, hits);
+    assertEquals(2, lru.size());
+  }
+
+  @Test
+  public void testLfuKeepsFrequentStatement() {
+    EvictionPolicy lfu = Policy.LFU.create(2);
+    EvictionPolicy lru = Policy.LRU.create(2);
+    for (String key : new String[]{"a", "a", "a", "b", "c", "d"}) {
+      lfu.access(key, 1);
+      lru.access(key, 1);
+    }
+    assertTrue(lfu.access("a", 1));
+    assertFalse(lru.access("a", 1));
+  }
+
+  @Test
+  public void testWTinyLfuResistsOneOffStatements() {
+    CacheSimulator simulator = new CacheSimulator(EnumSet.of(Policy.LRU, Policy.W_TINY_LFU), 20);
+    for (int i = 0; i < 10_000; i++) {
+      simulator.access("hot " + i % 10, 1);
+      simulator.access("one-off " + i, 1);
+      simulator.access("one-off " + i + " again", 1);
+    }
+    List<CacheSimulator.Result> results = simulator.getResults();
+    assertEquals(0, results.get(0).getHits());
+    assertTrue(results.get(1).getHitRatio() > 0.3, "hit ratio " + results.get(1).getHitRatio());
+  }
+
+  @Test
+  public void testSizeAwareEvictsHeavyStatementsFirst() {
+    EvictionPolicy lru = Policy.LRU.create(10);
+    EvictionPolicy sizeAware = Policy.SIZE_AWARE.create(10);
+    int lruHits = 0;
+    int sizeAwareHits = 0;
+    for (int i = 0; i < 1000; i++) {
+      String small = "small " + i % 8;
+      String heavy = "heavy " + i;
+      lruHits += (lru.access(small, 1) ? 1 : 0) + (lru.access(heavy, 1000) ? 1 : 0);
+      sizeAwareHits += (sizeAware.access(small, 1) ? 1 : 0) + (sizeAware.access(heavy, 1000) ? 1 : 0);
+    }
+    assertEquals(0, lruHits);
+    assertEquals(992, sizeAwareHits);
+    assertEquals(5005, lru.getWeight());
+    assertEquals(2008, sizeAware.getWeight());
+  }
+
+  @Test
+  public void testReplay() throws IOException {
+    CacheSimulator simulator = new CacheSimulator(EnumSet.allOf(Policy.class), 1, 10);
+    simulator.replay(new BufferedReader(new StringReader("100\tselect 1\n\nselect 2\n100\tselect 1\nkey\twith tab\n")));
+
+    assertEquals(4, simulator.getAccesses());
+    assertEquals(3, simulator.getDistinctStatements());
+    assertEquals(0.25, simulator.getMaxHitRatio());
+    for (CacheSimulator.Result result : simulator.getResults()) {
+      assertEquals(result.getCacheSize() == 10 ? 1 : 0, result.getHits(), result.getPolicy() + " " + result.getCacheSize());
+      assertEquals(result.getCacheSize() == 10 ? 102 : 100, result.getPeakWeight(), result.getPolicy() + " " + result.getCacheSize());
+    }
+  }
+
+  @Test
+  public void testTraceOfCacheLookups() throws SQLException, IOException {
+    List<String> trace = new ArrayList<>();
+    OracleConnection connection = new StandInServer(0).connect();
+    TracingCacheableStatement statement = new TracingCacheableStatement(new ImplicitCacheableStatement("select *\nfrom dual"), trace::add);
+    statement.closePreparedStatement(statement.getCachedStatement(connection));
+    statement.closePreparedStatement(statement.getCachedStatement(connection));
+
+    CacheSimulator simulator = new CacheSimulator(EnumSet.of(Policy.LRU), 20);
+    simulator.replay(new BufferedReader(new StringReader(String.join("\n", trace))));
+    assertEquals(1, simulator.getResults().get(0).getHits());
+  }
+
+  @Test
+  public void testTraceOfExplicitCacheKeys() throws SQLException {
+    List<String> trace = new ArrayList<>();
+    OracleConnection connection = new StandInServer(0).connect();
+    connection.setExplicitCachingEnabled(true);
+    connection.setStatementCacheSize(20);
+    CacheableStatement[] delegates = {
+        new ExplicitCacheableStatement("select * from dual", "key-1"),
+        new BoundedExplicitCacheableStatement("select * from dual", "key-2", new BindMemoryBudget(1 << 20, 1 << 20)),
+        new PropertyPreservingCacheableStatement(new ExplicitCacheableStatement("select * from dual", "key-3"))};
+    for (CacheableStatement delegate : delegates) {
+      TracingCacheableStatement statement = new TracingCacheableStatement(delegate, trace::add);
+      // a miss of the explicit cache returns no statement
+      assertNull(statement.getCachedStatement(connection));
+    }
+
+    assertEquals(List.of("key-1", "key-2", "key-3"), trace);
+  }
+}
@@ -0,0 +1,130 @@
+package io.aregger.oracle_statement_caching;
+
+import io.aregger.oracle_statement_caching.helper.AutoSizedCacheableStatement;
+import io.aregger.oracle_statement_caching.helper.CacheSizeController;
+import io.aregger.oracle_statement_caching.helper.CacheableStatement;
+import io.aregger.oracle_statement_caching.helper.ImplicitCacheableStatement;
+import io.aregger.oracle_statement_caching.standin.StandInServer;
+import oracle.jdbc.OracleConnection;
+import oracle.jdbc.OraclePreparedStatement;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests that the {@link CacheSizeController} sizes the statement caches of stand-in connections to their working sets
+ * within the budget.
+ */
+public class CacheSizeControllerTest {
+
+  private static final long STATEMENT_BYTES = 1000;
+  private static final int LOOKUPS_PER_ROUND = 2000;
+
+  private final Random random = new Random(42);
+  private StandInServer server;
+
+  @BeforeEach
+  void setUp() {
+    server = new StandInServer(0);
+  }
+
+  @Test
+  public void testGrowsToWorkingSet() throws SQLException {
+    CacheSizeController controller = new CacheSizeController(100 * STATEMENT_BYTES, sql -> STATEMENT_BYTES);
+    OracleConnection connection = connect(controller, 10);
+
+    for (int round = 0; round < 10; round++) {
+      run(controller, connection, 0, 30);
+    }
+    assertEquals(30, controller.getCacheSize(connection));
+    assertEquals(30, connection.getStatementCacheSize());
+    assertEquals(30 * STATEMENT_BYTES, controller.getRetainedBytes());
+  }
+
+  @Test
+  public void testNewSizeIsAppliedOnNextLookup() throws SQLException {
+    CacheSizeController controller = new CacheSizeController(100 * STATEMENT_BYTES, sql -> STATEMENT_BYTES);
+    OracleConnection connection = connect(controller, 10);
+    run(controller, connection, 0, 30);
+
+    assertEquals(15, controller.getCacheSize(connection));
+    assertEquals(10, connection.getStatementCacheSize());
+    lookup(controller, connection, 0);
+    assertEquals(15, connection.getStatementCacheSize());
+  }
+
+  @Test
+  public void testBacksOffWhenSlotsDoNotRaiseHitRatio() throws SQLException {
+    CacheSizeController controller = new CacheSizeController(1000 * STATEMENT_BYTES, sql -> STATEMENT_BYTES);
+    OracleConnection connection = connect(controller, 50);
+
+    for (int round = 0; round < 12; round++) {
+      run(controller, connection, 0, 5000);
+    }
+    assertEquals(5, controller.getCacheSize(connection));
+  }
+
+  @Test
+  public void testStaysWithinBudget() throws SQLException {
+    CacheSizeController controller = new CacheSizeController(40 * STATEMENT_BYTES, sql -> STATEMENT_BYTES);
+    OracleConnection first = connect(controller, 10);
+    OracleConnection second = connect(controller, 10);
+
+    for (int round = 0; round < 10; round++) {
+      run(controller, first, 0, 50);
+      run(controller, second, 1000, 50);
+      assertTrue(controller.getRetainedBytes() <= controller.getBudgetBytes(), "Retained " + controller.getRetainedBytes());
+    }
+    assertEquals(40, controller.getCacheSize(first) + controller.getCacheSize(second));
+  }
+
+  @Test
+  public void testFollowsShiftingMix() throws SQLException {
+    CacheSizeController controller = new CacheSizeController(40 * STATEMENT_BYTES, sql -> STATEMENT_BYTES);
+    OracleConnection first = connect(controller, 20);
+    OracleConnection second = connect(controller, 20);
+
+    for (int round = 0; round < 10; round++) {
+      run(controller, first, 0, 30);
+      run(controller, second, 1000, 5);
+    }
+    assertEquals(30, controller.getCacheSize(first));
+    assertEquals(5, controller.getCacheSize(second));
+
+    for (int round = 0; round < 15; round++) {
+      run(controller, first, 0, 5);
+      run(controller, second, 1000, 30);
+    }
+    assertEquals(5, controller.getCacheSize(first));
+    assertEquals(30, controller.getCacheSize(second));
+  }
+
+  /**
+   * Looks up random statements of a working set and adjusts the cache sizes.
+   */
+  private void run(CacheSizeController controller, OracleConnection connection, int offset, int workingSet) throws SQLException {
+    for (int i = 0; i < LOOKUPS_PER_ROUND; i++) {
+      lookup(controller, connection, offset + random.nextInt(workingSet));
+    }
+    controller.adjust();
+  }
+
+  private static void lookup(CacheSizeController controller, OracleConnection connection, int sql) throws SQLException {
+    CacheableStatement statement = new AutoSizedCacheableStatement(new ImplicitCacheableStatement("select " + sql + " from dual"), controller);
+    OraclePreparedStatement preparedStatement = statement.getCachedStatement(connection);
+    statement.closePreparedStatement(preparedStatement);
+  }
+
+  private OracleConnection connect(CacheSizeController controller, int cacheSize) throws SQLException {
+    OracleConnection connection = server.connect();
+    connection.setImplicitCachingEnabled(true);
+    connection.setStatementCacheSize(cacheSize);
+    controller.register(connection);
+    return connection;
+  }
+}
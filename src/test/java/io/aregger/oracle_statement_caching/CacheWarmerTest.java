@@ -0,0 +1,211 @@
+package io.aregger.oracle_statement_caching;
+
+import io.aregger.oracle_statement_caching.helper.BindMemoryBudget;
+import io.aregger.oracle_statement_caching.helper.BoundedExplicitCacheableStatement;
+import io.aregger.oracle_statement_caching.helper.CacheWarmer;
+import io.aregger.oracle_statement_caching.helper.CacheableStatement;
+import io.aregger.oracle_statement_caching.helper.ExplicitCacheableStatement;
+import io.aregger.oracle_statement_caching.helper.ImplicitCacheableStatement;
+import io.aregger.oracle_statement_caching.helper.LruCacheableStatement;
+import io.aregger.oracle_statement_caching.helper.PreparedStatementHelper;
+import io.aregger.oracle_statement_caching.helper.ProfilingCacheableStatement;
+import io.aregger.oracle_statement_caching.helper.SqlProfile;
+import io.aregger.oracle_statement_caching.helper.StatementCache;
+import io.aregger.oracle_statement_caching.standin.RoundTrip;
+import io.aregger.oracle_statement_caching.standin.StandInServer;
+import oracle.jdbc.OracleConnection;
+import oracle.jdbc.OraclePreparedStatement;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Tests the {@link SqlProfile} and the {@link CacheWarmer} against the stand-in server.
+ */
+public class CacheWarmerTest {
+
+  private StandInServer server;
+  private SqlProfile profile;
+
+  @BeforeEach
+  void setUp() {
+    server = new StandInServer(0);
+    profile = new SqlProfile(100);
+  }
+
+  @Test
+  public void testTopOrdersByUse() throws SQLException {
+    OracleConnection connection = implicitConnection(10);
+    run(connection, ImplicitCacheableStatement::new, "select 1 from dual", 1);
+    run(connection, ImplicitCacheableStatement::new, "select 2 from dual", 3);
+    run(connection, ImplicitCacheableStatement::new, "select 3 from dual", 2);
+
+    List<SqlProfile.Entry> top = profile.getTop(2);
+    assertEquals(2, top.size());
+    assertEquals("select 2 from dual", top.get(0).getKey().getSql());
+    assertEquals(3, top.get(0).getCount());
+    assertEquals("select 3 from dual", top.get(1).getKey().getSql());
+  }
+
+  @Test
+  public void testSaveAndLoad() throws Exception {
+    OracleConnection connection = explicitConnection(10);
+    run(connection, sql -> new ExplicitCacheableStatement(sql, "key"), "select 1 from dual", 2);
+    run(connection, ImplicitCacheableStatement::new, "insert into t1 (c2) values ('\u00e4')", 1);
+
+    Path file = Files.createTempFile("sql-profile", ".bin");
+    try {
+      profile.save(file);
+      SqlProfile loaded = SqlProfile.load(file, 100);
+      List<SqlProfile.Entry> top = loaded.getTop(10);
+      assertEquals(2, top.size());
+      assertEquals("select 1 from dual", top.get(0).getKey().getSql());
+      assertEquals("key", top.get(0).getCacheKey());
+      assertEquals(2, top.get(0).getCount());
+      assertEquals(50, top.get(0).getProperties().getRowPrefetch());
+      assertEquals("insert into t1 (c2) values ('\u00e4')", top.get(1).getKey().getSql());
+      assertNull(top.get(1).getCacheKey());
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  @Test
+  public void testRepeatedUseCountsSameEntry() throws SQLException {
+    OracleConnection connection = explicitConnection(10);
+    BindMemoryBudget budget = new BindMemoryBudget(1 << 20, 1 << 20);
+    CacheableStatement cacheableStatement = new ProfilingCacheableStatement(new BoundedExplicitCacheableStatement("select 1 from dual", "key", budget), profile);
+    for (int rowPrefetch : new int[]{50, 50, 80}) {
+      OraclePreparedStatement statement = cacheableStatement.getCachedStatement(connection);
+      if (statement == null) {
+        statement = BoundedExplicitCacheableStatement.track(PreparedStatementHelper.prepare(connection, "select 1 from dual"));
+      }
+      statement.setRowPrefetch(rowPrefetch);
+      cacheableStatement.closePreparedStatement(statement);
+    }
+
+    assertEquals(1, profile.size());
+    SqlProfile.Entry entry = profile.getTop(1).get(0);
+    assertEquals("key", entry.getCacheKey());
+    assertEquals(3, entry.getCount());
+    assertEquals(80, entry.getProperties().getRowPrefetch());
+  }
+
+  @Test
+  public void testWarmUpImplicitCacheInParallel() throws Exception {
+    OracleConnection profiled = implicitConnection(10);
+    for (int i = 0; i < 5; i++) {
+      run(profiled, ImplicitCacheableStatement::new, "select " + i + " from dual", i + 1);
+    }
+    List<OracleConnection> connections = new ArrayList<>();
+    for (int i = 0; i < 4; i++) {
+      connections.add(implicitConnection(10));
+    }
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      CacheWarmer.warmUp(profile, connections, 10, executor);
+    } finally {
+      executor.shutdown();
+    }
+    assertEquals(4 * 5, server.getRoundTrips(RoundTrip.DESCRIBE));
+
+    server.resetRoundTrips();
+    for (OracleConnection connection : connections) {
+      for (int i = 0; i < 5; i++) {
+        run(connection, ImplicitCacheableStatement::new, "select " + i + " from dual", 1);
+      }
+    }
+    assertEquals(0, server.getRoundTrips(RoundTrip.PARSE));
+    assertEquals(0, server.getRoundTrips(RoundTrip.DESCRIBE));
+  }
+
+  @Test
+  public void testWarmUpKeepsHottestStatements() throws SQLException {
+    OracleConnection profiled = implicitConnection(10);
+    for (int i = 0; i < 6; i++) {
+      run(profiled, ImplicitCacheableStatement::new, "select " + i + " from dual", i + 1);
+    }
+    OracleConnection connection = implicitConnection(3);
+    assertEquals(3, CacheWarmer.warmUp(profile, connection, 10));
+
+    server.resetRoundTrips();
+    for (int i = 3; i < 6; i++) {
+      run(connection, ImplicitCacheableStatement::new, "select " + i + " from dual", 1);
+    }
+    assertEquals(0, server.getRoundTrips(RoundTrip.PARSE));
+  }
+
+  @Test
+  public void testWarmUpExplicitCacheWithProperties() throws SQLException {
+    OracleConnection profiled = explicitConnection(10);
+    run(profiled, sql -> new ExplicitCacheableStatement(sql, "key"), "select 1 from dual", 1);
+
+    OracleConnection connection = explicitConnection(10);
+    CacheWarmer.warmUp(profile, connection, 10);
+    OraclePreparedStatement statement = (OraclePreparedStatement) connection.getStatementWithKey("key");
+    assertNotNull(statement);
+    assertEquals(50, statement.getRowPrefetch());
+  }
+
+  @Test
+  public void testWarmUpStatementCache() throws SQLException {
+    OracleConnection profiled = server.connect();
+    StatementCache.enable(profiled, 10);
+    run(profiled, LruCacheableStatement::new, "select 1 from dual", 1);
+
+    OracleConnection connection = server.connect();
+    StatementCache cache = StatementCache.enable(connection, 10);
+    CacheWarmer.warmUp(profile, connection, 10);
+    assertEquals(1, cache.size());
+
+    server.resetRoundTrips();
+    run(connection, LruCacheableStatement::new, "select 1 from dual", 1);
+    assertEquals(0, server.getRoundTrips(RoundTrip.PARSE));
+  }
+
+  private void run(OracleConnection connection, Function<String, CacheableStatement> factory, String sql, int times) throws SQLException {
+    for (int i = 0; i < times; i++) {
+      CacheableStatement cacheableStatement = new ProfilingCacheableStatement(factory.apply(sql), profile);
+      OraclePreparedStatement statement = cacheableStatement.getCachedStatement(connection);
+      if (statement == null) {
+        statement = PreparedStatementHelper.prepare(connection, sql);
+      }
+      statement.setRowPrefetch(50);
+      if (sql.startsWith("select")) {
+        ResultSet resultSet = cacheableStatement.executeQuery(statement);
+        resultSet.next();
+        resultSet.close();
+      } else {
+        statement.executeUpdate();
+      }
+      cacheableStatement.closePreparedStatement(statement);
+    }
+  }
+
+  private OracleConnection implicitConnection(int cacheSize) throws SQLException {
+    OracleConnection connection = server.connect();
+    connection.setImplicitCachingEnabled(true);
+    connection.setStatementCacheSize(cacheSize);
+    return connection;
+  }
+
+  private OracleConnection explicitConnection(int cacheSize) throws SQLException {
+    OracleConnection connection = server.connect();
+    connection.setExplicitCachingEnabled(true);
+    connection.setStatementCacheSize(cacheSize);
+    return connection;
+  }
+}
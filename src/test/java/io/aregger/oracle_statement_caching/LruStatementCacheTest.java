@@ -0,0 +1,184 @@
+package io.aregger.oracle_statement_caching;
+
+import io.aregger.oracle_statement_caching.helper.CacheableStatement;
+import io.aregger.oracle_statement_caching.helper.LruCacheableStatement;
+import io.aregger.oracle_statement_caching.helper.PreparedStatementHelper;
+import io.aregger.oracle_statement_caching.helper.StatementCache;
+import io.aregger.oracle_statement_caching.helper.StatementKey;
+import io.aregger.oracle_statement_caching.standin.RoundTrip;
+import io.aregger.oracle_statement_caching.standin.StandInServer;
+import oracle.jdbc.OracleConnection;
+import oracle.jdbc.OraclePreparedStatement;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.SQLException;
+
+import static io.aregger.oracle_statement_caching.StatementCacheTest.LOB_PREFETCH_SIZE_DEFAULT;
+import static io.aregger.oracle_statement_caching.StatementCacheTest.LOB_PREFETCH_SIZE_MODIFIED;
+import static io.aregger.oracle_statement_caching.StatementCacheTest.MAX_FIELD_SIZE_DEFAULT;
+import static io.aregger.oracle_statement_caching.StatementCacheTest.MAX_FIELD_SIZE_MODIFIED;
+import static io.aregger.oracle_statement_caching.StatementCacheTest.PREFETCH_SIZE_DEFAULT;
+import static io.aregger.oracle_statement_caching.StatementCacheTest.PREFETCH_SIZE_MODIFIED;
+import static io.aregger.oracle_statement_caching.StatementCacheTest.QUERY;
+import static io.aregger.oracle_statement_caching.StatementCacheTest.QUERY_TIMEOUT_DEFAULT;
+import static io.aregger.oracle_statement_caching.StatementCacheTest.QUERY_TIMEOUT_MODIFIED;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests the {@link StatementCache} against the stand-in server with the driver's own statement cache disabled.
+ */
+public class LruStatementCacheTest {
+
+  private static final String INSERT = "insert into t1(c2) values (?)";
+
+  private StandInServer server;
+  private OracleConnection connection;
+  private StatementCache cache;
+
+  @BeforeEach
+  void setUp() throws SQLException {
+    server = new StandInServer(0);
+    connection = server.connect();
+    cache = StatementCache.enable(connection, 2);
+  }
+
+  @AfterEach
+  void tearDown() throws SQLException {
+    StatementCache.disable(connection);
+    connection.close();
+  }
+
+  @Test
+  public void testHit() throws SQLException {
+    CacheableStatement cacheableStatement = new LruCacheableStatement(QUERY);
+    OraclePreparedStatement statement = cacheableStatement.getCachedStatement(connection);
+    cacheableStatement.closePreparedStatement(statement);
+
+    assertSame(statement, cacheableStatement.getCachedStatement(connection));
+    assertEquals(1, cache.getHits());
+    assertEquals(1, cache.getMisses());
+    assertEquals(1, server.getRoundTrips(RoundTrip.PARSE));
+  }
+
+  @Test
+  public void testCheckInResetsStatement() throws SQLException {
+    CacheableStatement cacheableStatement = new LruCacheableStatement(QUERY);
+    OraclePreparedStatement statement = PreparedStatementHelper.prepare(connection, QUERY);
+    statement.setRowPrefetch(PREFETCH_SIZE_MODIFIED);
+    statement.setLobPrefetchSize(LOB_PREFETCH_SIZE_MODIFIED);
+    statement.setMaxFieldSize(MAX_FIELD_SIZE_MODIFIED);
+    statement.setQueryTimeout(QUERY_TIMEOUT_MODIFIED);
+    statement.setString(1, "X");
+    statement.executeQuery().next();
+    cacheableStatement.closePreparedStatement(statement);
+
+    OraclePreparedStatement cached = cacheableStatement.getCachedStatement(connection);
+    assertSame(statement, cached);
+    assertEquals(PREFETCH_SIZE_DEFAULT, cached.getRowPrefetch());
+    assertEquals(LOB_PREFETCH_SIZE_DEFAULT, cached.getLobPrefetchSize());
+    assertEquals(MAX_FIELD_SIZE_DEFAULT, cached.getMaxFieldSize());
+    assertEquals(QUERY_TIMEOUT_DEFAULT, cached.getQueryTimeout());
+    assertTrue(cached.getResultSet().isClosed());
+    assertThrows(SQLException.class, cached::executeQuery);
+  }
+
+  @Test
+  public void testBatchIsCleared() throws SQLException {
+    CacheableStatement cacheableStatement = new LruCacheableStatement(INSERT);
+    OraclePreparedStatement statement = cacheableStatement.getCachedStatement(connection);
+    statement.setString(1, "X");
+    statement.addBatch();
+    statement.setString(1, "X");
+    statement.addBatch();
+    statement.executeBatch();
+    cacheableStatement.closePreparedStatement(statement);
+
+    cacheableStatement.getCachedStatement(connection).executeBatch();
+
+    assertEquals(2, server.getRowCount("t1"));
+  }
+
+  @Test
+  public void testGeneratedKeyColumnsArePartOfTheKey() throws SQLException {
+    CacheableStatement withKeys = new LruCacheableStatement(new StatementKey(INSERT, new String[]{"C1"}));
+    CacheableStatement withoutKeys = new LruCacheableStatement(INSERT);
+    OraclePreparedStatement statement = withKeys.getCachedStatement(connection);
+    withKeys.closePreparedStatement(statement);
+
+    assertNotSame(statement, withoutKeys.getCachedStatement(connection));
+    assertSame(statement, withKeys.getCachedStatement(connection));
+  }
+
+  @Test
+  public void testLeastRecentlyUsedIsEvicted() throws SQLException {
+    CacheableStatement first = new LruCacheableStatement(QUERY + " /* 1 */");
+    CacheableStatement second = new LruCacheableStatement(QUERY + " /* 2 */");
+    CacheableStatement third = new LruCacheableStatement(QUERY + " /* 3 */");
+    OraclePreparedStatement firstStatement = first.getCachedStatement(connection);
+    first.closePreparedStatement(firstStatement);
+    second.closePreparedStatement(second.getCachedStatement(connection));
+
+    // use the first statement again, so the second one becomes the least recently used
+    first.closePreparedStatement(first.getCachedStatement(connection));
+    third.closePreparedStatement(third.getCachedStatement(connection));
+
+    assertEquals(1, cache.getEvictions());
+    assertEquals(2, server.getOpenCursors());
+    assertSame(firstStatement, first.getCachedStatement(connection));
+  }
+
+  @Test
+  public void testCacheOfClosedConnectionIsDropped() throws SQLException {
+    OracleConnection other = server.connect();
+    StatementCache.enable(other, 2);
+    other.close();
+
+    StatementCache.enable(connection, 2);
+    assertNull(StatementCache.get(other));
+  }
+
+  @Test
+  public void testWrappedConnectionFindsCache() throws SQLException {
+    OracleConnection wrapper = wrap(connection);
+    CacheableStatement cacheableStatement = new LruCacheableStatement(QUERY);
+    OraclePreparedStatement statement = cacheableStatement.getCachedStatement(wrapper);
+    cacheableStatement.closePreparedStatement(statement);
+
+    assertSame(cache, StatementCache.get(wrapper));
+    assertSame(statement, cacheableStatement.getCachedStatement(wrapper));
+    assertEquals(1, cache.getHits());
+  }
+
+  /**
+   * Wraps the connection like a connection pool does, the wrapper is a different object which unwraps to it.
+   */
+  private static OracleConnection wrap(OracleConnection connection) {
+    return (OracleConnection) Proxy.newProxyInstance(OracleConnection.class.getClassLoader(), new Class<?>[]{OracleConnection.class}, (proxy, method, args) -> {
+      switch (method.getName()) {
+        case "equals":
+          return proxy == args[0];
+        case "hashCode":
+          return System.identityHashCode(proxy);
+        case "isWrapperFor":
+          return ((Class<?>) args[0]).isInstance(connection);
+        case "unwrap":
+          return connection;
+        default:
+          try {
+            return method.invoke(connection, args);
+          } catch (InvocationTargetException e) {
+            throw e.getCause();
+          }
+      }
+    });
+  }
+}
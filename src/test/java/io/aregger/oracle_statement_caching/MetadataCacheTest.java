@@ -0,0 +1,101 @@
+package io.aregger.oracle_statement_caching;
+
+import io.aregger.oracle_statement_caching.helper.CacheableStatement;
+import io.aregger.oracle_statement_caching.helper.ImplicitCacheableStatement;
+import io.aregger.oracle_statement_caching.helper.MetadataCache;
+import io.aregger.oracle_statement_caching.helper.PreparedStatementHelper;
+import io.aregger.oracle_statement_caching.standin.RoundTrip;
+import io.aregger.oracle_statement_caching.standin.StandInQuery;
+import io.aregger.oracle_statement_caching.standin.StandInServer;
+import oracle.jdbc.OracleConnection;
+import oracle.jdbc.OraclePreparedStatement;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+
+import static io.aregger.oracle_statement_caching.StatementCacheTest.QUERY;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Tests the {@link MetadataCache} against the stand-in server.
+ */
+public class MetadataCacheTest {
+
+  private StandInServer server;
+
+  @BeforeEach
+  void setUp() {
+    MetadataCache.invalidateAll();
+    server = new StandInServer(0);
+    server.registerQuery(QUERY, StandInQuery.varchar(10, row -> new Object[]{"X"}, "DUMMY"));
+  }
+
+  @Test
+  public void testConnectionsShareMetadata() throws SQLException {
+    for (int i = 0; i < 10; i++) {
+      OraclePreparedStatement statement = PreparedStatementHelper.prepare(server.connect(), QUERY);
+      assertEquals("DUMMY", MetadataCache.getMetaData(statement, QUERY).getColumnLabel(1));
+      assertEquals("VARCHAR2", MetadataCache.getParameterMetaData(statement, QUERY).getParameterTypeName(1));
+    }
+
+    // one describe of the select list and one of the binds
+    assertEquals(2, server.getRoundTrips(RoundTrip.DESCRIBE));
+  }
+
+  @Test
+  public void testCacheableStatementsShareMetadata() throws SQLException {
+    for (int i = 0; i < 3; i++) {
+      OracleConnection connection = server.connect();
+      connection.setImplicitCachingEnabled(true);
+      connection.setStatementCacheSize(10);
+      CacheableStatement cacheableStatement = new ImplicitCacheableStatement(QUERY);
+      OraclePreparedStatement statement = PreparedStatementHelper.prepare(connection, QUERY);
+      assertEquals("DUMMY", cacheableStatement.getMetaData(statement).getColumnLabel(1));
+      assertEquals(1, cacheableStatement.getParameterMetaData(statement).getParameterCount());
+      cacheableStatement.closePreparedStatement(statement);
+    }
+
+    assertEquals(2, server.getRoundTrips(RoundTrip.DESCRIBE));
+  }
+
+  @Test
+  public void testInvalidateAll() throws SQLException {
+    OraclePreparedStatement statement = PreparedStatementHelper.prepare(server.connect(), QUERY);
+    MetadataCache.getParameterMetaData(statement, QUERY);
+    long version = MetadataCache.getSchemaVersion();
+
+    MetadataCache.invalidateAll();
+    statement = PreparedStatementHelper.prepare(server.connect(), QUERY);
+    MetadataCache.getParameterMetaData(statement, QUERY);
+
+    assertEquals(version + 1, MetadataCache.getSchemaVersion());
+    assertEquals(2, server.getRoundTrips(RoundTrip.DESCRIBE));
+  }
+
+  @Test
+  public void testInvalidate() throws SQLException {
+    OraclePreparedStatement statement = PreparedStatementHelper.prepare(server.connect(), QUERY);
+    MetadataCache.getMetaData(statement, QUERY);
+    MetadataCache.invalidate(QUERY);
+
+    assertEquals(0, MetadataCache.size());
+  }
+
+  @Test
+  public void testMetadataIsShared() throws SQLException {
+    OraclePreparedStatement statement = PreparedStatementHelper.prepare(server.connect(), QUERY);
+    assertSame(MetadataCache.getMetaData(statement, QUERY), MetadataCache.getMetaData(statement, QUERY));
+  }
+
+  @Test
+  public void testNoMetadataForDml() throws SQLException {
+    String sql = "insert into t1(c2) values (?)";
+    OraclePreparedStatement statement = PreparedStatementHelper.prepare(server.connect(), sql);
+    assertNull(MetadataCache.getMetaData(statement, sql));
+    assertNull(MetadataCache.getMetaData(statement, sql));
+    assertEquals(0, server.getRoundTrips(RoundTrip.DESCRIBE));
+  }
+}
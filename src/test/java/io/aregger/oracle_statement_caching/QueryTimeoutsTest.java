@@ -0,0 +1,129 @@
+package io.aregger.oracle_statement_caching;
+
+import io.aregger.oracle_statement_caching.helper.CacheableStatement;
+import io.aregger.oracle_statement_caching.helper.ImplicitCacheableStatement;
+import io.aregger.oracle_statement_caching.helper.QueryTimeouts;
+import io.aregger.oracle_statement_caching.standin.StandInServer;
+import oracle.jdbc.OracleConnection;
+import oracle.jdbc.OraclePreparedStatement;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static io.aregger.oracle_statement_caching.StatementCacheTest.QUERY;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests that {@link QueryTimeouts} cancels executions of cached statements which exceed their timeout, and only those.
+ */
+public class QueryTimeoutsTest {
+
+  private QueryTimeouts timeouts;
+
+  @BeforeEach
+  void setUp() {
+    timeouts = new QueryTimeouts(Duration.ofMillis(1));
+  }
+
+  @AfterEach
+  void tearDown() {
+    timeouts.close();
+  }
+
+  @Test
+  public void testSlowExecutionIsCancelled() throws SQLException {
+    OracleConnection connection = connect(TimeUnit.SECONDS.toNanos(2));
+    CacheableStatement cacheableStatement = new ImplicitCacheableStatement(QUERY);
+    OraclePreparedStatement statement = cacheableStatement.getCachedStatement(connection);
+    statement.setString(1, "X");
+
+    long start = System.nanoTime();
+    QueryTimeouts.Timeout timeout = timeouts.arm(statement, 50);
+    SQLException e = assertThrows(SQLException.class, statement::executeQuery);
+    assertTrue(timeout.disarm());
+    long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+    assertEquals(1013, e.getErrorCode());
+    assertTrue(elapsedMillis >= 50 && elapsedMillis < 1500, "Cancelled after " + elapsedMillis + " ms");
+    assertEquals(1, timeouts.getCancellations());
+    cacheableStatement.closePreparedStatement(statement);
+  }
+
+  @Test
+  public void testDisarmedTimeoutDoesNotCancelNextExecution() throws SQLException, InterruptedException {
+    OracleConnection connection = connect(TimeUnit.MILLISECONDS.toNanos(20));
+    CacheableStatement cacheableStatement = new ImplicitCacheableStatement(QUERY);
+    OraclePreparedStatement statement = cacheableStatement.getCachedStatement(connection);
+    statement.setString(1, "X");
+    executeWithTimeout(statement, 10_000);
+    executeWithTimeout(statement, 200);
+    cacheableStatement.closePreparedStatement(statement);
+
+    Thread.sleep(300);
+    OraclePreparedStatement cached = cacheableStatement.getCachedStatement(connection);
+    cached.setString(1, "X");
+    executeWithTimeout(cached, 10_000);
+    assertEquals(0, timeouts.getCancellations());
+  }
+
+  @Test
+  public void testTimeoutDoesNotFireEarly() throws SQLException, InterruptedException {
+    OraclePreparedStatement statement = new ImplicitCacheableStatement(QUERY).getCachedStatement(connect(0));
+    QueryTimeouts.Timeout timeout = timeouts.arm(statement, 300);
+    Thread.sleep(100);
+    assertFalse(timeout.disarm());
+  }
+
+  @Test
+  public void testTimeoutsOnAllLevelsFire() throws SQLException, InterruptedException {
+    OraclePreparedStatement statement = new ImplicitCacheableStatement(QUERY).getCachedStatement(connect(0));
+    List<QueryTimeouts.Timeout> pending = new ArrayList<>();
+    for (int millis = 1; millis <= 300; millis += 7) {
+      pending.add(timeouts.arm(statement, millis));
+    }
+    QueryTimeouts.Timeout later = timeouts.arm(statement, 60_000);
+    Thread.sleep(600);
+
+    for (QueryTimeouts.Timeout timeout : pending) {
+      assertTrue(timeout.disarm());
+    }
+    assertFalse(later.disarm());
+    assertEquals(pending.size(), timeouts.getCancellations());
+  }
+
+  @Test
+  public void testTimeoutIsDisarmedOnce() throws SQLException {
+    OraclePreparedStatement statement = new ImplicitCacheableStatement(QUERY).getCachedStatement(connect(0));
+    QueryTimeouts.Timeout timeout = timeouts.arm(statement, 10_000);
+    assertFalse(timeout.disarm());
+    assertThrows(IllegalStateException.class, timeout::disarm);
+  }
+
+  private void executeWithTimeout(OraclePreparedStatement statement, long timeoutMillis) throws SQLException {
+    QueryTimeouts.Timeout timeout = timeouts.arm(statement, timeoutMillis);
+    try (ResultSet resultSet = statement.executeQuery()) {
+      while (resultSet.next()) {
+        resultSet.getString(1);
+      }
+    } finally {
+      assertFalse(timeout.disarm());
+    }
+  }
+
+  private static OracleConnection connect(long roundTripNanos) throws SQLException {
+    OracleConnection connection = new StandInServer(roundTripNanos).connect();
+    connection.setImplicitCachingEnabled(true);
+    connection.setStatementCacheSize(20);
+    return connection;
+  }
+}
@@ -0,0 +1,227 @@
+package io.aregger.oracle_statement_caching;
+
+import io.aregger.oracle_statement_caching.helper.ImplicitCacheableStatement;
+import io.aregger.oracle_statement_caching.helper.ResultCache;
+import io.aregger.oracle_statement_caching.standin.RoundTrip;
+import io.aregger.oracle_statement_caching.standin.StandInQuery;
+import io.aregger.oracle_statement_caching.standin.StandInServer;
+import oracle.jdbc.OracleConnection;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests the {@link ResultCache} against the stand-in server.
+ */
+public class ResultCacheTest {
+
+  private static final String T3_QUERY = "select dummy from t3 where dummy = ?";
+  private static final String T1_QUERY = "select c1, c2 from t1 where c1 = ?";
+  private static final String JOIN_QUERY = "select t1.c1, t2.c2 from s1.t1 a join t2 b on a.c1 = b.c1 where a.c1 = ?";
+  private static final String INSERT = "insert into t1 (c1, c2) values (?, ?)";
+  private static final String T2_INSERT = "insert into t2 (c1, c2) values (?, ?)";
+  private static final Duration LONG_TTL = Duration.ofHours(1);
+
+  private StandInServer server;
+  private OracleConnection connection;
+
+  @BeforeEach
+  void setUp() throws SQLException {
+    server = new StandInServer(0);
+    server.registerQuery(T3_QUERY, StandInQuery.varchar(10, row -> new Object[]{"X"}, "DUMMY"));
+    server.registerQuery(T1_QUERY, StandInQuery.varchar(3, row -> new Object[]{"c1-" + row, "c2-" + row}, "C1", "C2"));
+    connection = newConnection();
+  }
+
+  @Test
+  public void testRepeatedReadSkipsExecuteAndFetch() throws SQLException {
+    ResultCache cache = new ResultCache(1 << 20, LONG_TTL);
+    ResultCache.Rows rows = cache.query(connection, new ImplicitCacheableStatement(T3_QUERY), "X");
+    long roundTrips = server.getRoundTrips();
+
+    assertSame(rows, cache.query(connection, new ImplicitCacheableStatement(T3_QUERY), "X"));
+    assertEquals(roundTrips, server.getRoundTrips());
+    assertEquals(10, rows.getRowCount());
+    assertEquals("DUMMY", rows.getColumnLabel(1));
+    assertEquals("X", rows.getObject(9, 1));
+    assertEquals(1, cache.getHits());
+    assertEquals(1, cache.getMisses());
+  }
+
+  @Test
+  public void testBindValuesArePartOfKey() throws SQLException {
+    ResultCache cache = new ResultCache(1 << 20, LONG_TTL);
+    cache.query(connection, new ImplicitCacheableStatement(T1_QUERY), 1);
+    cache.query(connection, new ImplicitCacheableStatement(T1_QUERY), 2);
+    cache.query(connection, new ImplicitCacheableStatement(T1_QUERY), 1);
+
+    assertEquals(2, server.getRoundTrips(RoundTrip.EXECUTE));
+    assertEquals(2, cache.size());
+  }
+
+  @Test
+  public void testDmlInvalidatesDependentResults() throws SQLException {
+    ResultCache cache = new ResultCache(1 << 20, LONG_TTL);
+    cache.query(connection, new ImplicitCacheableStatement(T1_QUERY), 1);
+    cache.query(connection, new ImplicitCacheableStatement(JOIN_QUERY), 1);
+    cache.query(connection, new ImplicitCacheableStatement(T3_QUERY), "X");
+
+    cache.update(connection, new ImplicitCacheableStatement(INSERT), 4, "c2-4");
+    assertEquals(2, cache.getInvalidations());
+    assertEquals(1, cache.size());
+
+    cache.query(connection, new ImplicitCacheableStatement(JOIN_QUERY), 1);
+    cache.update(connection, new ImplicitCacheableStatement(T2_INSERT), 4, "c2-4");
+    assertEquals(3, cache.getInvalidations());
+    assertEquals(1, server.getRowCount("t2"));
+  }
+
+  @Test
+  public void testHintedAndCommentedDmlInvalidates() throws SQLException {
+    ResultCache cache = new ResultCache(1 << 20, LONG_TTL);
+    cache.query(connection, new ImplicitCacheableStatement(T1_QUERY), 1);
+    cache.update(connection, new ImplicitCacheableStatement("/* load */ insert /*+ append */ into t1 (c1, c2) values (?, ?)"), 4, "c2-4");
+    assertEquals(1, cache.getInvalidations());
+
+    cache.query(connection, new ImplicitCacheableStatement(T1_QUERY), 1);
+    cache.update(connection, new ImplicitCacheableStatement("-- fix\nupdate --+ index(t1)\n t1 set c2 = ? where c1 = ?"), "c2-1", 1);
+    assertEquals(2, cache.getInvalidations());
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  public void testQuotedTablesAreMatched() throws SQLException {
+    String quotedQuery = "select c1 from \"S1\".\"T1\" /* t2 */ where c1 = ?";
+    String lowerCaseQuery = "select c1 from \"t1\" where c1 = ?";
+    server.registerQuery(quotedQuery, StandInQuery.varchar(1, row -> new Object[]{"c1-" + row}, "C1"));
+    server.registerQuery(lowerCaseQuery, StandInQuery.varchar(1, row -> new Object[]{"c1-" + row}, "C1"));
+    ResultCache cache = new ResultCache(1 << 20, LONG_TTL);
+    cache.query(connection, new ImplicitCacheableStatement(quotedQuery), 1);
+    cache.query(connection, new ImplicitCacheableStatement(lowerCaseQuery), 1);
+
+    cache.update(connection, new ImplicitCacheableStatement(T2_INSERT), 4, "c2-4");
+    assertEquals(0, cache.getInvalidations());
+    cache.update(connection, new ImplicitCacheableStatement("insert into \"T1\" (c1, c2) values (?, ?)"), 4, "c2-4");
+    assertEquals(1, cache.getInvalidations());
+    cache.update(connection, new ImplicitCacheableStatement("delete \"t1\" where c1 = ?"), 4);
+    assertEquals(2, cache.getInvalidations());
+  }
+
+  @Test
+  public void testStatementWithoutTableInvalidatesAll() throws SQLException {
+    String call = "begin p1(?); end;";
+    server.registerCall(call, args -> { });
+    ResultCache cache = new ResultCache(1 << 20, LONG_TTL);
+    cache.query(connection, new ImplicitCacheableStatement(T1_QUERY), 1);
+    cache.query(connection, new ImplicitCacheableStatement(T3_QUERY), "X");
+
+    cache.update(connection, new ImplicitCacheableStatement(call), 1);
+    assertEquals(2, cache.getInvalidations());
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  public void testVolatileQueryIsNotCached() throws SQLException {
+    ResultCache cache = new ResultCache(1 << 20, LONG_TTL);
+    String[] queries = {"select s.nextval from dual", "select c1, sysdate from t1", "select dbms_random.value c1 from t1",
+        "select c1 from t1 where c2 > current_timestamp", "select dummy from dual"};
+    for (String sql : queries) {
+      server.registerQuery(sql, StandInQuery.varchar(1, row -> new Object[]{"X"}, "C1"));
+      cache.query(connection, new ImplicitCacheableStatement(sql));
+      cache.query(connection, new ImplicitCacheableStatement(sql));
+    }
+
+    assertEquals(0, cache.size());
+    assertEquals(0, cache.getHits());
+    assertEquals(10, server.getRoundTrips(RoundTrip.EXECUTE));
+  }
+
+  @Test
+  public void testQueryWithoutTableIsNotCached() throws SQLException {
+    String tablelessQuery = "select systimestamp c1";
+    server.registerQuery(tablelessQuery, StandInQuery.varchar(1, row -> new Object[]{"now"}, "C1"));
+    ResultCache cache = new ResultCache(1 << 20, LONG_TTL);
+    cache.query(connection, new ImplicitCacheableStatement(tablelessQuery));
+    cache.query(connection, new ImplicitCacheableStatement(tablelessQuery));
+
+    assertEquals(0, cache.size());
+    assertEquals(0, cache.getHits());
+    assertEquals(2, server.getRoundTrips(RoundTrip.EXECUTE));
+  }
+
+  @Test
+  public void testUncommittedWritesBypassCacheUntilCommit() throws SQLException {
+    ResultCache cache = new ResultCache(1 << 20, LONG_TTL);
+    OracleConnection reader = newConnection();
+    cache.query(reader, new ImplicitCacheableStatement(T1_QUERY), 1);
+    connection.setAutoCommit(false);
+
+    cache.update(connection, new ImplicitCacheableStatement(INSERT), 4, "c2-4");
+    cache.query(reader, new ImplicitCacheableStatement(T1_QUERY), 1);
+    cache.query(connection, new ImplicitCacheableStatement(T1_QUERY), 1);
+    cache.query(connection, new ImplicitCacheableStatement(T1_QUERY), 1);
+    assertEquals(0, cache.getHits());
+    assertEquals(1, cache.size());
+
+    cache.commit(connection);
+    assertEquals(0, cache.size());
+    cache.query(connection, new ImplicitCacheableStatement(T1_QUERY), 1);
+    cache.query(reader, new ImplicitCacheableStatement(T1_QUERY), 1);
+    assertEquals(1, cache.getHits());
+  }
+
+  @Test
+  public void testExpiredResultIsReloaded() throws SQLException, InterruptedException {
+    ResultCache cache = new ResultCache(1 << 20, Duration.ofMillis(20));
+    cache.query(connection, new ImplicitCacheableStatement(T3_QUERY), "X");
+    Thread.sleep(50);
+    cache.query(connection, new ImplicitCacheableStatement(T3_QUERY), "X");
+
+    assertEquals(0, cache.getHits());
+    assertEquals(2, server.getRoundTrips(RoundTrip.EXECUTE));
+  }
+
+  @Test
+  public void testMemoryIsBounded() throws SQLException {
+    ResultCache cache = new ResultCache(2000, LONG_TTL);
+    for (int i = 0; i < 20; i++) {
+      cache.query(connection, new ImplicitCacheableStatement(T1_QUERY), i);
+      assertTrue(cache.getBytes() <= 2000, "Cached " + cache.getBytes() + " bytes");
+    }
+    assertTrue(cache.size() > 0 && cache.size() < 20, "Cached " + cache.size() + " results");
+  }
+
+  @Test
+  public void testLargeResultIsEvictedFirst() throws SQLException {
+    String bigQuery = "select c1 from big where c1 = ?";
+    server.registerQuery(bigQuery, StandInQuery.varchar(200, row -> new Object[]{"value-" + row}, "C1"));
+    ResultCache cache = new ResultCache(12_000, LONG_TTL);
+    cache.query(connection, new ImplicitCacheableStatement(T1_QUERY), 1);
+    cache.query(connection, new ImplicitCacheableStatement(T1_QUERY), 2);
+    cache.query(connection, new ImplicitCacheableStatement(bigQuery), 1);
+    assertEquals(3, cache.size());
+    long executions = server.getRoundTrips(RoundTrip.EXECUTE);
+
+    for (int i = 3; i < 12; i++) {
+      cache.query(connection, new ImplicitCacheableStatement(T1_QUERY), i);
+    }
+    cache.query(connection, new ImplicitCacheableStatement(T1_QUERY), 1);
+    cache.query(connection, new ImplicitCacheableStatement(T1_QUERY), 2);
+    assertEquals(executions + 9, server.getRoundTrips(RoundTrip.EXECUTE));
+    cache.query(connection, new ImplicitCacheableStatement(bigQuery), 1);
+    assertEquals(executions + 10, server.getRoundTrips(RoundTrip.EXECUTE));
+  }
+
+  private OracleConnection newConnection() throws SQLException {
+    OracleConnection newConnection = server.connect();
+    newConnection.setImplicitCachingEnabled(true);
+    newConnection.setStatementCacheSize(20);
+    return newConnection;
+  }
+}
@@ -0,0 +1,142 @@
+package io.aregger.oracle_statement_caching;
+
+import io.aregger.oracle_statement_caching.helper.CacheableStatement;
+import io.aregger.oracle_statement_caching.helper.ExplicitCacheableStatement;
+import io.aregger.oracle_statement_caching.helper.ImplicitCacheableStatement;
+import io.aregger.oracle_statement_caching.helper.NormalizedSql;
+import io.aregger.oracle_statement_caching.helper.NormalizingCacheableStatement;
+import io.aregger.oracle_statement_caching.helper.PreparedStatementHelper;
+import io.aregger.oracle_statement_caching.helper.SqlNormalizer;
+import io.aregger.oracle_statement_caching.standin.RoundTrip;
+import io.aregger.oracle_statement_caching.standin.StandInServer;
+import oracle.jdbc.OracleConnection;
+import oracle.jdbc.OraclePreparedStatement;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests the {@link SqlNormalizer} and statements cached under normalized SQL texts.
+ */
+public class SqlNormalizerTest {
+
+  private final SqlNormalizer normalizer = new SqlNormalizer(100);
+
+  @Test
+  public void testLiteralsCaseAndWhitespace() {
+    NormalizedSql first = normalizer.normalize("select *  from dual\n where dummy = 'X' and rownum <= 10");
+    NormalizedSql second = normalizer.normalize("SELECT * FROM DUAL WHERE dummy='Y' AND ROWNUM<=20");
+    assertEquals("SELECT * FROM DUAL WHERE DUMMY = ? AND ROWNUM <= ?", first.getSql());
+    assertEquals(first.getSql(), second.getSql());
+    assertEquals(2, first.getLiteralCount());
+  }
+
+  @Test
+  public void testExistingPlaceholdersAreMapped() throws SQLException {
+    NormalizedSql normalized = normalizer.normalize("update t1 set c2 = 'it''s', c3 = ? where c1 = 1.5e3 and c4 = ?");
+    assertEquals("UPDATE T1 SET C2 = ?, C3 = ? WHERE C1 = ? AND C4 = ?", normalized.getSql());
+    assertEquals(2, normalized.getParameterIndex(1));
+    assertEquals(4, normalized.getParameterIndex(2));
+  }
+
+  @Test
+  public void testParameterIndexOutOfRangeFails() throws SQLException {
+    NormalizedSql normalized = normalizer.normalize("select * from t1 where c1 = 5 and c2 = ?");
+    assertEquals(2, normalized.getParameterIndex(1));
+    // index 2 would bind the placeholder of the literal
+    assertThrows(SQLException.class, () -> normalized.getParameterIndex(2));
+    assertThrows(SQLException.class, () -> normalized.getParameterIndex(0));
+
+    // without replaced literals the index is left to the driver
+    assertEquals(3, normalizer.normalize("select * from t1 where c1 = ?").getParameterIndex(3));
+  }
+
+  @Test
+  public void testLiteralsWhichAreKept() {
+    assertEquals("SELECT C1, CAST(C2 AS VARCHAR2(10)) FROM T1 WHERE C3 > DATE '2020-01-01' ORDER BY 2, 1",
+        normalizer.normalize("select c1, cast(c2 as varchar2(10)) from t1 where c3 > date '2020-01-01' order by 2, 1").getSql());
+    assertEquals("SELECT q'[it's]', N'x', 1.5f, \"Mixed Case\" FROM T1",
+        normalizer.normalize("select q'[it's]', N'x', 1.5f, \"Mixed Case\" from t1").getSql());
+    assertEquals("SELECT /*+ index(t 1) */ * FROM T1 T WHERE C1 = :id AND C2 = 5",
+        normalizer.normalize("select /*+ index(t 1) */ * from t1 t where c1 = :id and c2 = 5").getSql());
+    assertEquals("SELECT ROW_NUMBER() OVER(ORDER BY C1 DESC), ? FROM T1 ORDER BY 1",
+        normalizer.normalize("select row_number() over (order by c1 desc), 2 from t1 order by 1").getSql());
+  }
+
+  @Test
+  public void testOnlyQueriesAndDmlAreRewritten() {
+    String ddl = "create table t1 (c1 number(10), c2 varchar2(10) default 'x')";
+    assertEquals(ddl, normalizer.normalize(ddl).getSql());
+    String block = "begin  dbms_output.put_line('x'); end;";
+    assertEquals(block, normalizer.normalize(block).getSql());
+  }
+
+  @Test
+  public void testSpacingAndComments() {
+    assertEquals("SELECT T.C1, F(A, B) FROM S.T@LINK T, U WHERE T.C1 = U.C1(+) -- comment\nAND T.C2 || T.C3 IS NOT NULL",
+        new SqlNormalizer(0).normalize("select t . c1 , f ( a,b ) from s.t@link t, u where t.c1=u.c1(+) -- comment\n and t.c2||t.c3 is not null").getSql());
+  }
+
+  @Test
+  public void testRewriteIsMemoized() {
+    String sql = "select * from dual where dummy = 'X'";
+    assertSame(normalizer.normalize(sql), normalizer.normalize(sql));
+    assertEquals(1, normalizer.getRewrites());
+  }
+
+  @Test
+  public void testStatementsWithDifferentLiteralsShareCacheEntry() throws SQLException {
+    StandInServer server = new StandInServer(0);
+    OracleConnection connection = server.connect();
+    connection.setImplicitCachingEnabled(true);
+    connection.setStatementCacheSize(20);
+
+    for (String value : new String[]{"'A'", "'B'", "'C'"}) {
+      CacheableStatement statement = new NormalizingCacheableStatement("insert into t1 (c2, c3) values (" + value + ", ?)", normalizer, ImplicitCacheableStatement::new);
+      OraclePreparedStatement preparedStatement = statement.getCachedStatement(connection);
+      preparedStatement.setString(1, "X");
+      preparedStatement.executeUpdate();
+      statement.closePreparedStatement(preparedStatement);
+    }
+    assertEquals(1, server.getRoundTrips(RoundTrip.PARSE));
+    assertEquals(3, server.getRowCount("t1"));
+  }
+
+  @Test
+  public void testPrepareNormalized() throws SQLException {
+    StandInServer server = new StandInServer(0);
+    OracleConnection connection = server.connect();
+    connection.setImplicitCachingEnabled(true);
+    connection.setStatementCacheSize(20);
+
+    for (int i = 0; i < 3; i++) {
+      OraclePreparedStatement statement = PreparedStatementHelper.prepareNormalized(connection, "select * from dual where dummy = 'X' and rownum <= " + i, normalizer);
+      statement.executeQuery().next();
+      statement.clearParameters();
+      statement.executeQuery().next();
+      statement.close();
+    }
+    assertEquals(1, server.getRoundTrips(RoundTrip.PARSE));
+  }
+
+  @Test
+  public void testExplicitCacheMissIsPrepared() throws SQLException {
+    StandInServer server = new StandInServer(0);
+    OracleConnection connection = server.connect();
+    connection.setExplicitCachingEnabled(true);
+    connection.setStatementCacheSize(20);
+
+    for (int i = 0; i < 2; i++) {
+      CacheableStatement statement = new NormalizingCacheableStatement("insert into t1 (c2) values (" + i + ")", normalizer, sql -> new ExplicitCacheableStatement(sql, "insert"));
+      OraclePreparedStatement preparedStatement = statement.getCachedStatement(connection);
+      preparedStatement.executeUpdate();
+      statement.closePreparedStatement(preparedStatement);
+    }
+    assertEquals(1, server.getRoundTrips(RoundTrip.PARSE));
+    assertEquals(2, server.getRowCount("t1"));
+  }
+}
@@ -0,0 +1,20 @@
+package io.aregger.oracle_statement_caching;
+
+import io.aregger.oracle_statement_caching.helper.AutoKeyedCacheableStatement;
+import io.aregger.oracle_statement_caching.helper.CacheableStatement;
+
+/**
+ * Runs the explicit cache checks with derived cache keys, which must behave exactly like hand-written ones.
+ */
+public class StandInAutoKeyedStatementCacheTest extends StandInExplicitStatementCacheTest {
+
+  @Override
+  CacheableStatement getDefaultStatement() {
+    return new AutoKeyedCacheableStatement(StatementCacheTest.QUERY);
+  }
+
+  @Override
+  CacheableStatement getInsertStatement() {
+    return new AutoKeyedCacheableStatement(INSERT);
+  }
+}
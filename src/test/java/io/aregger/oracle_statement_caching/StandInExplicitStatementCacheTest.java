@@ -0,0 +1,72 @@
+package io.aregger.oracle_statement_caching;
+
+import io.aregger.oracle_statement_caching.helper.CacheableStatement;
+import io.aregger.oracle_statement_caching.helper.ExplicitCacheableStatement;
+import io.aregger.oracle_statement_caching.standin.RoundTrip;
+import oracle.jdbc.OracleConnection;
+import oracle.jdbc.OraclePreparedStatement;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class StandInExplicitStatementCacheTest extends StandInStatementCacheTest {
+
+  private static final String CACHE_KEY = "junit-test";
+
+  @Override
+  OracleConnection getConnection() throws SQLException {
+    OracleConnection connection = server.connect();
+    connection.setExplicitCachingEnabled(true);
+    connection.setStatementCacheSize(20);
+    return connection;
+  }
+
+  @Test
+  public void testExecuteCachedStatementWithoutBind() throws SQLException {
+    OraclePreparedStatement statement = executeAndGetCachedStatement(getConnection());
+    statement.executeQuery();
+    assertEquals(2, server.getRoundTrips(RoundTrip.EXECUTE));
+  }
+
+  @Override
+  CacheableStatement getDefaultStatement() {
+    return new ExplicitCacheableStatement(StatementCacheTest.QUERY, CACHE_KEY);
+  }
+
+  @Override
+  CacheableStatement getInsertStatement() {
+    return new ExplicitCacheableStatement(INSERT, CACHE_KEY);
+  }
+
+  @Override
+  int getExpectedPrefetchSize() {
+    return StatementCacheTest.PREFETCH_SIZE_MODIFIED;
+  }
+
+  @Override
+  int getExpectedLobPrefetchSize() {
+    return StatementCacheTest.LOB_PREFETCH_SIZE_MODIFIED;
+  }
+
+  @Override
+  int getExpectedMaxFieldSize() {
+    return StatementCacheTest.MAX_FIELD_SIZE_MODIFIED;
+  }
+
+  @Override
+  int getExpectedQueryTimeout() {
+    return StatementCacheTest.QUERY_TIMEOUT_MODIFIED;
+  }
+
+  @Override
+  int getExpectedParameterMetadataRoundTrips() {
+    return 0;
+  }
+
+  @Override
+  int getExpectedBatchInsertCount() {
+    return 4;
+  }
+}
@@ -0,0 +1,83 @@
+package io.aregger.oracle_statement_caching;
+
+import io.aregger.oracle_statement_caching.helper.CacheableStatement;
+import io.aregger.oracle_statement_caching.helper.ImplicitCacheableStatement;
+import io.aregger.oracle_statement_caching.helper.PreparedStatementHelper;
+import oracle.jdbc.OracleConnection;
+import oracle.jdbc.OraclePreparedStatement;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class StandInImplicitStatementCacheTest extends StandInStatementCacheTest {
+
+  @Override
+  OracleConnection getConnection() throws SQLException {
+    OracleConnection connection = server.connect();
+    connection.setImplicitCachingEnabled(true);
+    connection.setStatementCacheSize(20);
+    return connection;
+  }
+
+  @Test
+  public void testExecuteCachedStatementWithoutBind() throws SQLException {
+    OraclePreparedStatement statement = executeAndGetCachedStatement(getConnection());
+    assertThrows(SQLException.class, statement::executeQuery);
+  }
+
+  @Test
+  public void testCacheSizeLimitsOpenCursors() throws SQLException {
+    OracleConnection connection = getConnection();
+    for (int i = 0; i < 30; i++) {
+      OraclePreparedStatement statement = PreparedStatementHelper.prepare(connection, StatementCacheTest.QUERY + " /* " + i + " */");
+      statement.close();
+    }
+    assertEquals(20, server.getOpenCursors());
+
+    connection.close();
+    assertEquals(0, server.getOpenCursors());
+  }
+
+  @Override
+  CacheableStatement getDefaultStatement() {
+    return new ImplicitCacheableStatement(StatementCacheTest.QUERY);
+  }
+
+  @Override
+  CacheableStatement getInsertStatement() {
+    return new ImplicitCacheableStatement(INSERT);
+  }
+
+  @Override
+  int getExpectedPrefetchSize() {
+    return StatementCacheTest.PREFETCH_SIZE_DEFAULT;
+  }
+
+  @Override
+  int getExpectedLobPrefetchSize() {
+    return StatementCacheTest.LOB_PREFETCH_SIZE_DEFAULT;
+  }
+
+  @Override
+  int getExpectedMaxFieldSize() {
+    return StatementCacheTest.MAX_FIELD_SIZE_DEFAULT;
+  }
+
+  @Override
+  int getExpectedQueryTimeout() {
+    return StatementCacheTest.QUERY_TIMEOUT_DEFAULT;
+  }
+
+  @Override
+  int getExpectedParameterMetadataRoundTrips() {
+    return 1;
+  }
+
+  @Override
+  int getExpectedBatchInsertCount() {
+    return 2;
+  }
+}
@@ -0,0 +1,75 @@
+package io.aregger.oracle_statement_caching;
+
+import io.aregger.oracle_statement_caching.helper.CacheableStatement;
+import io.aregger.oracle_statement_caching.helper.PropertyPreservingCacheableStatement;
+import oracle.jdbc.OracleConnection;
+import oracle.jdbc.OraclePreparedStatement;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * The implicit cache with {@link PropertyPreservingCacheableStatement} keeps the tuned properties like the explicit
+ * cache but resets binds and batches like the implicit cache.
+ */
+public class StandInPropertyPreservingStatementCacheTest extends StandInStatementCacheTest {
+
+  // shared by all calls of a test, as a call site would share it
+  private final CacheableStatement defaultStatement = new PropertyPreservingCacheableStatement(StatementCacheTest.QUERY);
+
+  @Override
+  OracleConnection getConnection() throws SQLException {
+    OracleConnection connection = server.connect();
+    connection.setImplicitCachingEnabled(true);
+    connection.setStatementCacheSize(20);
+    return connection;
+  }
+
+  @Test
+  public void testExecuteCachedStatementWithoutBind() throws SQLException {
+    OraclePreparedStatement statement = executeAndGetCachedStatement(getConnection());
+    assertThrows(SQLException.class, statement::executeQuery);
+  }
+
+  @Override
+  CacheableStatement getDefaultStatement() {
+    return defaultStatement;
+  }
+
+  @Override
+  CacheableStatement getInsertStatement() {
+    return new PropertyPreservingCacheableStatement(INSERT);
+  }
+
+  @Override
+  int getExpectedPrefetchSize() {
+    return StatementCacheTest.PREFETCH_SIZE_MODIFIED;
+  }
+
+  @Override
+  int getExpectedLobPrefetchSize() {
+    return StatementCacheTest.LOB_PREFETCH_SIZE_MODIFIED;
+  }
+
+  @Override
+  int getExpectedMaxFieldSize() {
+    return StatementCacheTest.MAX_FIELD_SIZE_MODIFIED;
+  }
+
+  @Override
+  int getExpectedQueryTimeout() {
+    return StatementCacheTest.QUERY_TIMEOUT_MODIFIED;
+  }
+
+  @Override
+  int getExpectedParameterMetadataRoundTrips() {
+    return 1;
+  }
+
+  @Override
+  int getExpectedBatchInsertCount() {
+    return 2;
+  }
+}
@@ -0,0 +1,165 @@
+package io.aregger.oracle_statement_caching;
+
+import io.aregger.oracle_statement_caching.helper.CacheableStatement;
+import io.aregger.oracle_statement_caching.helper.PreparedStatementHelper;
+import io.aregger.oracle_statement_caching.standin.RoundTrip;
+import io.aregger.oracle_statement_caching.standin.StandInQuery;
+import io.aregger.oracle_statement_caching.standin.StandInServer;
+import oracle.jdbc.OracleConnection;
+import oracle.jdbc.OraclePreparedStatement;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import static io.aregger.oracle_statement_caching.StatementCacheTest.LOB_PREFETCH_SIZE_MODIFIED;
+import static io.aregger.oracle_statement_caching.StatementCacheTest.MAX_FIELD_SIZE_MODIFIED;
+import static io.aregger.oracle_statement_caching.StatementCacheTest.PREFETCH_SIZE_MODIFIED;
+import static io.aregger.oracle_statement_caching.StatementCacheTest.QUERY;
+import static io.aregger.oracle_statement_caching.StatementCacheTest.QUERY_TIMEOUT_MODIFIED;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Runs the checks of {@link StatementCacheTest} against the in-process stand-in server and counts the round trips
+ * instead of reading trace files. Needs no database.
+ */
+abstract class StandInStatementCacheTest {
+
+  static final String INSERT = "insert into t1(c2) values (?)";
+
+  StandInServer server;
+
+  @BeforeEach
+  void setUp() {
+    server = new StandInServer(0);
+    server.registerQuery(QUERY, StandInQuery.varchar(10, row -> new Object[]{"X"}, "DUMMY"));
+  }
+
+  @Test
+  public void testExpectedProperties() throws SQLException {
+    OraclePreparedStatement statement = executeAndGetCachedStatement(getConnection());
+    assertEquals(ResultSet.TYPE_SCROLL_INSENSITIVE, statement.getResultSetType());
+    assertEquals(ResultSet.CONCUR_UPDATABLE, statement.getResultSetConcurrency());
+    assertEquals(getExpectedPrefetchSize(), statement.getRowPrefetch());
+    assertEquals(getExpectedLobPrefetchSize(), statement.getLobPrefetchSize());
+    assertEquals(getExpectedMaxFieldSize(), statement.getMaxFieldSize());
+    assertEquals(getExpectedQueryTimeout(), statement.getQueryTimeout());
+  }
+
+  @Test
+  public void testResultSet() throws SQLException {
+    OraclePreparedStatement statement = executeAndGetCachedStatement(getConnection());
+    assertThrows(SQLException.class, () -> statement.getResultSet().getString(1), "ResultSet was not re-initialized");
+  }
+
+  @Test
+  public void testCachedStatementIsNotParsedAgain() throws SQLException {
+    OraclePreparedStatement statement = executeAndGetCachedStatement(getConnection());
+    statement.setString(1, "X");
+    statement.executeQuery();
+
+    assertEquals(1, server.getRoundTrips(RoundTrip.PARSE));
+    assertEquals(2, server.getRoundTrips(RoundTrip.EXECUTE));
+  }
+
+  @Test
+  public void testResultSetMetadata() throws SQLException {
+    OraclePreparedStatement statement = executeAndGetCachedStatement(getConnection());
+    server.resetRoundTrips();
+
+    assertEquals("DUMMY", statement.getMetaData().getColumnLabel(1));
+    assertEquals(0, server.getRoundTrips());
+  }
+
+  @Test
+  public void testParameterMetadata() throws SQLException {
+    OracleConnection connection = getConnection();
+    CacheableStatement cacheableStatement = getDefaultStatement();
+    OraclePreparedStatement statement = PreparedStatementHelper.prepare(connection, cacheableStatement.getSql());
+    statement.setString(1, "X");
+    statement.executeQuery();
+    statement.getParameterMetaData().getParameterTypeName(1);
+    cacheableStatement.closePreparedStatement(statement);
+
+    statement = cacheableStatement.getCachedStatement(connection);
+    server.resetRoundTrips();
+    statement.getParameterMetaData().getParameterTypeName(1);
+
+    assertEquals(getExpectedParameterMetadataRoundTrips(), server.getRoundTrips(RoundTrip.DESCRIBE));
+  }
+
+  @Test
+  public void testFetchRoundTrips() throws SQLException {
+    server.registerQuery(QUERY, StandInQuery.varchar(25, row -> new Object[]{"X"}, "DUMMY"));
+    OraclePreparedStatement statement = PreparedStatementHelper.prepare(getConnection(), QUERY);
+    statement.setString(1, "X");
+    ResultSet resultSet = statement.executeQuery();
+    int rows = 0;
+    while (resultSet.next()) {
+      rows++;
+    }
+
+    assertEquals(25, rows);
+    assertEquals(1, server.getRoundTrips(RoundTrip.EXECUTE));
+    assertEquals(2, server.getRoundTrips(RoundTrip.FETCH));
+  }
+
+  @Test
+  public void testBatch() throws SQLException {
+    OracleConnection connection = getConnection();
+    CacheableStatement cacheableStatement = getInsertStatement();
+    OraclePreparedStatement statement = PreparedStatementHelper.prepare(connection, cacheableStatement.getSql());
+    statement.setString(1, "X");
+    statement.addBatch();
+    statement.setString(1, "X");
+    statement.addBatch();
+    statement.executeBatch();
+    cacheableStatement.closePreparedStatement(statement);
+
+    statement = cacheableStatement.getCachedStatement(connection);
+    statement.executeBatch();
+
+    assertEquals(getExpectedBatchInsertCount(), server.getRowCount("t1"));
+  }
+
+  OraclePreparedStatement executeAndGetCachedStatement(OracleConnection connection) throws SQLException {
+    CacheableStatement defaultStatement = getDefaultStatement();
+    OraclePreparedStatement statement = PreparedStatementHelper.prepare(connection, defaultStatement.getSql());
+
+    statement.setRowPrefetch(PREFETCH_SIZE_MODIFIED);
+    statement.setLobPrefetchSize(LOB_PREFETCH_SIZE_MODIFIED);
+    statement.setMaxFieldSize(MAX_FIELD_SIZE_MODIFIED);
+    statement.setQueryTimeout(QUERY_TIMEOUT_MODIFIED);
+
+    statement.setString(1, "X");
+    ResultSet rs = statement.executeQuery();
+    rs.next();
+    defaultStatement.closePreparedStatement(statement);
+
+    return defaultStatement.getCachedStatement(connection);
+  }
+
+  abstract OracleConnection getConnection() throws SQLException;
+
+  abstract CacheableStatement getDefaultStatement();
+
+  abstract CacheableStatement getInsertStatement();
+
+  /*
+   * Assert methods
+   */
+  abstract int getExpectedPrefetchSize();
+
+  abstract int getExpectedLobPrefetchSize();
+
+  abstract int getExpectedMaxFieldSize();
+
+  abstract int getExpectedQueryTimeout();
+
+  abstract int getExpectedParameterMetadataRoundTrips();
+
+  abstract int getExpectedBatchInsertCount();
+
+}
@@ -2,6 +2,7 @@ package io.aregger.oracle_statement_caching;
 
 import io.aregger.oracle_statement_caching.helper.CacheableStatement;
 import io.aregger.oracle_statement_caching.helper.ImplicitCacheableStatement;
+import io.aregger.oracle_statement_caching.helper.MetadataCache;
 import io.aregger.oracle_statement_caching.helper.PreparedStatementHelper;
 import oracle.jdbc.OracleCallableStatement;
 import oracle.jdbc.OracleConnection;
@@ -143,12 +144,14 @@ abstract class StatementCacheTest {
     int tableCount = resultSet.getInt("CNT");
     if (tableCount > 0) {
       statement.execute("drop table t1");
+      MetadataCache.invalidateAll();
     }
   }
 
   void createTable(Connection connection) throws SQLException {
     Statement statement = connection.createStatement();
     statement.execute("create table t1 (c1 NUMBER GENERATED by default on null as IDENTITY, c2 varchar2(10), c3 clob, c4 clob)");
+    MetadataCache.invalidateAll();
   }
 
   void testUpdateCount(CacheableStatement cacheableStatement, boolean callGetUpdateCountAfterFirstExecution, int expectedUpdateCount) throws SQLException {
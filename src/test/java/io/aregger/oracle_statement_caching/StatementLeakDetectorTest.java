@@ -0,0 +1,124 @@
+package io.aregger.oracle_statement_caching;
+
+import io.aregger.oracle_statement_caching.helper.CacheableStatement;
+import io.aregger.oracle_statement_caching.helper.ExplicitCacheableStatement;
+import io.aregger.oracle_statement_caching.helper.ImplicitCacheableStatement;
+import io.aregger.oracle_statement_caching.helper.LeakTrackingCacheableStatement;
+import io.aregger.oracle_statement_caching.helper.StatementLeakDetector;
+import io.aregger.oracle_statement_caching.standin.StandInServer;
+import oracle.jdbc.OracleConnection;
+import oracle.jdbc.OraclePreparedStatement;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static io.aregger.oracle_statement_caching.StatementCacheTest.QUERY;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests that the {@link StatementLeakDetector} reports statements which are held too long, and only those.
+ */
+public class StatementLeakDetectorTest {
+
+  private static final String OTHER_QUERY = "select dummy from dual";
+
+  private OracleConnection connection;
+
+  @BeforeEach
+  void setUp() throws SQLException {
+    connection = new StandInServer(0).connect();
+    connection.setImplicitCachingEnabled(true);
+    connection.setStatementCacheSize(20);
+  }
+
+  @Test
+  public void testHeldStatementsAreCountedPerSql() throws SQLException, InterruptedException {
+    StatementLeakDetector detector = new StatementLeakDetector(Duration.ofMillis(50));
+    CacheableStatement query = new LeakTrackingCacheableStatement(new ImplicitCacheableStatement(QUERY), detector);
+    CacheableStatement otherQuery = new LeakTrackingCacheableStatement(new ImplicitCacheableStatement(OTHER_QUERY), detector);
+    query.getCachedStatement(connection);
+    query.getCachedStatement(connection);
+    otherQuery.getCachedStatement(connection);
+
+    assertTrue(detector.findLeaks().isEmpty());
+    Thread.sleep(100);
+    assertEquals(Map.of(QUERY, 2, OTHER_QUERY, 1), detector.countLeaksBySql());
+    assertEquals(3, detector.getOutstanding());
+  }
+
+  @Test
+  public void testReturnedStatementIsNotReported() throws SQLException, InterruptedException {
+    StatementLeakDetector detector = new StatementLeakDetector(Duration.ofMillis(50));
+    CacheableStatement query = new LeakTrackingCacheableStatement(new ImplicitCacheableStatement(QUERY), detector);
+    for (int i = 0; i < 3; i++) {
+      OraclePreparedStatement statement = query.getCachedStatement(connection);
+      query.closePreparedStatement(statement);
+    }
+
+    Thread.sleep(100);
+    assertTrue(detector.findLeaks().isEmpty());
+    assertEquals(0, detector.getOutstanding());
+  }
+
+  @Test
+  public void testStatementPreparedAfterExplicitMissIsTracked() throws SQLException {
+    connection.setExplicitCachingEnabled(true);
+    StatementLeakDetector detector = new StatementLeakDetector(Duration.ofMinutes(1));
+    LeakTrackingCacheableStatement query = new LeakTrackingCacheableStatement(new ExplicitCacheableStatement(QUERY, "query"), detector);
+    assertNull(query.getCachedStatement(connection));
+    OraclePreparedStatement statement = query.prepare(connection);
+    assertEquals(1, detector.getOutstanding());
+
+    query.closePreparedStatement(statement);
+    assertEquals(0, detector.getOutstanding());
+  }
+
+  @Test
+  public void testCallSiteIsCaptured() throws SQLException, InterruptedException {
+    StatementLeakDetector detector = new StatementLeakDetector(Duration.ofMillis(10), 1, 64);
+    new LeakTrackingCacheableStatement(new ImplicitCacheableStatement(QUERY), detector).getCachedStatement(connection);
+    assertTrue(detector.findLeaks().isEmpty());
+    Thread.sleep(50);
+
+    List<StatementLeakDetector.Leak> leaks = detector.findLeaks();
+    assertEquals(1, leaks.size());
+    assertTrue(leaks.get(0).getHeldFor().toMillis() >= 10);
+    assertEquals("testCallSiteIsCaptured", leaks.get(0).getCallSite().getStackTrace()[0].getMethodName());
+    assertTrue(leaks.get(0).toString().contains("StatementLeakDetectorTest.testCallSiteIsCaptured"), leaks.get(0).toString());
+  }
+
+  @Test
+  public void testCallSiteIsSampled() throws SQLException, InterruptedException {
+    StatementLeakDetector detector = new StatementLeakDetector(Duration.ofMillis(10), 1 << 30, 64);
+    new LeakTrackingCacheableStatement(new ImplicitCacheableStatement(QUERY), detector).getCachedStatement(connection);
+    assertTrue(detector.findLeaks().isEmpty());
+    Thread.sleep(50);
+
+    assertEquals(1, detector.findLeaks().size());
+    assertNull(detector.findLeaks().get(0).getCallSite());
+  }
+
+  @Test
+  public void testCheckoutsBeyondCapacityAreUntracked() throws SQLException {
+    StatementLeakDetector detector = new StatementLeakDetector(Duration.ofMinutes(1), 64, 4);
+    CacheableStatement query = new LeakTrackingCacheableStatement(new ImplicitCacheableStatement(QUERY), detector);
+    List<OraclePreparedStatement> held = new ArrayList<>();
+    for (int i = 0; i < 6; i++) {
+      held.add(query.getCachedStatement(connection));
+    }
+    assertEquals(4, detector.getOutstanding());
+    assertEquals(2, detector.getUntracked());
+
+    for (OraclePreparedStatement statement : held) {
+      query.closePreparedStatement(statement);
+    }
+    assertEquals(0, detector.getOutstanding());
+  }
+}
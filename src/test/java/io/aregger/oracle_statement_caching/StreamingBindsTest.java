@@ -0,0 +1,208 @@
+package io.aregger.oracle_statement_caching;
+
+import io.aregger.oracle_statement_caching.helper.CacheableStatement;
+import io.aregger.oracle_statement_caching.helper.ExplicitCacheableStatement;
+import io.aregger.oracle_statement_caching.helper.StreamingBinds;
+import io.aregger.oracle_statement_caching.standin.StandInServer;
+import oracle.jdbc.OracleCallableStatement;
+import oracle.jdbc.OracleConnection;
+import oracle.jdbc.OraclePreparedStatement;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests that {@link StreamingBinds} streams large values in chunks and that a cached statement never sends a stream
+ * twice.
+ */
+public class StreamingBindsTest {
+
+  private static final String INSERT = "insert into t1 (c1, c2) values (?, ?)";
+  private static final long LOB_SIZE = 10L * 1024 * 1024;
+
+  private StandInServer server;
+  private OracleConnection connection;
+
+  @BeforeEach
+  void setUp() throws SQLException {
+    server = new StandInServer(0);
+    connection = server.connect();
+    connection.setExplicitCachingEnabled(true);
+    connection.setStatementCacheSize(20);
+  }
+
+  @Test
+  public void testClobIsStreamedInChunks() throws SQLException {
+    GeneratedReader reader = new GeneratedReader(LOB_SIZE);
+    OraclePreparedStatement statement = (OraclePreparedStatement) connection.prepareStatement(INSERT);
+    try (StreamingBinds binds = new StreamingBinds(statement, 8192)) {
+      statement.setLong(1, 1);
+      binds.setClob(2, reader, -1);
+      assertEquals(1, statement.executeUpdate());
+    }
+    assertEquals(LOB_SIZE, server.getStreamedLength());
+    assertTrue(reader.maxRead <= 8192, "Largest read " + reader.maxRead);
+  }
+
+  @Test
+  public void testStreamWithLengthIsSentUpToLength() throws SQLException {
+    OraclePreparedStatement statement = (OraclePreparedStatement) connection.prepareStatement(INSERT);
+    try (StreamingBinds binds = new StreamingBinds(statement)) {
+      statement.setLong(1, 1);
+      binds.setBlob(2, new GeneratedInputStream(LOB_SIZE), 1000);
+      statement.executeUpdate();
+    }
+    assertEquals(1000, server.getStreamedLength());
+  }
+
+  @Test
+  public void testReExecutionFailsInsteadOfSendingConsumedStream() throws SQLException {
+    for (long length : new long[]{-1, LOB_SIZE}) {
+      OraclePreparedStatement statement = (OraclePreparedStatement) connection.prepareStatement(INSERT);
+      try (StreamingBinds binds = new StreamingBinds(statement)) {
+        statement.setLong(1, 1);
+        binds.setClob(2, new GeneratedReader(LOB_SIZE), length);
+        statement.executeUpdate();
+        SQLException e = assertThrows(SQLException.class, statement::executeUpdate);
+        assertTrue(e.getMessage().contains("already consumed"), e.getMessage());
+      }
+      statement.close();
+    }
+  }
+
+  @Test
+  public void testExplicitCacheDoesNotKeepStream() throws SQLException {
+    CacheableStatement cacheableStatement = new ExplicitCacheableStatement(INSERT, "insert-lob");
+    OraclePreparedStatement statement = (OraclePreparedStatement) connection.prepareStatement(INSERT);
+    try (StreamingBinds binds = new StreamingBinds(statement)) {
+      statement.setLong(1, 1);
+      binds.setClob(2, new GeneratedReader(LOB_SIZE), -1);
+      statement.executeUpdate();
+    }
+    cacheableStatement.closePreparedStatement(statement);
+
+    OraclePreparedStatement cached = cacheableStatement.getCachedStatement(connection);
+    SQLException e = assertThrows(SQLException.class, cached::executeUpdate);
+    assertTrue(e.getMessage().contains("Missing IN or OUT parameter"), e.getMessage());
+    assertEquals(LOB_SIZE, server.getStreamedLength());
+  }
+
+  @Test
+  public void testBlobFromMappedFile() throws SQLException, IOException {
+    Path file = Files.createTempFile("streaming-binds", ".bin");
+    try {
+      byte[] content = new byte[3 * 1024 * 1024 + 17];
+      Arrays.fill(content, (byte) 7);
+      Files.write(file, content);
+      OraclePreparedStatement statement = (OraclePreparedStatement) connection.prepareStatement(INSERT);
+      try (StreamingBinds binds = new StreamingBinds(statement)) {
+        statement.setLong(1, 1);
+        binds.setBlob(2, file);
+        statement.executeUpdate();
+      }
+      assertEquals(content.length, server.getStreamedLength());
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  @Test
+  public void testClobFromMappedFile() throws SQLException, IOException {
+    Path file = Files.createTempFile("streaming-binds", ".txt");
+    try {
+      char[] text = new char[100_000];
+      Arrays.fill(text, '\u00e4');
+      Files.write(file, new String(text).getBytes(StandardCharsets.UTF_8));
+      OraclePreparedStatement statement = (OraclePreparedStatement) connection.prepareStatement(INSERT);
+      try (StreamingBinds binds = new StreamingBinds(statement)) {
+        statement.setLong(1, 1);
+        binds.setClob(2, file, StandardCharsets.UTF_8);
+        statement.executeUpdate();
+      }
+      assertEquals(text.length, server.getStreamedLength());
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  @Test
+  public void testCallableStatement() throws SQLException {
+    OracleCallableStatement statement = (OracleCallableStatement) connection.prepareCall("begin p1(?, ?); end;");
+    try (StreamingBinds binds = new StreamingBinds(statement)) {
+      statement.setLong(1, 1);
+      binds.setClob(2, new GeneratedReader(LOB_SIZE), -1);
+      statement.execute();
+    }
+    assertEquals(LOB_SIZE, server.getStreamedLength());
+  }
+
+  /**
+   * Generates characters without a backing string.
+   */
+  private static final class GeneratedReader extends Reader {
+
+    private long remaining;
+    private int maxRead;
+
+    private GeneratedReader(long length) {
+      this.remaining = length;
+    }
+
+    @Override
+    public int read(char[] buffer, int offset, int len) {
+      if (remaining == 0) {
+        return -1;
+      }
+      int n = (int) Math.min(len, remaining);
+      Arrays.fill(buffer, offset, offset + n, 'x');
+      remaining -= n;
+      maxRead = Math.max(maxRead, n);
+      return n;
+    }
+
+    @Override
+    public void close() {
+    }
+  }
+
+  private static final class GeneratedInputStream extends InputStream {
+
+    private long remaining;
+
+    private GeneratedInputStream(long length) {
+      this.remaining = length;
+    }
+
+    @Override
+    public int read() {
+      if (remaining == 0) {
+        return -1;
+      }
+      remaining--;
+      return 'x';
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int len) {
+      if (remaining == 0) {
+        return -1;
+      }
+      int n = (int) Math.min(len, remaining);
+      Arrays.fill(buffer, offset, offset + n, (byte) 'x');
+      remaining -= n;
+      return n;
+    }
+  }
+}
@@ -0,0 +1,100 @@
+package io.aregger.oracle_statement_caching;
+
+import io.aregger.oracle_statement_caching.helper.CacheableStatement;
+import io.aregger.oracle_statement_caching.helper.ImplicitCacheableStatement;
+import io.aregger.oracle_statement_caching.helper.LruCacheableStatement;
+import io.aregger.oracle_statement_caching.helper.PreparedStatementHelper;
+import io.aregger.oracle_statement_caching.helper.StatementCache;
+import io.aregger.oracle_statement_caching.standin.RoundTrip;
+import io.aregger.oracle_statement_caching.standin.StandInQuery;
+import io.aregger.oracle_statement_caching.standin.StandInServer;
+import oracle.jdbc.OracleConnection;
+import oracle.jdbc.OraclePreparedStatement;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import static io.aregger.oracle_statement_caching.StatementCacheTest.QUERY;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests that streaming statements, prepared with {@link PreparedStatementHelper#prepareStreaming}, are cached and
+ * looked up as forward-only, read-only statements.
+ */
+public class StreamingStatementTest {
+
+  private StandInServer server;
+  private OracleConnection connection;
+
+  @BeforeEach
+  void setUp() throws SQLException {
+    server = new StandInServer(0);
+    server.registerQuery(QUERY, StandInQuery.varchar(10, row -> new Object[]{"X"}, "DUMMY"));
+    connection = server.connect();
+    connection.setImplicitCachingEnabled(true);
+    connection.setStatementCacheSize(20);
+  }
+
+  @Test
+  public void testStreamingStatementIsFoundInImplicitCache() throws SQLException {
+    CacheableStatement cacheableStatement = new ImplicitCacheableStatement(QUERY, true);
+    executeAndClose(cacheableStatement, cacheableStatement.getCachedStatement(connection));
+
+    OraclePreparedStatement statement = cacheableStatement.getCachedStatement(connection);
+    assertEquals(ResultSet.TYPE_FORWARD_ONLY, statement.getResultSetType());
+    assertEquals(ResultSet.CONCUR_READ_ONLY, statement.getResultSetConcurrency());
+    assertEquals(1, server.getRoundTrips(RoundTrip.PARSE));
+  }
+
+  @Test
+  public void testStreamingAndScrollableStatementsAreDistinctEntries() throws SQLException {
+    CacheableStatement streaming = new ImplicitCacheableStatement(QUERY, true);
+    executeAndClose(streaming, PreparedStatementHelper.prepareStreaming(connection, QUERY));
+
+    OraclePreparedStatement statement = new ImplicitCacheableStatement(QUERY).getCachedStatement(connection);
+    assertEquals(ResultSet.TYPE_SCROLL_INSENSITIVE, statement.getResultSetType());
+    assertEquals(2, server.getRoundTrips(RoundTrip.PARSE));
+  }
+
+  @Test
+  public void testStreamingStatementIsFoundInLruCache() throws SQLException {
+    connection.setImplicitCachingEnabled(false);
+    StatementCache.enable(connection, 20);
+    try {
+      CacheableStatement cacheableStatement = new LruCacheableStatement(QUERY, true);
+      executeAndClose(cacheableStatement, PreparedStatementHelper.prepareStreaming(connection, QUERY));
+
+      OraclePreparedStatement statement = cacheableStatement.getCachedStatement(connection);
+      assertEquals(ResultSet.TYPE_FORWARD_ONLY, statement.getResultSetType());
+      assertEquals(1, StatementCache.get(connection).getHits());
+    } finally {
+      StatementCache.disable(connection);
+    }
+  }
+
+  @Test
+  public void testResultSetType() throws SQLException {
+    OraclePreparedStatement streaming = PreparedStatementHelper.prepareStreaming(connection, QUERY);
+    streaming.setString(1, "X");
+    ResultSet resultSet = streaming.executeQuery();
+    assertEquals(ResultSet.TYPE_FORWARD_ONLY, resultSet.getType());
+    assertEquals(ResultSet.CONCUR_READ_ONLY, resultSet.getConcurrency());
+
+    OraclePreparedStatement scrollable = PreparedStatementHelper.prepare(connection, QUERY);
+    scrollable.setString(1, "X");
+    resultSet = scrollable.executeQuery();
+    assertEquals(ResultSet.TYPE_SCROLL_INSENSITIVE, resultSet.getType());
+    assertEquals(ResultSet.CONCUR_UPDATABLE, resultSet.getConcurrency());
+  }
+
+  private static void executeAndClose(CacheableStatement cacheableStatement, OraclePreparedStatement statement) throws SQLException {
+    statement.setString(1, "X");
+    ResultSet resultSet = cacheableStatement.executeQuery(statement);
+    while (resultSet.next()) {
+      resultSet.getString(1);
+    }
+    cacheableStatement.closePreparedStatement(statement);
+  }
+}
@@ -0,0 +1,180 @@
+package io.aregger.oracle_statement_caching.helper;
+
+import oracle.jdbc.OracleConnection;
+import oracle.jdbc.OraclePreparedStatement;
+
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+
+/**
+ * Sets the LOB prefetch size recommended by a {@link LobPrefetchTuner} on the statements taken from the cache. Queries
+ * executed with {@link #executeQuery(OraclePreparedStatement)} report the length of every CLOB and BLOB value read
+ * with {@code getString}, {@code getBytes}, {@code getClob} or {@code getBlob} to the tuner. The lengths are recorded
+ * as they are read, so nothing is lost when the statement is returned with its result set open.
+ */
+public class AdaptiveLobPrefetchCacheableStatement implements CacheableStatement {
+
+  private final CacheableStatement delegate;
+  private final LobPrefetchTuner tuner;
+
+  public AdaptiveLobPrefetchCacheableStatement(CacheableStatement delegate, LobPrefetchTuner tuner) {
+    this.delegate = delegate;
+    this.tuner = tuner;
+  }
+
+  @Override
+  public String getSql() {
+    return delegate.getSql();
+  }
+
+  @Override
+  public String getCacheKey() {
+    return delegate.getCacheKey();
+  }
+
+  @Override
+  public void closePreparedStatement(OraclePreparedStatement statement) throws SQLException {
+    delegate.closePreparedStatement(statement);
+  }
+
+  @Override
+  public OraclePreparedStatement getCachedStatement(OracleConnection connection) throws SQLException {
+    OraclePreparedStatement statement = delegate.getCachedStatement(connection);
+    if (statement != null) {
+      applyRecommendation(statement);
+    }
+    return statement;
+  }
+
+  /**
+   * Sets the recommended LOB prefetch size on a statement, for statements which were prepared instead of taken from the
+   * cache.
+   */
+  public void applyRecommendation(OraclePreparedStatement statement) throws SQLException {
+    int lobPrefetchSize = tuner.recommend(getSql());
+    if (lobPrefetchSize != LobPrefetchTuner.NO_RECOMMENDATION && statement.getLobPrefetchSize() != lobPrefetchSize) {
+      statement.setLobPrefetchSize(lobPrefetchSize);
+    }
+  }
+
+  /**
+   * Executes the query and returns a result set which records the length of the LOBs read.
+   */
+  @Override
+  public ResultSet executeQuery(OraclePreparedStatement statement) throws SQLException {
+    ResultSet resultSet = delegate.executeQuery(statement);
+    boolean[] lobColumns = lobColumns(getMetaData(statement));
+    if (lobColumns == null) {
+      return resultSet;
+    }
+    return new LobLengthRecorder(resultSet, lobColumns);
+  }
+
+  /**
+   * Returns which columns are LOBs, indexed by column number, or {@code null} if there are none.
+   */
+  private static boolean[] lobColumns(ResultSetMetaData metaData) throws SQLException {
+    boolean[] lobColumns = new boolean[metaData.getColumnCount() + 1];
+    boolean found = false;
+    for (int i = 1; i < lobColumns.length; i++) {
+      int type = metaData.getColumnType(i);
+      lobColumns[i] = type == Types.CLOB || type == Types.NCLOB || type == Types.BLOB;
+      found |= lobColumns[i];
+    }
+    return found ? lobColumns : null;
+  }
+
+  private final class LobLengthRecorder extends DelegatingResultSet {
+
+    private final boolean[] lobColumns;
+
+    LobLengthRecorder(ResultSet resultSet, boolean[] lobColumns) {
+      super(resultSet);
+      this.lobColumns = lobColumns;
+    }
+
+    @Override
+    public String getString(int columnIndex) throws SQLException {
+      String value = delegate.getString(columnIndex);
+      if (value != null && isLobColumn(columnIndex)) {
+        tuner.record(getSql(), value.length());
+      }
+      return value;
+    }
+
+    @Override
+    public String getString(String columnLabel) throws SQLException {
+      String value = delegate.getString(columnLabel);
+      if (value != null && isLobColumn(columnLabel)) {
+        tuner.record(getSql(), value.length());
+      }
+      return value;
+    }
+
+    @Override
+    public byte[] getBytes(int columnIndex) throws SQLException {
+      byte[] value = delegate.getBytes(columnIndex);
+      if (value != null && isLobColumn(columnIndex)) {
+        tuner.record(getSql(), value.length);
+      }
+      return value;
+    }
+
+    @Override
+    public byte[] getBytes(String columnLabel) throws SQLException {
+      byte[] value = delegate.getBytes(columnLabel);
+      if (value != null && isLobColumn(columnLabel)) {
+        tuner.record(getSql(), value.length);
+      }
+      return value;
+    }
+
+    @Override
+    public Clob getClob(int columnIndex) throws SQLException {
+      Clob value = delegate.getClob(columnIndex);
+      if (value != null && isLobColumn(columnIndex)) {
+        tuner.record(getSql(), value.length());
+      }
+      return value;
+    }
+
+    @Override
+    public Clob getClob(String columnLabel) throws SQLException {
+      Clob value = delegate.getClob(columnLabel);
+      if (value != null && isLobColumn(columnLabel)) {
+        tuner.record(getSql(), value.length());
+      }
+      return value;
+    }
+
+    @Override
+    public Blob getBlob(int columnIndex) throws SQLException {
+      Blob value = delegate.getBlob(columnIndex);
+      if (value != null && isLobColumn(columnIndex)) {
+        tuner.record(getSql(), value.length());
+      }
+      return value;
+    }
+
+    @Override
+    public Blob getBlob(String columnLabel) throws SQLException {
+      Blob value = delegate.getBlob(columnLabel);
+      if (value != null && isLobColumn(columnLabel)) {
+        tuner.record(getSql(), value.length());
+      }
+      return value;
+    }
+
+    private boolean isLobColumn(String columnLabel) throws SQLException {
+      return isLobColumn(delegate.findColumn(columnLabel));
+    }
+
+    private boolean isLobColumn(int columnIndex) {
+      return columnIndex > 0 && columnIndex < lobColumns.length && lobColumns[columnIndex];
+    }
+  }
+}
@@ -0,0 +1,133 @@
+package io.aregger.oracle_statement_caching.helper;
+
+import oracle.jdbc.OracleConnection;
+import oracle.jdbc.OraclePreparedStatement;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Sets the row prefetch recommended by a {@link RowPrefetchTuner} on the statements taken from the cache. Queries
+ * executed with {@link #executeQuery(OraclePreparedStatement)} report the number of fetched rows to the tuner when the
+ * result set is exhausted or closed, or when the statement is returned with the result set still open.
+ */
+public class AdaptiveRowPrefetchCacheableStatement implements CacheableStatement {
+
+  private final CacheableStatement delegate;
+  private final RowPrefetchTuner tuner;
+  // the row counters of the result sets which are open, by statement
+  private final Map<OraclePreparedStatement, RowCounter> open = new ConcurrentHashMap<>();
+
+  public AdaptiveRowPrefetchCacheableStatement(CacheableStatement delegate, RowPrefetchTuner tuner) {
+    this.delegate = delegate;
+    this.tuner = tuner;
+  }
+
+  @Override
+  public String getSql() {
+    return delegate.getSql();
+  }
+
+  @Override
+  public String getCacheKey() {
+    return delegate.getCacheKey();
+  }
+
+  @Override
+  public void closePreparedStatement(OraclePreparedStatement statement) throws SQLException {
+    RowCounter rowCounter = open.get(statement);
+    if (rowCounter != null) {
+      rowCounter.record();
+    }
+    delegate.closePreparedStatement(statement);
+  }
+
+  @Override
+  public OraclePreparedStatement getCachedStatement(OracleConnection connection) throws SQLException {
+    OraclePreparedStatement statement = delegate.getCachedStatement(connection);
+    if (statement != null) {
+      applyRecommendation(statement);
+    }
+    return statement;
+  }
+
+  /**
+   * Sets the recommended row prefetch on a statement, for statements which were prepared instead of taken from the
+   * cache.
+   */
+  public void applyRecommendation(OraclePreparedStatement statement) throws SQLException {
+    int rowPrefetch = tuner.recommend(getSql());
+    if (rowPrefetch > 0 && statement.getRowPrefetch() != rowPrefetch) {
+      statement.setRowPrefetch(rowPrefetch);
+    }
+  }
+
+  /**
+   * Executes the query and returns a result set which counts the fetched rows.
+   */
+  @Override
+  public ResultSet executeQuery(OraclePreparedStatement statement) throws SQLException {
+    ResultSet resultSet = delegate.executeQuery(statement);
+    int rowWidth = rowWidth(getMetaData(statement));
+    RowCounter rowCounter = new RowCounter(resultSet, statement, rowWidth);
+    // the execution closed the result set of the previous one
+    RowCounter previous = open.put(statement, rowCounter);
+    if (previous != null) {
+      previous.record();
+    }
+    return rowCounter;
+  }
+
+  private static int rowWidth(ResultSetMetaData metaData) throws SQLException {
+    int width = 0;
+    for (int i = 1; i <= metaData.getColumnCount(); i++) {
+      width += metaData.getColumnDisplaySize(i);
+    }
+    return width;
+  }
+
+  private final class RowCounter extends DelegatingResultSet {
+
+    private final OraclePreparedStatement statement;
+    private final int rowWidth;
+    private int rows;
+    private boolean recorded;
+
+    RowCounter(ResultSet resultSet, OraclePreparedStatement statement, int rowWidth) {
+      super(resultSet);
+      this.statement = statement;
+      this.rowWidth = rowWidth;
+    }
+
+    @Override
+    public boolean next() throws SQLException {
+      boolean next = delegate.next();
+      if (next) {
+        rows++;
+      } else {
+        record();
+      }
+      return next;
+    }
+
+    @Override
+    public void close() throws SQLException {
+      try {
+        delegate.close();
+      } finally {
+        record();
+      }
+    }
+
+    void record() {
+      if (!recorded) {
+        recorded = true;
+        open.remove(statement, this);
+        tuner.record(getSql(), rows, rowWidth);
+      }
+    }
+  }
+}
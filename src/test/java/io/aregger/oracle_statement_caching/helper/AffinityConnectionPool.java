@@ -0,0 +1,192 @@
+package io.aregger.oracle_statement_caching.helper;
+
+import oracle.jdbc.OracleConnection;
+
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lends connections preferring one which already has the SQL of the caller in its statement cache, so each statement is
+ * parsed and cached on few connections instead of on every connection as with round-robin lending.
+ * <p>
+ * The pool tracks the SQL texts used on each connection in an LRU list as long as its statement cache, so the index
+ * from SQL to connections forgets a connection when its cache evicts the statement. If all connections which have the
+ * SQL cached are lent out, the pool lends the idle connection with the fewest cached statements instead of waiting.
+ */
+public final class AffinityConnectionPool {
+
+  private final List<PooledConnection> connections;
+  private final Map<String, Set<PooledConnection>> index = new ConcurrentHashMap<>();
+  private final Semaphore idle;
+  private final LongAdder affinityHits = new LongAdder();
+  private final LongAdder fallbacks = new LongAdder();
+
+  /**
+   * A lent connection. Closing the lease returns the connection to the pool, the connection stays open.
+   */
+  public final class Lease implements AutoCloseable {
+
+    private final PooledConnection pooled;
+    private boolean closed;
+
+    private Lease(PooledConnection pooled) {
+      this.pooled = pooled;
+    }
+
+    public OracleConnection getConnection() {
+      return pooled.connection;
+    }
+
+    /**
+     * Records that another statement was used on the connection of this lease.
+     */
+    public void use(String sql) {
+      pooled.use(sql);
+    }
+
+    @Override
+    public void close() {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      pooled.lent.set(false);
+      idle.release();
+    }
+  }
+
+  private final class PooledConnection {
+
+    private final OracleConnection connection;
+    private final AtomicBoolean lent = new AtomicBoolean();
+    private final Map<String, Boolean> cachedSql;
+
+    private PooledConnection(OracleConnection connection, int cacheSize) {
+      this.connection = connection;
+      this.cachedSql = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+          if (size() <= cacheSize) {
+            return false;
+          }
+          index.computeIfPresent(eldest.getKey(), (sql, pooled) -> {
+            pooled.remove(PooledConnection.this);
+            return pooled.isEmpty() ? null : pooled;
+          });
+          return true;
+        }
+      };
+    }
+
+    private synchronized void use(String sql) {
+      if (cachedSql.put(sql, Boolean.TRUE) == null) {
+        index.compute(sql, (key, pooled) -> {
+          pooled = pooled != null ? pooled : ConcurrentHashMap.newKeySet();
+          pooled.add(this);
+          return pooled;
+        });
+      }
+    }
+
+    private synchronized int cachedStatements() {
+      return cachedSql.size();
+    }
+  }
+
+  /**
+   * Creates a pool of the given connections, which have their statement cache configured.
+   */
+  public AffinityConnectionPool(List<OracleConnection> connections) throws SQLException {
+    if (connections.isEmpty()) {
+      throw new IllegalArgumentException("Pool needs at least one connection");
+    }
+    List<PooledConnection> pooled = new ArrayList<>(connections.size());
+    for (OracleConnection connection : connections) {
+      StatementCache statementCache = StatementCache.get(connection);
+      int cacheSize = statementCache != null ? statementCache.getMaxSize() : connection.getStatementCacheSize();
+      pooled.add(new PooledConnection(connection, Math.max(cacheSize, 1)));
+    }
+    this.connections = Collections.unmodifiableList(pooled);
+    this.idle = new Semaphore(connections.size());
+  }
+
+  /**
+   * Lends a connection for the given SQL, waiting at most {@code timeout} for an idle connection.
+   *
+   * @throws SQLTimeoutException if no connection became idle in time
+   */
+  public Lease borrow(String sql, Duration timeout) throws SQLException, InterruptedException {
+    if (!idle.tryAcquire(timeout.toNanos(), TimeUnit.NANOSECONDS)) {
+      throw new SQLTimeoutException("No idle connection within " + timeout);
+    }
+    PooledConnection pooled = lendCached(sql);
+    if (pooled != null) {
+      affinityHits.increment();
+    } else {
+      fallbacks.increment();
+      pooled = lendLeastLoaded();
+    }
+    pooled.use(sql);
+    return new Lease(pooled);
+  }
+
+  /**
+   * Returns the number of loans of a connection which had the SQL cached.
+   */
+  public long getAffinityHits() {
+    return affinityHits.sum();
+  }
+
+  /**
+   * Returns the number of loans of a connection which did not have the SQL cached, because no connection had it or
+   * all which had it were lent out.
+   */
+  public long getFallbacks() {
+    return fallbacks.sum();
+  }
+
+  private PooledConnection lendCached(String sql) {
+    Set<PooledConnection> candidates = index.get(sql);
+    if (candidates != null) {
+      for (PooledConnection candidate : candidates) {
+        if (candidate.lent.compareAndSet(false, true)) {
+          return candidate;
+        }
+      }
+    }
+    return null;
+  }
+
+  private PooledConnection lendLeastLoaded() {
+    // the acquired permit guarantees an idle connection, but another borrower may take the one found first
+    while (true) {
+      PooledConnection leastLoaded = null;
+      int leastStatements = Integer.MAX_VALUE;
+      for (PooledConnection candidate : connections) {
+        if (!candidate.lent.get()) {
+          int statements = candidate.cachedStatements();
+          if (statements < leastStatements) {
+            leastLoaded = candidate;
+            leastStatements = statements;
+          }
+        }
+      }
+      if (leastLoaded != null && leastLoaded.lent.compareAndSet(false, true)) {
+        return leastLoaded;
+      }
+      Thread.onSpinWait();
+    }
+  }
+}
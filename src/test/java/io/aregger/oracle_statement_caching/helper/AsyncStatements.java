@@ -0,0 +1,197 @@
+package io.aregger.oracle_statement_caching.helper;
+
+import oracle.jdbc.OracleConnection;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs queries with statements from the caches of a set of connections and completes a {@link CompletableFuture} with
+ * their rows. A query waits in a queue until a connection is idle, then a task of its own checks out the statement,
+ * binds, executes, fetches all rows, returns the statement and the connection and completes the future. A connection
+ * runs one query at a time, so its statement cache is never used by two executions at once. The connection is idle
+ * again when the future completes, so a dependent stage may run further queries and wait for them, even with a single
+ * connection.
+ * <p>
+ * By default the tasks run on virtual threads, one per query, which cost little while they wait for the server. Virtual
+ * threads need Java 21, on older runtimes the tasks run on a pool of platform threads, which holds one thread per busy
+ * connection. The driver holds the monitor of the connection while it parses, which pins the virtual thread to its
+ * carrier until Java 24, but only the one query of the connection waits there.
+ * <pre>
+ * try (AsyncStatements statements = new AsyncStatements(connections)) {
+ *   CompletableFuture&lt;ResultCache.Rows&gt; rows = statements.query(new ImplicitCacheableStatement(sql), id);
+ *   ...
+ * }
+ * </pre>
+ */
+public final class AsyncStatements implements AutoCloseable {
+
+  private final Queue<OracleConnection> idle;
+  private final Queue<Query> waiting = new ArrayDeque<>();
+  private final int connectionCount;
+  private final ExecutorService executor;
+  private final boolean ownsExecutor;
+  private final boolean virtualThreads;
+  private boolean closed;
+
+  private static final class Query {
+
+    private final CompletableFuture<ResultCache.Rows> future = new CompletableFuture<>();
+    private final CacheableStatement statement;
+    private final Object[] binds;
+
+    private Query(CacheableStatement statement, Object[] binds) {
+      this.statement = statement;
+      this.binds = binds;
+    }
+  }
+
+  /**
+   * Runs the queries on virtual threads, or on a pool of platform threads before Java 21.
+   *
+   * @param connections the connections to run the queries on, which must not be used otherwise until this is closed
+   */
+  public AsyncStatements(List<OracleConnection> connections) {
+    this(connections, virtualThreadExecutor(), true);
+  }
+
+  /**
+   * Runs the queries on the given executor, which is not shut down on {@link #close()}.
+   *
+   * @param connections the connections to run the queries on, which must not be used otherwise until this is closed
+   */
+  public AsyncStatements(List<OracleConnection> connections, ExecutorService executor) {
+    this(connections, Objects.requireNonNull(executor), false);
+  }
+
+  private AsyncStatements(List<OracleConnection> connections, ExecutorService executor, boolean ownsExecutor) {
+    if (connections.isEmpty()) {
+      throw new IllegalArgumentException("No connections");
+    }
+    this.idle = new ArrayDeque<>(connections);
+    this.connectionCount = connections.size();
+    this.virtualThreads = ownsExecutor && executor != null;
+    this.executor = executor != null ? executor : Executors.newCachedThreadPool();
+    this.ownsExecutor = ownsExecutor;
+  }
+
+  /**
+   * Runs a query with the given bind values, which are bound with {@code setObject} in order. The future completes
+   * exceptionally with the {@link java.sql.SQLException} of a failed query.
+   */
+  public CompletableFuture<ResultCache.Rows> query(CacheableStatement statement, Object... binds) {
+    Query query = new Query(statement, binds);
+    OracleConnection connection;
+    synchronized (this) {
+      if (closed) {
+        throw new IllegalStateException("Async statements are closed");
+      }
+      connection = idle.poll();
+      if (connection == null) {
+        waiting.add(query);
+        return query.future;
+      }
+    }
+    start(connection, query);
+    return query.future;
+  }
+
+  /**
+   * Returns whether the queries run on virtual threads.
+   */
+  public boolean usesVirtualThreads() {
+    return virtualThreads;
+  }
+
+  /**
+   * Waits for the submitted queries to complete and shuts down the executor, unless it was given to the constructor.
+   * The connections stay open.
+   */
+  @Override
+  public void close() {
+    boolean interrupted = false;
+    synchronized (this) {
+      closed = true;
+      while (idle.size() < connectionCount) {
+        try {
+          wait();
+        } catch (InterruptedException e) {
+          interrupted = true;
+        }
+      }
+    }
+    if (ownsExecutor) {
+      executor.shutdown();
+      while (!executor.isTerminated()) {
+        try {
+          executor.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+          interrupted = true;
+        }
+      }
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void start(OracleConnection connection, Query query) {
+    try {
+      executor.execute(() -> run(connection, query));
+    } catch (RuntimeException e) {
+      release(connection);
+      query.future.completeExceptionally(e);
+    }
+  }
+
+  private void run(OracleConnection connection, Query query) {
+    ResultCache.Rows rows = null;
+    Throwable failure = null;
+    try {
+      rows = ResultCache.execute(connection, query.statement, query.binds);
+    } catch (Throwable e) {
+      failure = e;
+    }
+    // released before completing, so a dependent stage which runs on this thread and queries again finds it idle
+    release(connection);
+    if (failure != null) {
+      query.future.completeExceptionally(failure);
+    } else {
+      query.future.complete(rows);
+    }
+  }
+
+  /**
+   * Hands the connection to the next waiting query or returns it to the idle connections.
+   */
+  private void release(OracleConnection connection) {
+    Query next;
+    synchronized (this) {
+      next = waiting.poll();
+      if (next == null) {
+        idle.add(connection);
+        notifyAll();
+        return;
+      }
+    }
+    start(connection, next);
+  }
+
+  /**
+   * Returns an executor which starts a virtual thread per task, or {@code null} before Java 21. The project is
+   * compiled for Java 11, so the factory method is looked up reflectively.
+   */
+  private static ExecutorService virtualThreadExecutor() {
+    try {
+      return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+    } catch (ReflectiveOperationException e) {
+      return null;
+    }
+  }
+}
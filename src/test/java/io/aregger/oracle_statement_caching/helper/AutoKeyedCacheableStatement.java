@@ -0,0 +1,52 @@
+package io.aregger.oracle_statement_caching.helper;
+
+import oracle.jdbc.OracleConnection;
+import oracle.jdbc.OraclePreparedStatement;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Explicitly cached statement whose cache key is derived by {@link ExplicitCacheKeys}. The key is derived once, when
+ * the statement is created. On a miss the statement is prepared with the result set type and generated key columns of
+ * its key, so a statement never ends up in the cache under the key of another shape.
+ */
+public class AutoKeyedCacheableStatement extends ExplicitCacheableStatement {
+
+  private final StatementKey key;
+
+  /**
+   * Creates a statement with the scroll-insensitive, updatable result sets of {@link PreparedStatementHelper#prepare}.
+   */
+  public AutoKeyedCacheableStatement(String sql) {
+    this(sql, false);
+  }
+
+  /**
+   * @param streaming whether the statement has forward-only, read-only result sets like the statements of
+   *                  {@link PreparedStatementHelper#prepareStreaming}
+   */
+  public AutoKeyedCacheableStatement(String sql, boolean streaming) {
+    this(streaming
+        ? new StatementKey(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)
+        : new StatementKey(sql, ResultSet.TYPE_SCROLL_INSENSITIVE, ResultSet.CONCUR_UPDATABLE));
+  }
+
+  public AutoKeyedCacheableStatement(StatementKey key) {
+    super(key.getSql(), ExplicitCacheKeys.derive(key));
+    this.key = key;
+  }
+
+  public StatementKey getStatementKey() {
+    return key;
+  }
+
+  /**
+   * Returns the cached statement or prepares it if it is not cached, so the result is never {@code null}.
+   */
+  @Override
+  public OraclePreparedStatement getCachedStatement(OracleConnection connection) throws SQLException {
+    OraclePreparedStatement statement = super.getCachedStatement(connection);
+    return statement != null ? statement : (OraclePreparedStatement) key.prepare(connection);
+  }
+}
@@ -0,0 +1,48 @@
+package io.aregger.oracle_statement_caching.helper;
+
+import oracle.jdbc.OracleConnection;
+import oracle.jdbc.OraclePreparedStatement;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Reports the lookups of a statement to a {@link CacheSizeController}, which resizes the statement cache of the
+ * connection from them. Lookups on connections not registered with the controller only cost a map lookup.
+ */
+public class AutoSizedCacheableStatement implements CacheableStatement {
+
+  private final CacheableStatement delegate;
+  private final CacheSizeController controller;
+
+  public AutoSizedCacheableStatement(CacheableStatement delegate, CacheSizeController controller) {
+    this.delegate = delegate;
+    this.controller = controller;
+  }
+
+  @Override
+  public String getSql() {
+    return delegate.getSql();
+  }
+
+  @Override
+  public String getCacheKey() {
+    return delegate.getCacheKey();
+  }
+
+  @Override
+  public OraclePreparedStatement getCachedStatement(OracleConnection connection) throws SQLException {
+    controller.lookup(connection, delegate.getSql());
+    return delegate.getCachedStatement(connection);
+  }
+
+  @Override
+  public void closePreparedStatement(OraclePreparedStatement statement) throws SQLException {
+    delegate.closePreparedStatement(statement);
+  }
+
+  @Override
+  public ResultSet executeQuery(OraclePreparedStatement statement) throws SQLException {
+    return delegate.executeQuery(statement);
+  }
+}
@@ -0,0 +1,213 @@
+package io.aregger.oracle_statement_caching.helper;
+
+import oracle.jdbc.OracleConnection;
+import oracle.jdbc.OraclePreparedStatement;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Collects single-row inserts of many threads into one batch per SQL text and executes each batch with one
+ * {@code executeBatch} on a cached statement of the connection. A batch is flushed when it reaches {@code maxRows} rows
+ * or {@code maxBytes} estimated bind bytes, by the thread adding the row, or when its first row is {@code maxAge} old,
+ * by a timer thread. The timer task of a batch flushed earlier is cancelled and removed from the timer queue.
+ * <p>
+ * The batch and the binds of a statement are cleared before it goes back to the cache, so an explicitly cached
+ * statement never re-runs the rows of an earlier flush. The future of a row completes with its update count, or
+ * exceptionally with the {@link SQLException} of its batch.
+ * <p>
+ * The writer uses its connection exclusively, one flush at a time.
+ */
+public final class BatchingWriter implements AutoCloseable {
+
+  private final OracleConnection connection;
+  private final Function<String, CacheableStatement> statementFactory;
+  private final int maxRows;
+  private final long maxBytes;
+  private final long maxAgeNanos;
+  private final ScheduledThreadPoolExecutor timer;
+
+  private final Map<String, Batch> batches = new HashMap<>();
+  private final Map<String, CacheableStatement> statements = new HashMap<>();
+  private final Object executionLock = new Object();
+  private final LongAdder flushes = new LongAdder();
+  private boolean closed;
+
+  private static final class Batch {
+
+    private final String sql;
+    private final List<Object[]> rows = new ArrayList<>();
+    private final List<CompletableFuture<Integer>> futures = new ArrayList<>();
+    private long bytes;
+    private ScheduledFuture<?> ageFlush;
+
+    private Batch(String sql) {
+      this.sql = sql;
+    }
+  }
+
+  /**
+   * @param statementFactory creates the cacheable statement of a SQL text, e.g. {@code ImplicitCacheableStatement::new}
+   */
+  public BatchingWriter(OracleConnection connection, Function<String, CacheableStatement> statementFactory, int maxRows, long maxBytes, Duration maxAge) {
+    if (maxRows < 1 || maxBytes < 1 || maxAge.isNegative() || maxAge.isZero()) {
+      throw new IllegalArgumentException("Limits must be positive: maxRows=" + maxRows + ", maxBytes=" + maxBytes + ", maxAge=" + maxAge);
+    }
+    this.connection = connection;
+    this.statementFactory = statementFactory;
+    this.maxRows = maxRows;
+    this.maxBytes = maxBytes;
+    this.maxAgeNanos = maxAge.toNanos();
+    this.timer = new ScheduledThreadPoolExecutor(1, runnable -> {
+      Thread thread = new Thread(runnable, "batching-writer-timer");
+      thread.setDaemon(true);
+      return thread;
+    });
+    this.timer.setRemoveOnCancelPolicy(true);
+    this.timer.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+  }
+
+  /**
+   * Adds a row to the batch of the given insert statement. The values are bound with {@code setObject} in order.
+   */
+  public CompletableFuture<Integer> insert(String sql, Object... values) {
+    CompletableFuture<Integer> future = new CompletableFuture<>();
+    Batch full = null;
+    synchronized (batches) {
+      if (closed) {
+        throw new IllegalStateException("Writer is closed");
+      }
+      Batch batch = batches.get(sql);
+      if (batch == null) {
+        Batch newBatch = new Batch(sql);
+        batch = newBatch;
+        batches.put(sql, batch);
+        batch.ageFlush = timer.schedule(() -> flushIfCurrent(newBatch), maxAgeNanos, TimeUnit.NANOSECONDS);
+      }
+      batch.rows.add(values.clone());
+      batch.futures.add(future);
+      for (Object value : values) {
+        batch.bytes += BindTracker.estimate(value);
+      }
+      if (batch.rows.size() >= maxRows || batch.bytes >= maxBytes) {
+        batches.remove(sql);
+        batch.ageFlush.cancel(false);
+        full = batch;
+      }
+    }
+    if (full != null) {
+      execute(full);
+    }
+    return future;
+  }
+
+  /**
+   * Flushes the batches of all SQL texts.
+   */
+  public void flush() {
+    List<Batch> pending;
+    synchronized (batches) {
+      pending = new ArrayList<>(batches.values());
+      batches.clear();
+      for (Batch batch : pending) {
+        batch.ageFlush.cancel(false);
+      }
+    }
+    for (Batch batch : pending) {
+      execute(batch);
+    }
+  }
+
+  /**
+   * Returns the number of executed batches.
+   */
+  public long getFlushes() {
+    return flushes.sum();
+  }
+
+  /**
+   * Flushes the pending batches and waits for an age flush which is already running, so no batch executes after the
+   * writer is closed. The connection is left open.
+   */
+  @Override
+  public void close() {
+    synchronized (batches) {
+      closed = true;
+    }
+    flush();
+    timer.shutdown();
+    boolean interrupted = false;
+    while (!timer.isTerminated()) {
+      try {
+        timer.awaitTermination(1, TimeUnit.SECONDS);
+      } catch (InterruptedException e) {
+        interrupted = true;
+      }
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void flushIfCurrent(Batch batch) {
+    synchronized (batches) {
+      if (batches.get(batch.sql) != batch) {
+        return;
+      }
+      batches.remove(batch.sql);
+    }
+    execute(batch);
+  }
+
+  private void execute(Batch batch) {
+    synchronized (executionLock) {
+      try {
+        int[] updateCounts = executeBatch(batch);
+        for (int i = 0; i < batch.futures.size(); i++) {
+          batch.futures.get(i).complete(i < updateCounts.length ? updateCounts[i] : Statement.SUCCESS_NO_INFO);
+        }
+      } catch (SQLException | RuntimeException e) {
+        for (CompletableFuture<Integer> future : batch.futures) {
+          future.completeExceptionally(e);
+        }
+      } finally {
+        flushes.increment();
+      }
+    }
+  }
+
+  private int[] executeBatch(Batch batch) throws SQLException {
+    CacheableStatement cacheableStatement = statements.computeIfAbsent(batch.sql, statementFactory);
+    OraclePreparedStatement statement = cacheableStatement.getCachedStatement(connection);
+    if (statement == null) {
+      statement = PreparedStatementHelper.prepare(connection, batch.sql);
+    }
+    try {
+      for (Object[] row : batch.rows) {
+        for (int i = 0; i < row.length; i++) {
+          statement.setObject(i + 1, row[i]);
+        }
+        statement.addBatch();
+      }
+      return statement.executeBatch();
+    } finally {
+      try {
+        statement.clearBatch();
+        statement.clearParameters();
+      } finally {
+        cacheableStatement.closePreparedStatement(statement);
+      }
+    }
+  }
+}
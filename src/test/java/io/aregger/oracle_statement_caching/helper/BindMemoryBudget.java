@@ -0,0 +1,190 @@
+package io.aregger.oracle_statement_caching.helper;
+
+import oracle.jdbc.OracleConnection;
+import oracle.jdbc.OraclePreparedStatement;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Global budget for the bind and batch data retained by explicitly cached statements. Entries are evicted in the order
+ * they were cached. Only entries of the connection which caches a new entry are evicted, because the other connections
+ * may be in use by other threads.
+ * <p>
+ * The budget keeps one {@link BindTracker} per cached entry, so a statement taken from the cache again is handed out
+ * with the same tracker. Entries the driver evicts itself because its cache is full are still counted, and their
+ * trackers kept, until {@link #release(OracleConnection)} is called for their connection, so the budget overestimates
+ * rather than underestimates.
+ */
+public final class BindMemoryBudget {
+
+  private final long maxTotalBytes;
+  private final long maxEntryBytes;
+  private final Map<EntryKey, Long> entries = new LinkedHashMap<>();
+  private final Map<EntryKey, BindTracker> trackers = new HashMap<>();
+
+  private long retainedBytes;
+  private long evictions;
+  private long clearedEntries;
+
+  /**
+   * @param maxTotalBytes bytes all cached statements together may retain
+   * @param maxEntryBytes bytes a single cached statement may retain, its bind state is cleared if it retains more
+   */
+  public BindMemoryBudget(long maxTotalBytes, long maxEntryBytes) {
+    if (maxTotalBytes < 0 || maxEntryBytes < 0) {
+      throw new IllegalArgumentException("Budgets must not be negative");
+    }
+    this.maxTotalBytes = maxTotalBytes;
+    this.maxEntryBytes = maxEntryBytes;
+  }
+
+  /**
+   * Returns whether the tracked statement may be cached with its bind state. Otherwise the caller has to clear the bind
+   * state before caching the statement.
+   */
+  synchronized boolean admit(OracleConnection connection, String cacheKey, BindTracker tracker) throws SQLException {
+    release(connection, cacheKey);
+    trackers.put(new EntryKey(connection, cacheKey), tracker);
+    long bytes = tracker.getRetainedBytes();
+    if (bytes > maxEntryBytes) {
+      clearedEntries++;
+      return false;
+    }
+    if (retainedBytes + bytes > maxTotalBytes) {
+      evict(connection, retainedBytes + bytes - maxTotalBytes);
+    }
+    if (retainedBytes + bytes > maxTotalBytes) {
+      clearedEntries++;
+      return false;
+    }
+    entries.put(new EntryKey(connection, cacheKey), bytes);
+    retainedBytes += bytes;
+    return true;
+  }
+
+  /**
+   * Removes the entry of a statement which was taken from the cache and returns its tracker, the one it was cached with
+   * or a new one if the driver returned another statement for the key.
+   */
+  synchronized BindTracker checkOut(OracleConnection connection, String cacheKey, OraclePreparedStatement statement) {
+    long bytes = release(connection, cacheKey);
+    EntryKey key = new EntryKey(connection, cacheKey);
+    BindTracker tracker = trackers.get(key);
+    if (tracker == null || tracker.getStatement() != statement) {
+      tracker = new BindTracker(statement, bytes);
+      trackers.put(key, tracker);
+    }
+    return tracker;
+  }
+
+  /**
+   * Removes the entry of a statement which was taken from the cache and returns the bytes it retained.
+   */
+  synchronized long release(OracleConnection connection, String cacheKey) {
+    Long bytes = entries.remove(new EntryKey(connection, cacheKey));
+    if (bytes == null) {
+      return 0;
+    }
+    retainedBytes -= bytes;
+    return bytes;
+  }
+
+  /**
+   * Removes all entries of the given connection, to be called before the connection is closed.
+   */
+  public synchronized void release(OracleConnection connection) {
+    Iterator<Map.Entry<EntryKey, Long>> iterator = entries.entrySet().iterator();
+    while (iterator.hasNext()) {
+      Map.Entry<EntryKey, Long> entry = iterator.next();
+      if (entry.getKey().connection == connection) {
+        retainedBytes -= entry.getValue();
+        iterator.remove();
+      }
+    }
+    trackers.keySet().removeIf(key -> key.connection == connection);
+  }
+
+  public synchronized long getRetainedBytes() {
+    return retainedBytes;
+  }
+
+  public synchronized long getEvictions() {
+    return evictions;
+  }
+
+  /**
+   * Returns how many statements were cached without their bind state because they exceeded the budget.
+   */
+  public synchronized long getClearedEntries() {
+    return clearedEntries;
+  }
+
+  public long getMaxTotalBytes() {
+    return maxTotalBytes;
+  }
+
+  public long getMaxEntryBytes() {
+    return maxEntryBytes;
+  }
+
+  private void evict(OracleConnection connection, long bytesToFree) throws SQLException {
+    List<EntryKey> evicted = new ArrayList<>();
+    long freed = 0;
+    for (Map.Entry<EntryKey, Long> entry : entries.entrySet()) {
+      if (freed >= bytesToFree) {
+        break;
+      }
+      if (entry.getKey().connection == connection) {
+        evicted.add(entry.getKey());
+        freed += entry.getValue();
+      }
+    }
+    for (EntryKey key : evicted) {
+      trackers.remove(key);
+      PreparedStatement statement = connection.getStatementWithKey(key.cacheKey);
+      if (statement != null) {
+        // a plain close would move the statement with its binds into the implicit cache
+        statement.setPoolable(false);
+        statement.close();
+      }
+      retainedBytes -= entries.remove(key);
+      evictions++;
+    }
+  }
+
+  private static final class EntryKey {
+
+    final OracleConnection connection;
+    final String cacheKey;
+
+    EntryKey(OracleConnection connection, String cacheKey) {
+      this.connection = connection;
+      this.cacheKey = cacheKey;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof EntryKey)) {
+        return false;
+      }
+      EntryKey other = (EntryKey) o;
+      return connection == other.connection && cacheKey.equals(other.cacheKey);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(System.identityHashCode(connection), cacheKey);
+    }
+  }
+}
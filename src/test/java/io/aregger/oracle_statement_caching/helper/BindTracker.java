@@ -0,0 +1,655 @@
+package io.aregger.oracle_statement_caching.helper;
+
+import oracle.jdbc.OraclePreparedStatement;
+import oracle.sql.ARRAY;
+import oracle.sql.BFILE;
+import oracle.sql.BINARY_DOUBLE;
+import oracle.sql.BINARY_FLOAT;
+import oracle.sql.BLOB;
+import oracle.sql.CHAR;
+import oracle.sql.CLOB;
+import oracle.sql.CustomDatum;
+import oracle.sql.DATE;
+import oracle.sql.Datum;
+import oracle.sql.INTERVALDS;
+import oracle.sql.INTERVALYM;
+import oracle.sql.NUMBER;
+import oracle.sql.OPAQUE;
+import oracle.sql.ORAData;
+import oracle.sql.RAW;
+import oracle.sql.REF;
+import oracle.sql.ROWID;
+import oracle.sql.STRUCT;
+import oracle.sql.StructDescriptor;
+import oracle.sql.TIMESTAMP;
+import oracle.sql.TIMESTAMPLTZ;
+import oracle.sql.TIMESTAMPTZ;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.net.URL;
+import java.sql.Array;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.Date;
+import java.sql.NClob;
+import java.sql.Ref;
+import java.sql.ResultSet;
+import java.sql.RowId;
+import java.sql.SQLException;
+import java.sql.SQLType;
+import java.sql.SQLXML;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.Calendar;
+
+/**
+ * Forwards every call to a statement and estimates the heap its bind values and batch retain. Only binds by index
+ * through the tracker are seen, binds by name are not counted. A stream is counted as one object whatever its length,
+ * the driver reads it with the execution and keeps no copy of its content. A callable statement is tracked as a
+ * prepared statement.
+ */
+@SuppressWarnings("deprecation")
+final class BindTracker extends DelegatingOraclePreparedStatement {
+
+  private static final long OBJECT_BYTES = 24;
+
+  private long[] bindBytes = new long[8];
+  private long batchBytes;
+  // retained by binds set before the statement was wrapped, counted until binds or batch are cleared
+  private long inheritedBytes;
+
+  BindTracker(OraclePreparedStatement statement, long inheritedBytes) {
+    super(statement);
+    this.inheritedBytes = inheritedBytes;
+  }
+
+  /**
+   * Wraps the statement, which already retains the given bytes.
+   */
+  static OraclePreparedStatement track(OraclePreparedStatement statement, long inheritedBytes) {
+    return statement instanceof BindTracker ? statement : new BindTracker(statement, inheritedBytes);
+  }
+
+  /**
+   * Returns the tracker of a wrapped statement or {@code null} if the statement is not wrapped.
+   */
+  static BindTracker of(OraclePreparedStatement statement) {
+    return statement instanceof BindTracker ? (BindTracker) statement : null;
+  }
+
+  OraclePreparedStatement getStatement() {
+    return delegate;
+  }
+
+  /**
+   * Returns the estimated bytes retained by the current binds and the batch.
+   */
+  long getRetainedBytes() {
+    return inheritedBytes + bindBytes() + batchBytes;
+  }
+
+  /**
+   * Clears binds and batch of the statement.
+   */
+  void clear() throws SQLException {
+    delegate.clearParameters();
+    delegate.clearBatch();
+    Arrays.fill(bindBytes, 0);
+    batchBytes = 0;
+    inheritedBytes = 0;
+  }
+
+  @Override
+  public void addBatch() throws SQLException {
+    delegate.addBatch();
+    batchBytes += bindBytes();
+  }
+
+  @Override
+  public void clearBatch() throws SQLException {
+    delegate.clearBatch();
+    batchBytes = 0;
+    inheritedBytes = 0;
+  }
+
+  @Override
+  public void clearParameters() throws SQLException {
+    delegate.clearParameters();
+    Arrays.fill(bindBytes, 0);
+    inheritedBytes = 0;
+  }
+
+  @Override
+  public void setArray(int parameterIndex, Array x) throws SQLException {
+    delegate.setArray(parameterIndex, x);
+    bind(parameterIndex, estimate(x));
+  }
+
+  @Override
+  public void setAsciiStream(int parameterIndex, InputStream x) throws SQLException {
+    delegate.setAsciiStream(parameterIndex, x);
+    bind(parameterIndex, estimate(x));
+  }
+
+  @Override
+  public void setAsciiStream(int parameterIndex, InputStream x, int length) throws SQLException {
+    delegate.setAsciiStream(parameterIndex, x, length);
+    bind(parameterIndex, estimate(x));
+  }
+
+  @Override
+  public void setAsciiStream(int parameterIndex, InputStream x, long length) throws SQLException {
+    delegate.setAsciiStream(parameterIndex, x, length);
+    bind(parameterIndex, estimate(x));
+  }
+
+  @Override
+  public void setBigDecimal(int parameterIndex, BigDecimal x) throws SQLException {
+    delegate.setBigDecimal(parameterIndex, x);
+    bind(parameterIndex, estimate(x));
+  }
+
+  @Override
+  public void setBinaryStream(int parameterIndex, InputStream x) throws SQLException {
+    delegate.setBinaryStream(parameterIndex, x);
+    bind(parameterIndex, estimate(x));
+  }
+
+  @Override
+  public void setBinaryStream(int parameterIndex, InputStream x, int length) throws SQLException {
+    delegate.setBinaryStream(parameterIndex, x, length);
+    bind(parameterIndex, estimate(x));
+  }
+
+  @Override
+  public void setBinaryStream(int parameterIndex, InputStream x, long length) throws SQLException {
+    delegate.setBinaryStream(parameterIndex, x, length);
+    bind(parameterIndex, estimate(x));
+  }
+
+  @Override
+  public void setBlob(int parameterIndex, InputStream x) throws SQLException {
+    delegate.setBlob(parameterIndex, x);
+    bind(parameterIndex, estimate(x));
+  }
+
+  @Override
+  public void setBlob(int parameterIndex, Blob x) throws SQLException {
+    delegate.setBlob(parameterIndex, x);
+    bind(parameterIndex, estimate(x));
+  }
+
+  @Override
+  public void setBlob(int parameterIndex, InputStream x, long length) throws SQLException {
+    delegate.setBlob(parameterIndex, x, length);
+    bind(parameterIndex, estimate(x));
+  }
+
+  @Override
+  public void setBoolean(int parameterIndex, boolean x) throws SQLException {
+    delegate.setBoolean(parameterIndex, x);
+    bind(parameterIndex, estimate(x));
+  }
+
+  @Override
+  public void setByte(int parameterIndex, byte x) throws SQLException {
+    delegate.setByte(parameterIndex, x);
+    bind(parameterIndex, estimate(x));
+  }
+
+  @Override
+  public void setBytes(int parameterIndex, byte[] x) throws SQLException {
+    delegate.setBytes(parameterIndex, x);
+    bind(parameterIndex, estimate(x));
+  }
+
+  @Override
+  public void setCharacterStream(int parameterIndex, Reader x) throws SQLException {
+    delegate.setCharacterStream(parameterIndex, x);
+    bind(parameterIndex, estimate(x));
+  }
+
+  @Override
+  public void setCharacterStream(int parameterIndex, Reader x, int length) throws SQLException {
+    delegate.setCharacterStream(parameterIndex, x, length);
+    bind(parameterIndex, estimate(x));
+  }
+
+  @Override
+  public void setCharacterStream(int parameterIndex, Reader x, long length) throws SQLException {
+    delegate.setCharacterStream(parameterIndex, x, length);
+    bind(parameterIndex, estimate(x));
+  }
+
+  @Override
+  public void setClob(int parameterIndex, Reader x) throws SQLException {
+    delegate.setClob(parameterIndex, x);
+    bind(parameterIndex, estimate(x));
+  }
+
+  @Override
+  public void setClob(int parameterIndex, Clob x) throws SQLException {
+    delegate.setClob(parameterIndex, x);
+    bind(parameterIndex, estimate(x));
+  }
+
+  @Override
+  public void setClob(int parameterIndex, Reader x, long length) throws SQLException {
+    delegate.setClob(parameterIndex, x, length);
+    bind(parameterIndex, estimate(x));
+  }
+
+  @Override
+  public void setDate(int parameterIndex, Date x) throws SQLException {
+    delegate.setDate(parameterIndex, x);
+    bind(parameterIndex, estimate(x));
+  }
+
+  @Override
+  public void setDate(int parameterIndex, Date x, Calendar calendar) throws SQLException {
+    delegate.setDate(parameterIndex, x, calendar);
+    bind(parameterIndex, estimate(x));
+  }
+
+  @Override
+  public void setDouble(int parameterIndex, double x) throws SQLException {
+    delegate.setDouble(parameterIndex, x);
+    bind(parameterIndex, estimate(x));
+  }
+
+  @Override
+  public void setFloat(int parameterIndex, float x) throws SQLException {
+    delegate.setFloat(parameterIndex, x);
+    bind(parameterIndex, estimate(x));
+  }
+
+  @Override
+  public void setInt(int parameterIndex, int x) throws SQLException {
+    delegate.setInt(parameterIndex, x);
+    bind(parameterIndex, estimate(x));
+  }
+
+  @Override
+  public void setLong(int parameterIndex, long x) throws SQLException {
+    delegate.setLong(parameterIndex, x);
+    bind(parameterIndex, estimate(x));
+  }
+
+  @Override
+  public void setNCharacterStream(int parameterIndex, Reader x) throws SQLException {
+    delegate.setNCharacterStream(parameterIndex, x);
+    bind(parameterIndex, estimate(x));
+  }
+
+  @Override
+  public void setNCharacterStream(int parameterIndex, Reader x, long length) throws SQLException {
+    delegate.setNCharacterStream(parameterIndex, x, length);
+    bind(parameterIndex, estimate(x));
+  }
+
+  @Override
+  public void setNClob(int parameterIndex, Reader x) throws SQLException {
+    delegate.setNClob(parameterIndex, x);
+    bind(parameterIndex, estimate(x));
+  }
+
+  @Override
+  public void setNClob(int parameterIndex, NClob x) throws SQLException {
+    delegate.setNClob(parameterIndex, x);
+    bind(parameterIndex, estimate(x));
+  }
+
+  @Override
+  public void setNClob(int parameterIndex, Reader x, long length) throws SQLException {
+    delegate.setNClob(parameterIndex, x, length);
+    bind(parameterIndex, estimate(x));
+  }
+
+  @Override
+  public void setNString(int parameterIndex, String x) throws SQLException {
+    delegate.setNString(parameterIndex, x);
+    bind(parameterIndex, estimate(x));
+  }
+
+  @Override
+  public void setNull(int parameterIndex, int sqlType) throws SQLException {
+    delegate.setNull(parameterIndex, sqlType);
+    bind(parameterIndex, 0);
+  }
+
+  @Override
+  public void setNull(int parameterIndex, int sqlType, String typeName) throws SQLException {
+    delegate.setNull(parameterIndex, sqlType, typeName);
+    bind(parameterIndex, 0);
+  }
+
+  @Override
+  public void setObject(int parameterIndex, Object x) throws SQLException {
+    delegate.setObject(parameterIndex, x);
+    bind(parameterIndex, estimate(x));
+  }
+
+  @Override
+  public void setObject(int parameterIndex, Object x, int targetSqlType) throws SQLException {
+    delegate.setObject(parameterIndex, x, targetSqlType);
+    bind(parameterIndex, estimate(x));
+  }
+
+  @Override
+  public void setObject(int parameterIndex, Object x, SQLType targetSqlType) throws SQLException {
+    delegate.setObject(parameterIndex, x, targetSqlType);
+    bind(parameterIndex, estimate(x));
+  }
+
+  @Override
+  public void setObject(int parameterIndex, Object x, int targetSqlType, int scaleOrLength) throws SQLException {
+    delegate.setObject(parameterIndex, x, targetSqlType, scaleOrLength);
+    bind(parameterIndex, estimate(x));
+  }
+
+  @Override
+  public void setObject(int parameterIndex, Object x, SQLType targetSqlType, int scaleOrLength) throws SQLException {
+    delegate.setObject(parameterIndex, x, targetSqlType, scaleOrLength);
+    bind(parameterIndex, estimate(x));
+  }
+
+  @Override
+  public void setRef(int parameterIndex, Ref x) throws SQLException {
+    delegate.setRef(parameterIndex, x);
+    bind(parameterIndex, estimate(x));
+  }
+
+  @Override
+  public void setRowId(int parameterIndex, RowId x) throws SQLException {
+    delegate.setRowId(parameterIndex, x);
+    bind(parameterIndex, estimate(x));
+  }
+
+  @Override
+  public void setSQLXML(int parameterIndex, SQLXML x) throws SQLException {
+    delegate.setSQLXML(parameterIndex, x);
+    bind(parameterIndex, estimate(x));
+  }
+
+  @Override
+  public void setShort(int parameterIndex, short x) throws SQLException {
+    delegate.setShort(parameterIndex, x);
+    bind(parameterIndex, estimate(x));
+  }
+
+  @Override
+  public void setString(int parameterIndex, String x) throws SQLException {
+    delegate.setString(parameterIndex, x);
+    bind(parameterIndex, estimate(x));
+  }
+
+  @Override
+  public void setTime(int parameterIndex, Time x) throws SQLException {
+    delegate.setTime(parameterIndex, x);
+    bind(parameterIndex, estimate(x));
+  }
+
+  @Override
+  public void setTime(int parameterIndex, Time x, Calendar calendar) throws SQLException {
+    delegate.setTime(parameterIndex, x, calendar);
+    bind(parameterIndex, estimate(x));
+  }
+
+  @Override
+  public void setTimestamp(int parameterIndex, Timestamp x) throws SQLException {
+    delegate.setTimestamp(parameterIndex, x);
+    bind(parameterIndex, estimate(x));
+  }
+
+  @Override
+  public void setTimestamp(int parameterIndex, Timestamp x, Calendar calendar) throws SQLException {
+    delegate.setTimestamp(parameterIndex, x, calendar);
+    bind(parameterIndex, estimate(x));
+  }
+
+  @Override
+  public void setURL(int parameterIndex, URL x) throws SQLException {
+    delegate.setURL(parameterIndex, x);
+    bind(parameterIndex, estimate(x));
+  }
+
+  @Deprecated
+  @Override
+  public void setUnicodeStream(int parameterIndex, InputStream x, int length) throws SQLException {
+    delegate.setUnicodeStream(parameterIndex, x, length);
+    bind(parameterIndex, estimate(x));
+  }
+
+  @Override
+  public void setARRAY(int parameterIndex, ARRAY x) throws SQLException {
+    delegate.setARRAY(parameterIndex, x);
+    bind(parameterIndex, estimate(x));
+  }
+
+  @Override
+  public void setBFILE(int parameterIndex, BFILE x) throws SQLException {
+    delegate.setBFILE(parameterIndex, x);
+    bind(parameterIndex, estimate(x));
+  }
+
+  @Override
+  public void setBLOB(int parameterIndex, BLOB x) throws SQLException {
+    delegate.setBLOB(parameterIndex, x);
+    bind(parameterIndex, estimate(x));
+  }
+
+  @Override
+  public void setBfile(int parameterIndex, BFILE x) throws SQLException {
+    delegate.setBfile(parameterIndex, x);
+    bind(parameterIndex, estimate(x));
+  }
+
+  @Override
+  public void setBinaryDouble(int parameterIndex, BINARY_DOUBLE x) throws SQLException {
+    delegate.setBinaryDouble(parameterIndex, x);
+    bind(parameterIndex, estimate(x));
+  }
+
+  @Override
+  public void setBinaryDouble(int parameterIndex, double x) throws SQLException {
+    delegate.setBinaryDouble(parameterIndex, x);
+    bind(parameterIndex, estimate(x));
+  }
+
+  @Override
+  public void setBinaryFloat(int parameterIndex, BINARY_FLOAT x) throws SQLException {
+    delegate.setBinaryFloat(parameterIndex, x);
+    bind(parameterIndex, estimate(x));
+  }
+
+  @Override
+  public void setBinaryFloat(int parameterIndex, float x) throws SQLException {
+    delegate.setBinaryFloat(parameterIndex, x);
+    bind(parameterIndex, estimate(x));
+  }
+
+  @Override
+  public void setBytesForBlob(int parameterIndex, byte[] x) throws SQLException {
+    delegate.setBytesForBlob(parameterIndex, x);
+    bind(parameterIndex, estimate(x));
+  }
+
+  @Override
+  public void setCHAR(int parameterIndex, CHAR x) throws SQLException {
+    delegate.setCHAR(parameterIndex, x);
+    bind(parameterIndex, estimate(x));
+  }
+
+  @Override
+  public void setCLOB(int parameterIndex, CLOB x) throws SQLException {
+    delegate.setCLOB(parameterIndex, x);
+    bind(parameterIndex, estimate(x));
+  }
+
+  @Override
+  public void setCursor(int parameterIndex, ResultSet x) throws SQLException {
+    delegate.setCursor(parameterIndex, x);
+    bind(parameterIndex, estimate(x));
+  }
+
+  @Override
+  public void setCustomDatum(int parameterIndex, CustomDatum x) throws SQLException {
+    delegate.setCustomDatum(parameterIndex, x);
+    bind(parameterIndex, estimate(x));
+  }
+
+  @Override
+  public void setDATE(int parameterIndex, DATE x) throws SQLException {
+    delegate.setDATE(parameterIndex, x);
+    bind(parameterIndex, estimate(x));
+  }
+
+  @Override
+  public void setFixedCHAR(int parameterIndex, String x) throws SQLException {
+    delegate.setFixedCHAR(parameterIndex, x);
+    bind(parameterIndex, estimate(x));
+  }
+
+  @Override
+  public void setINTERVALDS(int parameterIndex, INTERVALDS x) throws SQLException {
+    delegate.setINTERVALDS(parameterIndex, x);
+    bind(parameterIndex, estimate(x));
+  }
+
+  @Override
+  public void setINTERVALYM(int parameterIndex, INTERVALYM x) throws SQLException {
+    delegate.setINTERVALYM(parameterIndex, x);
+    bind(parameterIndex, estimate(x));
+  }
+
+  @Override
+  public void setNUMBER(int parameterIndex, NUMBER x) throws SQLException {
+    delegate.setNUMBER(parameterIndex, x);
+    bind(parameterIndex, estimate(x));
+  }
+
+  @Override
+  public void setOPAQUE(int parameterIndex, OPAQUE x) throws SQLException {
+    delegate.setOPAQUE(parameterIndex, x);
+    bind(parameterIndex, estimate(x));
+  }
+
+  @Override
+  public void setORAData(int parameterIndex, ORAData x) throws SQLException {
+    delegate.setORAData(parameterIndex, x);
+    bind(parameterIndex, estimate(x));
+  }
+
+  @Override
+  public void setOracleObject(int parameterIndex, Datum x) throws SQLException {
+    delegate.setOracleObject(parameterIndex, x);
+    bind(parameterIndex, estimate(x));
+  }
+
+  @Deprecated
+  @Override
+  public void setPlsqlIndexTable(int parameterIndex, Object x, int maxLength, int currentLength, int elementSqlType, int elementMaxLength) throws SQLException {
+    delegate.setPlsqlIndexTable(parameterIndex, x, maxLength, currentLength, elementSqlType, elementMaxLength);
+    bind(parameterIndex, estimate(x));
+  }
+
+  @Override
+  public void setRAW(int parameterIndex, RAW x) throws SQLException {
+    delegate.setRAW(parameterIndex, x);
+    bind(parameterIndex, estimate(x));
+  }
+
+  @Override
+  public void setREF(int parameterIndex, REF x) throws SQLException {
+    delegate.setREF(parameterIndex, x);
+    bind(parameterIndex, estimate(x));
+  }
+
+  @Override
+  public void setROWID(int parameterIndex, ROWID x) throws SQLException {
+    delegate.setROWID(parameterIndex, x);
+    bind(parameterIndex, estimate(x));
+  }
+
+  @Override
+  public void setRefType(int parameterIndex, REF x) throws SQLException {
+    delegate.setRefType(parameterIndex, x);
+    bind(parameterIndex, estimate(x));
+  }
+
+  @Override
+  public void setSTRUCT(int parameterIndex, STRUCT x) throws SQLException {
+    delegate.setSTRUCT(parameterIndex, x);
+    bind(parameterIndex, estimate(x));
+  }
+
+  @Override
+  public void setStringForClob(int parameterIndex, String x) throws SQLException {
+    delegate.setStringForClob(parameterIndex, x);
+    bind(parameterIndex, estimate(x));
+  }
+
+  @Override
+  public void setStructDescriptor(int parameterIndex, StructDescriptor x) throws SQLException {
+    delegate.setStructDescriptor(parameterIndex, x);
+    bind(parameterIndex, estimate(x));
+  }
+
+  @Override
+  public void setTIMESTAMP(int parameterIndex, TIMESTAMP x) throws SQLException {
+    delegate.setTIMESTAMP(parameterIndex, x);
+    bind(parameterIndex, estimate(x));
+  }
+
+  @Override
+  public void setTIMESTAMPLTZ(int parameterIndex, TIMESTAMPLTZ x) throws SQLException {
+    delegate.setTIMESTAMPLTZ(parameterIndex, x);
+    bind(parameterIndex, estimate(x));
+  }
+
+  @Override
+  public void setTIMESTAMPTZ(int parameterIndex, TIMESTAMPTZ x) throws SQLException {
+    delegate.setTIMESTAMPTZ(parameterIndex, x);
+    bind(parameterIndex, estimate(x));
+  }
+
+  private void bind(int index, long bytes) {
+    if (index < 1) {
+      return;
+    }
+    if (index > bindBytes.length) {
+      bindBytes = Arrays.copyOf(bindBytes, Math.max(index, bindBytes.length * 2));
+    }
+    bindBytes[index - 1] = bytes;
+  }
+
+  private long bindBytes() {
+    long sum = 0;
+    for (long bytes : bindBytes) {
+      sum += bytes;
+    }
+    return sum;
+  }
+
+  /**
+   * Returns the estimated bytes a bind value retains.
+   */
+  static long estimate(Object value) {
+    if (value == null) {
+      return 0;
+    }
+    if (value instanceof String) {
+      return OBJECT_BYTES + 2L * ((String) value).length();
+    }
+    if (value instanceof char[]) {
+      return OBJECT_BYTES + 2L * ((char[]) value).length;
+    }
+    if (value instanceof byte[]) {
+      return OBJECT_BYTES + ((byte[]) value).length;
+    }
+    return OBJECT_BYTES;
+  }
+}
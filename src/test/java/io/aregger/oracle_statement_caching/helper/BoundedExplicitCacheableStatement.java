@@ -0,0 +1,68 @@
+package io.aregger.oracle_statement_caching.helper;
+
+import oracle.jdbc.OracleConnection;
+import oracle.jdbc.OraclePreparedStatement;
+
+import java.sql.SQLException;
+
+/**
+ * Explicitly cached statement whose retained bind and batch data is accounted in a {@link BindMemoryBudget}. A
+ * statement which does not fit into the budget is cached with cleared binds and batch, so it has to be bound again
+ * before it is executed, like an implicitly cached statement.
+ * <p>
+ * Binds are only seen on statements returned by {@link #getCachedStatement(OracleConnection)} or wrapped with
+ * {@link #track(OraclePreparedStatement)}. Statements closed without being tracked are cached with cleared binds.
+ */
+public class BoundedExplicitCacheableStatement implements CacheableStatement {
+
+  private final String sql;
+  private final String cacheKey;
+  private final BindMemoryBudget budget;
+
+  public BoundedExplicitCacheableStatement(String sql, String cacheKey, BindMemoryBudget budget) {
+    this.sql = sql;
+    this.cacheKey = cacheKey;
+    this.budget = budget;
+  }
+
+  /**
+   * Wraps a statement prepared for this SQL so that its binds are accounted.
+   */
+  public static OraclePreparedStatement track(OraclePreparedStatement statement) {
+    return BindTracker.track(statement, 0);
+  }
+
+  @Override
+  public String getSql() {
+    return sql;
+  }
+
+  @Override
+  public String getCacheKey() {
+    return cacheKey;
+  }
+
+  @Override
+  public void closePreparedStatement(OraclePreparedStatement statement) throws SQLException {
+    BindTracker tracker = BindTracker.of(statement);
+    OraclePreparedStatement unwrapped = tracker == null ? statement : tracker.getStatement();
+    OracleConnection connection = (OracleConnection) unwrapped.getConnection();
+    if (tracker == null) {
+      unwrapped.clearParameters();
+      unwrapped.clearBatch();
+      budget.release(connection, cacheKey);
+    } else if (!budget.admit(connection, cacheKey, tracker)) {
+      tracker.clear();
+    }
+    unwrapped.closeWithKey(cacheKey);
+  }
+
+  @Override
+  public OraclePreparedStatement getCachedStatement(OracleConnection connection) throws SQLException {
+    OraclePreparedStatement statement = (OraclePreparedStatement) connection.getStatementWithKey(cacheKey);
+    if (statement == null) {
+      return null;
+    }
+    return budget.checkOut(connection, cacheKey, statement);
+  }
+}
@@ -0,0 +1,166 @@
+package io.aregger.oracle_statement_caching.helper;
+
+import oracle.jdbc.OracleCallableStatement;
+import oracle.jdbc.OracleConnection;
+
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Executes a PL/SQL procedure for many rows. If the procedure has a bulk variant which takes a PL/SQL index-by table
+ * per parameter, the rows are bound column-wise as arrays and sent with one execution, so N rows cost one round trip
+ * instead of N. For the {@code insertLob} procedure of the tests the bulk variant is
+ * <pre>
+ * create or replace package lob_api is
+ *   type t_data is table of varchar2(32767) index by pls_integer;
+ *   procedure insert_lobs(pi_data t_data);
+ * end;
+ *
+ * create or replace package body lob_api is
+ *   procedure insert_lobs(pi_data t_data) is
+ *   begin
+ *     forall i in indices of pi_data
+ *       insert into t1 (c3) values (pi_data(i));
+ *   end;
+ * end;
+ * </pre>
+ * called with {@code begin lob_api.insert_lobs(pi_data => ?); end;}.
+ * <p>
+ * Index-by tables have scalar elements only, a VARCHAR2 element is at most 32767 characters. Rows with a longer
+ * character value, e.g. a large CLOB, and procedures without a bulk variant fall back to a JDBC batch of the per-row
+ * call. The thin driver executes a batch of a callable statement row by row, so the fallback costs a round trip per
+ * row like single calls.
+ * <p>
+ * Both calls are prepared with {@code prepareCall} and closed after each execution, so with implicit caching enabled the
+ * cached calls are reused and never re-parsed. Their binds and batch are cleared before they go back to the cache.
+ */
+public final class BulkCall {
+
+  private static final int MAX_VARCHAR_ELEMENT_LENGTH = 32767;
+
+  private final String rowCall;
+  private final String bulkCall;
+  private final int[] elementSqlTypes;
+  private final int elementMaxLength;
+  private final LongAdder bulkExecutions = new LongAdder();
+  private final LongAdder fallbackExecutions = new LongAdder();
+
+  /**
+   * Creates a bulk call for a procedure without a bulk variant, which executes the rows as a batch of the row call.
+   */
+  public BulkCall(String rowCall) {
+    this.rowCall = rowCall;
+    this.bulkCall = null;
+    this.elementSqlTypes = null;
+    this.elementMaxLength = 0;
+  }
+
+  /**
+   * @param rowCall          the call of the procedure for one row, with one parameter per column
+   * @param bulkCall         the call of the bulk variant, with one index-by table parameter per column
+   * @param elementSqlTypes  the {@link Types} of the index-by table elements, one per column
+   * @param elementMaxLength the maximum length of the character elements, at most 32767, longer values fall back to the
+   *                         row call
+   */
+  public BulkCall(String rowCall, String bulkCall, int[] elementSqlTypes, int elementMaxLength) {
+    if (elementMaxLength < 1 || elementMaxLength > MAX_VARCHAR_ELEMENT_LENGTH) {
+      throw new IllegalArgumentException("Element length must be between 1 and " + MAX_VARCHAR_ELEMENT_LENGTH + ": " + elementMaxLength);
+    }
+    this.rowCall = rowCall;
+    this.bulkCall = bulkCall;
+    this.elementSqlTypes = elementSqlTypes.clone();
+    this.elementMaxLength = elementMaxLength;
+  }
+
+  /**
+   * Executes the procedure for the rows, each row holds the values of the parameters in order.
+   */
+  public void execute(OracleConnection connection, List<Object[]> rows) throws SQLException {
+    if (rows.isEmpty()) {
+      return;
+    }
+    if (bulkCall != null && fitsIndexTables(rows)) {
+      executeBulk(connection, rows);
+      bulkExecutions.increment();
+    } else {
+      executeBatch(connection, rows);
+      fallbackExecutions.increment();
+    }
+  }
+
+  /**
+   * Returns the number of executions which bound the rows as index-by tables.
+   */
+  public long getBulkExecutions() {
+    return bulkExecutions.sum();
+  }
+
+  /**
+   * Returns the number of executions which fell back to a batch of the row call.
+   */
+  public long getFallbackExecutions() {
+    return fallbackExecutions.sum();
+  }
+
+  private boolean fitsIndexTables(List<Object[]> rows) {
+    for (Object[] row : rows) {
+      if (row.length != elementSqlTypes.length) {
+        throw new IllegalArgumentException("Row has " + row.length + " values, the call takes " + elementSqlTypes.length);
+      }
+      for (int i = 0; i < row.length; i++) {
+        if (isCharacter(elementSqlTypes[i]) && row[i] != null && row[i].toString().length() > elementMaxLength) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  @SuppressWarnings("deprecation")
+  private void executeBulk(OracleConnection connection, List<Object[]> rows) throws SQLException {
+    OracleCallableStatement statement = (OracleCallableStatement) connection.prepareCall(bulkCall);
+    try {
+      for (int column = 0; column < elementSqlTypes.length; column++) {
+        Object[] elements = new Object[rows.size()];
+        for (int row = 0; row < elements.length; row++) {
+          Object value = rows.get(row)[column];
+          elements[row] = isCharacter(elementSqlTypes[column]) && value != null ? value.toString() : value;
+        }
+        statement.setPlsqlIndexTable(column + 1, elements, elements.length, elements.length, elementSqlTypes[column], elementMaxLength);
+      }
+      statement.execute();
+    } finally {
+      try {
+        statement.clearParameters();
+      } finally {
+        statement.close();
+      }
+    }
+  }
+
+  private void executeBatch(OracleConnection connection, List<Object[]> rows) throws SQLException {
+    OracleCallableStatement statement = (OracleCallableStatement) connection.prepareCall(rowCall);
+    try {
+      for (Object[] row : rows) {
+        for (int i = 0; i < row.length; i++) {
+          statement.setObject(i + 1, row[i]);
+        }
+        statement.addBatch();
+      }
+      statement.executeBatch();
+    } finally {
+      try {
+        statement.clearBatch();
+        statement.clearParameters();
+      } finally {
+        statement.close();
+      }
+    }
+  }
+
+  private static boolean isCharacter(int sqlType) {
+    return sqlType == Types.VARCHAR || sqlType == Types.CHAR;
+  }
+}
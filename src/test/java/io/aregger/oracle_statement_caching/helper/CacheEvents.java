@@ -0,0 +1,53 @@
+package io.aregger.oracle_statement_caching.helper;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR events of {@link MeteredCacheableStatement}. They are only created on misses and resets, never on the hit path.
+ */
+final class CacheEvents {
+
+  private CacheEvents() {
+    throw new AssertionError("non-instantiable class");
+  }
+
+  @Name("io.aregger.StatementCacheMiss")
+  @Label("Statement Cache Miss")
+  @Category({"JDBC", "Statement Cache"})
+  @Description("A statement was not in the statement cache of the connection")
+  static final class Miss extends Event {
+
+    @Label("SQL")
+    String sql;
+  }
+
+  @Name("io.aregger.StatementCacheEviction")
+  @Label("Statement Cache Eviction")
+  @Category({"JDBC", "Statement Cache"})
+  @Description("A statement was missing from the cache of a connection it had been returned to")
+  static final class Eviction extends Event {
+
+    @Label("SQL")
+    String sql;
+  }
+
+  @Name("io.aregger.StatementStateReset")
+  @Label("Statement State Reset")
+  @Category({"JDBC", "Statement Cache"})
+  @Description("A statement with tuned properties went back to a cache which resets them")
+  static final class StateReset extends Event {
+
+    @Label("SQL")
+    String sql;
+
+    @Label("Row Prefetch")
+    int rowPrefetch;
+
+    @Label("LOB Prefetch Size")
+    int lobPrefetchSize;
+  }
+}
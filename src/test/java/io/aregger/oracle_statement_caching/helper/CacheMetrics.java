@@ -0,0 +1,176 @@
+package io.aregger.oracle_statement_caching.helper;
+
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-SQL statement cache metrics recorded by {@link MeteredCacheableStatement}: hits, misses, evictions, stale state
+ * resets and the checkout latency. The counters are striped, so recording does not allocate and concurrent recorders
+ * rarely contend. A metrics exporter reads them with {@link #snapshot()}.
+ * <p>
+ * Reading the clock costs about as much as a cache hit, so by default the latency of one in 16 random checkouts is
+ * recorded. The percentiles of the sample are the percentiles of all checkouts, the tail needs a longer run to show.
+ */
+public final class CacheMetrics {
+
+  private static final int DEFAULT_LATENCY_SAMPLE_INTERVAL = 16;
+
+  private final Map<String, SqlMetrics> metrics = new ConcurrentHashMap<>();
+  private final int latencySampleMask;
+
+  public CacheMetrics() {
+    this(DEFAULT_LATENCY_SAMPLE_INTERVAL);
+  }
+
+  /**
+   * @param latencySampleInterval records the latency of one in this many checkouts, a power of two, 1 to record every
+   *                              checkout
+   */
+  public CacheMetrics(int latencySampleInterval) {
+    if (latencySampleInterval < 1 || Integer.bitCount(latencySampleInterval) != 1) {
+      throw new IllegalArgumentException("Sample interval must be a power of two: " + latencySampleInterval);
+    }
+    this.latencySampleMask = latencySampleInterval - 1;
+  }
+
+  /**
+   * The counters of one SQL text.
+   */
+  static final class SqlMetrics {
+
+    final String sql;
+    final LongAdder hits = new LongAdder();
+    final LongAdder misses = new LongAdder();
+    final LongAdder evictions = new LongAdder();
+    final LongAdder resets = new LongAdder();
+    final StripedHistogram checkOutNanos = new StripedHistogram();
+    // the connections whose cache got the statement back since its last miss there
+    private final Set<Connection> returnedTo = Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()));
+    // the properties of the statement when it was prepared, which an implicit cache restores
+    volatile StatementProperties preparedProperties;
+
+    private SqlMetrics(String sql) {
+      this.sql = sql;
+    }
+
+    void returned(Connection connection) {
+      returnedTo.add(connection);
+    }
+
+    /**
+     * Returns whether the statement is missing from the cache of a connection it was returned to.
+     */
+    boolean evictedFrom(Connection connection) {
+      return returnedTo.remove(connection);
+    }
+  }
+
+  /**
+   * Immutable copy of the metrics of one SQL text.
+   */
+  public static final class Snapshot {
+
+    private final String sql;
+    private final long hits;
+    private final long misses;
+    private final long evictions;
+    private final long resets;
+    private final long[] checkOutBuckets;
+
+    private Snapshot(SqlMetrics metrics) {
+      this.sql = metrics.sql;
+      this.hits = metrics.hits.sum();
+      this.misses = metrics.misses.sum();
+      this.evictions = metrics.evictions.sum();
+      this.resets = metrics.resets.sum();
+      this.checkOutBuckets = metrics.checkOutNanos.snapshot();
+    }
+
+    public String getSql() {
+      return sql;
+    }
+
+    public long getHits() {
+      return hits;
+    }
+
+    public long getMisses() {
+      return misses;
+    }
+
+    /**
+     * Returns the number of misses on connections the statement had been returned to, so their cache evicted it.
+     */
+    public long getEvictions() {
+      return evictions;
+    }
+
+    /**
+     * Returns the number of times the statement went back to a cache which resets the properties it was tuned with.
+     */
+    public long getResets() {
+      return resets;
+    }
+
+    public double getHitRatio() {
+      long lookups = hits + misses;
+      return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    /**
+     * Returns the checkout latency in nanoseconds below which the given quantile, e.g. 0.99, of the sampled checkouts
+     * completed.
+     */
+    public long getCheckOutNanos(double quantile) {
+      return StripedHistogram.percentile(checkOutBuckets, quantile);
+    }
+
+    @Override
+    public String toString() {
+      return "Snapshot[sql=" + sql + ", hits=" + hits + ", misses=" + misses + ", evictions=" + evictions + ", resets=" + resets
+          + ", p50=" + getCheckOutNanos(0.5) + "ns, p99=" + getCheckOutNanos(0.99) + "ns]";
+    }
+  }
+
+  /**
+   * Returns the counters of the SQL text, decorators look them up once and keep them.
+   */
+  SqlMetrics forSql(String sql) {
+    return metrics.computeIfAbsent(sql, SqlMetrics::new);
+  }
+
+  /**
+   * Returns whether the latency of the current checkout is recorded.
+   */
+  boolean sampleLatency() {
+    return latencySampleMask == 0 || (ThreadLocalRandom.current().nextInt() & latencySampleMask) == 0;
+  }
+
+  /**
+   * Returns the current metrics of every SQL text. The counters of one SQL text are read one after the other while
+   * they may be updated, so they are consistent only when no statements are used.
+   */
+  public List<Snapshot> snapshot() {
+    List<Snapshot> snapshots = new ArrayList<>(metrics.size());
+    for (SqlMetrics sqlMetrics : metrics.values()) {
+      snapshots.add(new Snapshot(sqlMetrics));
+    }
+    return snapshots;
+  }
+
+  /**
+   * Returns the current metrics of the SQL text or {@code null} if it was not used.
+   */
+  public Snapshot snapshot(String sql) {
+    SqlMetrics sqlMetrics = metrics.get(sql);
+    return sqlMetrics == null ? null : new Snapshot(sqlMetrics);
+  }
+}
@@ -0,0 +1,361 @@
+package io.aregger.oracle_statement_caching.helper;
+
+import oracle.jdbc.OracleConnection;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ToLongFunction;
+
+/**
+ * Resizes the statement caches of registered connections at runtime, within a memory budget shared by all of them.
+ * {@link AutoSizedCacheableStatement} reports every lookup. Each connection replays its lookups through three shadow
+ * LRU caches: one of its current size, one a step smaller and one a step larger. From these the controller knows the
+ * hits the connection would gain or lose with one step more or less, and the heap those slots retain.
+ * <p>
+ * Every {@link #adjust()}, e.g. from a scheduled executor, moves each connection by at most one step:
+ * <ul>
+ * <li>A connection shrinks when its smallest step saves fewer than half of {@code minGain} of its lookups. This is the
+ * back-off when extra slots no longer raise its hit ratio.</li>
+ * <li>While the caches retain more than the budget, the connections that lose the fewest hits per byte shrink.</li>
+ * <li>A connection grows when a step larger gains at least {@code minGain} of its lookups and the step fits into the
+ * budget. If the step does not fit, a connection that loses less than half as many hits per byte gives up a step.</li>
+ * </ul>
+ * The driver's cache keeps its size until the thread using the connection checks out its next statement, so a
+ * connection is never resized while another thread uses it. Connections with fewer than {@value #MIN_LOOKUPS} lookups
+ * since their last decision keep their size and their counts.
+ */
+public final class CacheSizeController {
+
+  static final int MIN_LOOKUPS = 500;
+
+  private static final int DEFAULT_MIN_SIZE = 5;
+  private static final int DEFAULT_MAX_SIZE = 500;
+  private static final int DEFAULT_STEP = 5;
+  private static final double DEFAULT_MIN_GAIN = 0.01;
+
+  private final long budgetBytes;
+  private final ToLongFunction<String> statementBytes;
+  private final int minSize;
+  private final int maxSize;
+  private final int step;
+  private final double minGain;
+  private final Map<OracleConnection, ConnectionState> connections = new ConcurrentHashMap<>();
+
+  /**
+   * Shadow LRU cache of SQL texts, counting its hits and the bytes of its statements.
+   */
+  private static final class Shadow {
+
+    private final int capacity;
+    // access ordered, the eldest entry is the least recently used one
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long bytes;
+    private long hits;
+
+    private Shadow(int capacity) {
+      this.capacity = capacity;
+    }
+
+    /**
+     * Returns a shadow of the given capacity with the most recently used entries of this one.
+     */
+    private Shadow resized(int newCapacity) {
+      Shadow resized = new Shadow(newCapacity);
+      resized.entries.putAll(entries);
+      resized.bytes = bytes;
+      resized.evictOverflow();
+      return resized;
+    }
+
+    private void access(String sql, long statementBytes) {
+      if (entries.get(sql) != null) {
+        hits++;
+        return;
+      }
+      entries.put(sql, statementBytes);
+      bytes += statementBytes;
+      evictOverflow();
+    }
+
+    private void evictOverflow() {
+      Iterator<Long> eldest = entries.values().iterator();
+      while (entries.size() > capacity) {
+        bytes -= eldest.next();
+        eldest.remove();
+      }
+    }
+  }
+
+  /**
+   * The shadows of one connection. Guarded by itself, the lookups of a connection hardly ever contend.
+   */
+  private final class ConnectionState {
+
+    private volatile int targetSize;
+    // only read and written by the thread using the connection
+    private int appliedSize;
+    private Shadow smaller;
+    private Shadow current;
+    private Shadow larger;
+    private long lookups;
+
+    // the decision of the current adjust, guarded by the controller
+    private long hitsGained;
+    private long hitsLost;
+    private long growBytes;
+    private long shrinkBytes;
+    private boolean resized;
+
+    private ConnectionState(int size, int appliedSize) {
+      this.targetSize = size;
+      this.appliedSize = appliedSize;
+      this.smaller = size - step >= minSize ? new Shadow(size - step) : null;
+      this.current = new Shadow(size);
+      this.larger = size + step <= maxSize ? new Shadow(size + step) : null;
+    }
+
+    private synchronized void access(String sql) {
+      long bytes = statementBytes.applyAsLong(sql);
+      lookups++;
+      if (smaller != null) {
+        smaller.access(sql, bytes);
+      }
+      current.access(sql, bytes);
+      if (larger != null) {
+        larger.access(sql, bytes);
+      }
+    }
+
+    /**
+     * Takes the counts of the interval, returns whether there were enough lookups to decide.
+     */
+    private synchronized boolean sample() {
+      resized = false;
+      if (lookups < MIN_LOOKUPS) {
+        return false;
+      }
+      hitsGained = larger == null ? 0 : larger.hits - current.hits;
+      hitsLost = smaller == null ? Long.MAX_VALUE : current.hits - smaller.hits;
+      growBytes = larger == null ? 0 : Math.max(larger.bytes - current.bytes, averageBytes() * step);
+      shrinkBytes = smaller == null ? 0 : current.bytes - smaller.bytes;
+      return true;
+    }
+
+    private synchronized void reset() {
+      lookups = 0;
+      current.hits = 0;
+      if (smaller != null) {
+        smaller.hits = 0;
+      }
+      if (larger != null) {
+        larger.hits = 0;
+      }
+    }
+
+    private synchronized long retainedBytes() {
+      return current.bytes;
+    }
+
+    private synchronized void grow() {
+      int size = targetSize + step;
+      smaller = current;
+      current = larger;
+      larger = size + step <= maxSize ? current.resized(size + step) : null;
+      targetSize = size;
+      resized = true;
+    }
+
+    private synchronized void shrink() {
+      int size = targetSize - step;
+      larger = current;
+      current = smaller;
+      smaller = size - step >= minSize ? current.resized(size - step) : null;
+      targetSize = size;
+      resized = true;
+    }
+
+    private boolean canShrink() {
+      return !resized && smaller != null;
+    }
+
+    private double gainedPerByte() {
+      return (double) hitsGained / Math.max(growBytes, 1);
+    }
+
+    private double lostPerByte() {
+      return (double) hitsLost / Math.max(shrinkBytes, 1);
+    }
+
+    private long averageBytes() {
+      int size = current.entries.size();
+      return size == 0 ? 0 : current.bytes / size;
+    }
+  }
+
+  /**
+   * Resizes in steps of 5 statements between 5 and 500 and grows while a step gains at least 1% of the lookups.
+   *
+   * @param budgetBytes    bytes the statement caches of all registered connections may retain together
+   * @param statementBytes the retained heap of a cached statement by SQL text, e.g. as measured by the footprint
+   *                       benchmark
+   */
+  public CacheSizeController(long budgetBytes, ToLongFunction<String> statementBytes) {
+    this(budgetBytes, statementBytes, DEFAULT_MIN_SIZE, DEFAULT_MAX_SIZE, DEFAULT_STEP, DEFAULT_MIN_GAIN);
+  }
+
+  /**
+   * @param budgetBytes    bytes the statement caches of all registered connections may retain together
+   * @param statementBytes the retained heap of a cached statement by SQL text
+   * @param minSize        the smallest cache size
+   * @param maxSize        the largest cache size
+   * @param step           the number of statements a cache grows or shrinks by at once
+   * @param minGain        the share of its lookups a step must turn into hits for a cache to grow
+   */
+  public CacheSizeController(long budgetBytes, ToLongFunction<String> statementBytes, int minSize, int maxSize, int step, double minGain) {
+    if (budgetBytes < 0) {
+      throw new IllegalArgumentException("Budget must not be negative: " + budgetBytes);
+    }
+    if (minSize < 1 || maxSize < minSize || step < 1) {
+      throw new IllegalArgumentException("Invalid sizes: min " + minSize + ", max " + maxSize + ", step " + step);
+    }
+    if (minGain <= 0 || minGain >= 1) {
+      throw new IllegalArgumentException("Minimum gain must be between 0 and 1: " + minGain);
+    }
+    this.budgetBytes = budgetBytes;
+    this.statementBytes = statementBytes;
+    this.minSize = minSize;
+    this.maxSize = maxSize;
+    this.step = step;
+    this.minGain = minGain;
+  }
+
+  /**
+   * Starts controlling the cache size of a connection. Its current size, clamped to the minimum and maximum size, is
+   * the starting point.
+   */
+  public void register(OracleConnection connection) throws SQLException {
+    int size = connection.getStatementCacheSize();
+    connections.put(connection, new ConnectionState(Math.max(minSize, Math.min(maxSize, size)), size));
+  }
+
+  /**
+   * Stops controlling a connection, to be called before the connection is closed. Its share of the budget becomes
+   * available to the other connections.
+   */
+  public void unregister(OracleConnection connection) {
+    connections.remove(connection);
+  }
+
+  /**
+   * Records a lookup of a statement and applies a new cache size. Called by the thread using the connection before it
+   * checks out the statement.
+   */
+  void lookup(OracleConnection connection, String sql) throws SQLException {
+    ConnectionState state = connections.get(connection);
+    if (state == null) {
+      return;
+    }
+    int size = state.targetSize;
+    if (size != state.appliedSize) {
+      connection.setStatementCacheSize(size);
+      state.appliedSize = size;
+    }
+    state.access(sql);
+  }
+
+  /**
+   * Grows or shrinks the caches by at most one step each, see the class comment.
+   */
+  public synchronized void adjust() {
+    List<ConnectionState> sampled = new ArrayList<>();
+    for (ConnectionState state : connections.values()) {
+      if (state.sample()) {
+        sampled.add(state);
+      }
+    }
+    long retained = getRetainedBytes();
+
+    for (ConnectionState state : sampled) {
+      if (state.canShrink() && state.hitsLost < minGain / 2 * state.lookups) {
+        retained -= state.shrinkBytes;
+        state.shrink();
+      }
+    }
+
+    sampled.sort(Comparator.comparingDouble(ConnectionState::lostPerByte));
+    for (ConnectionState state : sampled) {
+      if (retained <= budgetBytes) {
+        break;
+      }
+      if (state.canShrink()) {
+        retained -= state.shrinkBytes;
+        state.shrink();
+      }
+    }
+
+    sampled.sort(Comparator.comparingDouble(ConnectionState::gainedPerByte).reversed());
+    for (ConnectionState state : sampled) {
+      if (state.resized || state.larger == null || state.hitsGained < minGain * state.lookups) {
+        continue;
+      }
+      if (retained + state.growBytes > budgetBytes) {
+        ConnectionState victim = cheapestVictim(sampled, state);
+        if (victim != null && retained - victim.shrinkBytes + state.growBytes <= budgetBytes) {
+          retained -= victim.shrinkBytes;
+          victim.shrink();
+        }
+      }
+      if (retained + state.growBytes <= budgetBytes) {
+        retained += state.growBytes;
+        state.grow();
+      }
+    }
+
+    for (ConnectionState state : sampled) {
+      state.reset();
+    }
+  }
+
+  /**
+   * Returns the cache size the controller chose for a connection, or -1 if the connection is not registered.
+   */
+  public int getCacheSize(OracleConnection connection) {
+    ConnectionState state = connections.get(connection);
+    return state == null ? -1 : state.targetSize;
+  }
+
+  /**
+   * Returns the estimated bytes retained by the statement caches of all registered connections.
+   */
+  public long getRetainedBytes() {
+    long retained = 0;
+    for (ConnectionState state : connections.values()) {
+      retained += state.retainedBytes();
+    }
+    return retained;
+  }
+
+  public long getBudgetBytes() {
+    return budgetBytes;
+  }
+
+  /**
+   * Returns the connection which loses the fewest hits per byte with a step less, if that is less than half of the
+   * hits per byte the given connection gains with a step more.
+   */
+  private static ConnectionState cheapestVictim(List<ConnectionState> sampled, ConnectionState growing) {
+    ConnectionState victim = null;
+    for (ConnectionState state : sampled) {
+      if (state != growing && state.canShrink() && (victim == null || state.lostPerByte() < victim.lostPerByte())) {
+        victim = state;
+      }
+    }
+    return victim != null && victim.lostPerByte() < growing.gainedPerByte() / 2 ? victim : null;
+  }
+}
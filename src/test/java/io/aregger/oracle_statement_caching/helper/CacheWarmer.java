@@ -0,0 +1,122 @@
+package io.aregger.oracle_statement_caching.helper;
+
+import oracle.jdbc.OracleConnection;
+import oracle.jdbc.OraclePreparedStatement;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Prepares the most used statements of a {@link SqlProfile} on new connections, so they start with a warm statement
+ * cache. Each connection is warmed by one task of the executor, the connections are warmed in parallel.
+ * <p>
+ * A connection gets at most as many statements as its cache holds. They are prepared from the least to the most used,
+ * so the hottest statements are the most recently used ones when the cache evicts. The thin driver sends the parse of
+ * a statement with its first describe or execute, so queries are described. DML is only prepared, it is parsed with its
+ * first execution.
+ * <p>
+ * Statements are put into the {@link StatementCache} of a connection if it has one. Otherwise statements with a cache
+ * key go into the explicit cache, with their recorded properties, and the others into the implicit cache. A statement
+ * which fails to be described or cached is closed before the exception is thrown.
+ */
+public final class CacheWarmer {
+
+  private CacheWarmer() {
+    throw new AssertionError("non-instantiable class");
+  }
+
+  /**
+   * Warms the connections in parallel and waits until all are warm.
+   *
+   * @param maxStatements maximum number of statements per connection
+   * @throws SQLException the first exception of a connection, the others are suppressed
+   */
+  public static void warmUp(SqlProfile profile, List<OracleConnection> connections, int maxStatements, ExecutorService executor) throws SQLException, InterruptedException {
+    List<SqlProfile.Entry> top = profile.getTop(maxStatements);
+    List<Future<Integer>> futures = new ArrayList<>(connections.size());
+    for (OracleConnection connection : connections) {
+      futures.add(executor.submit(() -> warmUp(top, connection)));
+    }
+    SQLException failure = null;
+    for (Future<Integer> future : futures) {
+      try {
+        future.get();
+      } catch (ExecutionException e) {
+        SQLException exception = e.getCause() instanceof SQLException ? (SQLException) e.getCause() : new SQLException(e.getCause());
+        if (failure == null) {
+          failure = exception;
+        } else {
+          failure.addSuppressed(exception);
+        }
+      }
+    }
+    if (failure != null) {
+      throw failure;
+    }
+  }
+
+  /**
+   * Warms one connection and returns the number of prepared statements.
+   */
+  public static int warmUp(SqlProfile profile, OracleConnection connection, int maxStatements) throws SQLException {
+    return warmUp(profile.getTop(maxStatements), connection);
+  }
+
+  private static int warmUp(List<SqlProfile.Entry> top, OracleConnection connection) throws SQLException {
+    StatementCache statementCache = StatementCache.get(connection);
+    int cacheSize = statementCache != null ? statementCache.getMaxSize() : connection.getStatementCacheSize();
+    int count = Math.min(top.size(), cacheSize);
+    for (int i = count - 1; i >= 0; i--) {
+      SqlProfile.Entry entry = top.get(i);
+      if (statementCache != null) {
+        PreparedStatement statement = statementCache.checkOut(entry.getKey());
+        try {
+          describe(entry, statement);
+          statementCache.checkIn(entry.getKey(), statement);
+        } catch (SQLException | RuntimeException e) {
+          closeAfterFailure(statement, e);
+          // the cache forgets a closed statement when it is checked in
+          statementCache.checkIn(entry.getKey(), statement);
+          throw e;
+        }
+      } else {
+        OraclePreparedStatement statement = (OraclePreparedStatement) connection.prepareStatement(entry.getKey().getSql(),
+            entry.getKey().getResultSetType(), entry.getKey().getResultSetConcurrency());
+        try {
+          describe(entry, statement);
+          if (entry.getCacheKey() != null) {
+            entry.getProperties().applyTo(statement);
+            statement.closeWithKey(entry.getCacheKey());
+          } else {
+            statement.close();
+          }
+        } catch (SQLException | RuntimeException e) {
+          closeAfterFailure(statement, e);
+          throw e;
+        }
+      }
+    }
+    return count;
+  }
+
+  private static void closeAfterFailure(PreparedStatement statement, Exception failure) {
+    try {
+      statement.close();
+    } catch (SQLException e) {
+      failure.addSuppressed(e);
+    }
+  }
+
+  private static void describe(SqlProfile.Entry entry, PreparedStatement statement) throws SQLException {
+    String sql = entry.getKey().getSql().stripLeading().toUpperCase(Locale.ROOT);
+    if (sql.startsWith("SELECT") || sql.startsWith("WITH")) {
+      statement.getMetaData();
+    }
+  }
+}
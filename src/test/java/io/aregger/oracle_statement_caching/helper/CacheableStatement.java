@@ -3,6 +3,9 @@ package io.aregger.oracle_statement_caching.helper;
 import oracle.jdbc.OracleConnection;
 import oracle.jdbc.OraclePreparedStatement;
 
+import java.sql.ParameterMetaData;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 
 public interface CacheableStatement {
@@ -13,4 +16,35 @@ public interface CacheableStatement {
 
   OraclePreparedStatement getCachedStatement(OracleConnection connection) throws SQLException;
 
+  /**
+   * Returns the key the statements are explicitly cached with, or {@code null} if they are not cached explicitly.
+   * Decorators return the key of their delegate.
+   */
+  default String getCacheKey() {
+    return null;
+  }
+
+  /**
+   * Executes the query of a statement taken from this cacheable statement. Decorators which observe the fetched rows
+   * wrap the result set of their delegate.
+   */
+  default ResultSet executeQuery(OraclePreparedStatement statement) throws SQLException {
+    return statement.executeQuery();
+  }
+
+  /**
+   * Returns the result set metadata of a statement taken from this cacheable statement from the {@link MetadataCache},
+   * so only the first statement of the SQL text in the process is described. Returns {@code null} for DML.
+   */
+  default ResultSetMetaData getMetaData(OraclePreparedStatement statement) throws SQLException {
+    return MetadataCache.getMetaData(statement, getSql());
+  }
+
+  /**
+   * Returns the parameter metadata of a statement taken from this cacheable statement from the {@link MetadataCache}.
+   */
+  default ParameterMetaData getParameterMetaData(OraclePreparedStatement statement) throws SQLException {
+    return MetadataCache.getParameterMetaData(statement, getSql());
+  }
+
 }
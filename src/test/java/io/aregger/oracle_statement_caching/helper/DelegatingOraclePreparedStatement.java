@@ -0,0 +1,1343 @@
+package io.aregger.oracle_statement_caching.helper;
+
+import oracle.jdbc.OracleParameterMetaData;
+import oracle.jdbc.OraclePreparedStatement;
+import oracle.jdbc.dcn.DatabaseChangeRegistration;
+import oracle.sql.ARRAY;
+import oracle.sql.BFILE;
+import oracle.sql.BINARY_DOUBLE;
+import oracle.sql.BINARY_FLOAT;
+import oracle.sql.BLOB;
+import oracle.sql.CHAR;
+import oracle.sql.CLOB;
+import oracle.sql.CustomDatum;
+import oracle.sql.DATE;
+import oracle.sql.Datum;
+import oracle.sql.INTERVALDS;
+import oracle.sql.INTERVALYM;
+import oracle.sql.NUMBER;
+import oracle.sql.OPAQUE;
+import oracle.sql.ORAData;
+import oracle.sql.RAW;
+import oracle.sql.REF;
+import oracle.sql.ROWID;
+import oracle.sql.STRUCT;
+import oracle.sql.StructDescriptor;
+import oracle.sql.TIMESTAMP;
+import oracle.sql.TIMESTAMPLTZ;
+import oracle.sql.TIMESTAMPTZ;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.net.URL;
+import java.sql.Array;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.NClob;
+import java.sql.ParameterMetaData;
+import java.sql.Ref;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.RowId;
+import java.sql.SQLException;
+import java.sql.SQLType;
+import java.sql.SQLWarning;
+import java.sql.SQLXML;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.Calendar;
+
+/**
+ * A statement which forwards every call to a driver statement, the base of the statements which cacheable statements
+ * hand out in place of the driver's. Subclasses override the calls they observe. Unlike a dynamic proxy it costs no
+ * reflective call per bind, and {@link #unwrap} reaches the driver's statement.
+ */
+@SuppressWarnings("deprecation")
+class DelegatingOraclePreparedStatement implements OraclePreparedStatement {
+
+  final OraclePreparedStatement delegate;
+
+  DelegatingOraclePreparedStatement(OraclePreparedStatement delegate) {
+    this.delegate = delegate;
+  }
+
+  @Override
+  public <T> T unwrap(Class<T> type) throws SQLException {
+    return type.isInstance(this) ? type.cast(this) : delegate.unwrap(type);
+  }
+
+  @Override
+  public boolean isWrapperFor(Class<?> type) throws SQLException {
+    return type.isInstance(this) || delegate.isWrapperFor(type);
+  }
+
+  @Override
+  public void addBatch(String sql) throws SQLException {
+    delegate.addBatch(sql);
+  }
+
+  @Override
+  public void cancel() throws SQLException {
+    delegate.cancel();
+  }
+
+  @Override
+  public void clearBatch() throws SQLException {
+    delegate.clearBatch();
+  }
+
+  @Override
+  public void clearWarnings() throws SQLException {
+    delegate.clearWarnings();
+  }
+
+  @Override
+  public void close() throws SQLException {
+    delegate.close();
+  }
+
+  @Override
+  public boolean execute(String sql) throws SQLException {
+    return delegate.execute(sql);
+  }
+
+  @Override
+  public boolean execute(String sql, int[] columnIndexes) throws SQLException {
+    return delegate.execute(sql, columnIndexes);
+  }
+
+  @Override
+  public boolean execute(String sql, String[] columnNames) throws SQLException {
+    return delegate.execute(sql, columnNames);
+  }
+
+  @Override
+  public boolean execute(String sql, int autoGeneratedKeys) throws SQLException {
+    return delegate.execute(sql, autoGeneratedKeys);
+  }
+
+  @Override
+  public int[] executeBatch() throws SQLException {
+    return delegate.executeBatch();
+  }
+
+  @Override
+  public long[] executeLargeBatch() throws SQLException {
+    return delegate.executeLargeBatch();
+  }
+
+  @Override
+  public long executeLargeUpdate(String sql) throws SQLException {
+    return delegate.executeLargeUpdate(sql);
+  }
+
+  @Override
+  public long executeLargeUpdate(String sql, int[] columnIndexes) throws SQLException {
+    return delegate.executeLargeUpdate(sql, columnIndexes);
+  }
+
+  @Override
+  public long executeLargeUpdate(String sql, String[] columnNames) throws SQLException {
+    return delegate.executeLargeUpdate(sql, columnNames);
+  }
+
+  @Override
+  public long executeLargeUpdate(String sql, int autoGeneratedKeys) throws SQLException {
+    return delegate.executeLargeUpdate(sql, autoGeneratedKeys);
+  }
+
+  @Override
+  public ResultSet executeQuery(String sql) throws SQLException {
+    return delegate.executeQuery(sql);
+  }
+
+  @Override
+  public int executeUpdate(String sql) throws SQLException {
+    return delegate.executeUpdate(sql);
+  }
+
+  @Override
+  public int executeUpdate(String sql, int[] columnIndexes) throws SQLException {
+    return delegate.executeUpdate(sql, columnIndexes);
+  }
+
+  @Override
+  public int executeUpdate(String sql, String[] columnNames) throws SQLException {
+    return delegate.executeUpdate(sql, columnNames);
+  }
+
+  @Override
+  public int executeUpdate(String sql, int autoGeneratedKeys) throws SQLException {
+    return delegate.executeUpdate(sql, autoGeneratedKeys);
+  }
+
+  @Override
+  public Connection getConnection() throws SQLException {
+    return delegate.getConnection();
+  }
+
+  @Override
+  public int getFetchDirection() throws SQLException {
+    return delegate.getFetchDirection();
+  }
+
+  @Override
+  public int getFetchSize() throws SQLException {
+    return delegate.getFetchSize();
+  }
+
+  @Override
+  public ResultSet getGeneratedKeys() throws SQLException {
+    return delegate.getGeneratedKeys();
+  }
+
+  @Override
+  public long getLargeMaxRows() throws SQLException {
+    return delegate.getLargeMaxRows();
+  }
+
+  @Override
+  public long getLargeUpdateCount() throws SQLException {
+    return delegate.getLargeUpdateCount();
+  }
+
+  @Override
+  public int getMaxFieldSize() throws SQLException {
+    return delegate.getMaxFieldSize();
+  }
+
+  @Override
+  public int getMaxRows() throws SQLException {
+    return delegate.getMaxRows();
+  }
+
+  @Override
+  public boolean getMoreResults() throws SQLException {
+    return delegate.getMoreResults();
+  }
+
+  @Override
+  public boolean getMoreResults(int current) throws SQLException {
+    return delegate.getMoreResults(current);
+  }
+
+  @Override
+  public int getQueryTimeout() throws SQLException {
+    return delegate.getQueryTimeout();
+  }
+
+  @Override
+  public ResultSet getResultSet() throws SQLException {
+    return delegate.getResultSet();
+  }
+
+  @Override
+  public int getResultSetConcurrency() throws SQLException {
+    return delegate.getResultSetConcurrency();
+  }
+
+  @Override
+  public int getResultSetHoldability() throws SQLException {
+    return delegate.getResultSetHoldability();
+  }
+
+  @Override
+  public int getResultSetType() throws SQLException {
+    return delegate.getResultSetType();
+  }
+
+  @Override
+  public int getUpdateCount() throws SQLException {
+    return delegate.getUpdateCount();
+  }
+
+  @Override
+  public SQLWarning getWarnings() throws SQLException {
+    return delegate.getWarnings();
+  }
+
+  @Override
+  public boolean isCloseOnCompletion() throws SQLException {
+    return delegate.isCloseOnCompletion();
+  }
+
+  @Override
+  public boolean isClosed() throws SQLException {
+    return delegate.isClosed();
+  }
+
+  @Override
+  public boolean isPoolable() throws SQLException {
+    return delegate.isPoolable();
+  }
+
+  @Override
+  public void setCursorName(String name) throws SQLException {
+    delegate.setCursorName(name);
+  }
+
+  @Override
+  public void setEscapeProcessing(boolean enable) throws SQLException {
+    delegate.setEscapeProcessing(enable);
+  }
+
+  @Override
+  public void setFetchDirection(int direction) throws SQLException {
+    delegate.setFetchDirection(direction);
+  }
+
+  @Override
+  public void setFetchSize(int rows) throws SQLException {
+    delegate.setFetchSize(rows);
+  }
+
+  @Override
+  public void setLargeMaxRows(long max) throws SQLException {
+    delegate.setLargeMaxRows(max);
+  }
+
+  @Override
+  public void setMaxFieldSize(int max) throws SQLException {
+    delegate.setMaxFieldSize(max);
+  }
+
+  @Override
+  public void setMaxRows(int max) throws SQLException {
+    delegate.setMaxRows(max);
+  }
+
+  @Override
+  public void setPoolable(boolean poolable) throws SQLException {
+    delegate.setPoolable(poolable);
+  }
+
+  @Override
+  public void setQueryTimeout(int seconds) throws SQLException {
+    delegate.setQueryTimeout(seconds);
+  }
+
+  @Override
+  public void addBatch() throws SQLException {
+    delegate.addBatch();
+  }
+
+  @Override
+  public void clearParameters() throws SQLException {
+    delegate.clearParameters();
+  }
+
+  @Override
+  public boolean execute() throws SQLException {
+    return delegate.execute();
+  }
+
+  @Override
+  public long executeLargeUpdate() throws SQLException {
+    return delegate.executeLargeUpdate();
+  }
+
+  @Override
+  public ResultSet executeQuery() throws SQLException {
+    return delegate.executeQuery();
+  }
+
+  @Override
+  public int executeUpdate() throws SQLException {
+    return delegate.executeUpdate();
+  }
+
+  @Override
+  public ResultSetMetaData getMetaData() throws SQLException {
+    return delegate.getMetaData();
+  }
+
+  @Override
+  public ParameterMetaData getParameterMetaData() throws SQLException {
+    return delegate.getParameterMetaData();
+  }
+
+  @Override
+  public void setArray(int parameterIndex, Array x) throws SQLException {
+    delegate.setArray(parameterIndex, x);
+  }
+
+  @Override
+  public void setAsciiStream(int parameterIndex, InputStream x) throws SQLException {
+    delegate.setAsciiStream(parameterIndex, x);
+  }
+
+  @Override
+  public void setAsciiStream(int parameterIndex, InputStream x, int length) throws SQLException {
+    delegate.setAsciiStream(parameterIndex, x, length);
+  }
+
+  @Override
+  public void setAsciiStream(int parameterIndex, InputStream x, long length) throws SQLException {
+    delegate.setAsciiStream(parameterIndex, x, length);
+  }
+
+  @Override
+  public void setBigDecimal(int parameterIndex, BigDecimal x) throws SQLException {
+    delegate.setBigDecimal(parameterIndex, x);
+  }
+
+  @Override
+  public void setBinaryStream(int parameterIndex, InputStream x) throws SQLException {
+    delegate.setBinaryStream(parameterIndex, x);
+  }
+
+  @Override
+  public void setBinaryStream(int parameterIndex, InputStream x, int length) throws SQLException {
+    delegate.setBinaryStream(parameterIndex, x, length);
+  }
+
+  @Override
+  public void setBinaryStream(int parameterIndex, InputStream x, long length) throws SQLException {
+    delegate.setBinaryStream(parameterIndex, x, length);
+  }
+
+  @Override
+  public void setBlob(int parameterIndex, InputStream x) throws SQLException {
+    delegate.setBlob(parameterIndex, x);
+  }
+
+  @Override
+  public void setBlob(int parameterIndex, Blob x) throws SQLException {
+    delegate.setBlob(parameterIndex, x);
+  }
+
+  @Override
+  public void setBlob(int parameterIndex, InputStream x, long length) throws SQLException {
+    delegate.setBlob(parameterIndex, x, length);
+  }
+
+  @Override
+  public void setBoolean(int parameterIndex, boolean x) throws SQLException {
+    delegate.setBoolean(parameterIndex, x);
+  }
+
+  @Override
+  public void setByte(int parameterIndex, byte x) throws SQLException {
+    delegate.setByte(parameterIndex, x);
+  }
+
+  @Override
+  public void setBytes(int parameterIndex, byte[] x) throws SQLException {
+    delegate.setBytes(parameterIndex, x);
+  }
+
+  @Override
+  public void setCharacterStream(int parameterIndex, Reader x) throws SQLException {
+    delegate.setCharacterStream(parameterIndex, x);
+  }
+
+  @Override
+  public void setCharacterStream(int parameterIndex, Reader x, int length) throws SQLException {
+    delegate.setCharacterStream(parameterIndex, x, length);
+  }
+
+  @Override
+  public void setCharacterStream(int parameterIndex, Reader x, long length) throws SQLException {
+    delegate.setCharacterStream(parameterIndex, x, length);
+  }
+
+  @Override
+  public void setClob(int parameterIndex, Reader x) throws SQLException {
+    delegate.setClob(parameterIndex, x);
+  }
+
+  @Override
+  public void setClob(int parameterIndex, Clob x) throws SQLException {
+    delegate.setClob(parameterIndex, x);
+  }
+
+  @Override
+  public void setClob(int parameterIndex, Reader x, long length) throws SQLException {
+    delegate.setClob(parameterIndex, x, length);
+  }
+
+  @Override
+  public void setDate(int parameterIndex, Date x) throws SQLException {
+    delegate.setDate(parameterIndex, x);
+  }
+
+  @Override
+  public void setDate(int parameterIndex, Date x, Calendar calendar) throws SQLException {
+    delegate.setDate(parameterIndex, x, calendar);
+  }
+
+  @Override
+  public void setDouble(int parameterIndex, double x) throws SQLException {
+    delegate.setDouble(parameterIndex, x);
+  }
+
+  @Override
+  public void setFloat(int parameterIndex, float x) throws SQLException {
+    delegate.setFloat(parameterIndex, x);
+  }
+
+  @Override
+  public void setInt(int parameterIndex, int x) throws SQLException {
+    delegate.setInt(parameterIndex, x);
+  }
+
+  @Override
+  public void setLong(int parameterIndex, long x) throws SQLException {
+    delegate.setLong(parameterIndex, x);
+  }
+
+  @Override
+  public void setNCharacterStream(int parameterIndex, Reader x) throws SQLException {
+    delegate.setNCharacterStream(parameterIndex, x);
+  }
+
+  @Override
+  public void setNCharacterStream(int parameterIndex, Reader x, long length) throws SQLException {
+    delegate.setNCharacterStream(parameterIndex, x, length);
+  }
+
+  @Override
+  public void setNClob(int parameterIndex, Reader x) throws SQLException {
+    delegate.setNClob(parameterIndex, x);
+  }
+
+  @Override
+  public void setNClob(int parameterIndex, NClob x) throws SQLException {
+    delegate.setNClob(parameterIndex, x);
+  }
+
+  @Override
+  public void setNClob(int parameterIndex, Reader x, long length) throws SQLException {
+    delegate.setNClob(parameterIndex, x, length);
+  }
+
+  @Override
+  public void setNString(int parameterIndex, String x) throws SQLException {
+    delegate.setNString(parameterIndex, x);
+  }
+
+  @Override
+  public void setNull(int parameterIndex, int sqlType) throws SQLException {
+    delegate.setNull(parameterIndex, sqlType);
+  }
+
+  @Override
+  public void setNull(int parameterIndex, int sqlType, String typeName) throws SQLException {
+    delegate.setNull(parameterIndex, sqlType, typeName);
+  }
+
+  @Override
+  public void setObject(int parameterIndex, Object x) throws SQLException {
+    delegate.setObject(parameterIndex, x);
+  }
+
+  @Override
+  public void setObject(int parameterIndex, Object x, int targetSqlType) throws SQLException {
+    delegate.setObject(parameterIndex, x, targetSqlType);
+  }
+
+  @Override
+  public void setObject(int parameterIndex, Object x, SQLType targetSqlType) throws SQLException {
+    delegate.setObject(parameterIndex, x, targetSqlType);
+  }
+
+  @Override
+  public void setObject(int parameterIndex, Object x, int targetSqlType, int scaleOrLength) throws SQLException {
+    delegate.setObject(parameterIndex, x, targetSqlType, scaleOrLength);
+  }
+
+  @Override
+  public void setObject(int parameterIndex, Object x, SQLType targetSqlType, int scaleOrLength) throws SQLException {
+    delegate.setObject(parameterIndex, x, targetSqlType, scaleOrLength);
+  }
+
+  @Override
+  public void setRef(int parameterIndex, Ref x) throws SQLException {
+    delegate.setRef(parameterIndex, x);
+  }
+
+  @Override
+  public void setRowId(int parameterIndex, RowId x) throws SQLException {
+    delegate.setRowId(parameterIndex, x);
+  }
+
+  @Override
+  public void setSQLXML(int parameterIndex, SQLXML x) throws SQLException {
+    delegate.setSQLXML(parameterIndex, x);
+  }
+
+  @Override
+  public void setShort(int parameterIndex, short x) throws SQLException {
+    delegate.setShort(parameterIndex, x);
+  }
+
+  @Override
+  public void setString(int parameterIndex, String x) throws SQLException {
+    delegate.setString(parameterIndex, x);
+  }
+
+  @Override
+  public void setTime(int parameterIndex, Time x) throws SQLException {
+    delegate.setTime(parameterIndex, x);
+  }
+
+  @Override
+  public void setTime(int parameterIndex, Time x, Calendar calendar) throws SQLException {
+    delegate.setTime(parameterIndex, x, calendar);
+  }
+
+  @Override
+  public void setTimestamp(int parameterIndex, Timestamp x) throws SQLException {
+    delegate.setTimestamp(parameterIndex, x);
+  }
+
+  @Override
+  public void setTimestamp(int parameterIndex, Timestamp x, Calendar calendar) throws SQLException {
+    delegate.setTimestamp(parameterIndex, x, calendar);
+  }
+
+  @Override
+  public void setURL(int parameterIndex, URL x) throws SQLException {
+    delegate.setURL(parameterIndex, x);
+  }
+
+  @Deprecated
+  @Override
+  public void setUnicodeStream(int parameterIndex, InputStream x, int length) throws SQLException {
+    delegate.setUnicodeStream(parameterIndex, x, length);
+  }
+
+  @Override
+  public void clearDefines() throws SQLException {
+    delegate.clearDefines();
+  }
+
+  @Override
+  public void closeOnCompletion() throws SQLException {
+    delegate.closeOnCompletion();
+  }
+
+  @Override
+  public void closeWithKey(String key) throws SQLException {
+    delegate.closeWithKey(key);
+  }
+
+  @Override
+  public int creationState() {
+    return delegate.creationState();
+  }
+
+  @Override
+  public void defineColumnType(int columnIndex, int type) throws SQLException {
+    delegate.defineColumnType(columnIndex, type);
+  }
+
+  @Override
+  public void defineColumnType(int columnIndex, int type, String typeName) throws SQLException {
+    delegate.defineColumnType(columnIndex, type, typeName);
+  }
+
+  @Override
+  public void defineColumnType(int columnIndex, int type, int lobPrefetchSize) throws SQLException {
+    delegate.defineColumnType(columnIndex, type, lobPrefetchSize);
+  }
+
+  @Override
+  public void defineColumnType(int columnIndex, int type, int lobPrefetchSize, short formOfUse) throws SQLException {
+    delegate.defineColumnType(columnIndex, type, lobPrefetchSize, formOfUse);
+  }
+
+  @Override
+  public void defineColumnTypeBytes(int columnIndex, int type, int maxSize) throws SQLException {
+    delegate.defineColumnTypeBytes(columnIndex, type, maxSize);
+  }
+
+  @Override
+  public void defineColumnTypeChars(int columnIndex, int type, int maxSize) throws SQLException {
+    delegate.defineColumnTypeChars(columnIndex, type, maxSize);
+  }
+
+  @Override
+  public String enquoteIdentifier(String identifier, boolean alwaysQuote) throws SQLException {
+    return delegate.enquoteIdentifier(identifier, alwaysQuote);
+  }
+
+  @Override
+  public String enquoteLiteral(String value) throws SQLException {
+    return delegate.enquoteLiteral(value);
+  }
+
+  @Override
+  public String enquoteNCharLiteral(String value) throws SQLException {
+    return delegate.enquoteNCharLiteral(value);
+  }
+
+  @Override
+  public int getLobPrefetchSize() throws SQLException {
+    return delegate.getLobPrefetchSize();
+  }
+
+  @Override
+  public long getRegisteredQueryId() throws SQLException {
+    return delegate.getRegisteredQueryId();
+  }
+
+  @Override
+  public String[] getRegisteredTableNames() throws SQLException {
+    return delegate.getRegisteredTableNames();
+  }
+
+  @Override
+  public int getRowPrefetch() {
+    return delegate.getRowPrefetch();
+  }
+
+  @Override
+  public boolean isNCHAR(int columnIndex) throws SQLException {
+    return delegate.isNCHAR(columnIndex);
+  }
+
+  @Override
+  public boolean isSimpleIdentifier(String identifier) throws SQLException {
+    return delegate.isSimpleIdentifier(identifier);
+  }
+
+  @Override
+  public void setDatabaseChangeRegistration(DatabaseChangeRegistration registration) throws SQLException {
+    delegate.setDatabaseChangeRegistration(registration);
+  }
+
+  @Override
+  public void setLobPrefetchSize(int size) throws SQLException {
+    delegate.setLobPrefetchSize(size);
+  }
+
+  @Override
+  public void setRowPrefetch(int rows) throws SQLException {
+    delegate.setRowPrefetch(rows);
+  }
+
+  @Override
+  public OracleParameterMetaData OracleGetParameterMetaData() throws SQLException {
+    return delegate.OracleGetParameterMetaData();
+  }
+
+  @Override
+  public void defineParameterType(int parameterIndex, int type, int maxSize) throws SQLException {
+    delegate.defineParameterType(parameterIndex, type, maxSize);
+  }
+
+  @Override
+  public void defineParameterTypeBytes(int parameterIndex, int type, int maxSize) throws SQLException {
+    delegate.defineParameterTypeBytes(parameterIndex, type, maxSize);
+  }
+
+  @Override
+  public void defineParameterTypeChars(int parameterIndex, int type, int maxSize) throws SQLException {
+    delegate.defineParameterTypeChars(parameterIndex, type, maxSize);
+  }
+
+  @Override
+  public int getExecuteBatch() {
+    return delegate.getExecuteBatch();
+  }
+
+  @Override
+  public ResultSet getReturnResultSet() throws SQLException {
+    return delegate.getReturnResultSet();
+  }
+
+  @Override
+  public void registerReturnParameter(int parameterIndex, int externalType) throws SQLException {
+    delegate.registerReturnParameter(parameterIndex, externalType);
+  }
+
+  @Override
+  public void registerReturnParameter(int parameterIndex, int externalType, String typeName) throws SQLException {
+    delegate.registerReturnParameter(parameterIndex, externalType, typeName);
+  }
+
+  @Override
+  public void registerReturnParameter(int parameterIndex, int externalType, int maxSize) throws SQLException {
+    delegate.registerReturnParameter(parameterIndex, externalType, maxSize);
+  }
+
+  @Override
+  public int sendBatch() throws SQLException {
+    return delegate.sendBatch();
+  }
+
+  @Override
+  public void setARRAY(int parameterIndex, ARRAY x) throws SQLException {
+    delegate.setARRAY(parameterIndex, x);
+  }
+
+  @Override
+  public void setARRAYAtName(String parameterName, ARRAY x) throws SQLException {
+    delegate.setARRAYAtName(parameterName, x);
+  }
+
+  @Override
+  public void setArrayAtName(String parameterName, Array x) throws SQLException {
+    delegate.setArrayAtName(parameterName, x);
+  }
+
+  @Override
+  public void setAsciiStreamAtName(String parameterName, InputStream x) throws SQLException {
+    delegate.setAsciiStreamAtName(parameterName, x);
+  }
+
+  @Override
+  public void setAsciiStreamAtName(String parameterName, InputStream x, int length) throws SQLException {
+    delegate.setAsciiStreamAtName(parameterName, x, length);
+  }
+
+  @Override
+  public void setAsciiStreamAtName(String parameterName, InputStream x, long length) throws SQLException {
+    delegate.setAsciiStreamAtName(parameterName, x, length);
+  }
+
+  @Override
+  public void setBFILE(int parameterIndex, BFILE x) throws SQLException {
+    delegate.setBFILE(parameterIndex, x);
+  }
+
+  @Override
+  public void setBFILEAtName(String parameterName, BFILE x) throws SQLException {
+    delegate.setBFILEAtName(parameterName, x);
+  }
+
+  @Override
+  public void setBLOB(int parameterIndex, BLOB x) throws SQLException {
+    delegate.setBLOB(parameterIndex, x);
+  }
+
+  @Override
+  public void setBLOBAtName(String parameterName, BLOB x) throws SQLException {
+    delegate.setBLOBAtName(parameterName, x);
+  }
+
+  @Override
+  public void setBfile(int parameterIndex, BFILE x) throws SQLException {
+    delegate.setBfile(parameterIndex, x);
+  }
+
+  @Override
+  public void setBfileAtName(String parameterName, BFILE x) throws SQLException {
+    delegate.setBfileAtName(parameterName, x);
+  }
+
+  @Override
+  public void setBigDecimalAtName(String parameterName, BigDecimal x) throws SQLException {
+    delegate.setBigDecimalAtName(parameterName, x);
+  }
+
+  @Override
+  public void setBinaryDouble(int parameterIndex, BINARY_DOUBLE x) throws SQLException {
+    delegate.setBinaryDouble(parameterIndex, x);
+  }
+
+  @Override
+  public void setBinaryDouble(int parameterIndex, double x) throws SQLException {
+    delegate.setBinaryDouble(parameterIndex, x);
+  }
+
+  @Override
+  public void setBinaryDoubleAtName(String parameterName, BINARY_DOUBLE x) throws SQLException {
+    delegate.setBinaryDoubleAtName(parameterName, x);
+  }
+
+  @Override
+  public void setBinaryDoubleAtName(String parameterName, double x) throws SQLException {
+    delegate.setBinaryDoubleAtName(parameterName, x);
+  }
+
+  @Override
+  public void setBinaryFloat(int parameterIndex, BINARY_FLOAT x) throws SQLException {
+    delegate.setBinaryFloat(parameterIndex, x);
+  }
+
+  @Override
+  public void setBinaryFloat(int parameterIndex, float x) throws SQLException {
+    delegate.setBinaryFloat(parameterIndex, x);
+  }
+
+  @Override
+  public void setBinaryFloatAtName(String parameterName, BINARY_FLOAT x) throws SQLException {
+    delegate.setBinaryFloatAtName(parameterName, x);
+  }
+
+  @Override
+  public void setBinaryFloatAtName(String parameterName, float x) throws SQLException {
+    delegate.setBinaryFloatAtName(parameterName, x);
+  }
+
+  @Override
+  public void setBinaryStreamAtName(String parameterName, InputStream x) throws SQLException {
+    delegate.setBinaryStreamAtName(parameterName, x);
+  }
+
+  @Override
+  public void setBinaryStreamAtName(String parameterName, InputStream x, int length) throws SQLException {
+    delegate.setBinaryStreamAtName(parameterName, x, length);
+  }
+
+  @Override
+  public void setBinaryStreamAtName(String parameterName, InputStream x, long length) throws SQLException {
+    delegate.setBinaryStreamAtName(parameterName, x, length);
+  }
+
+  @Override
+  public void setBlobAtName(String parameterName, InputStream x) throws SQLException {
+    delegate.setBlobAtName(parameterName, x);
+  }
+
+  @Override
+  public void setBlobAtName(String parameterName, Blob x) throws SQLException {
+    delegate.setBlobAtName(parameterName, x);
+  }
+
+  @Override
+  public void setBlobAtName(String parameterName, InputStream x, long length) throws SQLException {
+    delegate.setBlobAtName(parameterName, x, length);
+  }
+
+  @Override
+  public void setBooleanAtName(String parameterName, boolean x) throws SQLException {
+    delegate.setBooleanAtName(parameterName, x);
+  }
+
+  @Override
+  public void setByteAtName(String parameterName, byte x) throws SQLException {
+    delegate.setByteAtName(parameterName, x);
+  }
+
+  @Override
+  public void setBytesAtName(String parameterName, byte[] x) throws SQLException {
+    delegate.setBytesAtName(parameterName, x);
+  }
+
+  @Override
+  public void setBytesForBlob(int parameterIndex, byte[] x) throws SQLException {
+    delegate.setBytesForBlob(parameterIndex, x);
+  }
+
+  @Override
+  public void setBytesForBlobAtName(String parameterName, byte[] x) throws SQLException {
+    delegate.setBytesForBlobAtName(parameterName, x);
+  }
+
+  @Override
+  public void setCHAR(int parameterIndex, CHAR x) throws SQLException {
+    delegate.setCHAR(parameterIndex, x);
+  }
+
+  @Override
+  public void setCHARAtName(String parameterName, CHAR x) throws SQLException {
+    delegate.setCHARAtName(parameterName, x);
+  }
+
+  @Override
+  public void setCLOB(int parameterIndex, CLOB x) throws SQLException {
+    delegate.setCLOB(parameterIndex, x);
+  }
+
+  @Override
+  public void setCLOBAtName(String parameterName, CLOB x) throws SQLException {
+    delegate.setCLOBAtName(parameterName, x);
+  }
+
+  @Override
+  public void setCharacterStreamAtName(String parameterName, Reader x) throws SQLException {
+    delegate.setCharacterStreamAtName(parameterName, x);
+  }
+
+  @Override
+  public void setCharacterStreamAtName(String parameterName, Reader x, long length) throws SQLException {
+    delegate.setCharacterStreamAtName(parameterName, x, length);
+  }
+
+  @Override
+  public void setCheckBindTypes(boolean flag) {
+    delegate.setCheckBindTypes(flag);
+  }
+
+  @Override
+  public void setClobAtName(String parameterName, Reader x) throws SQLException {
+    delegate.setClobAtName(parameterName, x);
+  }
+
+  @Override
+  public void setClobAtName(String parameterName, Clob x) throws SQLException {
+    delegate.setClobAtName(parameterName, x);
+  }
+
+  @Override
+  public void setClobAtName(String parameterName, Reader x, long length) throws SQLException {
+    delegate.setClobAtName(parameterName, x, length);
+  }
+
+  @Override
+  public void setCursor(int parameterIndex, ResultSet x) throws SQLException {
+    delegate.setCursor(parameterIndex, x);
+  }
+
+  @Override
+  public void setCursorAtName(String parameterName, ResultSet x) throws SQLException {
+    delegate.setCursorAtName(parameterName, x);
+  }
+
+  @Override
+  public void setCustomDatum(int parameterIndex, CustomDatum x) throws SQLException {
+    delegate.setCustomDatum(parameterIndex, x);
+  }
+
+  @Override
+  public void setCustomDatumAtName(String parameterName, CustomDatum x) throws SQLException {
+    delegate.setCustomDatumAtName(parameterName, x);
+  }
+
+  @Override
+  public void setDATE(int parameterIndex, DATE x) throws SQLException {
+    delegate.setDATE(parameterIndex, x);
+  }
+
+  @Override
+  public void setDATEAtName(String parameterName, DATE x) throws SQLException {
+    delegate.setDATEAtName(parameterName, x);
+  }
+
+  @Override
+  public void setDateAtName(String parameterName, Date x) throws SQLException {
+    delegate.setDateAtName(parameterName, x);
+  }
+
+  @Override
+  public void setDateAtName(String parameterName, Date x, Calendar calendar) throws SQLException {
+    delegate.setDateAtName(parameterName, x, calendar);
+  }
+
+  @Override
+  public void setDisableStmtCaching(boolean cache) {
+    delegate.setDisableStmtCaching(cache);
+  }
+
+  @Override
+  public void setDoubleAtName(String parameterName, double x) throws SQLException {
+    delegate.setDoubleAtName(parameterName, x);
+  }
+
+  @Override
+  public void setExecuteBatch(int batchValue) throws SQLException {
+    delegate.setExecuteBatch(batchValue);
+  }
+
+  @Override
+  public void setFixedCHAR(int parameterIndex, String x) throws SQLException {
+    delegate.setFixedCHAR(parameterIndex, x);
+  }
+
+  @Override
+  public void setFixedCHARAtName(String parameterName, String x) throws SQLException {
+    delegate.setFixedCHARAtName(parameterName, x);
+  }
+
+  @Override
+  public void setFloatAtName(String parameterName, float x) throws SQLException {
+    delegate.setFloatAtName(parameterName, x);
+  }
+
+  @Override
+  public void setFormOfUse(int parameterIndex, short formOfUse) {
+    delegate.setFormOfUse(parameterIndex, formOfUse);
+  }
+
+  @Override
+  public void setINTERVALDS(int parameterIndex, INTERVALDS x) throws SQLException {
+    delegate.setINTERVALDS(parameterIndex, x);
+  }
+
+  @Override
+  public void setINTERVALDSAtName(String parameterName, INTERVALDS x) throws SQLException {
+    delegate.setINTERVALDSAtName(parameterName, x);
+  }
+
+  @Override
+  public void setINTERVALYM(int parameterIndex, INTERVALYM x) throws SQLException {
+    delegate.setINTERVALYM(parameterIndex, x);
+  }
+
+  @Override
+  public void setINTERVALYMAtName(String parameterName, INTERVALYM x) throws SQLException {
+    delegate.setINTERVALYMAtName(parameterName, x);
+  }
+
+  @Override
+  public void setIntAtName(String parameterName, int x) throws SQLException {
+    delegate.setIntAtName(parameterName, x);
+  }
+
+  @Override
+  public void setLongAtName(String parameterName, long x) throws SQLException {
+    delegate.setLongAtName(parameterName, x);
+  }
+
+  @Override
+  public void setNCharacterStreamAtName(String parameterName, Reader x) throws SQLException {
+    delegate.setNCharacterStreamAtName(parameterName, x);
+  }
+
+  @Override
+  public void setNCharacterStreamAtName(String parameterName, Reader x, long length) throws SQLException {
+    delegate.setNCharacterStreamAtName(parameterName, x, length);
+  }
+
+  @Override
+  public void setNClobAtName(String parameterName, Reader x) throws SQLException {
+    delegate.setNClobAtName(parameterName, x);
+  }
+
+  @Override
+  public void setNClobAtName(String parameterName, NClob x) throws SQLException {
+    delegate.setNClobAtName(parameterName, x);
+  }
+
+  @Override
+  public void setNClobAtName(String parameterName, Reader x, long length) throws SQLException {
+    delegate.setNClobAtName(parameterName, x, length);
+  }
+
+  @Override
+  public void setNStringAtName(String parameterName, String x) throws SQLException {
+    delegate.setNStringAtName(parameterName, x);
+  }
+
+  @Override
+  public void setNUMBER(int parameterIndex, NUMBER x) throws SQLException {
+    delegate.setNUMBER(parameterIndex, x);
+  }
+
+  @Override
+  public void setNUMBERAtName(String parameterName, NUMBER x) throws SQLException {
+    delegate.setNUMBERAtName(parameterName, x);
+  }
+
+  @Override
+  public void setNullAtName(String parameterName, int sqlType) throws SQLException {
+    delegate.setNullAtName(parameterName, sqlType);
+  }
+
+  @Override
+  public void setNullAtName(String parameterName, int sqlType, String typeName) throws SQLException {
+    delegate.setNullAtName(parameterName, sqlType, typeName);
+  }
+
+  @Override
+  public void setOPAQUE(int parameterIndex, OPAQUE x) throws SQLException {
+    delegate.setOPAQUE(parameterIndex, x);
+  }
+
+  @Override
+  public void setOPAQUEAtName(String parameterName, OPAQUE x) throws SQLException {
+    delegate.setOPAQUEAtName(parameterName, x);
+  }
+
+  @Override
+  public void setORAData(int parameterIndex, ORAData x) throws SQLException {
+    delegate.setORAData(parameterIndex, x);
+  }
+
+  @Override
+  public void setORADataAtName(String parameterName, ORAData x) throws SQLException {
+    delegate.setORADataAtName(parameterName, x);
+  }
+
+  @Override
+  public void setObjectAtName(String parameterName, Object x) throws SQLException {
+    delegate.setObjectAtName(parameterName, x);
+  }
+
+  @Override
+  public void setObjectAtName(String parameterName, Object x, int targetSqlType) throws SQLException {
+    delegate.setObjectAtName(parameterName, x, targetSqlType);
+  }
+
+  @Override
+  public void setObjectAtName(String parameterName, Object x, int targetSqlType, int scaleOrLength) throws SQLException {
+    delegate.setObjectAtName(parameterName, x, targetSqlType, scaleOrLength);
+  }
+
+  @Override
+  public void setOracleObject(int parameterIndex, Datum x) throws SQLException {
+    delegate.setOracleObject(parameterIndex, x);
+  }
+
+  @Override
+  public void setOracleObjectAtName(String parameterName, Datum x) throws SQLException {
+    delegate.setOracleObjectAtName(parameterName, x);
+  }
+
+  @Deprecated
+  @Override
+  public void setPlsqlIndexTable(int parameterIndex, Object x, int maxLength, int currentLength, int elementSqlType, int elementMaxLength) throws SQLException {
+    delegate.setPlsqlIndexTable(parameterIndex, x, maxLength, currentLength, elementSqlType, elementMaxLength);
+  }
+
+  @Override
+  public void setRAW(int parameterIndex, RAW x) throws SQLException {
+    delegate.setRAW(parameterIndex, x);
+  }
+
+  @Override
+  public void setRAWAtName(String parameterName, RAW x) throws SQLException {
+    delegate.setRAWAtName(parameterName, x);
+  }
+
+  @Override
+  public void setREF(int parameterIndex, REF x) throws SQLException {
+    delegate.setREF(parameterIndex, x);
+  }
+
+  @Override
+  public void setREFAtName(String parameterName, REF x) throws SQLException {
+    delegate.setREFAtName(parameterName, x);
+  }
+
+  @Override
+  public void setROWID(int parameterIndex, ROWID x) throws SQLException {
+    delegate.setROWID(parameterIndex, x);
+  }
+
+  @Override
+  public void setROWIDAtName(String parameterName, ROWID x) throws SQLException {
+    delegate.setROWIDAtName(parameterName, x);
+  }
+
+  @Override
+  public void setRefAtName(String parameterName, Ref x) throws SQLException {
+    delegate.setRefAtName(parameterName, x);
+  }
+
+  @Override
+  public void setRefType(int parameterIndex, REF x) throws SQLException {
+    delegate.setRefType(parameterIndex, x);
+  }
+
+  @Override
+  public void setRefTypeAtName(String parameterName, REF x) throws SQLException {
+    delegate.setRefTypeAtName(parameterName, x);
+  }
+
+  @Override
+  public void setRowIdAtName(String parameterName, RowId x) throws SQLException {
+    delegate.setRowIdAtName(parameterName, x);
+  }
+
+  @Override
+  public void setSQLXMLAtName(String parameterName, SQLXML x) throws SQLException {
+    delegate.setSQLXMLAtName(parameterName, x);
+  }
+
+  @Override
+  public void setSTRUCT(int parameterIndex, STRUCT x) throws SQLException {
+    delegate.setSTRUCT(parameterIndex, x);
+  }
+
+  @Override
+  public void setSTRUCTAtName(String parameterName, STRUCT x) throws SQLException {
+    delegate.setSTRUCTAtName(parameterName, x);
+  }
+
+  @Override
+  public void setShortAtName(String parameterName, short x) throws SQLException {
+    delegate.setShortAtName(parameterName, x);
+  }
+
+  @Override
+  public void setStringAtName(String parameterName, String x) throws SQLException {
+    delegate.setStringAtName(parameterName, x);
+  }
+
+  @Override
+  public void setStringForClob(int parameterIndex, String x) throws SQLException {
+    delegate.setStringForClob(parameterIndex, x);
+  }
+
+  @Override
+  public void setStringForClobAtName(String parameterName, String x) throws SQLException {
+    delegate.setStringForClobAtName(parameterName, x);
+  }
+
+  @Override
+  public void setStructDescriptor(int parameterIndex, StructDescriptor x) throws SQLException {
+    delegate.setStructDescriptor(parameterIndex, x);
+  }
+
+  @Override
+  public void setStructDescriptorAtName(String parameterName, StructDescriptor x) throws SQLException {
+    delegate.setStructDescriptorAtName(parameterName, x);
+  }
+
+  @Override
+  public void setTIMESTAMP(int parameterIndex, TIMESTAMP x) throws SQLException {
+    delegate.setTIMESTAMP(parameterIndex, x);
+  }
+
+  @Override
+  public void setTIMESTAMPAtName(String parameterName, TIMESTAMP x) throws SQLException {
+    delegate.setTIMESTAMPAtName(parameterName, x);
+  }
+
+  @Override
+  public void setTIMESTAMPLTZ(int parameterIndex, TIMESTAMPLTZ x) throws SQLException {
+    delegate.setTIMESTAMPLTZ(parameterIndex, x);
+  }
+
+  @Override
+  public void setTIMESTAMPLTZAtName(String parameterName, TIMESTAMPLTZ x) throws SQLException {
+    delegate.setTIMESTAMPLTZAtName(parameterName, x);
+  }
+
+  @Override
+  public void setTIMESTAMPTZ(int parameterIndex, TIMESTAMPTZ x) throws SQLException {
+    delegate.setTIMESTAMPTZ(parameterIndex, x);
+  }
+
+  @Override
+  public void setTIMESTAMPTZAtName(String parameterName, TIMESTAMPTZ x) throws SQLException {
+    delegate.setTIMESTAMPTZAtName(parameterName, x);
+  }
+
+  @Override
+  public void setTimeAtName(String parameterName, Time x) throws SQLException {
+    delegate.setTimeAtName(parameterName, x);
+  }
+
+  @Override
+  public void setTimeAtName(String parameterName, Time x, Calendar calendar) throws SQLException {
+    delegate.setTimeAtName(parameterName, x, calendar);
+  }
+
+  @Override
+  public void setTimestampAtName(String parameterName, Timestamp x) throws SQLException {
+    delegate.setTimestampAtName(parameterName, x);
+  }
+
+  @Override
+  public void setTimestampAtName(String parameterName, Timestamp x, Calendar calendar) throws SQLException {
+    delegate.setTimestampAtName(parameterName, x, calendar);
+  }
+
+  @Override
+  public void setURLAtName(String parameterName, URL x) throws SQLException {
+    delegate.setURLAtName(parameterName, x);
+  }
+
+  @Override
+  public void setUnicodeStreamAtName(String parameterName, InputStream x, int length) throws SQLException {
+    delegate.setUnicodeStreamAtName(parameterName, x, length);
+  }
+}
@@ -0,0 +1,84 @@
+package io.aregger.oracle_statement_caching.helper;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Derives explicit cache keys from the SQL text, result set type and concurrency and generated key columns of a
+ * statement, so call sites need not invent keys. A key is {@code auto:} and the first 64 bits of the SHA-256 of the
+ * statement in hex, the same in every JVM. The keys of the last {@value #CHECKED_KEYS} statements are checked for
+ * collisions, a statement which would get the key of another one fails with an {@link IllegalStateException}. With 64
+ * bits the chance of any collision among a million statements is below one in ten million. Hand-written keys must not
+ * start with {@code auto:}.
+ * <p>
+ * Keys are interned, so the driver's lookup compares them by identity and the hash code cached in the string.
+ */
+public final class ExplicitCacheKeys {
+
+  private static final String PREFIX = "auto:";
+  private static final int CHECKED_KEYS = 10_000;
+
+  // guarded by itself, the statements of the recently derived keys in access order
+  private static final Map<String, StatementKey> OWNERS = new LinkedHashMap<>(16, 0.75f, true) {
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<String, StatementKey> eldest) {
+      return size() > CHECKED_KEYS;
+    }
+  };
+
+  private ExplicitCacheKeys() {
+    throw new AssertionError("non-instantiable class");
+  }
+
+  /**
+   * Returns the explicit cache key of the statement.
+   *
+   * @throws IllegalStateException if a recently derived statement has the same key
+   */
+  public static String derive(StatementKey key) {
+    String cacheKey = PREFIX + hash(key);
+    synchronized (OWNERS) {
+      StatementKey owner = OWNERS.putIfAbsent(cacheKey, key);
+      if (owner != null && !owner.equals(key)) {
+        throw new IllegalStateException("Cache key " + cacheKey + " of " + key + " is already the key of " + owner);
+      }
+    }
+    return cacheKey.intern();
+  }
+
+  private static String hash(StatementKey key) {
+    MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is required by every Java platform", e);
+    }
+    digest.update(ByteBuffer.allocate(8).putInt(key.getResultSetType()).putInt(key.getResultSetConcurrency()).array());
+    update(digest, key.getSql());
+    String[] generatedKeyColumns = key.getGeneratedKeyColumns();
+    if (generatedKeyColumns != null) {
+      for (String column : generatedKeyColumns) {
+        update(digest, column);
+      }
+    }
+    byte[] bytes = digest.digest();
+    StringBuilder hex = new StringBuilder(16);
+    for (int i = 0; i < 8; i++) {
+      hex.append(Character.forDigit((bytes[i] >> 4) & 0xf, 16)).append(Character.forDigit(bytes[i] & 0xf, 16));
+    }
+    return hex.toString();
+  }
+
+  /**
+   * Adds the length prefixed text, so the boundary of two texts is part of the hash.
+   */
+  private static void update(MessageDigest digest, String text) {
+    byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+    digest.update(ByteBuffer.allocate(4).putInt(bytes.length).array());
+    digest.update(bytes);
+  }
+}
@@ -20,6 +20,11 @@ public class ExplicitCacheableStatement implements CacheableStatement {
     return sql;
   }
 
+  @Override
+  public String getCacheKey() {
+    return cacheKey;
+  }
+
   @Override
   public void closePreparedStatement(OraclePreparedStatement statement) throws SQLException {
     statement.closeWithKey(cacheKey);
@@ -8,9 +8,18 @@ import java.sql.SQLException;
 public class ImplicitCacheableStatement implements CacheableStatement {
 
   private final String sql;
+  private final boolean streaming;
 
   public ImplicitCacheableStatement(String sql) {
+    this(sql, false);
+  }
+
+  /**
+   * @param streaming whether the statement is looked up with {@link PreparedStatementHelper#prepareStreaming}
+   */
+  public ImplicitCacheableStatement(String sql, boolean streaming) {
     this.sql = sql;
+    this.streaming = streaming;
   }
 
   @Override
@@ -25,6 +34,6 @@ public class ImplicitCacheableStatement implements CacheableStatement {
 
   @Override
   public OraclePreparedStatement getCachedStatement(OracleConnection connection) throws SQLException {
-    return PreparedStatementHelper.prepare(connection, sql);
+    return PreparedStatementHelper.prepare(connection, sql, streaming);
   }
 }
@@ -0,0 +1,62 @@
+package io.aregger.oracle_statement_caching.helper;
+
+import oracle.jdbc.OracleConnection;
+import oracle.jdbc.OraclePreparedStatement;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Tracks the statements of its delegate in a {@link StatementLeakDetector} from the checkout until they are returned
+ * with {@link #closePreparedStatement}. A miss of an explicit cache returns no statement, the statement to use instead
+ * has to be prepared with {@link #prepare(OracleConnection)} to be tracked.
+ */
+public class LeakTrackingCacheableStatement implements CacheableStatement {
+
+  private final CacheableStatement delegate;
+  private final StatementLeakDetector detector;
+
+  public LeakTrackingCacheableStatement(CacheableStatement delegate, StatementLeakDetector detector) {
+    this.delegate = delegate;
+    this.detector = detector;
+  }
+
+  @Override
+  public String getSql() {
+    return delegate.getSql();
+  }
+
+  @Override
+  public String getCacheKey() {
+    return delegate.getCacheKey();
+  }
+
+  @Override
+  public OraclePreparedStatement getCachedStatement(OracleConnection connection) throws SQLException {
+    OraclePreparedStatement statement = delegate.getCachedStatement(connection);
+    if (statement != null) {
+      detector.checkedOut(statement, delegate.getSql());
+    }
+    return statement;
+  }
+
+  /**
+   * Prepares the statement after a miss of an explicit cache and tracks it like a checked out one.
+   */
+  public OraclePreparedStatement prepare(OracleConnection connection) throws SQLException {
+    OraclePreparedStatement statement = PreparedStatementHelper.prepare(connection, delegate.getSql());
+    detector.checkedOut(statement, delegate.getSql());
+    return statement;
+  }
+
+  @Override
+  public void closePreparedStatement(OraclePreparedStatement statement) throws SQLException {
+    detector.returned(statement);
+    delegate.closePreparedStatement(statement);
+  }
+
+  @Override
+  public ResultSet executeQuery(OraclePreparedStatement statement) throws SQLException {
+    return delegate.executeQuery(statement);
+  }
+}
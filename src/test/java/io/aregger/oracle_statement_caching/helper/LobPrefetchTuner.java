@@ -0,0 +1,86 @@
+package io.aregger.oracle_statement_caching.helper;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Recommends a LOB prefetch size per SQL text from the lengths of the LOBs its executions read. The lengths are counted
+ * in power of two buckets and the recommendation is the smallest bucket bound which covers the given fraction of the
+ * LOBs, so that most LOBs come inline with their row, capped so that huge LOBs do not inflate the fetch buffers.
+ * <p>
+ * One tuner is meant to be shared by all connections.
+ */
+public final class LobPrefetchTuner {
+
+  public static final int NO_RECOMMENDATION = -2;
+
+  private static final int BUCKETS = 32;
+
+  private final int maxLobPrefetchSize;
+  private final double inlineFraction;
+  private final ConcurrentMap<String, AtomicLongArray> histograms = new ConcurrentHashMap<>();
+
+  /**
+   * @param maxLobPrefetchSize largest LOB prefetch size to recommend
+   * @param inlineFraction     fraction of the LOBs which should come inline, for example 0.9
+   */
+  public LobPrefetchTuner(int maxLobPrefetchSize, double inlineFraction) {
+    if (maxLobPrefetchSize < 0 || inlineFraction <= 0 || inlineFraction > 1) {
+      throw new IllegalArgumentException("Invalid max LOB prefetch size " + maxLobPrefetchSize + " or inline fraction " + inlineFraction);
+    }
+    this.maxLobPrefetchSize = maxLobPrefetchSize;
+    this.inlineFraction = inlineFraction;
+  }
+
+  /**
+   * Records the length in characters or bytes of a LOB read by an execution of the given SQL.
+   */
+  public void record(String sql, long length) {
+    histograms.computeIfAbsent(sql, key -> new AtomicLongArray(BUCKETS)).incrementAndGet(bucket(length));
+  }
+
+  /**
+   * Returns the recommended LOB prefetch size for the given SQL or {@link #NO_RECOMMENDATION} if no LOB was recorded for
+   * it.
+   */
+  public int recommend(String sql) {
+    AtomicLongArray histogram = histograms.get(sql);
+    if (histogram == null) {
+      return NO_RECOMMENDATION;
+    }
+    long[] counts = new long[BUCKETS];
+    long total = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      counts[i] = histogram.get(i);
+      total += counts[i];
+    }
+    long inline = (long) Math.ceil(total * inlineFraction);
+    long covered = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      covered += counts[i];
+      if (covered >= inline) {
+        return (int) Math.min(upperBound(i), maxLobPrefetchSize);
+      }
+    }
+    return maxLobPrefetchSize;
+  }
+
+  public int getMaxLobPrefetchSize() {
+    return maxLobPrefetchSize;
+  }
+
+  /**
+   * Bucket 0 holds empty LOBs, bucket i the lengths in (2^(i-1), 2^i].
+   */
+  private static int bucket(long length) {
+    if (length <= 0) {
+      return 0;
+    }
+    return Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(length - 1));
+  }
+
+  private static long upperBound(int bucket) {
+    return bucket == 0 ? 0 : 1L << bucket;
+  }
+}
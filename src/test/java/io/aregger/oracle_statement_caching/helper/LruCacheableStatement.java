@@ -0,0 +1,58 @@
+package io.aregger.oracle_statement_caching.helper;
+
+import oracle.jdbc.OracleConnection;
+import oracle.jdbc.OraclePreparedStatement;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Uses the {@link StatementCache} of the connection instead of the statement cache of the driver. Without an enabled
+ * cache, statements are prepared and closed like without caching.
+ */
+public class LruCacheableStatement implements CacheableStatement {
+
+  private final StatementKey key;
+
+  public LruCacheableStatement(String sql) {
+    this(sql, false);
+  }
+
+  /**
+   * @param streaming whether the statement has forward-only, read-only result sets like the statements of
+   *                  {@link PreparedStatementHelper#prepareStreaming}
+   */
+  public LruCacheableStatement(String sql, boolean streaming) {
+    this(streaming
+        ? new StatementKey(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)
+        : new StatementKey(sql, ResultSet.TYPE_SCROLL_INSENSITIVE, ResultSet.CONCUR_UPDATABLE));
+  }
+
+  public LruCacheableStatement(StatementKey key) {
+    this.key = key;
+  }
+
+  @Override
+  public String getSql() {
+    return key.getSql();
+  }
+
+  @Override
+  public void closePreparedStatement(OraclePreparedStatement statement) throws SQLException {
+    StatementCache cache = StatementCache.get(statement.getConnection());
+    if (cache == null) {
+      statement.close();
+    } else {
+      cache.checkIn(key, statement);
+    }
+  }
+
+  @Override
+  public OraclePreparedStatement getCachedStatement(OracleConnection connection) throws SQLException {
+    StatementCache cache = StatementCache.get(connection);
+    if (cache == null) {
+      return (OraclePreparedStatement) key.prepare(connection);
+    }
+    return (OraclePreparedStatement) cache.checkOut(key);
+  }
+}
@@ -0,0 +1,108 @@
+package io.aregger.oracle_statement_caching.helper;
+
+import java.sql.ParameterMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Process-wide cache of result set and parameter metadata keyed by SQL text. All connections share one immutable copy
+ * per statement, so only the first statement of a SQL text pays the describe round trips. Lookups do not lock.
+ * <p>
+ * Every entry belongs to a schema version. {@link #invalidateAll()} starts a new version after DDL and the entries of
+ * older versions are described again on their next use, {@link #invalidate(String)} drops the entry of one statement.
+ */
+public final class MetadataCache {
+
+  private static final ConcurrentMap<String, Entry> ENTRIES = new ConcurrentHashMap<>();
+  private static final AtomicLong SCHEMA_VERSION = new AtomicLong();
+
+  private MetadataCache() {
+    throw new AssertionError("non-instantiable class");
+  }
+
+  /**
+   * Returns the cached result set metadata of the given SQL or gets it from the statement, which has to be prepared
+   * for that SQL. Returns {@code null} if the statement is not a query.
+   */
+  public static ResultSetMetaData getMetaData(PreparedStatement statement, String sql) throws SQLException {
+    long version = SCHEMA_VERSION.get();
+    Entry entry = ENTRIES.get(sql);
+    if (entry != null && entry.version == version && entry.resultSetDescribed) {
+      return entry.resultSetMetaData;
+    }
+    ResultSetMetaData metaData = statement.getMetaData();
+    ResultSetMetaDataSnapshot snapshot = metaData == null ? null : ResultSetMetaDataSnapshot.of(metaData);
+    ENTRIES.merge(sql, new Entry(version, true, snapshot, null), Entry::merge);
+    return snapshot;
+  }
+
+  /**
+   * Returns the cached parameter metadata of the given SQL or gets it from the statement, which has to be prepared for
+   * that SQL.
+   */
+  public static ParameterMetaData getParameterMetaData(PreparedStatement statement, String sql) throws SQLException {
+    long version = SCHEMA_VERSION.get();
+    Entry entry = ENTRIES.get(sql);
+    if (entry != null && entry.version == version && entry.parameterMetaData != null) {
+      return entry.parameterMetaData;
+    }
+    ParameterMetaDataSnapshot snapshot = ParameterMetaDataSnapshot.of(statement.getParameterMetaData());
+    ENTRIES.merge(sql, new Entry(version, false, null, snapshot), Entry::merge);
+    return snapshot;
+  }
+
+  /**
+   * Drops the metadata of the given SQL.
+   */
+  public static void invalidate(String sql) {
+    ENTRIES.remove(sql);
+  }
+
+  /**
+   * Starts a new schema version, all metadata cached so far is described again on its next use. To be called after DDL.
+   */
+  public static void invalidateAll() {
+    SCHEMA_VERSION.incrementAndGet();
+    ENTRIES.values().removeIf(entry -> entry.version < SCHEMA_VERSION.get());
+  }
+
+  public static long getSchemaVersion() {
+    return SCHEMA_VERSION.get();
+  }
+
+  public static int size() {
+    return ENTRIES.size();
+  }
+
+  private static final class Entry {
+
+    final long version;
+    final boolean resultSetDescribed;
+    final ResultSetMetaDataSnapshot resultSetMetaData;
+    final ParameterMetaDataSnapshot parameterMetaData;
+
+    Entry(long version, boolean resultSetDescribed, ResultSetMetaDataSnapshot resultSetMetaData, ParameterMetaDataSnapshot parameterMetaData) {
+      this.version = version;
+      this.resultSetDescribed = resultSetDescribed;
+      this.resultSetMetaData = resultSetMetaData;
+      this.parameterMetaData = parameterMetaData;
+    }
+
+    /**
+     * Combines the metadata of two entries of the same version, an entry of a newer version replaces an older one.
+     */
+    static Entry merge(Entry existing, Entry added) {
+      if (existing.version != added.version) {
+        return existing.version > added.version ? existing : added;
+      }
+      boolean resultSetDescribed = existing.resultSetDescribed || added.resultSetDescribed;
+      ResultSetMetaDataSnapshot resultSetMetaData = added.resultSetDescribed ? added.resultSetMetaData : existing.resultSetMetaData;
+      ParameterMetaDataSnapshot parameterMetaData = added.parameterMetaData != null ? added.parameterMetaData : existing.parameterMetaData;
+      return new Entry(existing.version, resultSetDescribed, resultSetMetaData, parameterMetaData);
+    }
+  }
+}
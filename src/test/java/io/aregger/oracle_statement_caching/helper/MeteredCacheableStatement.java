@@ -0,0 +1,140 @@
+package io.aregger.oracle_statement_caching.helper;
+
+import oracle.jdbc.OracleConnection;
+import oracle.jdbc.OraclePreparedStatement;
+import oracle.jdbc.OracleStatement;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Records the cache hits, misses, evictions, stale state resets and checkout latency of a statement in
+ * {@link CacheMetrics} and emits JFR events for misses, evictions and resets. Create the decorator once per SQL text
+ * and keep it, the metrics of its SQL text are looked up when it is created.
+ * <p>
+ * A checkout is a hit if the driver took the statement from its implicit or explicit cache or the
+ * {@link StatementCache} of the connection had it. An eviction is a miss on a connection whose cache got the statement
+ * back before. A reset is the return of a statement whose properties differ from the ones it was prepared with to a
+ * cache which restores them, i.e. any cache but the explicit one, whether the statement was a hit or a miss. The hit
+ * path only counts, records the latency and compares the statement properties. A hit of the driver's cache is told by
+ * the statement itself, a hit of a {@link StatementCache} by the cache, which is looked up once per checkout and return
+ * and answers without a lock. Neither allocates. The latency is sampled, see {@link CacheMetrics}.
+ */
+public class MeteredCacheableStatement implements CacheableStatement {
+
+  private final CacheableStatement delegate;
+  private final CacheMetrics cacheMetrics;
+  private final CacheMetrics.SqlMetrics metrics;
+  private final boolean explicit;
+
+  public MeteredCacheableStatement(CacheableStatement delegate, CacheMetrics metrics) {
+    this.delegate = delegate;
+    this.cacheMetrics = metrics;
+    this.metrics = metrics.forSql(delegate.getSql());
+    this.explicit = delegate.getCacheKey() != null;
+  }
+
+  @Override
+  public String getSql() {
+    return delegate.getSql();
+  }
+
+  @Override
+  public String getCacheKey() {
+    return delegate.getCacheKey();
+  }
+
+  @Override
+  public OraclePreparedStatement getCachedStatement(OracleConnection connection) throws SQLException {
+    OraclePreparedStatement statement;
+    if (cacheMetrics.sampleLatency()) {
+      long start = System.nanoTime();
+      statement = delegate.getCachedStatement(connection);
+      metrics.checkOutNanos.record(System.nanoTime() - start);
+    } else {
+      statement = delegate.getCachedStatement(connection);
+    }
+    if (statement != null && (isDriverCacheHit(statement) || isStatementCacheHit(statement, StatementCache.get(connection)))) {
+      metrics.hits.increment();
+    } else {
+      miss(statement, connection);
+    }
+    return statement;
+  }
+
+  @Override
+  public void closePreparedStatement(OraclePreparedStatement statement) throws SQLException {
+    Connection connection = statement.getConnection();
+    boolean cached = isDriverCacheHit(statement);
+    if (!cached) {
+      StatementCache statementCache = StatementCache.get(connection);
+      cached = isStatementCacheHit(statement, statementCache);
+      if (!cached && isCachingEnabled(connection, statementCache)) {
+        metrics.returned(connection);
+        cached = true;
+      }
+    }
+    if (cached && !explicit) {
+      StatementProperties prepared = metrics.preparedProperties;
+      if (prepared != null && !prepared.matches(statement)) {
+        reset(statement);
+      }
+    }
+    delegate.closePreparedStatement(statement);
+  }
+
+  @Override
+  public ResultSet executeQuery(OraclePreparedStatement statement) throws SQLException {
+    return delegate.executeQuery(statement);
+  }
+
+  private void miss(OraclePreparedStatement statement, OracleConnection connection) throws SQLException {
+    metrics.misses.increment();
+    if (statement != null && metrics.preparedProperties == null) {
+      metrics.preparedProperties = StatementProperties.of(statement);
+    }
+    CacheEvents.Miss missEvent = new CacheEvents.Miss();
+    if (missEvent.shouldCommit()) {
+      missEvent.sql = metrics.sql;
+      missEvent.commit();
+    }
+    if (metrics.evictedFrom(connection)) {
+      metrics.evictions.increment();
+      CacheEvents.Eviction evictionEvent = new CacheEvents.Eviction();
+      if (evictionEvent.shouldCommit()) {
+        evictionEvent.sql = metrics.sql;
+        evictionEvent.commit();
+      }
+    }
+  }
+
+  private void reset(OraclePreparedStatement statement) throws SQLException {
+    metrics.resets.increment();
+    CacheEvents.StateReset event = new CacheEvents.StateReset();
+    if (event.shouldCommit()) {
+      event.sql = metrics.sql;
+      event.rowPrefetch = statement.getRowPrefetch();
+      event.lobPrefetchSize = statement.getLobPrefetchSize();
+      event.commit();
+    }
+  }
+
+  @SuppressWarnings("deprecation")
+  private static boolean isDriverCacheHit(OraclePreparedStatement statement) throws SQLException {
+    return statement.creationState() != OracleStatement.NEW;
+  }
+
+  private static boolean isStatementCacheHit(OraclePreparedStatement statement, StatementCache statementCache) {
+    return statementCache != null && statementCache.isCacheHit(statement);
+  }
+
+  private static boolean isCachingEnabled(Connection connection, StatementCache statementCache) throws SQLException {
+    if (statementCache != null) {
+      return true;
+    }
+    OracleConnection oracleConnection = connection.unwrap(OracleConnection.class);
+    return oracleConnection.getStatementCacheSize() > 0
+        && (oracleConnection.getImplicitCachingEnabled() || oracleConnection.getExplicitCachingEnabled());
+  }
+}
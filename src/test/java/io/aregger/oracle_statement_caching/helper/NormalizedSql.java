@@ -0,0 +1,67 @@
+package io.aregger.oracle_statement_caching.helper;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * A SQL text rewritten by the {@link SqlNormalizer}, with the values of the literals it replaced by placeholders and
+ * the new indexes of the placeholders of the original text.
+ */
+public final class NormalizedSql {
+
+  private final String originalSql;
+  private final String sql;
+  private final int[] parameterIndexes;
+  private final int[] literalIndexes;
+  private final Object[] literalValues;
+
+  NormalizedSql(String originalSql, String sql, int[] parameterIndexes, int[] literalIndexes, Object[] literalValues) {
+    this.originalSql = originalSql;
+    this.sql = sql;
+    this.parameterIndexes = parameterIndexes;
+    this.literalIndexes = literalIndexes;
+    this.literalValues = literalValues;
+  }
+
+  public String getOriginalSql() {
+    return originalSql;
+  }
+
+  public String getSql() {
+    return sql;
+  }
+
+  public int getLiteralCount() {
+    return literalValues.length;
+  }
+
+  /**
+   * Returns the index in the rewritten text of the placeholder with the given index in the original text.
+   *
+   * @throws SQLException if literals were replaced and the original text has no placeholder with the index, which
+   *                      would otherwise bind the placeholder of a literal
+   */
+  public int getParameterIndex(int originalIndex) throws SQLException {
+    if (literalValues.length == 0) {
+      return originalIndex;
+    }
+    if (originalIndex < 1 || originalIndex > parameterIndexes.length) {
+      throw new SQLException("Invalid parameter index: " + originalIndex);
+    }
+    return parameterIndexes[originalIndex - 1];
+  }
+
+  /**
+   * Binds the values of the replaced literals.
+   */
+  public void bindLiterals(PreparedStatement statement) throws SQLException {
+    for (int i = 0; i < literalValues.length; i++) {
+      statement.setObject(literalIndexes[i], literalValues[i]);
+    }
+  }
+
+  @Override
+  public String toString() {
+    return sql;
+  }
+}
@@ -0,0 +1,65 @@
+package io.aregger.oracle_statement_caching.helper;
+
+import oracle.jdbc.OraclePreparedStatement;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.SQLException;
+
+/**
+ * Wraps a statement prepared with a {@link NormalizedSql} so that it can be used like a statement of the original SQL
+ * text: the values of the replaced literals are bound, again after {@code clearParameters}, and parameter indexes of
+ * the original text are mapped to the rewritten text.
+ */
+final class NormalizedStatement implements InvocationHandler {
+
+  private final OraclePreparedStatement statement;
+  private final NormalizedSql normalizedSql;
+
+  private NormalizedStatement(OraclePreparedStatement statement, NormalizedSql normalizedSql) {
+    this.statement = statement;
+    this.normalizedSql = normalizedSql;
+  }
+
+  /**
+   * Binds the literals of the statement and wraps it, or returns it as is if no literals were replaced.
+   */
+  static OraclePreparedStatement wrap(OraclePreparedStatement statement, NormalizedSql normalizedSql) throws SQLException {
+    if (normalizedSql.getLiteralCount() == 0) {
+      return statement;
+    }
+    normalizedSql.bindLiterals(statement);
+    return (OraclePreparedStatement) Proxy.newProxyInstance(OraclePreparedStatement.class.getClassLoader(),
+        new Class<?>[]{OraclePreparedStatement.class}, new NormalizedStatement(statement, normalizedSql));
+  }
+
+  /**
+   * Returns the statement wrapped by {@link #wrap} or the given statement if it is not wrapped.
+   */
+  static OraclePreparedStatement unwrap(OraclePreparedStatement statement) {
+    if (Proxy.isProxyClass(statement.getClass()) && Proxy.getInvocationHandler(statement) instanceof NormalizedStatement) {
+      return ((NormalizedStatement) Proxy.getInvocationHandler(statement)).statement;
+    }
+    return statement;
+  }
+
+  @Override
+  public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+    String name = method.getName();
+    if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+      args[0] = normalizedSql.getParameterIndex((Integer) args[0]);
+    }
+    Object result;
+    try {
+      result = method.invoke(statement, args);
+    } catch (InvocationTargetException e) {
+      throw e.getCause();
+    }
+    if (name.equals("clearParameters")) {
+      normalizedSql.bindLiterals(statement);
+    }
+    return result;
+  }
+}
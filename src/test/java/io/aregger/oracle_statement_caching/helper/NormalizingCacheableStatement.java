@@ -0,0 +1,61 @@
+package io.aregger.oracle_statement_caching.helper;
+
+import oracle.jdbc.OracleConnection;
+import oracle.jdbc.OraclePreparedStatement;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.function.Function;
+
+/**
+ * Caches a statement under the SQL text rewritten by a {@link SqlNormalizer}, so statements which differ only in
+ * literals, case or whitespace share one cache entry. The statements handed out bind the replaced literals and take
+ * the parameter indexes of the original text. A statement which is not cached is prepared, also for caches which return
+ * {@code null} on a miss like the explicit cache.
+ */
+public class NormalizingCacheableStatement implements CacheableStatement {
+
+  private final NormalizedSql normalizedSql;
+  private final CacheableStatement delegate;
+
+  /**
+   * @param statementFactory creates the cacheable statement of the rewritten SQL text, e.g.
+   *                         {@code ImplicitCacheableStatement::new}
+   */
+  public NormalizingCacheableStatement(String sql, SqlNormalizer normalizer, Function<String, CacheableStatement> statementFactory) {
+    this.normalizedSql = normalizer.normalize(sql);
+    this.delegate = statementFactory.apply(normalizedSql.getSql());
+  }
+
+  /**
+   * Returns the rewritten SQL text.
+   */
+  @Override
+  public String getSql() {
+    return normalizedSql.getSql();
+  }
+
+  @Override
+  public String getCacheKey() {
+    return delegate.getCacheKey();
+  }
+
+  @Override
+  public void closePreparedStatement(OraclePreparedStatement statement) throws SQLException {
+    delegate.closePreparedStatement(NormalizedStatement.unwrap(statement));
+  }
+
+  @Override
+  public OraclePreparedStatement getCachedStatement(OracleConnection connection) throws SQLException {
+    OraclePreparedStatement statement = delegate.getCachedStatement(connection);
+    if (statement == null) {
+      statement = PreparedStatementHelper.prepare(connection, normalizedSql.getSql());
+    }
+    return NormalizedStatement.wrap(statement, normalizedSql);
+  }
+
+  @Override
+  public ResultSet executeQuery(OraclePreparedStatement statement) throws SQLException {
+    return delegate.executeQuery(NormalizedStatement.unwrap(statement));
+  }
+}
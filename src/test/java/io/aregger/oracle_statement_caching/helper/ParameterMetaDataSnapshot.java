@@ -0,0 +1,112 @@
+package io.aregger.oracle_statement_caching.helper;
+
+import java.sql.ParameterMetaData;
+import java.sql.SQLException;
+
+/**
+ * Immutable copy of a {@link ParameterMetaData}, safe to share between threads and connections.
+ */
+final class ParameterMetaDataSnapshot implements ParameterMetaData {
+
+  private final Parameter[] parameters;
+
+  private ParameterMetaDataSnapshot(Parameter[] parameters) {
+    this.parameters = parameters;
+  }
+
+  static ParameterMetaDataSnapshot of(ParameterMetaData metaData) throws SQLException {
+    Parameter[] parameters = new Parameter[metaData.getParameterCount()];
+    for (int i = 0; i < parameters.length; i++) {
+      parameters[i] = new Parameter(metaData, i + 1);
+    }
+    return new ParameterMetaDataSnapshot(parameters);
+  }
+
+  @Override
+  public int getParameterCount() {
+    return parameters.length;
+  }
+
+  @Override
+  public int isNullable(int param) throws SQLException {
+    return parameter(param).nullable;
+  }
+
+  @Override
+  public boolean isSigned(int param) throws SQLException {
+    return parameter(param).signed;
+  }
+
+  @Override
+  public int getPrecision(int param) throws SQLException {
+    return parameter(param).precision;
+  }
+
+  @Override
+  public int getScale(int param) throws SQLException {
+    return parameter(param).scale;
+  }
+
+  @Override
+  public int getParameterType(int param) throws SQLException {
+    return parameter(param).type;
+  }
+
+  @Override
+  public String getParameterTypeName(int param) throws SQLException {
+    return parameter(param).typeName;
+  }
+
+  @Override
+  public String getParameterClassName(int param) throws SQLException {
+    return parameter(param).className;
+  }
+
+  @Override
+  public int getParameterMode(int param) throws SQLException {
+    return parameter(param).mode;
+  }
+
+  @Override
+  public <T> T unwrap(Class<T> type) throws SQLException {
+    if (type.isInstance(this)) {
+      return type.cast(this);
+    }
+    throw new SQLException("Not a wrapper for " + type.getName());
+  }
+
+  @Override
+  public boolean isWrapperFor(Class<?> type) {
+    return type.isInstance(this);
+  }
+
+  private Parameter parameter(int param) throws SQLException {
+    if (param < 1 || param > parameters.length) {
+      throw new SQLException("Invalid parameter index: " + param);
+    }
+    return parameters[param - 1];
+  }
+
+  private static final class Parameter {
+
+    final int nullable;
+    final boolean signed;
+    final int precision;
+    final int scale;
+    final int type;
+    final String typeName;
+    final String className;
+    final int mode;
+
+    Parameter(ParameterMetaData metaData, int param) throws SQLException {
+      nullable = metaData.isNullable(param);
+      signed = metaData.isSigned(param);
+      precision = metaData.getPrecision(param);
+      scale = metaData.getScale(param);
+      type = metaData.getParameterType(param);
+      typeName = metaData.getParameterTypeName(param);
+      className = metaData.getParameterClassName(param);
+      mode = metaData.getParameterMode(param);
+    }
+  }
+}
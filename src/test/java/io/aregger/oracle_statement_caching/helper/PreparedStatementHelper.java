@@ -15,4 +15,30 @@ public final class PreparedStatementHelper {
   public static OraclePreparedStatement prepare(Connection connection, String sql) throws SQLException {
     return (OraclePreparedStatement) connection.prepareStatement(sql, ResultSet.TYPE_SCROLL_INSENSITIVE, ResultSet.CONCUR_UPDATABLE);
   }
+
+  /**
+   * Prepares a statement with forward-only, read-only result sets. The driver keeps only the fetched batch of rows in
+   * memory instead of caching the whole result set with a ROWID per row. The implicit cache distinguishes the two
+   * types, so a statement prepared by this method is only found by a lookup with this method.
+   */
+  public static OraclePreparedStatement prepareStreaming(Connection connection, String sql) throws SQLException {
+    return (OraclePreparedStatement) connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+  }
+
+  /**
+   * Prepares a statement like {@link #prepare} for the SQL text rewritten by the normalizer. The returned statement binds
+   * the replaced literals and takes the parameter indexes of the original text. Closing it caches it under the
+   * rewritten text.
+   */
+  public static OraclePreparedStatement prepareNormalized(Connection connection, String sql, SqlNormalizer normalizer) throws SQLException {
+    NormalizedSql normalizedSql = normalizer.normalize(sql);
+    return NormalizedStatement.wrap(prepare(connection, normalizedSql.getSql()), normalizedSql);
+  }
+
+  /**
+   * Prepares a statement with {@link #prepareStreaming} if {@code streaming} is set, or else with {@link #prepare}.
+   */
+  public static OraclePreparedStatement prepare(Connection connection, String sql, boolean streaming) throws SQLException {
+    return streaming ? prepareStreaming(connection, sql) : prepare(connection, sql);
+  }
 }
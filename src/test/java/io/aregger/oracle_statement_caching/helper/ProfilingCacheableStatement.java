@@ -0,0 +1,53 @@
+package io.aregger.oracle_statement_caching.helper;
+
+import oracle.jdbc.OracleConnection;
+import oracle.jdbc.OraclePreparedStatement;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Records every use of a statement in a {@link SqlProfile} when the statement is closed, with the result set type and
+ * properties it has then. Statements of an explicitly cached delegate are recorded with its cache key. The profile
+ * entry is kept from one use to the next, so recording a use neither looks up nor allocates while the statement
+ * properties stay the same.
+ */
+public class ProfilingCacheableStatement implements CacheableStatement {
+
+  private final CacheableStatement delegate;
+  private final SqlProfile profile;
+  private final String cacheKey;
+  private volatile SqlProfile.Entry entry;
+
+  public ProfilingCacheableStatement(CacheableStatement delegate, SqlProfile profile) {
+    this.delegate = delegate;
+    this.profile = profile;
+    this.cacheKey = delegate.getCacheKey();
+  }
+
+  @Override
+  public String getSql() {
+    return delegate.getSql();
+  }
+
+  @Override
+  public String getCacheKey() {
+    return delegate.getCacheKey();
+  }
+
+  @Override
+  public void closePreparedStatement(OraclePreparedStatement statement) throws SQLException {
+    entry = profile.record(statement, delegate.getSql(), cacheKey, entry);
+    delegate.closePreparedStatement(statement);
+  }
+
+  @Override
+  public OraclePreparedStatement getCachedStatement(OracleConnection connection) throws SQLException {
+    return delegate.getCachedStatement(connection);
+  }
+
+  @Override
+  public ResultSet executeQuery(OraclePreparedStatement statement) throws SQLException {
+    return delegate.executeQuery(statement);
+  }
+}
@@ -0,0 +1,67 @@
+package io.aregger.oracle_statement_caching.helper;
+
+import oracle.jdbc.OracleConnection;
+import oracle.jdbc.OraclePreparedStatement;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Implicitly cached statement which keeps its tuned properties. The properties are recorded when the statement is
+ * closed and applied again to the statement taken from the cache, so the statement keeps them like an explicitly
+ * cached one while binds and batches are still reset.
+ */
+public class PropertyPreservingCacheableStatement implements CacheableStatement {
+
+  private final CacheableStatement delegate;
+  private volatile StatementProperties properties;
+
+  public PropertyPreservingCacheableStatement(String sql) {
+    this(new ImplicitCacheableStatement(sql));
+  }
+
+  public PropertyPreservingCacheableStatement(CacheableStatement delegate) {
+    this.delegate = delegate;
+  }
+
+  @Override
+  public String getSql() {
+    return delegate.getSql();
+  }
+
+  @Override
+  public String getCacheKey() {
+    return delegate.getCacheKey();
+  }
+
+  @Override
+  public void closePreparedStatement(OraclePreparedStatement statement) throws SQLException {
+    StatementProperties current = properties;
+    if (current == null || !current.matches(statement)) {
+      properties = StatementProperties.of(statement);
+    }
+    delegate.closePreparedStatement(statement);
+  }
+
+  @Override
+  public OraclePreparedStatement getCachedStatement(OracleConnection connection) throws SQLException {
+    OraclePreparedStatement statement = delegate.getCachedStatement(connection);
+    StatementProperties current = properties;
+    if (statement != null && current != null) {
+      current.applyTo(statement);
+    }
+    return statement;
+  }
+
+  @Override
+  public ResultSet executeQuery(OraclePreparedStatement statement) throws SQLException {
+    return delegate.executeQuery(statement);
+  }
+
+  /**
+   * Returns the properties recorded when the statement was closed last or {@code null} if it was never closed.
+   */
+  public StatementProperties getProperties() {
+    return properties;
+  }
+}
@@ -0,0 +1,301 @@
+package io.aregger.oracle_statement_caching.helper;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Cancels statement executions which exceed their timeout, for all connections of the process with one hierarchical
+ * timing wheel and one thread, instead of setting up a timer per execution. Arming and disarming a timeout links and
+ * unlinks a node in a slot of the wheel, which costs the same for any number of pending timeouts, and the nodes are
+ * recycled, so after the warm-up neither allocates.
+ * <pre>
+ * QueryTimeouts.Timeout timeout = QueryTimeouts.shared().arm(statement, 500);
+ * try {
+ *   resultSet = statement.executeQuery();
+ *   ...
+ * } finally {
+ *   if (timeout.disarm()) {
+ *     // the execution was cancelled, it failed with ORA-01013
+ *   }
+ * }
+ * </pre>
+ * The statement property {@code queryTimeout} stays untouched, so caches need not reset it. Timeouts fire with the
+ * resolution of the tick, 10 ms by default, and up to about 46 hours of ticks ahead, later timeouts are re-checked
+ * then. {@link Timeout#disarm()} waits for a cancel in progress, so a cancel never hits a later execution of the cached
+ * statement. The cancels run on the thread of the wheel.
+ */
+public final class QueryTimeouts implements AutoCloseable {
+
+  private static final Duration DEFAULT_TICK = Duration.ofMillis(10);
+  private static final int SLOT_BITS = 6;
+  private static final int SLOTS = 1 << SLOT_BITS;
+  private static final int LEVELS = 4;
+  private static final long MAX_DELTA = (1L << (SLOT_BITS * LEVELS)) - 1;
+
+  private static final Object SHARED_LOCK = new Object();
+  private static volatile QueryTimeouts shared;
+
+  private final long tickNanos;
+  private final long startNanos;
+  private final Timeout[][] wheel = new Timeout[LEVELS][SLOTS];
+  private final Thread thread;
+  private final LongAdder cancellations = new LongAdder();
+  private volatile boolean closed;
+
+  // guarded by wheel
+  private long currentTick;
+  private Timeout free;
+
+  /**
+   * The timeout of one execution. Disarm it exactly once when the execution completes, it is recycled then.
+   */
+  public static final class Timeout {
+
+    private static final int IDLE = 0;
+    private static final int ARMED = 1;
+    private static final int FIRING = 2;
+    private static final int FIRED = 3;
+    private static final AtomicIntegerFieldUpdater<Timeout> STATE = AtomicIntegerFieldUpdater.newUpdater(Timeout.class, "state");
+
+    private final QueryTimeouts owner;
+    private volatile int state;
+    private Statement statement;
+    private long deadlineTick;
+    private Timeout prev;
+    private Timeout next;
+
+    private Timeout(QueryTimeouts owner) {
+      this.owner = owner;
+    }
+
+    /**
+     * Disarms the timeout and returns whether it fired, i.e. whether the execution was cancelled.
+     */
+    public boolean disarm() {
+      if (STATE.compareAndSet(this, ARMED, IDLE)) {
+        owner.release(this, true);
+        return false;
+      }
+      int current;
+      while ((current = state) == FIRING) {
+        Thread.yield();
+      }
+      if (current != FIRED) {
+        throw new IllegalStateException("Timeout is not armed");
+      }
+      state = IDLE;
+      owner.release(this, false);
+      return true;
+    }
+  }
+
+  public QueryTimeouts() {
+    this(DEFAULT_TICK);
+  }
+
+  /**
+   * @param tick the resolution of the timeouts
+   */
+  public QueryTimeouts(Duration tick) {
+    if (tick.isNegative() || tick.isZero()) {
+      throw new IllegalArgumentException("Tick must be positive: " + tick);
+    }
+    this.tickNanos = tick.toNanos();
+    this.startNanos = System.nanoTime();
+    for (Timeout[] level : wheel) {
+      for (int slot = 0; slot < SLOTS; slot++) {
+        Timeout head = new Timeout(null);
+        head.prev = head;
+        head.next = head;
+        level[slot] = head;
+      }
+    }
+    this.thread = new Thread(this::run, "query-timeouts");
+    this.thread.setDaemon(true);
+    this.thread.start();
+  }
+
+  /**
+   * Returns the timeouts shared by all connections of the process, with a tick of 10 ms.
+   */
+  public static QueryTimeouts shared() {
+    QueryTimeouts timeouts = shared;
+    if (timeouts == null) {
+      synchronized (SHARED_LOCK) {
+        timeouts = shared;
+        if (timeouts == null) {
+          timeouts = new QueryTimeouts();
+          shared = timeouts;
+        }
+      }
+    }
+    return timeouts;
+  }
+
+  /**
+   * Cancels the statement with {@link Statement#cancel()} unless the returned timeout is disarmed within the given
+   * milliseconds.
+   */
+  public Timeout arm(Statement statement, long timeoutMillis) {
+    if (timeoutMillis <= 0) {
+      throw new IllegalArgumentException("Timeout must be positive: " + timeoutMillis);
+    }
+    long timeoutNanos = Math.min(TimeUnit.MILLISECONDS.toNanos(timeoutMillis), Long.MAX_VALUE / 4);
+    // round up, a timeout never fires early
+    long deadlineTick = (System.nanoTime() - startNanos + timeoutNanos + tickNanos - 1) / tickNanos;
+    synchronized (wheel) {
+      if (closed) {
+        throw new IllegalStateException("Query timeouts are closed");
+      }
+      Timeout timeout = free;
+      if (timeout != null) {
+        free = timeout.next;
+        timeout.next = null;
+      } else {
+        timeout = new Timeout(this);
+      }
+      timeout.statement = statement;
+      timeout.deadlineTick = Math.max(deadlineTick, currentTick + 1);
+      timeout.state = Timeout.ARMED;
+      insert(timeout);
+      return timeout;
+    }
+  }
+
+  /**
+   * Returns the number of cancelled executions.
+   */
+  public long getCancellations() {
+    return cancellations.sum();
+  }
+
+  /**
+   * Stops the thread of the wheel, pending timeouts do not fire any more.
+   */
+  @Override
+  public void close() {
+    closed = true;
+    LockSupport.unpark(thread);
+  }
+
+  private void release(Timeout timeout, boolean linked) {
+    synchronized (wheel) {
+      if (linked && timeout.prev != null) {
+        unlink(timeout);
+      }
+      timeout.statement = null;
+      timeout.next = free;
+      free = timeout;
+    }
+  }
+
+  private void run() {
+    while (!closed) {
+      LockSupport.parkNanos(tickNanos);
+      long nowTick = (System.nanoTime() - startNanos) / tickNanos;
+      Timeout firing = null;
+      synchronized (wheel) {
+        while (currentTick < nowTick) {
+          currentTick++;
+          for (int level = 1; level < LEVELS && (currentTick & ((1L << (SLOT_BITS * level)) - 1)) == 0; level++) {
+            cascade(level);
+          }
+          firing = expire(firing);
+        }
+      }
+      fire(firing);
+    }
+  }
+
+  /**
+   * Moves the timeouts of the current slot of a level to the lower levels.
+   */
+  private void cascade(int level) {
+    Timeout head = wheel[level][slot(currentTick, level)];
+    Timeout timeout = detach(head);
+    while (timeout != null) {
+      Timeout next = timeout.next;
+      timeout.prev = null;
+      timeout.next = null;
+      insert(timeout);
+      timeout = next;
+    }
+  }
+
+  /**
+   * Takes the timeouts of the current slot of the lowest level, which are due, and adds the armed ones to the list of
+   * timeouts to fire.
+   */
+  private Timeout expire(Timeout firing) {
+    Timeout timeout = detach(wheel[0][slot(currentTick, 0)]);
+    while (timeout != null) {
+      Timeout next = timeout.next;
+      timeout.prev = null;
+      timeout.next = null;
+      if (Timeout.STATE.compareAndSet(timeout, Timeout.ARMED, Timeout.FIRING)) {
+        timeout.next = firing;
+        firing = timeout;
+      }
+      timeout = next;
+    }
+    return firing;
+  }
+
+  private void fire(Timeout firing) {
+    while (firing != null) {
+      Timeout next = firing.next;
+      firing.next = null;
+      try {
+        firing.statement.cancel();
+      } catch (SQLException | RuntimeException e) {
+        // the execution completed or the connection is gone, there is nothing left to cancel
+      }
+      cancellations.increment();
+      firing.state = Timeout.FIRED;
+      firing = next;
+    }
+  }
+
+  private void insert(Timeout timeout) {
+    long delta = Math.min(Math.max(timeout.deadlineTick - currentTick, 0), MAX_DELTA);
+    int level = 0;
+    while (delta >= 1L << (SLOT_BITS * (level + 1))) {
+      level++;
+    }
+    Timeout head = wheel[level][slot(currentTick + delta, level)];
+    timeout.prev = head.prev;
+    timeout.next = head;
+    head.prev.next = timeout;
+    head.prev = timeout;
+  }
+
+  private static void unlink(Timeout timeout) {
+    timeout.prev.next = timeout.next;
+    timeout.next.prev = timeout.prev;
+    timeout.prev = null;
+    timeout.next = null;
+  }
+
+  /**
+   * Empties the slot and returns its timeouts as a list linked by {@code next}.
+   */
+  private static Timeout detach(Timeout head) {
+    if (head.next == head) {
+      return null;
+    }
+    Timeout first = head.next;
+    head.prev.next = null;
+    head.prev = head;
+    head.next = head;
+    return first;
+  }
+
+  private static int slot(long tick, int level) {
+    return (int) (tick >>> (SLOT_BITS * level)) & (SLOTS - 1);
+  }
+}
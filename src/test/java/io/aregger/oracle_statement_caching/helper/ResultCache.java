@@ -0,0 +1,559 @@
+package io.aregger.oracle_statement_caching.helper;
+
+import oracle.jdbc.OracleConnection;
+import oracle.jdbc.OraclePreparedStatement;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Caches the rows of queries on the client, keyed by the SQL text and the bind values, so a repeated read of a small,
+ * rarely changing table costs neither an execute nor a fetch round trip. The rows are kept as immutable snapshots.
+ * <p>
+ * A query depends on the tables named in its {@code FROM} and {@code JOIN} clauses, comments and hints are skipped and
+ * quoted names are taken as they are. A query in which no table is found is not cached, nor is a query whose result
+ * may change without DML: one which reads {@code DUAL}, a sequence, the time or {@code DBMS_RANDOM}. Queries which call
+ * other non-deterministic functions must not be run through the cache. DML executed through
+ * {@link #update} invalidates the results of the table it writes, once after the execution and, if the connection does
+ * not auto-commit, once more after {@link #commit}, when other sessions see the change. Until then, queries of the
+ * writing connection on that table bypass the cache, so they see their own changes and never cache uncommitted rows.
+ * A statement whose table is not found, e.g. a PL/SQL block, invalidates all results. A query which ran while its
+ * tables were invalidated is not cached. DML which does not pass through the cache, e.g. of other applications, is
+ * only caught by the time to live.
+ * <p>
+ * The cache is bounded by the estimated heap of its results and evicts with GreedyDual-Size-Frequency like the
+ * size-aware policy of the {@link io.aregger.oracle_statement_caching.simulation.CacheSimulator}: among results used
+ * equally often the large ones go first. Results with values other than strings, numbers, booleans, dates and raw
+ * bytes, e.g. LOB locators, are returned but not cached.
+ */
+public final class ResultCache {
+
+  private static final String IDENTIFIER = "(?:\"[^\"]+\"|[\\w$#]+)";
+  private static final String QUALIFIED_NAME = "(" + IDENTIFIER + "(?:\\s*\\.\\s*" + IDENTIFIER + ")?)";
+  private static final Pattern NAME = Pattern.compile("(?:" + IDENTIFIER + "\\s*\\.\\s*)?(" + IDENTIFIER + ")");
+  private static final Pattern FROM_OR_JOIN = Pattern.compile("\\b(?:from|join)\\s+", Pattern.CASE_INSENSITIVE);
+  private static final Pattern TABLE = Pattern.compile(QUALIFIED_NAME + "(?:\\s+(?!(?:where|join|inner|left|right|full|cross|natural|on|group|order|connect|start|union|minus|intersect|fetch|for)\\b)(?:\\w+|\"[^\"]+\"))?\\s*(,\\s*)?", Pattern.CASE_INSENSITIVE);
+  private static final Pattern WRITTEN_TABLE = Pattern.compile("^\\s*(?:insert\\s+into|update|delete(?:\\s+from)?|merge\\s+into)\\s+" + QUALIFIED_NAME, Pattern.CASE_INSENSITIVE);
+  private static final Pattern VOLATILE = Pattern.compile("\\.\\s*(?:nextval|currval)\\b"
+      + "|\\b(?:sysdate|systimestamp|current_date|current_timestamp|localtimestamp|sys_guid|dbms_random|dual)\\b",
+      Pattern.CASE_INSENSITIVE);
+  private static final String ALL_TABLES = "*";
+  private static final long ENTRY_BYTES = 96;
+
+  private final long maxBytes;
+  private final long timeToLiveNanos;
+
+  private final Map<Key, Entry> entries = new HashMap<>();
+  private final TreeSet<Entry> queue = new TreeSet<>((a, b) -> a.priority != b.priority ? Double.compare(a.priority, b.priority) : Long.compare(a.sequence, b.sequence));
+  private final Map<String, Set<Entry>> entriesByTable = new HashMap<>();
+  private final Map<String, Long> tableVersions = new HashMap<>();
+  private final Map<Connection, Set<String>> uncommittedTables = new WeakHashMap<>();
+  private final Map<String, Set<String>> tablesBySql = new ConcurrentHashMap<>();
+  private double inflation;
+  private long sequence;
+  private long bytes;
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder invalidations = new LongAdder();
+
+  /**
+   * The rows of a query. Rows are numbered from 0, columns from 1 like in JDBC.
+   */
+  public static final class Rows {
+
+    private final String[] labels;
+    private final Object[] values;
+    private final boolean cacheable;
+    private final long bytes;
+
+    private Rows(String[] labels, Object[] values, boolean cacheable, long bytes) {
+      this.labels = labels;
+      this.values = values;
+      this.cacheable = cacheable;
+      this.bytes = bytes;
+    }
+
+    public int getRowCount() {
+      return labels.length == 0 ? 0 : values.length / labels.length;
+    }
+
+    public int getColumnCount() {
+      return labels.length;
+    }
+
+    public String getColumnLabel(int column) {
+      return labels[column - 1];
+    }
+
+    /**
+     * Returns the value of a column, mutable values like dates and raw bytes are returned as copies.
+     */
+    public Object getObject(int row, int column) {
+      if (column < 1 || column > labels.length || row < 0 || row >= getRowCount()) {
+        throw new IndexOutOfBoundsException("row " + row + ", column " + column);
+      }
+      return copy(values[row * labels.length + column - 1]);
+    }
+  }
+
+  private static final class Key {
+
+    private final String sql;
+    private final Object[] binds;
+    private final int hash;
+
+    private Key(String sql, Object[] binds) {
+      this.sql = sql;
+      this.binds = binds;
+      this.hash = sql.hashCode() * 31 + Arrays.hashCode(binds);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Key)) {
+        return false;
+      }
+      Key other = (Key) o;
+      return hash == other.hash && sql.equals(other.sql) && Arrays.equals(binds, other.binds);
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+  }
+
+  private static final class Entry {
+
+    private final Key key;
+    private final Rows rows;
+    private final Set<String> tables;
+    private final long weight;
+    private final long expiresAt;
+    private int frequency;
+    private double priority;
+    private long sequence;
+
+    private Entry(Key key, Rows rows, Set<String> tables, long weight, long expiresAt) {
+      this.key = key;
+      this.rows = rows;
+      this.tables = tables;
+      this.weight = weight;
+      this.expiresAt = expiresAt;
+    }
+  }
+
+  /**
+   * @param maxBytes   the estimated heap of all cached results
+   * @param timeToLive how long a result is served at most
+   */
+  public ResultCache(long maxBytes, Duration timeToLive) {
+    if (maxBytes < 1 || timeToLive.isNegative() || timeToLive.isZero()) {
+      throw new IllegalArgumentException("Limits must be positive: maxBytes=" + maxBytes + ", timeToLive=" + timeToLive);
+    }
+    this.maxBytes = maxBytes;
+    this.timeToLiveNanos = timeToLive.toNanos();
+  }
+
+  /**
+   * Returns the rows of the query for the bind values, from the cache or by executing the query. The values are bound
+   * with {@code setObject} in order and must not change while they are cached, strings and numbers are fine.
+   */
+  public Rows query(OracleConnection connection, CacheableStatement statement, Object... binds) throws SQLException {
+    String sql = statement.getSql();
+    Set<String> tables = tablesBySql.computeIfAbsent(sql, ResultCache::cachedTables);
+    if (tables.isEmpty()) {
+      misses.increment();
+      return execute(connection, statement, binds);
+    }
+    Key key = new Key(sql, binds.clone());
+    Map<String, Long> versions;
+    synchronized (this) {
+      boolean bypass = writesUncommitted(connection, tables);
+      if (!bypass) {
+        Entry entry = lookUp(key);
+        if (entry != null) {
+          hits.increment();
+          return entry.rows;
+        }
+      }
+      versions = bypass ? null : versions(tables);
+    }
+    misses.increment();
+    Rows rows = execute(connection, statement, binds);
+    if (versions != null && rows.cacheable) {
+      synchronized (this) {
+        if (versions.equals(versions(tables))) {
+          store(key, rows, tables);
+        }
+      }
+    }
+    return rows;
+  }
+
+  /**
+   * Executes the DML statement and invalidates the cached results of the table it writes, or all results if the table
+   * is not found.
+   */
+  public int update(OracleConnection connection, CacheableStatement statement, Object... binds) throws SQLException {
+    String written = writtenTable(statement.getSql());
+    String table = written != null ? written : ALL_TABLES;
+    int updateCount;
+    try {
+      updateCount = executeUpdate(connection, statement, binds);
+    } finally {
+      synchronized (this) {
+        invalidateTable(table);
+        if (!connection.getAutoCommit()) {
+          uncommittedTables.computeIfAbsent(connection, c -> new HashSet<>()).add(table);
+        }
+      }
+    }
+    return updateCount;
+  }
+
+  /**
+   * Commits the transaction of the connection and invalidates the results of the tables it wrote.
+   */
+  public void commit(OracleConnection connection) throws SQLException {
+    connection.commit();
+    endTransaction(connection);
+  }
+
+  /**
+   * Rolls back the transaction of the connection.
+   */
+  public void rollback(OracleConnection connection) throws SQLException {
+    connection.rollback();
+    endTransaction(connection);
+  }
+
+  /**
+   * Invalidates the cached results of a table written without this cache.
+   */
+  public synchronized void invalidate(String table) {
+    invalidateTable(normalize(table));
+  }
+
+  public long getHits() {
+    return hits.sum();
+  }
+
+  public long getMisses() {
+    return misses.sum();
+  }
+
+  /**
+   * Returns the number of results removed because a table they depend on was written.
+   */
+  public long getInvalidations() {
+    return invalidations.sum();
+  }
+
+  /**
+   * Returns the estimated heap of the cached results.
+   */
+  public synchronized long getBytes() {
+    return bytes;
+  }
+
+  public synchronized int size() {
+    return entries.size();
+  }
+
+  private void endTransaction(OracleConnection connection) {
+    synchronized (this) {
+      Set<String> tables = uncommittedTables.remove(connection);
+      if (tables != null) {
+        for (String table : tables) {
+          invalidateTable(table);
+        }
+      }
+    }
+  }
+
+  private boolean writesUncommitted(Connection connection, Set<String> tables) {
+    Set<String> written = uncommittedTables.get(connection);
+    return written != null && (written.contains(ALL_TABLES) || !Collections.disjoint(written, tables));
+  }
+
+  private Map<String, Long> versions(Set<String> tables) {
+    Map<String, Long> versions = new HashMap<>();
+    for (String table : tables) {
+      versions.put(table, tableVersions.getOrDefault(table, 0L));
+    }
+    versions.put(ALL_TABLES, tableVersions.getOrDefault(ALL_TABLES, 0L));
+    return versions;
+  }
+
+  private Entry lookUp(Key key) {
+    Entry entry = entries.get(key);
+    if (entry == null) {
+      return null;
+    }
+    if (System.nanoTime() - entry.expiresAt >= 0) {
+      remove(entry);
+      return null;
+    }
+    queue.remove(entry);
+    prioritize(entry);
+    return entry;
+  }
+
+  private void store(Key key, Rows rows, Set<String> tables) {
+    long weight = ENTRY_BYTES + rows.bytes;
+    for (Object bind : key.binds) {
+      weight += 8 + BindTracker.estimate(bind);
+    }
+    if (weight > maxBytes) {
+      return;
+    }
+    Entry previous = entries.get(key);
+    if (previous != null) {
+      remove(previous);
+    }
+    while (bytes + weight > maxBytes) {
+      Entry victim = queue.first();
+      inflation = victim.priority;
+      remove(victim);
+    }
+    Entry entry = new Entry(key, rows, tables, weight, System.nanoTime() + timeToLiveNanos);
+    entries.put(key, entry);
+    for (String table : tables) {
+      entriesByTable.computeIfAbsent(table, t -> new HashSet<>()).add(entry);
+    }
+    bytes += weight;
+    prioritize(entry);
+  }
+
+  private void prioritize(Entry entry) {
+    entry.frequency++;
+    entry.priority = inflation + (double) entry.frequency / entry.weight;
+    entry.sequence = sequence++;
+    queue.add(entry);
+  }
+
+  private void remove(Entry entry) {
+    entries.remove(entry.key);
+    queue.remove(entry);
+    for (String table : entry.tables) {
+      Set<Entry> tableEntries = entriesByTable.get(table);
+      if (tableEntries != null && tableEntries.remove(entry) && tableEntries.isEmpty()) {
+        entriesByTable.remove(table);
+      }
+    }
+    bytes -= entry.weight;
+  }
+
+  private void invalidateTable(String table) {
+    tableVersions.merge(table, 1L, Long::sum);
+    if (table.equals(ALL_TABLES)) {
+      invalidations.add(entries.size());
+      entries.clear();
+      queue.clear();
+      entriesByTable.clear();
+      bytes = 0;
+      return;
+    }
+    Set<Entry> tableEntries = entriesByTable.get(table);
+    if (tableEntries == null) {
+      return;
+    }
+    for (Entry entry : new ArrayList<>(tableEntries)) {
+      remove(entry);
+      invalidations.increment();
+    }
+  }
+
+  /**
+   * Executes a query with its statement from the cache and reads all rows, also used by {@link AsyncStatements}.
+   */
+  static Rows execute(OracleConnection connection, CacheableStatement cacheableStatement, Object[] binds) throws SQLException {
+    OraclePreparedStatement statement = prepare(connection, cacheableStatement);
+    try {
+      bind(statement, binds);
+      try (ResultSet resultSet = cacheableStatement.executeQuery(statement)) {
+        return snapshot(resultSet);
+      }
+    } finally {
+      try {
+        statement.clearParameters();
+      } finally {
+        cacheableStatement.closePreparedStatement(statement);
+      }
+    }
+  }
+
+  private static int executeUpdate(OracleConnection connection, CacheableStatement cacheableStatement, Object[] binds) throws SQLException {
+    OraclePreparedStatement statement = prepare(connection, cacheableStatement);
+    try {
+      bind(statement, binds);
+      return statement.executeUpdate();
+    } finally {
+      try {
+        statement.clearParameters();
+      } finally {
+        cacheableStatement.closePreparedStatement(statement);
+      }
+    }
+  }
+
+  private static OraclePreparedStatement prepare(OracleConnection connection, CacheableStatement cacheableStatement) throws SQLException {
+    OraclePreparedStatement statement = cacheableStatement.getCachedStatement(connection);
+    return statement != null ? statement : PreparedStatementHelper.prepare(connection, cacheableStatement.getSql());
+  }
+
+  private static void bind(OraclePreparedStatement statement, Object[] binds) throws SQLException {
+    for (int i = 0; i < binds.length; i++) {
+      statement.setObject(i + 1, binds[i]);
+    }
+  }
+
+  private static Rows snapshot(ResultSet resultSet) throws SQLException {
+    ResultSetMetaData metaData = resultSet.getMetaData();
+    String[] labels = new String[metaData.getColumnCount()];
+    long bytes = 16 + 8L * labels.length;
+    for (int i = 0; i < labels.length; i++) {
+      labels[i] = metaData.getColumnLabel(i + 1);
+      bytes += BindTracker.estimate(labels[i]);
+    }
+    List<Object> values = new ArrayList<>();
+    boolean cacheable = true;
+    while (resultSet.next()) {
+      for (int column = 1; column <= labels.length; column++) {
+        Object value = resultSet.getObject(column);
+        cacheable &= isImmutableOrCopyable(value);
+        value = copy(value);
+        values.add(value);
+        bytes += 8 + BindTracker.estimate(value);
+      }
+    }
+    return new Rows(labels, values.toArray(), cacheable, bytes);
+  }
+
+  private static boolean isImmutableOrCopyable(Object value) {
+    return value == null || value instanceof String || value instanceof Boolean || value instanceof byte[]
+        || value instanceof Date || value instanceof Integer || value instanceof Long || value instanceof Short
+        || value instanceof Byte || value instanceof Double || value instanceof Float || value instanceof BigDecimal
+        || value instanceof BigInteger;
+  }
+
+  private static Object copy(Object value) {
+    if (value instanceof byte[]) {
+      return ((byte[]) value).clone();
+    }
+    if (value instanceof Date) {
+      return ((Date) value).clone();
+    }
+    return value;
+  }
+
+  /**
+   * Returns the tables a query depends on, or no tables if its result must not be cached.
+   */
+  private static Set<String> cachedTables(String sql) {
+    return VOLATILE.matcher(stripComments(sql)).find() ? Collections.emptySet() : readTables(sql);
+  }
+
+  /**
+   * Returns the tables named in the FROM and JOIN clauses of a query, comma-separated lists included.
+   */
+  static Set<String> readTables(String sql) {
+    sql = stripComments(sql);
+    Set<String> tables = new LinkedHashSet<>();
+    Matcher from = FROM_OR_JOIN.matcher(sql);
+    while (from.find()) {
+      Matcher table = TABLE.matcher(sql);
+      int position = from.end();
+      while (table.region(position, sql.length()).lookingAt()) {
+        tables.add(normalize(table.group(1)));
+        if (table.group(2) == null) {
+          break;
+        }
+        position = table.end();
+      }
+    }
+    return Collections.unmodifiableSet(tables);
+  }
+
+  /**
+   * Returns the table a DML statement writes or {@code null} if the statement is no DML.
+   */
+  static String writtenTable(String sql) {
+    Matcher matcher = WRITTEN_TABLE.matcher(stripComments(sql));
+    return matcher.find() ? normalize(matcher.group(1)) : null;
+  }
+
+  /**
+   * Replaces the comments and hints of a SQL text with a space, string literals and quoted names are kept.
+   */
+  static String stripComments(String sql) {
+    if (!sql.contains("/*") && !sql.contains("--")) {
+      return sql;
+    }
+    StringBuilder stripped = new StringBuilder(sql.length());
+    int i = 0;
+    while (i < sql.length()) {
+      char c = sql.charAt(i);
+      int end;
+      if (c == '\'' || c == '"') {
+        end = sql.indexOf(c, i + 1);
+        end = end < 0 ? sql.length() : end + 1;
+        stripped.append(sql, i, end);
+      } else if (sql.startsWith("/*", i)) {
+        end = sql.indexOf("*/", i + 2);
+        end = end < 0 ? sql.length() : end + 2;
+        stripped.append(' ');
+      } else if (sql.startsWith("--", i)) {
+        end = sql.indexOf('\n', i + 2);
+        end = end < 0 ? sql.length() : end;
+        stripped.append(' ');
+      } else {
+        end = i + 1;
+        stripped.append(c);
+      }
+      i = end;
+    }
+    return stripped.toString();
+  }
+
+  /**
+   * Returns the name of a table as the data dictionary stores it, without the schema: unquoted names in upper case,
+   * quoted names as they are.
+   */
+  private static String normalize(String table) {
+    Matcher matcher = NAME.matcher(table.trim());
+    if (!matcher.matches()) {
+      int dot = table.lastIndexOf('.');
+      return (dot < 0 ? table : table.substring(dot + 1)).toUpperCase(Locale.ROOT);
+    }
+    String name = matcher.group(1);
+    return name.startsWith("\"") ? name.substring(1, name.length() - 1) : name.toUpperCase(Locale.ROOT);
+  }
+}
@@ -0,0 +1,196 @@
+package io.aregger.oracle_statement_caching.helper;
+
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+
+/**
+ * Immutable copy of a {@link ResultSetMetaData}, safe to share between threads and connections.
+ */
+final class ResultSetMetaDataSnapshot implements ResultSetMetaData {
+
+  private final Column[] columns;
+
+  private ResultSetMetaDataSnapshot(Column[] columns) {
+    this.columns = columns;
+  }
+
+  static ResultSetMetaDataSnapshot of(ResultSetMetaData metaData) throws SQLException {
+    Column[] columns = new Column[metaData.getColumnCount()];
+    for (int i = 0; i < columns.length; i++) {
+      columns[i] = new Column(metaData, i + 1);
+    }
+    return new ResultSetMetaDataSnapshot(columns);
+  }
+
+  @Override
+  public int getColumnCount() {
+    return columns.length;
+  }
+
+  @Override
+  public boolean isAutoIncrement(int column) throws SQLException {
+    return column(column).autoIncrement;
+  }
+
+  @Override
+  public boolean isCaseSensitive(int column) throws SQLException {
+    return column(column).caseSensitive;
+  }
+
+  @Override
+  public boolean isSearchable(int column) throws SQLException {
+    return column(column).searchable;
+  }
+
+  @Override
+  public boolean isCurrency(int column) throws SQLException {
+    return column(column).currency;
+  }
+
+  @Override
+  public int isNullable(int column) throws SQLException {
+    return column(column).nullable;
+  }
+
+  @Override
+  public boolean isSigned(int column) throws SQLException {
+    return column(column).signed;
+  }
+
+  @Override
+  public int getColumnDisplaySize(int column) throws SQLException {
+    return column(column).displaySize;
+  }
+
+  @Override
+  public String getColumnLabel(int column) throws SQLException {
+    return column(column).label;
+  }
+
+  @Override
+  public String getColumnName(int column) throws SQLException {
+    return column(column).name;
+  }
+
+  @Override
+  public String getSchemaName(int column) throws SQLException {
+    return column(column).schemaName;
+  }
+
+  @Override
+  public int getPrecision(int column) throws SQLException {
+    return column(column).precision;
+  }
+
+  @Override
+  public int getScale(int column) throws SQLException {
+    return column(column).scale;
+  }
+
+  @Override
+  public String getTableName(int column) throws SQLException {
+    return column(column).tableName;
+  }
+
+  @Override
+  public String getCatalogName(int column) throws SQLException {
+    return column(column).catalogName;
+  }
+
+  @Override
+  public int getColumnType(int column) throws SQLException {
+    return column(column).type;
+  }
+
+  @Override
+  public String getColumnTypeName(int column) throws SQLException {
+    return column(column).typeName;
+  }
+
+  @Override
+  public boolean isReadOnly(int column) throws SQLException {
+    return column(column).readOnly;
+  }
+
+  @Override
+  public boolean isWritable(int column) throws SQLException {
+    return column(column).writable;
+  }
+
+  @Override
+  public boolean isDefinitelyWritable(int column) throws SQLException {
+    return column(column).definitelyWritable;
+  }
+
+  @Override
+  public String getColumnClassName(int column) throws SQLException {
+    return column(column).className;
+  }
+
+  @Override
+  public <T> T unwrap(Class<T> type) throws SQLException {
+    if (type.isInstance(this)) {
+      return type.cast(this);
+    }
+    throw new SQLException("Not a wrapper for " + type.getName());
+  }
+
+  @Override
+  public boolean isWrapperFor(Class<?> type) {
+    return type.isInstance(this);
+  }
+
+  private Column column(int column) throws SQLException {
+    if (column < 1 || column > columns.length) {
+      throw new SQLException("Invalid column index: " + column);
+    }
+    return columns[column - 1];
+  }
+
+  private static final class Column {
+
+    final boolean autoIncrement;
+    final boolean caseSensitive;
+    final boolean searchable;
+    final boolean currency;
+    final int nullable;
+    final boolean signed;
+    final int displaySize;
+    final String label;
+    final String name;
+    final String schemaName;
+    final int precision;
+    final int scale;
+    final String tableName;
+    final String catalogName;
+    final int type;
+    final String typeName;
+    final boolean readOnly;
+    final boolean writable;
+    final boolean definitelyWritable;
+    final String className;
+
+    Column(ResultSetMetaData metaData, int column) throws SQLException {
+      autoIncrement = metaData.isAutoIncrement(column);
+      caseSensitive = metaData.isCaseSensitive(column);
+      searchable = metaData.isSearchable(column);
+      currency = metaData.isCurrency(column);
+      nullable = metaData.isNullable(column);
+      signed = metaData.isSigned(column);
+      displaySize = metaData.getColumnDisplaySize(column);
+      label = metaData.getColumnLabel(column);
+      name = metaData.getColumnName(column);
+      schemaName = metaData.getSchemaName(column);
+      precision = metaData.getPrecision(column);
+      scale = metaData.getScale(column);
+      tableName = metaData.getTableName(column);
+      catalogName = metaData.getCatalogName(column);
+      type = metaData.getColumnType(column);
+      typeName = metaData.getColumnTypeName(column);
+      readOnly = metaData.isReadOnly(column);
+      writable = metaData.isWritable(column);
+      definitelyWritable = metaData.isDefinitelyWritable(column);
+      className = metaData.getColumnClassName(column);
+    }
+  }
+}
@@ -0,0 +1,70 @@
+package io.aregger.oracle_statement_caching.helper;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Recommends a row prefetch per SQL text from the number of rows its executions fetched. The recommendation is one row
+ * more than the moving average of the fetched rows, so a typical execution gets all rows and the end of the result
+ * with its execute round trip, capped so that the fetch buffer of {@code rowPrefetch} rows of the declared row width
+ * stays within the memory budget of a statement.
+ * <p>
+ * One tuner is meant to be shared by all connections.
+ */
+public final class RowPrefetchTuner {
+
+  private static final double SMOOTHING = 0.3;
+
+  private final long memoryBudgetBytes;
+  private final int maxRowPrefetch;
+  private final ConcurrentMap<String, Statistics> statistics = new ConcurrentHashMap<>();
+
+  public RowPrefetchTuner(long memoryBudgetBytes, int maxRowPrefetch) {
+    if (memoryBudgetBytes < 1 || maxRowPrefetch < 1) {
+      throw new IllegalArgumentException("Memory budget and max row prefetch must be positive");
+    }
+    this.memoryBudgetBytes = memoryBudgetBytes;
+    this.maxRowPrefetch = maxRowPrefetch;
+  }
+
+  /**
+   * Records that an execution of the given SQL fetched the given number of rows of the given declared width.
+   */
+  public void record(String sql, int rows, int rowWidthBytes) {
+    statistics.computeIfAbsent(sql, key -> new Statistics()).record(rows, rowWidthBytes);
+  }
+
+  /**
+   * Returns the recommended row prefetch for the given SQL or 0 if nothing was recorded for it.
+   */
+  public int recommend(String sql) {
+    Statistics current = statistics.get(sql);
+    if (current == null) {
+      return 0;
+    }
+    long rows = (long) Math.ceil(current.averageRows) + 1;
+    long affordableRows = memoryBudgetBytes / Math.max(1, current.rowWidthBytes);
+    return (int) Math.max(1, Math.min(Math.min(rows, affordableRows), maxRowPrefetch));
+  }
+
+  public long getMemoryBudgetBytes() {
+    return memoryBudgetBytes;
+  }
+
+  public int getMaxRowPrefetch() {
+    return maxRowPrefetch;
+  }
+
+  private static final class Statistics {
+
+    volatile double averageRows = -1;
+    volatile int rowWidthBytes;
+
+    // lost updates of concurrent executions only skew the average slightly
+    void record(int rows, int rowWidthBytes) {
+      double average = averageRows;
+      averageRows = average < 0 ? rows : average + SMOOTHING * (rows - average);
+      this.rowWidthBytes = rowWidthBytes;
+    }
+  }
+}
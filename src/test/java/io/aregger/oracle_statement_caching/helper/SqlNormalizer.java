@@ -0,0 +1,336 @@
+package io.aregger.oracle_statement_caching.helper;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Rewrites SQL texts so that logically identical statements share one cache entry: string and numeric literals become
+ * bind placeholders, unquoted identifiers and keywords are upper-cased and whitespace is canonicalized. The rewrite of a
+ * SQL text is memoized, the memo is cleared when it reaches its maximum size.
+ * <p>
+ * Only queries and DML are rewritten. Literals are kept where Oracle does not accept binds or where a bind changes the
+ * meaning: typed literals ({@code DATE '...'}), {@code N} and {@code q} quoted strings, binary floats, lengths and
+ * precisions of data types, positional {@code ORDER BY} columns and statements with named binds. Like
+ * {@code cursor_sharing=force} on the server, a literal compared to a {@code CHAR} column is compared blank-padded,
+ * the bind is not.
+ */
+public final class SqlNormalizer {
+
+  private static final Set<String> REWRITTEN_STATEMENTS = Set.of("SELECT", "WITH", "INSERT", "UPDATE", "DELETE", "MERGE");
+  private static final Set<String> TYPED_LITERALS = Set.of("DATE", "TIMESTAMP", "INTERVAL");
+  private static final Set<String> DATA_TYPES = Set.of("VARCHAR2", "VARCHAR", "NVARCHAR2", "CHAR", "NCHAR", "NUMBER", "FLOAT",
+      "DECIMAL", "RAW", "TIMESTAMP", "UROWID", "SECOND", "YEAR", "DAY");
+  private static final Map<Character, Character> Q_QUOTE_DELIMITERS = Map.of('[', ']', '{', '}', '(', ')', '<', '>');
+  private static final Set<String> OPERATORS = Set.of("<=", ">=", "<>", "!=", "^=", "||", "=>", "**");
+
+  private final int maxMemoEntries;
+  private final Map<String, NormalizedSql> memo = new ConcurrentHashMap<>();
+  private final LongAdder rewrites = new LongAdder();
+
+  /**
+   * @param maxMemoEntries maximum number of memoized SQL texts, 0 to rewrite on every call
+   */
+  public SqlNormalizer(int maxMemoEntries) {
+    if (maxMemoEntries < 0) {
+      throw new IllegalArgumentException("Maximum memo entries must not be negative: " + maxMemoEntries);
+    }
+    this.maxMemoEntries = maxMemoEntries;
+  }
+
+  public NormalizedSql normalize(String sql) {
+    NormalizedSql normalized = memo.get(sql);
+    if (normalized != null) {
+      return normalized;
+    }
+    normalized = rewrite(sql);
+    rewrites.increment();
+    if (maxMemoEntries > 0) {
+      if (memo.size() >= maxMemoEntries) {
+        memo.clear();
+      }
+      memo.put(sql, normalized);
+    }
+    return normalized;
+  }
+
+  /**
+   * Returns the number of SQL texts which were not memoized.
+   */
+  public long getRewrites() {
+    return rewrites.sum();
+  }
+
+  static NormalizedSql rewrite(String sql) {
+    NormalizedSql normalized = new Rewriter(sql, true).rewrite();
+    if (normalized == null) {
+      // named binds can not be mixed with positional placeholders
+      normalized = new Rewriter(sql, false).rewrite();
+    }
+    return normalized;
+  }
+
+  private static final class Rewriter {
+
+    private final String sql;
+    private final boolean replaceLiterals;
+    private final StringBuilder out;
+    private final List<Integer> parameterIndexes = new ArrayList<>();
+    private final List<Integer> literalIndexes = new ArrayList<>();
+    private final List<Object> literalValues = new ArrayList<>();
+    // depths of the parentheses which enclose the length or precision of a data type
+    private final BitSet dataTypeDepths = new BitSet();
+
+    private int position;
+    private int placeholders;
+    private int depth;
+    private int orderByDepth = -1;
+    private boolean namedBinds;
+    private boolean spaceAllowed;
+    private boolean newLine;
+    private String previous = "";
+    private String statementKind;
+
+    private Rewriter(String sql, boolean replaceLiterals) {
+      this.sql = sql;
+      this.replaceLiterals = replaceLiterals;
+      this.out = new StringBuilder(sql.length());
+    }
+
+    /**
+     * Returns the rewritten statement or {@code null} if literals were replaced in a statement with named binds.
+     */
+    NormalizedSql rewrite() {
+      while (position < sql.length()) {
+        char c = sql.charAt(position);
+        if (Character.isWhitespace(c)) {
+          position++;
+        } else if (startsWith("--")) {
+          int end = sql.indexOf('\n', position);
+          end = end < 0 ? sql.length() : end;
+          append(sql.substring(position, end), true);
+          position = end;
+          newLine = true;
+        } else if (startsWith("/*")) {
+          int end = sql.indexOf("*/", position + 2);
+          end = end < 0 ? sql.length() : end + 2;
+          append(sql.substring(position, end), true);
+          position = end;
+        } else if (c == '\'') {
+          stringLiteral();
+        } else if (c == '"') {
+          int end = endOfQuoted(position, '"');
+          token(sql.substring(position, end), true);
+          position = end;
+        } else if (Character.isLetter(c)) {
+          word();
+        } else if (Character.isDigit(c) || (c == '.' && position + 1 < sql.length() && Character.isDigit(sql.charAt(position + 1)))) {
+          number();
+        } else if (c == ':' && position + 1 < sql.length() && Character.isLetterOrDigit(sql.charAt(position + 1))) {
+          namedBinds = true;
+          int end = endOfWord(position + 1);
+          token(sql.substring(position, end), true);
+          position = end;
+        } else {
+          symbol(c);
+        }
+        if (statementKind != null && !REWRITTEN_STATEMENTS.contains(statementKind)) {
+          return new NormalizedSql(sql, sql, new int[0], new int[0], new Object[0]);
+        }
+      }
+      if (namedBinds && !literalIndexes.isEmpty()) {
+        return null;
+      }
+      return new NormalizedSql(sql, out.toString(), toArray(parameterIndexes), toArray(literalIndexes), literalValues.toArray());
+    }
+
+    private void stringLiteral() {
+      int end = endOfQuoted(position, '\'');
+      String literal = sql.substring(position, end);
+      if (replaceLiterals && !TYPED_LITERALS.contains(previous)) {
+        placeholder(literal.substring(1, literal.length() - 1).replace("''", "'"));
+      } else {
+        token(literal, true);
+      }
+      position = end;
+    }
+
+    private void word() {
+      int end = endOfWord(position);
+      String word = sql.substring(position, end);
+      if (end < sql.length() && sql.charAt(end) == '\'') {
+        if (word.equalsIgnoreCase("q") || word.equalsIgnoreCase("nq")) {
+          int quoteEnd = endOfQQuoted(end);
+          token(sql.substring(position, quoteEnd), true);
+          position = quoteEnd;
+          return;
+        }
+        if (word.equalsIgnoreCase("n")) {
+          int quoteEnd = endOfQuoted(end, '\'');
+          token(sql.substring(position, quoteEnd), true);
+          position = quoteEnd;
+          return;
+        }
+      }
+      String upper = word.toUpperCase(Locale.ROOT);
+      if (statementKind == null) {
+        statementKind = upper;
+      }
+      if (upper.equals("BY") && previous.equals("ORDER")) {
+        orderByDepth = depth;
+      }
+      token(upper, true);
+      position = end;
+    }
+
+    private void number() {
+      int end = position;
+      while (end < sql.length() && Character.isDigit(sql.charAt(end))) {
+        end++;
+      }
+      if (end < sql.length() && sql.charAt(end) == '.') {
+        end++;
+        while (end < sql.length() && Character.isDigit(sql.charAt(end))) {
+          end++;
+        }
+      }
+      if (end + 1 < sql.length() && (sql.charAt(end) == 'e' || sql.charAt(end) == 'E')
+          && (Character.isDigit(sql.charAt(end + 1)) || ((sql.charAt(end + 1) == '+' || sql.charAt(end + 1) == '-') && end + 2 < sql.length() && Character.isDigit(sql.charAt(end + 2))))) {
+        end += 2;
+        while (end < sql.length() && Character.isDigit(sql.charAt(end))) {
+          end++;
+        }
+      }
+      String number = sql.substring(position, end);
+      boolean binaryFloat = end < sql.length() && "fFdD".indexOf(sql.charAt(end)) >= 0;
+      boolean positionalOrderBy = orderByDepth == depth && (previous.equals("BY") || previous.equals(","));
+      if (replaceLiterals && !binaryFloat && !positionalOrderBy && !dataTypeDepths.get(depth)) {
+        placeholder(new BigDecimal(number));
+        position = end;
+      } else {
+        end = binaryFloat ? end + 1 : end;
+        token(sql.substring(position, end), true);
+        position = end;
+      }
+    }
+
+    private void symbol(char c) {
+      String operator = position + 1 < sql.length() ? sql.substring(position, position + 2) : "";
+      if (OPERATORS.contains(operator)) {
+        token(operator, true);
+        position += 2;
+        return;
+      }
+      if (startsWith("(+)")) {
+        append("(+)", false);
+        previous = ")";
+        position += 3;
+        return;
+      }
+      position++;
+      switch (c) {
+        case '(':
+          boolean dataType = DATA_TYPES.contains(previous);
+          depth++;
+          dataTypeDepths.set(depth, dataType);
+          token("(", false);
+          spaceAllowed = false;
+          break;
+        case ')':
+          dataTypeDepths.clear(depth);
+          depth--;
+          if (orderByDepth > depth) {
+            orderByDepth = -1;
+          }
+          token(")", false);
+          break;
+        case ',':
+          token(",", false);
+          break;
+        case '.':
+        case '@':
+          token(String.valueOf(c), false);
+          spaceAllowed = false;
+          break;
+        case '?':
+          parameterIndexes.add(++placeholders);
+          token("?", true);
+          break;
+        default:
+          token(String.valueOf(c), true);
+      }
+    }
+
+    private void placeholder(Object value) {
+      literalIndexes.add(++placeholders);
+      literalValues.add(value);
+      token("?", true);
+    }
+
+    private void token(String token, boolean spaceBefore) {
+      append(token, spaceBefore);
+      previous = token;
+    }
+
+    private void append(String text, boolean spaceBefore) {
+      if (newLine) {
+        out.append('\n');
+      } else if (spaceBefore && spaceAllowed) {
+        out.append(' ');
+      }
+      out.append(text);
+      newLine = false;
+      spaceAllowed = true;
+    }
+
+    private boolean startsWith(String prefix) {
+      return sql.startsWith(prefix, position);
+    }
+
+    private int endOfWord(int start) {
+      int end = start;
+      while (end < sql.length() && (Character.isLetterOrDigit(sql.charAt(end)) || "_$#".indexOf(sql.charAt(end)) >= 0)) {
+        end++;
+      }
+      return end;
+    }
+
+    /**
+     * Returns the end of the quoted text starting at {@code start}, where a doubled quote does not end the text.
+     */
+    private int endOfQuoted(int start, char quote) {
+      int end = start + 1;
+      while (end < sql.length()) {
+        if (sql.charAt(end) == quote) {
+          if (end + 1 < sql.length() && sql.charAt(end + 1) == quote) {
+            end += 2;
+            continue;
+          }
+          return end + 1;
+        }
+        end++;
+      }
+      return sql.length();
+    }
+
+    private int endOfQQuoted(int quote) {
+      if (quote + 1 >= sql.length()) {
+        return sql.length();
+      }
+      char open = sql.charAt(quote + 1);
+      char close = Q_QUOTE_DELIMITERS.getOrDefault(open, open);
+      int end = sql.indexOf(close + "'", quote + 2);
+      return end < 0 ? sql.length() : end + 2;
+    }
+
+    private static int[] toArray(List<Integer> list) {
+      return list.stream().mapToInt(Integer::intValue).toArray();
+    }
+  }
+}
@@ -0,0 +1,241 @@
+package io.aregger.oracle_statement_caching.helper;
+
+import oracle.jdbc.OraclePreparedStatement;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Counts how often statements are used, with the result set type, the explicit cache key and the properties they were
+ * last used with, so new connections can be warmed up with the hottest statements by the {@link CacheWarmer}.
+ * <p>
+ * The profile is saved to a compact binary file, replaced atomically, and loaded at startup. It keeps at most
+ * {@code maxEntries} statements: when twice as many were counted, the coldest are dropped.
+ */
+public final class SqlProfile {
+
+  private static final int MAGIC = 0x53514c50;
+  private static final int VERSION = 1;
+
+  private final int maxEntries;
+  private final Map<Object, Entry> entries = new ConcurrentHashMap<>();
+
+  /**
+   * A profiled statement.
+   */
+  public static final class Entry {
+
+    private final StatementKey key;
+    private final String cacheKey;
+    private final LongAdder count = new LongAdder();
+    private volatile StatementProperties properties;
+    private volatile boolean trimmed;
+
+    private Entry(StatementKey key, String cacheKey, StatementProperties properties) {
+      this.key = key;
+      this.cacheKey = cacheKey;
+      this.properties = properties;
+    }
+
+    public StatementKey getKey() {
+      return key;
+    }
+
+    /**
+     * Returns the key of an explicitly cached statement or {@code null}.
+     */
+    public String getCacheKey() {
+      return cacheKey;
+    }
+
+    public StatementProperties getProperties() {
+      return properties;
+    }
+
+    public long getCount() {
+      return count.sum();
+    }
+
+    private Object identity() {
+      return identity(key, cacheKey);
+    }
+
+    private static Object identity(StatementKey key, String cacheKey) {
+      return cacheKey == null ? key : List.of(key, cacheKey);
+    }
+  }
+
+  public SqlProfile(int maxEntries) {
+    if (maxEntries < 1) {
+      throw new IllegalArgumentException("Maximum entries must be positive: " + maxEntries);
+    }
+    this.maxEntries = maxEntries;
+  }
+
+  /**
+   * Counts a use of the statement.
+   *
+   * @param cacheKey the key of an explicitly cached statement or {@code null}
+   */
+  public void record(OraclePreparedStatement statement, String sql, String cacheKey) throws SQLException {
+    record(statement, sql, cacheKey, null);
+  }
+
+  /**
+   * Counts a use of the statement and returns its entry. The entry returned by the previous call for the same SQL text
+   * and cache key is counted again while it is in the profile and has the result set type and concurrency of the
+   * statement, so only a change of the statement properties allocates.
+   *
+   * @param cacheKey the key of an explicitly cached statement or {@code null}
+   * @param previous the entry returned by the previous call or {@code null}
+   */
+  public Entry record(OraclePreparedStatement statement, String sql, String cacheKey, Entry previous) throws SQLException {
+    Entry entry = previous;
+    if (entry == null || entry.trimmed || entry.key.getResultSetType() != statement.getResultSetType()
+        || entry.key.getResultSetConcurrency() != statement.getResultSetConcurrency()) {
+      entry = resolve(statement, sql, cacheKey);
+    } else if (!entry.properties.matches(statement)) {
+      entry.properties = StatementProperties.of(statement);
+    }
+    entry.count.increment();
+    return entry;
+  }
+
+  private Entry resolve(OraclePreparedStatement statement, String sql, String cacheKey) throws SQLException {
+    StatementKey key = new StatementKey(sql, statement.getResultSetType(), statement.getResultSetConcurrency());
+    StatementProperties properties = StatementProperties.of(statement);
+    Entry entry = entries.get(Entry.identity(key, cacheKey));
+    if (entry == null) {
+      entry = entries.computeIfAbsent(Entry.identity(key, cacheKey), identity -> new Entry(key, cacheKey, properties));
+      if (entries.size() >= 2 * maxEntries) {
+        trim();
+      }
+    }
+    if (!properties.equals(entry.properties)) {
+      entry.properties = properties;
+    }
+    return entry;
+  }
+
+  /**
+   * Returns the {@code n} most used statements, the most used one first.
+   */
+  public List<Entry> getTop(int n) {
+    return entries.values().stream()
+        .sorted(Comparator.comparingLong(Entry::getCount).reversed())
+        .limit(n)
+        .collect(Collectors.toList());
+  }
+
+  public int size() {
+    return entries.size();
+  }
+
+  /**
+   * Writes the {@code maxEntries} most used statements to the file. The file is written next to the target and moved,
+   * so a reader sees the old or the new profile.
+   */
+  public void save(Path file) throws IOException {
+    List<Entry> top = getTop(maxEntries);
+    Path temporary = Files.createTempFile(file.toAbsolutePath().getParent(), file.getFileName().toString(), ".tmp");
+    try {
+      try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(top.size());
+        for (Entry entry : top) {
+          out.writeLong(entry.getCount());
+          out.writeInt(entry.key.getResultSetType());
+          out.writeInt(entry.key.getResultSetConcurrency());
+          StatementProperties properties = entry.properties;
+          out.writeInt(properties.getRowPrefetch());
+          out.writeInt(properties.getLobPrefetchSize());
+          out.writeInt(properties.getMaxFieldSize());
+          out.writeInt(properties.getQueryTimeout());
+          writeString(out, entry.cacheKey);
+          writeString(out, entry.key.getSql());
+        }
+      }
+      Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(temporary);
+    }
+  }
+
+  /**
+   * Reads a profile written by {@link #save}. The counts of the file are the starting counts of the profile.
+   */
+  public static SqlProfile load(Path file, int maxEntries) throws IOException {
+    SqlProfile profile = new SqlProfile(maxEntries);
+    try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+      if (in.readInt() != MAGIC) {
+        throw new IOException("Not a SQL profile: " + file);
+      }
+      int version = in.readInt();
+      if (version != VERSION) {
+        throw new IOException("Unsupported SQL profile version " + version + ": " + file);
+      }
+      int size = in.readInt();
+      for (int i = 0; i < size; i++) {
+        long count = in.readLong();
+        int resultSetType = in.readInt();
+        int resultSetConcurrency = in.readInt();
+        StatementProperties properties = new StatementProperties(in.readInt(), in.readInt(), in.readInt(), in.readInt());
+        String cacheKey = readString(in);
+        StatementKey key = new StatementKey(Objects.requireNonNull(readString(in)), resultSetType, resultSetConcurrency);
+        Entry entry = new Entry(key, cacheKey, properties);
+        entry.count.add(count);
+        profile.entries.put(entry.identity(), entry);
+      }
+    }
+    return profile;
+  }
+
+  private synchronized void trim() {
+    if (entries.size() < 2 * maxEntries) {
+      return;
+    }
+    List<Entry> sorted = new ArrayList<>(entries.values());
+    sorted.sort(Comparator.comparingLong(Entry::getCount).reversed());
+    for (Entry entry : sorted.subList(maxEntries, sorted.size())) {
+      entry.trimmed = true;
+      entries.remove(entry.identity());
+    }
+  }
+
+  private static void writeString(DataOutputStream out, String value) throws IOException {
+    if (value == null) {
+      out.writeInt(-1);
+      return;
+    }
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  private static String readString(DataInputStream in) throws IOException {
+    int length = in.readInt();
+    if (length < 0) {
+      return null;
+    }
+    byte[] bytes = new byte[length];
+    in.readFully(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,282 @@
+package io.aregger.oracle_statement_caching.helper;
+
+import oracle.jdbc.OracleConnection;
+import oracle.jdbc.OraclePreparedStatement;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-connection LRU statement cache which works on any {@link Connection}. A statement taken from the cache is removed
+ * from it until it is returned, so it is never handed out twice.
+ * <p>
+ * Returned statements are reset like the implicit cache of the thin driver resets them: parameters, batch, warnings
+ * and the current result set are cleared and the fetch size, max field size, query timeout and, for Oracle statements,
+ * the LOB prefetch size are restored to the values the statement had after it was prepared. Update count and generated
+ * keys cannot be reset through JDBC, they are reset by the next execution.
+ * <p>
+ * The cache belongs to the physical connection, so a connection wrapped by a pool finds the cache enabled for the
+ * unwrapped connection and vice versa. Looking up the cache of a connection takes no lock. The cache of a connection
+ * closed without {@link #disable(Connection) disabling} it is dropped when the next cache is enabled, so the registry
+ * holds no more caches than there are open connections.
+ */
+public final class StatementCache {
+
+  private static final Map<Connection, StatementCache> CACHES = new ConcurrentHashMap<>();
+
+  private final Connection connection;
+  private final int maxSize;
+  private final Map<StatementKey, CachedStatement> entries;
+  // all statements prepared by this cache which are not closed, whether cached or checked out, written under the monitor
+  private final Map<PreparedStatement, CachedStatement> owned = new ConcurrentHashMap<>();
+
+  private long hits;
+  private long misses;
+  private long evictions;
+
+  private StatementCache(Connection connection, int maxSize) {
+    this.connection = connection;
+    this.maxSize = maxSize;
+    this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<StatementKey, CachedStatement> eldest) {
+        if (size() <= StatementCache.this.maxSize) {
+          return false;
+        }
+        evictions++;
+        owned.remove(eldest.getValue().statement);
+        eldest.getValue().closeQuietly();
+        return true;
+      }
+    };
+  }
+
+  /**
+   * Enables the cache for the given connection. It should be {@link #disable(Connection) disabled} before the connection
+   * is closed.
+   */
+  public static StatementCache enable(Connection connection, int maxSize) throws SQLException {
+    if (maxSize < 1) {
+      throw new IllegalArgumentException("Cache size must be positive: " + maxSize);
+    }
+    dropClosed();
+    StatementCache cache = new StatementCache(connection, maxSize);
+    StatementCache previous = CACHES.put(physical(connection), cache);
+    if (previous != null) {
+      previous.clear();
+    }
+    return cache;
+  }
+
+  /**
+   * Closes the cached statements of the given connection and disables its cache.
+   */
+  public static void disable(Connection connection) throws SQLException {
+    StatementCache cache = CACHES.remove(physical(connection));
+    if (cache != null) {
+      cache.clear();
+    }
+  }
+
+  /**
+   * Returns the cache of the given connection or {@code null} if none was enabled.
+   */
+  public static StatementCache get(Connection connection) throws SQLException {
+    StatementCache cache = CACHES.get(connection);
+    if (cache != null) {
+      return cache;
+    }
+    Connection physical = physical(connection);
+    return physical != connection ? CACHES.get(physical) : null;
+  }
+
+  /**
+   * Drops the caches of closed connections.
+   */
+  private static void dropClosed() {
+    for (Map.Entry<Connection, StatementCache> entry : CACHES.entrySet()) {
+      if (isClosed(entry.getKey()) && CACHES.remove(entry.getKey(), entry.getValue())) {
+        entry.getValue().clear();
+      }
+    }
+  }
+
+  private static boolean isClosed(Connection connection) {
+    try {
+      return connection.isClosed();
+    } catch (SQLException e) {
+      return true;
+    }
+  }
+
+  /**
+   * Returns the Oracle connection a pool or proxy wraps, or the connection itself.
+   */
+  private static Connection physical(Connection connection) throws SQLException {
+    return connection.isWrapperFor(OracleConnection.class) ? connection.unwrap(OracleConnection.class) : connection;
+  }
+
+  /**
+   * Takes the statement with the given key from the cache or prepares it if it is not cached.
+   */
+  public synchronized PreparedStatement checkOut(StatementKey key) throws SQLException {
+    CachedStatement entry = entries.remove(key);
+    if (entry != null) {
+      hits++;
+      entry.hit = true;
+      return entry.statement;
+    }
+    misses++;
+    PreparedStatement statement = key.prepare(connection);
+    entry = CachedStatement.prepared(key, statement);
+    owned.put(statement, entry);
+    return statement;
+  }
+
+  /**
+   * Returns whether the checked out statement was taken from the cache rather than prepared by its last checkout. It
+   * takes no lock, so it may be called on the hit path.
+   */
+  public boolean isCacheHit(PreparedStatement statement) {
+    CachedStatement entry = owned.get(statement);
+    return entry != null && entry.hit;
+  }
+
+  /**
+   * Resets the statement and puts it back into the cache under the given key, which closes the least recently used
+   * statement if the cache is full. A statement which was not prepared by this cache is adopted if its result set type
+   * and concurrency match the key, otherwise it is closed.
+   */
+  public synchronized void checkIn(StatementKey key, PreparedStatement statement) throws SQLException {
+    if (statement.isClosed()) {
+      owned.remove(statement);
+      return;
+    }
+    CachedStatement entry = owned.get(statement);
+    if (entry == null) {
+      if (statement.getResultSetType() != key.getResultSetType() || statement.getResultSetConcurrency() != key.getResultSetConcurrency()) {
+        statement.close();
+        return;
+      }
+      entry = CachedStatement.adopt(key, statement);
+      owned.put(statement, entry);
+    } else if (!entry.key.equals(key)) {
+      throw new IllegalArgumentException("Statement was prepared for " + entry.key + " but returned for " + key);
+    }
+    entry.reset();
+    CachedStatement replaced = entries.put(key, entry);
+    if (replaced != null && replaced != entry) {
+      owned.remove(replaced.statement);
+      replaced.closeQuietly();
+    }
+  }
+
+  /**
+   * Closes all cached statements.
+   */
+  public synchronized void clear() {
+    for (CachedStatement entry : entries.values()) {
+      owned.remove(entry.statement);
+      entry.closeQuietly();
+    }
+    entries.clear();
+  }
+
+  public synchronized int size() {
+    return entries.size();
+  }
+
+  public int getMaxSize() {
+    return maxSize;
+  }
+
+  public synchronized long getHits() {
+    return hits;
+  }
+
+  public synchronized long getMisses() {
+    return misses;
+  }
+
+  public synchronized long getEvictions() {
+    return evictions;
+  }
+
+  private static final class CachedStatement {
+
+    private static final int NOT_ORACLE = -2;
+    private static final int LOB_PREFETCH_SIZE_DEFAULT = 4000;
+
+    final StatementKey key;
+    final PreparedStatement statement;
+
+    private final int fetchSize;
+    private final int maxFieldSize;
+    private final int queryTimeout;
+    private final int lobPrefetchSize;
+    volatile boolean hit;
+
+    private CachedStatement(StatementKey key, PreparedStatement statement, int fetchSize, int maxFieldSize, int queryTimeout, int lobPrefetchSize) {
+      this.key = key;
+      this.statement = statement;
+      this.fetchSize = fetchSize;
+      this.maxFieldSize = maxFieldSize;
+      this.queryTimeout = queryTimeout;
+      this.lobPrefetchSize = lobPrefetchSize;
+    }
+
+    /**
+     * Creates the entry of a statement which was just prepared, its properties are the ones it is reset to.
+     */
+    static CachedStatement prepared(StatementKey key, PreparedStatement statement) throws SQLException {
+      int lobPrefetchSize = statement instanceof OraclePreparedStatement ? ((OraclePreparedStatement) statement).getLobPrefetchSize() : NOT_ORACLE;
+      return new CachedStatement(key, statement, statement.getFetchSize(), statement.getMaxFieldSize(), statement.getQueryTimeout(), lobPrefetchSize);
+    }
+
+    /**
+     * Creates the entry of a statement which may have been tuned already, it is reset to the JDBC and driver defaults.
+     */
+    static CachedStatement adopt(StatementKey key, PreparedStatement statement) {
+      int lobPrefetchSize = statement instanceof OraclePreparedStatement ? LOB_PREFETCH_SIZE_DEFAULT : NOT_ORACLE;
+      return new CachedStatement(key, statement, 0, 0, 0, lobPrefetchSize);
+    }
+
+    void reset() throws SQLException {
+      ResultSet resultSet = statement.getResultSet();
+      if (resultSet != null) {
+        resultSet.close();
+      }
+      statement.clearParameters();
+      statement.clearBatch();
+      statement.clearWarnings();
+      if (fetchSize == 0 || statement.getFetchSize() != fetchSize) {
+        statement.setFetchSize(fetchSize);
+      }
+      if (statement.getMaxFieldSize() != maxFieldSize) {
+        statement.setMaxFieldSize(maxFieldSize);
+      }
+      if (statement.getQueryTimeout() != queryTimeout) {
+        statement.setQueryTimeout(queryTimeout);
+      }
+      if (lobPrefetchSize != NOT_ORACLE) {
+        OraclePreparedStatement oracleStatement = (OraclePreparedStatement) statement;
+        if (oracleStatement.getLobPrefetchSize() != lobPrefetchSize) {
+          oracleStatement.setLobPrefetchSize(lobPrefetchSize);
+        }
+      }
+    }
+
+    void closeQuietly() {
+      try {
+        statement.close();
+      } catch (SQLException e) {
+        // the statement is discarded anyway
+      }
+    }
+  }
+}
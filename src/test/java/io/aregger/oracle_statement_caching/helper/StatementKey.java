@@ -0,0 +1,95 @@
+package io.aregger.oracle_statement_caching.helper;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+
+/**
+ * Everything a cached statement has to match to be handed out for a request. A statement prepared with generated key
+ * columns is a different statement than the one prepared without, so the columns are part of the key.
+ */
+public final class StatementKey {
+
+  private final String sql;
+  private final int resultSetType;
+  private final int resultSetConcurrency;
+  private final String[] generatedKeyColumns;
+  private final int hash;
+
+  public StatementKey(String sql, int resultSetType, int resultSetConcurrency) {
+    this(sql, resultSetType, resultSetConcurrency, null);
+  }
+
+  /**
+   * Creates the key of a statement which returns the given generated key columns. Such a statement is always forward
+   * only and read only.
+   */
+  public StatementKey(String sql, String[] generatedKeyColumns) {
+    this(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY, generatedKeyColumns.clone());
+  }
+
+  private StatementKey(String sql, int resultSetType, int resultSetConcurrency, String[] generatedKeyColumns) {
+    if (sql == null) {
+      throw new NullPointerException("sql");
+    }
+    this.sql = sql;
+    this.resultSetType = resultSetType;
+    this.resultSetConcurrency = resultSetConcurrency;
+    this.generatedKeyColumns = generatedKeyColumns;
+    this.hash = ((sql.hashCode() * 31 + resultSetType) * 31 + resultSetConcurrency) * 31 + Arrays.hashCode(generatedKeyColumns);
+  }
+
+  public String getSql() {
+    return sql;
+  }
+
+  public int getResultSetType() {
+    return resultSetType;
+  }
+
+  public int getResultSetConcurrency() {
+    return resultSetConcurrency;
+  }
+
+  /**
+   * Returns the generated key columns or {@code null} if the statement does not return generated keys.
+   */
+  String[] getGeneratedKeyColumns() {
+    return generatedKeyColumns == null ? null : generatedKeyColumns.clone();
+  }
+
+  PreparedStatement prepare(Connection connection) throws SQLException {
+    if (generatedKeyColumns != null) {
+      return connection.prepareStatement(sql, generatedKeyColumns);
+    }
+    return connection.prepareStatement(sql, resultSetType, resultSetConcurrency);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof StatementKey)) {
+      return false;
+    }
+    StatementKey other = (StatementKey) o;
+    return hash == other.hash
+        && resultSetType == other.resultSetType
+        && resultSetConcurrency == other.resultSetConcurrency
+        && sql.equals(other.sql)
+        && Arrays.equals(generatedKeyColumns, other.generatedKeyColumns);
+  }
+
+  @Override
+  public int hashCode() {
+    return hash;
+  }
+
+  @Override
+  public String toString() {
+    return sql + (generatedKeyColumns == null ? "" : " returning " + Arrays.toString(generatedKeyColumns));
+  }
+}
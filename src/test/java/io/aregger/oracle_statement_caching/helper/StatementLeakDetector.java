@@ -0,0 +1,263 @@
+package io.aregger.oracle_statement_caching.helper;
+
+import java.sql.PreparedStatement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Tracks the statements checked out through {@link LeakTrackingCacheableStatement} until they are returned, and finds
+ * the ones held longer than a threshold. Those were most likely never returned to the cache, so their slot is lost and
+ * their cursor stays open.
+ * <p>
+ * Outstanding statements are kept in a fixed table of slots. Checkouts claim a slot with a compare and set, and
+ * returns release it with release stores, so neither locks nor allocates. The call site of one in 256 random checkouts
+ * is captured by default. A leak repeated on one code path is captured sooner or later, and the call site is a stack
+ * trace, which costs a few microseconds. Checkouts which find no free slot within a few probes are counted as
+ * untracked, see {@link #getUntracked()}.
+ * <p>
+ * A checkout does not read the time, it records the number of the current scan. {@link #findLeaks()} scans the table,
+ * notes the time of the scan and has to be called regularly, e.g. from a scheduled executor or a health check. A
+ * statement is reported by the first scan at least the threshold after the scan which followed its checkout, so a leak
+ * shows up within the threshold plus two scan intervals.
+ * <p>
+ * Statements returned without the decorator, e.g. with {@link PreparedStatement#close()}, stay tracked and are reported
+ * as leaks.
+ */
+public final class StatementLeakDetector {
+
+  private static final int DEFAULT_CALL_SITE_SAMPLE_INTERVAL = 256;
+  private static final int DEFAULT_CAPACITY = 8192;
+  private static final int MAX_PROBES = 32;
+  // the number of scans whose time is kept
+  private static final int SCANS = 1024;
+  // the checkout scan of a slot being claimed or released
+  private static final long NONE = 0;
+
+  private final long thresholdNanos;
+  private final int callSiteSampleMask;
+  private final int mask;
+  private final AtomicReferenceArray<PreparedStatement> statements;
+  private final AtomicReferenceArray<String> sqls;
+  private final AtomicReferenceArray<Throwable> callSites;
+  private final AtomicLongArray checkOutScans;
+  private final LongAdder untracked = new LongAdder();
+  // the scan checkouts record, the first one is 1
+  private volatile long scan = 1;
+
+  // guarded by this, the times of the recent scans, indexed by the scan modulo SCANS
+  private final long[] scanNanos = new long[SCANS];
+
+  /**
+   * A statement held longer than the threshold.
+   */
+  public static final class Leak {
+
+    private final String sql;
+    private final Duration heldFor;
+    private final Throwable callSite;
+
+    private Leak(String sql, Duration heldFor, Throwable callSite) {
+      this.sql = sql;
+      this.heldFor = heldFor;
+      this.callSite = callSite;
+    }
+
+    public String getSql() {
+      return sql;
+    }
+
+    /**
+     * Returns how long the statement was held at least.
+     */
+    public Duration getHeldFor() {
+      return heldFor;
+    }
+
+    /**
+     * Returns the stack trace of the checkout, or {@code null} if it was not sampled.
+     */
+    public Throwable getCallSite() {
+      return callSite;
+    }
+
+    @Override
+    public String toString() {
+      return "Leak[sql=" + sql + ", heldFor=" + heldFor + ", callSite=" + (callSite == null ? "not sampled" : callSite.getStackTrace()[0]) + "]";
+    }
+  }
+
+  /**
+   * Stack trace of the checkout of a statement, starting at the caller of the outermost cacheable statement.
+   */
+  private static final class CallSite extends Throwable {
+
+    private static final long serialVersionUID = 1L;
+    private static final String HELPER_PACKAGE = StatementLeakDetector.class.getPackageName() + '.';
+
+    private CallSite() {
+      super("Statement checked out here");
+      StackTraceElement[] stackTrace = getStackTrace();
+      int first = 0;
+      while (first < stackTrace.length - 1 && isCheckout(stackTrace[first])) {
+        first++;
+      }
+      setStackTrace(Arrays.copyOfRange(stackTrace, first, stackTrace.length));
+    }
+
+    /**
+     * Returns whether the frame is in the detector or in a cacheable statement, e.g. a decorator.
+     */
+    private static boolean isCheckout(StackTraceElement frame) {
+      String className = frame.getClassName();
+      return className.startsWith(HELPER_PACKAGE)
+          && (className.startsWith(StatementLeakDetector.class.getName()) || className.contains("CacheableStatement"));
+    }
+  }
+
+  /**
+   * Tracks up to 8192 statements and captures the call site of one in 256 checkouts.
+   *
+   * @param threshold how long a statement may be held before it is reported
+   */
+  public StatementLeakDetector(Duration threshold) {
+    this(threshold, DEFAULT_CALL_SITE_SAMPLE_INTERVAL, DEFAULT_CAPACITY);
+  }
+
+  /**
+   * @param threshold              how long a statement may be held before it is reported
+   * @param callSiteSampleInterval captures the call site of one in this many checkouts, a power of two, 1 to capture
+   *                               every call site
+   * @param capacity               the number of statements which can be tracked at once, a power of two
+   */
+  public StatementLeakDetector(Duration threshold, int callSiteSampleInterval, int capacity) {
+    if (threshold.isNegative() || threshold.isZero()) {
+      throw new IllegalArgumentException("Threshold must be positive: " + threshold);
+    }
+    if (callSiteSampleInterval < 1 || Integer.bitCount(callSiteSampleInterval) != 1) {
+      throw new IllegalArgumentException("Sample interval must be a power of two: " + callSiteSampleInterval);
+    }
+    if (capacity < 1 || Integer.bitCount(capacity) != 1) {
+      throw new IllegalArgumentException("Capacity must be a power of two: " + capacity);
+    }
+    this.thresholdNanos = threshold.toNanos();
+    this.callSiteSampleMask = callSiteSampleInterval - 1;
+    this.mask = capacity - 1;
+    this.statements = new AtomicReferenceArray<>(capacity);
+    this.sqls = new AtomicReferenceArray<>(capacity);
+    this.callSites = new AtomicReferenceArray<>(capacity);
+    this.checkOutScans = new AtomicLongArray(capacity);
+  }
+
+  /**
+   * Starts tracking a checked out statement.
+   */
+  void checkedOut(PreparedStatement statement, String sql) {
+    int start = hash(statement);
+    for (int probe = 0; probe < MAX_PROBES; probe++) {
+      int slot = (start + probe) & mask;
+      if (statements.get(slot) == null && statements.compareAndSet(slot, null, statement)) {
+        sqls.setRelease(slot, sql);
+        callSites.setRelease(slot, (ThreadLocalRandom.current().nextInt() & callSiteSampleMask) == 0 ? new CallSite() : null);
+        // the scan is released last, a scan skips the slot until then
+        checkOutScans.setRelease(slot, scan);
+        return;
+      }
+    }
+    untracked.increment();
+  }
+
+  /**
+   * Stops tracking a statement which is returned to the cache.
+   */
+  void returned(PreparedStatement statement) {
+    int start = hash(statement);
+    for (int probe = 0; probe < MAX_PROBES; probe++) {
+      int slot = (start + probe) & mask;
+      if (statements.get(slot) == statement) {
+        // release stores instead of volatile ones, the slot is freed last, after the rest is cleared
+        checkOutScans.setRelease(slot, NONE);
+        sqls.setRelease(slot, null);
+        callSites.setRelease(slot, null);
+        statements.setRelease(slot, null);
+        return;
+      }
+    }
+  }
+
+  /**
+   * Returns the statements held longer than the threshold, the longest held first, and starts a new scan.
+   */
+  public synchronized List<Leak> findLeaks() {
+    List<Leak> leaks = new ArrayList<>();
+    long now = System.nanoTime();
+    long current = scan;
+    // the statements checked out so far were checked out before now
+    scanNanos[(int) (current % SCANS)] = now;
+    scan = current + 1;
+    for (int slot = 0; slot <= mask; slot++) {
+      long checkOut = checkOutScans.get(slot);
+      if (checkOut == NONE || checkOut > current) {
+        continue;
+      }
+      // older scans are forgotten, the oldest one kept is still after the checkout
+      long checkedOutBefore = scanNanos[(int) (Math.max(checkOut, current - SCANS + 1) % SCANS)];
+      if (now - checkedOutBefore < thresholdNanos) {
+        continue;
+      }
+      String sql = sqls.get(slot);
+      Throwable callSite = callSites.get(slot);
+      // the slot was released or claimed again while it was read
+      if (sql != null && checkOutScans.get(slot) == checkOut) {
+        leaks.add(new Leak(sql, Duration.ofNanos(now - checkedOutBefore), callSite));
+      }
+    }
+    leaks.sort(Comparator.comparing(Leak::getHeldFor).reversed());
+    return leaks;
+  }
+
+  /**
+   * Returns the number of statements held longer than the threshold per SQL text, with a scan of {@link #findLeaks()}.
+   */
+  public Map<String, Integer> countLeaksBySql() {
+    Map<String, Integer> counts = new TreeMap<>();
+    for (Leak leak : findLeaks()) {
+      counts.merge(leak.getSql(), 1, Integer::sum);
+    }
+    return counts;
+  }
+
+  /**
+   * Returns the number of tracked statements which are checked out.
+   */
+  public int getOutstanding() {
+    int outstanding = 0;
+    for (int slot = 0; slot <= mask; slot++) {
+      if (checkOutScans.get(slot) != NONE) {
+        outstanding++;
+      }
+    }
+    return outstanding;
+  }
+
+  /**
+   * Returns the number of checkouts which found no free slot, so a leak of these statements goes unnoticed. The
+   * capacity should be raised if this grows.
+   */
+  public long getUntracked() {
+    return untracked.sum();
+  }
+
+  private int hash(PreparedStatement statement) {
+    int hash = System.identityHashCode(statement) * 0x9E3779B9;
+    return (hash ^ (hash >>> 16)) & mask;
+  }
+}
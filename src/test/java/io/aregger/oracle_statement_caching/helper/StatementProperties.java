@@ -0,0 +1,90 @@
+package io.aregger.oracle_statement_caching.helper;
+
+import oracle.jdbc.OraclePreparedStatement;
+
+import java.sql.SQLException;
+
+/**
+ * Immutable snapshot of the statement properties the implicit cache resets: row prefetch, LOB prefetch size, max field
+ * size and query timeout.
+ */
+public final class StatementProperties {
+
+  private final int rowPrefetch;
+  private final int lobPrefetchSize;
+  private final int maxFieldSize;
+  private final int queryTimeout;
+
+  public StatementProperties(int rowPrefetch, int lobPrefetchSize, int maxFieldSize, int queryTimeout) {
+    this.rowPrefetch = rowPrefetch;
+    this.lobPrefetchSize = lobPrefetchSize;
+    this.maxFieldSize = maxFieldSize;
+    this.queryTimeout = queryTimeout;
+  }
+
+  public static StatementProperties of(OraclePreparedStatement statement) throws SQLException {
+    return new StatementProperties(statement.getRowPrefetch(), statement.getLobPrefetchSize(), statement.getMaxFieldSize(), statement.getQueryTimeout());
+  }
+
+  /**
+   * Returns whether the statement has the properties of this snapshot.
+   */
+  public boolean matches(OraclePreparedStatement statement) throws SQLException {
+    return statement.getRowPrefetch() == rowPrefetch
+        && statement.getLobPrefetchSize() == lobPrefetchSize
+        && statement.getMaxFieldSize() == maxFieldSize
+        && statement.getQueryTimeout() == queryTimeout;
+  }
+
+  /**
+   * Sets the properties of this snapshot on the statement. The setters only store the values in the statement, so
+   * comparing first would not be cheaper.
+   */
+  public void applyTo(OraclePreparedStatement statement) throws SQLException {
+    statement.setRowPrefetch(rowPrefetch);
+    statement.setLobPrefetchSize(lobPrefetchSize);
+    statement.setMaxFieldSize(maxFieldSize);
+    statement.setQueryTimeout(queryTimeout);
+  }
+
+  public int getRowPrefetch() {
+    return rowPrefetch;
+  }
+
+  public int getLobPrefetchSize() {
+    return lobPrefetchSize;
+  }
+
+  public int getMaxFieldSize() {
+    return maxFieldSize;
+  }
+
+  public int getQueryTimeout() {
+    return queryTimeout;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof StatementProperties)) {
+      return false;
+    }
+    StatementProperties other = (StatementProperties) o;
+    return rowPrefetch == other.rowPrefetch
+        && lobPrefetchSize == other.lobPrefetchSize
+        && maxFieldSize == other.maxFieldSize
+        && queryTimeout == other.queryTimeout;
+  }
+
+  @Override
+  public int hashCode() {
+    return ((rowPrefetch * 31 + lobPrefetchSize) * 31 + maxFieldSize) * 31 + queryTimeout;
+  }
+
+  @Override
+  public String toString() {
+    return "StatementProperties[rowPrefetch=" + rowPrefetch + ", lobPrefetchSize=" + lobPrefetchSize + ", maxFieldSize=" + maxFieldSize + ", queryTimeout=" + queryTimeout + "]";
+  }
+}
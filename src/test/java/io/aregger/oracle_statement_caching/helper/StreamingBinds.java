@@ -0,0 +1,301 @@
+package io.aregger.oracle_statement_caching.helper;
+
+import oracle.jdbc.OraclePreparedStatement;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Binds CLOB and BLOB values as streams, so large values are sent to the database in chunks instead of being
+ * materialized as a {@code String} or {@code byte[]} first. The sources are readers, input streams or files, which are
+ * memory-mapped a window at a time.
+ * <p>
+ * A statement in the explicit cache keeps its binds, a statement in the implicit cache keeps them until it is checked
+ * out again, so a stream bound to a cached statement would stay reachable and could be sent a second time. Every
+ * stream bound here can be read only once: a re-execution which reads it again fails instead of sending an empty or
+ * truncated value. Closing the binds clears the parameters of the statement, the other binds included, and closes the
+ * sources, so close them before the statement is returned to its cache:
+ * <pre>
+ * try (StreamingBinds binds = new StreamingBinds(statement)) {
+ *   statement.setLong(1, id);
+ *   binds.setClob(2, reader, -1);
+ *   statement.executeUpdate();
+ * }
+ * </pre>
+ */
+public final class StreamingBinds implements AutoCloseable {
+
+  /** The chunk size of the thin driver, 32 KB. */
+  public static final int DEFAULT_CHUNK_SIZE = 32 * 1024;
+
+  private static final int MAP_WINDOW_SIZE = 64 * 1024 * 1024;
+
+  private final OraclePreparedStatement statement;
+  private final int chunkSize;
+  private final List<Closeable> sources = new ArrayList<>();
+  private boolean closed;
+
+  public StreamingBinds(OraclePreparedStatement statement) {
+    this(statement, DEFAULT_CHUNK_SIZE);
+  }
+
+  /**
+   * @param chunkSize the maximum number of characters or bytes read from a source at once
+   */
+  public StreamingBinds(OraclePreparedStatement statement, int chunkSize) {
+    if (chunkSize < 1) {
+      throw new IllegalArgumentException("Chunk size must be positive: " + chunkSize);
+    }
+    this.statement = statement;
+    this.chunkSize = chunkSize;
+  }
+
+  /**
+   * Binds the characters of the reader.
+   *
+   * @param length the number of characters to send or -1 to send all characters up to the end of the reader
+   */
+  public void setClob(int index, Reader reader, long length) throws SQLException {
+    checkOpen();
+    SingleUseReader source = new SingleUseReader(reader, length);
+    sources.add(source);
+    if (length < 0) {
+      statement.setCharacterStream(index, source);
+    } else {
+      statement.setCharacterStream(index, source, length);
+    }
+  }
+
+  /**
+   * Binds the bytes of the stream.
+   *
+   * @param length the number of bytes to send or -1 to send all bytes up to the end of the stream
+   */
+  public void setBlob(int index, InputStream stream, long length) throws SQLException {
+    checkOpen();
+    SingleUseInputStream source = new SingleUseInputStream(stream, length);
+    sources.add(source);
+    if (length < 0) {
+      statement.setBinaryStream(index, source);
+    } else {
+      statement.setBinaryStream(index, source, length);
+    }
+  }
+
+  /**
+   * Binds the text of the file, decoded with the given character set.
+   */
+  public void setClob(int index, Path file, Charset charset) throws SQLException {
+    checkOpen();
+    MappedFileInputStream mapped = openMapped(file);
+    setClob(index, new InputStreamReader(mapped, charset.newDecoder()), -1);
+  }
+
+  /**
+   * Binds the content of the file.
+   */
+  public void setBlob(int index, Path file) throws SQLException {
+    checkOpen();
+    MappedFileInputStream mapped = openMapped(file);
+    setBlob(index, mapped, mapped.size);
+  }
+
+  /**
+   * Clears the parameters of the statement, if it is still open, and closes the sources.
+   */
+  @Override
+  public void close() throws SQLException {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    SQLException exception = null;
+    try {
+      if (!statement.isClosed()) {
+        statement.clearParameters();
+      }
+    } catch (SQLException e) {
+      exception = e;
+    }
+    for (Closeable source : sources) {
+      try {
+        source.close();
+      } catch (IOException e) {
+        if (exception == null) {
+          exception = new SQLException("Error closing stream bind source", e);
+        } else {
+          exception.addSuppressed(e);
+        }
+      }
+    }
+    sources.clear();
+    if (exception != null) {
+      throw exception;
+    }
+  }
+
+  private MappedFileInputStream openMapped(Path file) throws SQLException {
+    try {
+      MappedFileInputStream mapped = new MappedFileInputStream(FileChannel.open(file, StandardOpenOption.READ));
+      sources.add(mapped);
+      return mapped;
+    } catch (IOException e) {
+      throw new SQLException("Error opening " + file, e);
+    }
+  }
+
+  private void checkOpen() throws SQLException {
+    if (closed) {
+      throw new SQLException("Stream binds are closed");
+    }
+  }
+
+  private static IOException consumed() {
+    return new IOException("Stream bind already consumed, bind it again before re-executing the statement");
+  }
+
+  /**
+   * Reads the reader in chunks up to the length once, and fails when it is read again.
+   */
+  private final class SingleUseReader extends Reader {
+
+    private final Reader source;
+    private final long length;
+    private long read;
+    private boolean consumed;
+
+    private SingleUseReader(Reader source, long length) {
+      this.source = source;
+      this.length = length;
+    }
+
+    @Override
+    public int read(char[] buffer, int offset, int len) throws IOException {
+      if (consumed) {
+        throw consumed();
+      }
+      if (len == 0) {
+        return 0;
+      }
+      int chunk = (int) Math.min(Math.min(len, chunkSize), length < 0 ? Long.MAX_VALUE : length - read);
+      int n = chunk == 0 ? -1 : source.read(buffer, offset, chunk);
+      if (n > 0) {
+        read += n;
+        // a statement which knows the length stops reading at it
+        consumed = read == length;
+      } else if (n < 0) {
+        // a statement stops reading at the end of the stream
+        consumed = true;
+      }
+      return n;
+    }
+
+    @Override
+    public void close() throws IOException {
+      consumed = true;
+      source.close();
+    }
+  }
+
+  /**
+   * Reads the stream in chunks up to the length once, and fails when it is read again.
+   */
+  private final class SingleUseInputStream extends InputStream {
+
+    private final InputStream source;
+    private final long length;
+    private long read;
+    private boolean consumed;
+
+    private SingleUseInputStream(InputStream source, long length) {
+      this.source = source;
+      this.length = length;
+    }
+
+    @Override
+    public int read() throws IOException {
+      byte[] b = new byte[1];
+      return read(b, 0, 1) < 0 ? -1 : b[0] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int len) throws IOException {
+      if (consumed) {
+        throw consumed();
+      }
+      if (len == 0) {
+        return 0;
+      }
+      int chunk = (int) Math.min(Math.min(len, chunkSize), length < 0 ? Long.MAX_VALUE : length - read);
+      int n = chunk == 0 ? -1 : source.read(buffer, offset, chunk);
+      if (n > 0) {
+        read += n;
+        consumed = read == length;
+      } else if (n < 0) {
+        consumed = true;
+      }
+      return n;
+    }
+
+    @Override
+    public void close() throws IOException {
+      consumed = true;
+      source.close();
+    }
+  }
+
+  /**
+   * Reads a file through a memory-mapped window which moves along the file, so the file is neither copied to the heap
+   * nor mapped as a whole.
+   */
+  private static final class MappedFileInputStream extends InputStream {
+
+    private final FileChannel channel;
+    private final long size;
+    private MappedByteBuffer window;
+    private long windowStart;
+
+    private MappedFileInputStream(FileChannel channel) throws IOException {
+      this.channel = channel;
+      this.size = channel.size();
+    }
+
+    @Override
+    public int read() throws IOException {
+      byte[] b = new byte[1];
+      return read(b, 0, 1) < 0 ? -1 : b[0] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int len) throws IOException {
+      if (window == null || !window.hasRemaining()) {
+        long position = window == null ? 0 : windowStart + window.capacity();
+        if (position >= size) {
+          return -1;
+        }
+        windowStart = position;
+        window = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(MAP_WINDOW_SIZE, size - position));
+      }
+      int n = Math.min(len, window.remaining());
+      window.get(buffer, offset, n);
+      return n;
+    }
+
+    @Override
+    public void close() throws IOException {
+      window = null;
+      channel.close();
+    }
+  }
+}
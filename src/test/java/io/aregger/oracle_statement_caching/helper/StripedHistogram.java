@@ -0,0 +1,76 @@
+package io.aregger.oracle_statement_caching.helper;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Concurrent histogram of latencies in nanoseconds which records without allocating. Buckets are powers of two split
+ * into four linear sub-buckets, so a percentile is off by at most a quarter of its value. Threads record into one of
+ * a few stripes chosen by their id, which keeps concurrent recorders off each other's cache lines most of the time.
+ */
+final class StripedHistogram {
+
+  private static final int SUB_BUCKET_BITS = 2;
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  // latencies of 2^40 ns, about 18 minutes, and more go into the last bucket
+  private static final int BUCKETS = SUB_BUCKETS + (40 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+  private static final int STRIPES = 4;
+  // longs between two stripes, so stripes do not share a cache line
+  private static final int STRIPE_LENGTH = BUCKETS + 8;
+
+  private final AtomicLongArray counts = new AtomicLongArray(STRIPES * STRIPE_LENGTH);
+
+  void record(long nanos) {
+    int stripe = (int) Thread.currentThread().getId() & (STRIPES - 1);
+    counts.getAndIncrement(stripe * STRIPE_LENGTH + index(nanos));
+  }
+
+  /**
+   * Returns the bucket counts summed over all stripes.
+   */
+  long[] snapshot() {
+    long[] buckets = new long[BUCKETS];
+    for (int stripe = 0; stripe < STRIPES; stripe++) {
+      for (int i = 0; i < BUCKETS; i++) {
+        buckets[i] += counts.get(stripe * STRIPE_LENGTH + i);
+      }
+    }
+    return buckets;
+  }
+
+  /**
+   * Returns the upper bound of the bucket containing the given quantile, e.g. 0.99, of a {@link #snapshot()}, or 0 if
+   * nothing was recorded.
+   */
+  static long percentile(long[] buckets, double quantile) {
+    long total = 0;
+    for (long count : buckets) {
+      total += count;
+    }
+    long rank = Math.max((long) Math.ceil(quantile * total), 1);
+    long seen = 0;
+    for (int i = 0; i < buckets.length; i++) {
+      seen += buckets[i];
+      if (seen >= rank) {
+        return upperBound(i);
+      }
+    }
+    return 0;
+  }
+
+  private static int index(long nanos) {
+    if (nanos < SUB_BUCKETS) {
+      return (int) Math.max(nanos, 0);
+    }
+    int shift = 63 - Long.numberOfLeadingZeros(nanos) - SUB_BUCKET_BITS;
+    return Math.min(SUB_BUCKETS + shift * SUB_BUCKETS + (int) (nanos >>> shift) - SUB_BUCKETS, BUCKETS - 1);
+  }
+
+  private static long upperBound(int index) {
+    if (index < SUB_BUCKETS) {
+      return index;
+    }
+    int shift = (index - SUB_BUCKETS) / SUB_BUCKETS;
+    int subBucket = (index - SUB_BUCKETS) % SUB_BUCKETS;
+    return ((long) (SUB_BUCKETS + subBucket) << shift) + (1L << shift) - 1;
+  }
+}
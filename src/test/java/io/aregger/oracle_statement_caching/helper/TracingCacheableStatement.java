@@ -0,0 +1,59 @@
+package io.aregger.oracle_statement_caching.helper;
+
+import oracle.jdbc.OracleConnection;
+import oracle.jdbc.OraclePreparedStatement;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * Records every cache lookup of a statement as a line of a trace for the {@code CacheSizeAdvisor}. The line is the
+ * {@link CacheableStatement#getCacheKey() cache key} of an explicitly cached statement and the SQL text of the others,
+ * as the key identifies the cache entry. Line breaks are replaced by spaces, so every lookup is one line.
+ */
+public class TracingCacheableStatement implements CacheableStatement {
+
+  private static final Pattern LINE_BREAKS = Pattern.compile("[\\r\\n]+");
+
+  private final CacheableStatement delegate;
+  private final Consumer<String> trace;
+  private final String traceLine;
+
+  /**
+   * @param trace receives the trace lines, it must be thread-safe if the statement is used by several threads
+   */
+  public TracingCacheableStatement(CacheableStatement delegate, Consumer<String> trace) {
+    this.delegate = delegate;
+    this.trace = trace;
+    String cacheKey = delegate.getCacheKey();
+    this.traceLine = LINE_BREAKS.matcher(cacheKey != null ? cacheKey : delegate.getSql()).replaceAll(" ");
+  }
+
+  @Override
+  public String getSql() {
+    return delegate.getSql();
+  }
+
+  @Override
+  public String getCacheKey() {
+    return delegate.getCacheKey();
+  }
+
+  @Override
+  public void closePreparedStatement(OraclePreparedStatement statement) throws SQLException {
+    delegate.closePreparedStatement(statement);
+  }
+
+  @Override
+  public OraclePreparedStatement getCachedStatement(OracleConnection connection) throws SQLException {
+    trace.accept(traceLine);
+    return delegate.getCachedStatement(connection);
+  }
+
+  @Override
+  public ResultSet executeQuery(OraclePreparedStatement statement) throws SQLException {
+    return delegate.executeQuery(statement);
+  }
+}
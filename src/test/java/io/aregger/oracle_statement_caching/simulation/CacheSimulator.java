@@ -0,0 +1,163 @@
+package io.aregger.oracle_statement_caching.simulation;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Replays a trace of statement executions through a simulated cache per policy and cache size at once, so a trace is
+ * read in a single pass and never held in memory.
+ * <p>
+ * A trace has one statement per line, the SQL text or the key of an explicitly cached statement. The implicit and the
+ * explicit cache of the driver share one LRU list, so both kinds of statements can be mixed in one trace. A line may be
+ * prefixed by the weight of the statement, e.g. its retained heap as measured by the footprint harness, and a tab.
+ * Lines without a weight weigh 1, so a trace should give weights on all lines or on none.
+ */
+public final class CacheSimulator {
+
+  private final List<Simulation> simulations = new ArrayList<>();
+  private final Set<String> distinctKeys = new HashSet<>();
+  private long accesses;
+
+  /**
+   * Result of one policy and cache size.
+   */
+  public static final class Result {
+
+    private final Policy policy;
+    private final int cacheSize;
+    private final long hits;
+    private final long misses;
+    private final long peakWeight;
+
+    private Result(Policy policy, int cacheSize, long hits, long misses, long peakWeight) {
+      this.policy = policy;
+      this.cacheSize = cacheSize;
+      this.hits = hits;
+      this.misses = misses;
+      this.peakWeight = peakWeight;
+    }
+
+    public Policy getPolicy() {
+      return policy;
+    }
+
+    public int getCacheSize() {
+      return cacheSize;
+    }
+
+    /**
+     * Returns the number of hits, each of which saves the parse round trip of a miss.
+     */
+    public long getHits() {
+      return hits;
+    }
+
+    public long getMisses() {
+      return misses;
+    }
+
+    public double getHitRatio() {
+      return hits + misses == 0 ? 0 : (double) hits / (hits + misses);
+    }
+
+    /**
+     * Returns the highest total weight of the cached statements.
+     */
+    public long getPeakWeight() {
+      return peakWeight;
+    }
+  }
+
+  private static final class Simulation {
+
+    private final Policy policy;
+    private final EvictionPolicy cache;
+    private long hits;
+    private long misses;
+
+    private Simulation(Policy policy, int cacheSize) {
+      this.policy = policy;
+      this.cache = policy.create(cacheSize);
+    }
+  }
+
+  public CacheSimulator(Collection<Policy> policies, int... cacheSizes) {
+    for (Policy policy : policies) {
+      for (int cacheSize : cacheSizes) {
+        simulations.add(new Simulation(policy, cacheSize));
+      }
+    }
+  }
+
+  public void access(String key, long weight) {
+    accesses++;
+    distinctKeys.add(key);
+    for (Simulation simulation : simulations) {
+      if (simulation.cache.access(key, weight)) {
+        simulation.hits++;
+      } else {
+        simulation.misses++;
+      }
+    }
+  }
+
+  /**
+   * Replays all lines of a trace.
+   */
+  public void replay(BufferedReader trace) throws IOException {
+    String line;
+    while ((line = trace.readLine()) != null) {
+      if (line.isBlank()) {
+        continue;
+      }
+      int tab = line.indexOf('\t');
+      long weight = 1;
+      String key = line;
+      if (tab > 0 && isNumber(line, tab)) {
+        weight = Long.parseLong(line.substring(0, tab));
+        key = line.substring(tab + 1);
+      }
+      access(key, weight);
+    }
+  }
+
+  public long getAccesses() {
+    return accesses;
+  }
+
+  public int getDistinctStatements() {
+    return distinctKeys.size();
+  }
+
+  /**
+   * Returns the hit ratio of an unbounded cache, where only the first access of every statement is a miss.
+   */
+  public double getMaxHitRatio() {
+    return accesses == 0 ? 0 : (double) (accesses - distinctKeys.size()) / accesses;
+  }
+
+  /**
+   * Returns the results ordered by policy and cache size as given to the constructor.
+   */
+  public List<Result> getResults() {
+    List<Result> results = new ArrayList<>();
+    for (Simulation simulation : simulations) {
+      results.add(new Result(simulation.policy, simulation.cache.getCapacity(), simulation.hits, simulation.misses, simulation.cache.getPeakWeight()));
+    }
+    return results;
+  }
+
+  private static boolean isNumber(String line, int end) {
+    for (int i = 0; i < end; i++) {
+      if (!Character.isDigit(line.charAt(i))) {
+        return false;
+      }
+    }
+    return end <= 18;
+  }
+}
@@ -0,0 +1,77 @@
+package io.aregger.oracle_statement_caching.simulation;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Prints the hit ratio curves of all {@link Policy policies} against the cache size for a trace of statement executions,
+ * the parse round trips the cache saves and the smallest cache size which is as good as the largest one simulated.
+ * <p>
+ * Usage: {@code CacheSizeAdvisor <trace> [sizes, default 10,20,50,100,200,500,1000] [round trip ms, default 1]}
+ */
+public final class CacheSizeAdvisor {
+
+  private static final int[] DEFAULT_CACHE_SIZES = {10, 20, 50, 100, 200, 500, 1000};
+  // hit ratio points a cache size may be worse than the largest size to be recommended
+  private static final double TOLERANCE = 0.01;
+  private static final int BAR_WIDTH = 40;
+
+  private CacheSizeAdvisor() {
+    throw new AssertionError("non-instantiable class");
+  }
+
+  public static void main(String[] args) throws IOException {
+    if (args.length == 0) {
+      System.err.println("Usage: CacheSizeAdvisor <trace> [sizes] [round trip ms]");
+      System.exit(1);
+    }
+    int[] cacheSizes = args.length > 1 ? Arrays.stream(args[1].split(",")).mapToInt(Integer::parseInt).sorted().toArray() : DEFAULT_CACHE_SIZES;
+    double roundTripMillis = args.length > 2 ? Double.parseDouble(args[2]) : 1;
+
+    CacheSimulator simulator = new CacheSimulator(EnumSet.allOf(Policy.class), cacheSizes);
+    try (BufferedReader trace = Files.newBufferedReader(Paths.get(args[0]), StandardCharsets.UTF_8)) {
+      simulator.replay(trace);
+    }
+
+    System.out.printf("%d executions of %d distinct statements, the hit ratio of an unbounded cache is %.1f%%%n%n",
+        simulator.getAccesses(), simulator.getDistinctStatements(), 100 * simulator.getMaxHitRatio());
+    System.out.printf("%-11s %6s %9s  %-" + BAR_WIDTH + "s %13s %12s %14s%n", "policy", "size", "hit ratio", "", "parses saved", "saved [s]", "peak weight");
+    List<CacheSimulator.Result> results = simulator.getResults();
+    for (CacheSimulator.Result result : results) {
+      System.out.printf("%-11s %6d %8.1f%%  %-" + BAR_WIDTH + "s %13d %12.1f %14d%n",
+          result.getPolicy(), result.getCacheSize(), 100 * result.getHitRatio(), bar(result.getHitRatio()),
+          result.getHits(), result.getHits() * roundTripMillis / 1000, result.getPeakWeight());
+    }
+    System.out.println();
+    for (Policy policy : Policy.values()) {
+      List<CacheSimulator.Result> curve = results.stream().filter(result -> result.getPolicy() == policy).collect(Collectors.toList());
+      System.out.printf("%-11s recommended cache size: %d%n", policy, recommendCacheSize(curve));
+    }
+  }
+
+  /**
+   * Returns the smallest cache size of a curve, ordered by cache size, whose hit ratio is within {@link #TOLERANCE} of
+   * the largest one.
+   */
+  static int recommendCacheSize(List<CacheSimulator.Result> curve) {
+    CacheSimulator.Result largest = curve.get(curve.size() - 1);
+    for (CacheSimulator.Result result : curve) {
+      if (result.getHitRatio() >= largest.getHitRatio() - TOLERANCE) {
+        return result.getCacheSize();
+      }
+    }
+    return largest.getCacheSize();
+  }
+
+  private static String bar(double hitRatio) {
+    int length = (int) Math.round(hitRatio * BAR_WIDTH);
+    return "#".repeat(length);
+  }
+}
@@ -0,0 +1,56 @@
+package io.aregger.oracle_statement_caching.simulation;
+
+/**
+ * A simulated statement cache of a fixed number of entries. Each access to a statement is either a hit or a miss which
+ * brings the statement into the cache and possibly evicts another one. Besides the entries, the policy accounts the
+ * weight of the resident statements, e.g. their retained heap, and its peak.
+ */
+public abstract class EvictionPolicy {
+
+  private final int capacity;
+  private long weight;
+  private long peakWeight;
+
+  EvictionPolicy(int capacity) {
+    if (capacity < 1) {
+      throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+    }
+    this.capacity = capacity;
+  }
+
+  /**
+   * Accesses a statement and returns whether it was cached.
+   */
+  public final boolean access(String key, long weight) {
+    boolean hit = accessEntry(key, weight);
+    peakWeight = Math.max(peakWeight, this.weight);
+    return hit;
+  }
+
+  abstract boolean accessEntry(String key, long weight);
+
+  /**
+   * Returns the number of cached statements.
+   */
+  public abstract int size();
+
+  public int getCapacity() {
+    return capacity;
+  }
+
+  public long getWeight() {
+    return weight;
+  }
+
+  public long getPeakWeight() {
+    return peakWeight;
+  }
+
+  void added(long entryWeight) {
+    weight += entryWeight;
+  }
+
+  void removed(long entryWeight) {
+    weight -= entryWeight;
+  }
+}
@@ -0,0 +1,63 @@
+package io.aregger.oracle_statement_caching.simulation;
+
+/**
+ * Count-min sketch of 4-bit counters which estimates the access frequency of statements in little space. All counters
+ * are halved after a sample of ten times the cache capacity, so the frequencies reflect recent history.
+ */
+final class FrequencySketch {
+
+  private static final int DEPTH = 4;
+  private static final int MAX_COUNT = 15;
+  private static final int[] SEEDS = {0x9E3779B9, 0x85EBCA6B, 0xC2B2AE35, 0x27D4EB2F};
+
+  private final byte[][] counters;
+  private final int mask;
+  private final int sampleSize;
+  private int additions;
+
+  FrequencySketch(int capacity) {
+    int width = Integer.highestOneBit(Math.max(64, capacity * 4 - 1)) << 1;
+    this.counters = new byte[DEPTH][width];
+    this.mask = width - 1;
+    this.sampleSize = Math.max(10, capacity * 10);
+  }
+
+  void increment(String key) {
+    int hash = key.hashCode();
+    boolean added = false;
+    for (int i = 0; i < DEPTH; i++) {
+      int index = index(hash, i);
+      if (counters[i][index] < MAX_COUNT) {
+        counters[i][index]++;
+        added = true;
+      }
+    }
+    if (added && ++additions == sampleSize) {
+      reset();
+    }
+  }
+
+  int frequency(String key) {
+    int hash = key.hashCode();
+    int frequency = MAX_COUNT;
+    for (int i = 0; i < DEPTH; i++) {
+      frequency = Math.min(frequency, counters[i][index(hash, i)]);
+    }
+    return frequency;
+  }
+
+  private int index(int hash, int row) {
+    int h = hash * SEEDS[row];
+    h ^= h >>> 16;
+    return h & mask;
+  }
+
+  private void reset() {
+    for (byte[] row : counters) {
+      for (int i = 0; i < row.length; i++) {
+        row[i] >>>= 1;
+      }
+    }
+    additions /= 2;
+  }
+}
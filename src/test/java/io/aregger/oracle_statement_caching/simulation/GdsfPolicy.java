@@ -0,0 +1,66 @@
+package io.aregger.oracle_statement_caching.simulation;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Size-aware eviction with GreedyDual-Size-Frequency: the priority of a statement is the inflation value plus its
+ * frequency divided by its weight, and the statement with the lowest priority is evicted. The inflation value rises to
+ * the priority of every evicted statement, so statements which are not used any more age out. Among statements used
+ * equally often, the heavy ones are evicted first, which keeps the retained heap of the cache down.
+ */
+final class GdsfPolicy extends EvictionPolicy {
+
+  private final Map<String, Entry> entries = new HashMap<>();
+  private final TreeSet<Entry> queue = new TreeSet<>((a, b) -> a.priority != b.priority ? Double.compare(a.priority, b.priority) : Long.compare(a.sequence, b.sequence));
+  private double inflation;
+  private long sequence;
+
+  private static final class Entry {
+
+    private final String key;
+    private final long weight;
+    private int frequency;
+    private double priority;
+    private long sequence;
+
+    private Entry(String key, long weight) {
+      this.key = key;
+      this.weight = weight;
+    }
+  }
+
+  GdsfPolicy(int capacity) {
+    super(capacity);
+  }
+
+  @Override
+  boolean accessEntry(String key, long weight) {
+    Entry entry = entries.get(key);
+    boolean hit = entry != null;
+    if (hit) {
+      queue.remove(entry);
+    } else {
+      if (entries.size() == getCapacity()) {
+        Entry victim = queue.pollFirst();
+        inflation = victim.priority;
+        entries.remove(victim.key);
+        removed(victim.weight);
+      }
+      entry = new Entry(key, weight);
+      entries.put(key, entry);
+      added(weight);
+    }
+    entry.frequency++;
+    entry.priority = inflation + (double) entry.frequency / Math.max(1, entry.weight);
+    entry.sequence = sequence++;
+    queue.add(entry);
+    return hit;
+  }
+
+  @Override
+  public int size() {
+    return entries.size();
+  }
+}
@@ -0,0 +1,77 @@
+package io.aregger.oracle_statement_caching.simulation;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Map;
+
+/**
+ * Least frequently used eviction with constant time operations. The frequency of a statement counts its accesses while
+ * it is cached, ties are broken by recency.
+ */
+final class LfuPolicy extends EvictionPolicy {
+
+  private final Map<String, Entry> entries = new HashMap<>();
+  private final Map<Integer, LinkedHashSet<Entry>> frequencies = new HashMap<>();
+  private int minFrequency;
+
+  private static final class Entry {
+
+    private final String key;
+    private final long weight;
+    private int frequency = 1;
+
+    private Entry(String key, long weight) {
+      this.key = key;
+      this.weight = weight;
+    }
+  }
+
+  LfuPolicy(int capacity) {
+    super(capacity);
+  }
+
+  @Override
+  boolean accessEntry(String key, long weight) {
+    Entry entry = entries.get(key);
+    if (entry != null) {
+      LinkedHashSet<Entry> bucket = frequencies.get(entry.frequency);
+      bucket.remove(entry);
+      if (bucket.isEmpty()) {
+        frequencies.remove(entry.frequency);
+        if (minFrequency == entry.frequency) {
+          minFrequency++;
+        }
+      }
+      entry.frequency++;
+      frequencies.computeIfAbsent(entry.frequency, frequency -> new LinkedHashSet<>()).add(entry);
+      return true;
+    }
+    if (entries.size() == getCapacity()) {
+      evict();
+    }
+    entry = new Entry(key, weight);
+    entries.put(key, entry);
+    frequencies.computeIfAbsent(1, frequency -> new LinkedHashSet<>()).add(entry);
+    minFrequency = 1;
+    added(weight);
+    return false;
+  }
+
+  @Override
+  public int size() {
+    return entries.size();
+  }
+
+  private void evict() {
+    LinkedHashSet<Entry> bucket = frequencies.get(minFrequency);
+    Iterator<Entry> eldest = bucket.iterator();
+    Entry victim = eldest.next();
+    eldest.remove();
+    if (bucket.isEmpty()) {
+      frequencies.remove(minFrequency);
+    }
+    entries.remove(victim.key);
+    removed(victim.weight);
+  }
+}
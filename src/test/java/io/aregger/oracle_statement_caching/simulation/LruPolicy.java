@@ -0,0 +1,38 @@
+package io.aregger.oracle_statement_caching.simulation;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Least recently used eviction, the policy of the implicit and explicit caches of the driver, which share one LRU list.
+ */
+final class LruPolicy extends EvictionPolicy {
+
+  // access ordered, the eldest entry is the least recently used one
+  private final Map<String, Long> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+  LruPolicy(int capacity) {
+    super(capacity);
+  }
+
+  @Override
+  boolean accessEntry(String key, long weight) {
+    if (entries.get(key) != null) {
+      return true;
+    }
+    entries.put(key, weight);
+    added(weight);
+    if (entries.size() > getCapacity()) {
+      Iterator<Long> eldest = entries.values().iterator();
+      removed(eldest.next());
+      eldest.remove();
+    }
+    return false;
+  }
+
+  @Override
+  public int size() {
+    return entries.size();
+  }
+}
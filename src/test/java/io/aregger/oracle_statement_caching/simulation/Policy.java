@@ -0,0 +1,40 @@
+package io.aregger.oracle_statement_caching.simulation;
+
+/**
+ * The eviction policies the {@link CacheSimulator} compares.
+ */
+public enum Policy {
+
+  /**
+   * The policy of the driver.
+   */
+  LRU {
+    @Override
+    public EvictionPolicy create(int capacity) {
+      return new LruPolicy(capacity);
+    }
+  },
+
+  LFU {
+    @Override
+    public EvictionPolicy create(int capacity) {
+      return new LfuPolicy(capacity);
+    }
+  },
+
+  W_TINY_LFU {
+    @Override
+    public EvictionPolicy create(int capacity) {
+      return new WTinyLfuPolicy(capacity);
+    }
+  },
+
+  SIZE_AWARE {
+    @Override
+    public EvictionPolicy create(int capacity) {
+      return new GdsfPolicy(capacity);
+    }
+  };
+
+  public abstract EvictionPolicy create(int capacity);
+}
@@ -0,0 +1,99 @@
+package io.aregger.oracle_statement_caching.simulation;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Window TinyLFU eviction: new statements enter a small LRU window of 1% of the capacity. A statement leaving the
+ * window is only admitted to the main cache if the {@link FrequencySketch} estimates it to be used more often than the
+ * statement the main cache would evict. The main cache is a segmented LRU whose protected segment of 80% holds the
+ * statements hit while on probation, so one-off statements do not flush the statements used over and over.
+ */
+final class WTinyLfuPolicy extends EvictionPolicy {
+
+  private final int windowCapacity;
+  private final int protectedCapacity;
+  private final int mainCapacity;
+  private final FrequencySketch sketch;
+
+  // insertion ordered, re-inserted on access, the eldest entry is the least recently used one
+  private final Map<String, Long> window = new LinkedHashMap<>();
+  private final Map<String, Long> probation = new LinkedHashMap<>();
+  private final Map<String, Long> protectedSegment = new LinkedHashMap<>();
+
+  WTinyLfuPolicy(int capacity) {
+    super(capacity);
+    this.windowCapacity = Math.max(1, capacity / 100);
+    this.mainCapacity = capacity - windowCapacity;
+    this.protectedCapacity = mainCapacity * 80 / 100;
+    this.sketch = new FrequencySketch(capacity);
+  }
+
+  @Override
+  boolean accessEntry(String key, long weight) {
+    sketch.increment(key);
+    Long cached = window.remove(key);
+    if (cached != null) {
+      window.put(key, cached);
+      return true;
+    }
+    cached = protectedSegment.remove(key);
+    if (cached != null) {
+      protectedSegment.put(key, cached);
+      return true;
+    }
+    cached = probation.remove(key);
+    if (cached != null) {
+      protect(key, cached);
+      return true;
+    }
+    window.put(key, weight);
+    added(weight);
+    if (window.size() > windowCapacity) {
+      Map.Entry<String, Long> candidate = removeEldest(window);
+      admit(candidate.getKey(), candidate.getValue());
+    }
+    return false;
+  }
+
+  @Override
+  public int size() {
+    return window.size() + probation.size() + protectedSegment.size();
+  }
+
+  private void protect(String key, long weight) {
+    protectedSegment.put(key, weight);
+    if (protectedSegment.size() > protectedCapacity) {
+      Map.Entry<String, Long> demoted = removeEldest(protectedSegment);
+      probation.put(demoted.getKey(), demoted.getValue());
+    }
+  }
+
+  private void admit(String key, long weight) {
+    if (mainCapacity == 0) {
+      removed(weight);
+      return;
+    }
+    if (probation.size() + protectedSegment.size() < mainCapacity) {
+      probation.put(key, weight);
+      return;
+    }
+    Map<String, Long> victimSegment = probation.isEmpty() ? protectedSegment : probation;
+    String victim = victimSegment.keySet().iterator().next();
+    if (sketch.frequency(key) > sketch.frequency(victim)) {
+      removed(removeEldest(victimSegment).getValue());
+      probation.put(key, weight);
+    } else {
+      removed(weight);
+    }
+  }
+
+  private static Map.Entry<String, Long> removeEldest(Map<String, Long> segment) {
+    Iterator<Map.Entry<String, Long>> eldest = segment.entrySet().iterator();
+    Map.Entry<String, Long> entry = eldest.next();
+    Map.Entry<String, Long> copy = Map.entry(entry.getKey(), entry.getValue());
+    eldest.remove();
+    return copy;
+  }
+}
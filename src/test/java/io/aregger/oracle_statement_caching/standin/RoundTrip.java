@@ -0,0 +1,32 @@
+package io.aregger.oracle_statement_caching.standin;
+
+/**
+ * Kinds of round trips the stand-in server counts.
+ */
+public enum RoundTrip {
+
+  /**
+   * Parse of a statement that was not taken from a statement cache.
+   */
+  PARSE,
+
+  /**
+   * Describe of the select list or the binds of a statement.
+   */
+  DESCRIBE,
+
+  /**
+   * Execution of a statement or a batch, including the first {@code rowPrefetch} rows of a query.
+   */
+  EXECUTE,
+
+  /**
+   * Fetch of further rows of a query.
+   */
+  FETCH,
+
+  /**
+   * Read of a LOB whose data did not fit into the LOB prefetch size and only came as a locator with the row.
+   */
+  LOB_READ
+}
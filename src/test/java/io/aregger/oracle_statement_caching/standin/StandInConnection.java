@@ -0,0 +1,264 @@
+package io.aregger.oracle_statement_caching.standin;
+
+import oracle.jdbc.OracleCallableStatement;
+import oracle.jdbc.OraclePreparedStatement;
+import oracle.jdbc.OracleStatement;
+
+import java.sql.CallableStatement;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Stand-in for {@link oracle.jdbc.OracleConnection}. Implicitly and explicitly cached statements share one LRU cache
+ * of {@link #getStatementCacheSize()} entries, as in the thin driver.
+ */
+class StandInConnection extends StandInHandler {
+
+  private final StandInServer server;
+
+  // access ordered, the eldest entry is the least recently used one
+  private final Map<Object, StandInStatement> cache = new LinkedHashMap<>(16, 0.75f, true);
+
+  private boolean implicitCachingEnabled;
+  private boolean explicitCachingEnabled;
+  private int statementCacheSize;
+  private boolean autoCommit = true;
+  private boolean closed;
+
+  StandInConnection(StandInServer server) {
+    this.server = server;
+  }
+
+  StandInServer getServer() {
+    return server;
+  }
+
+  public synchronized PreparedStatement prepareStatement(String sql) throws SQLException {
+    return prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+  }
+
+  public synchronized PreparedStatement prepareStatement(String sql, int resultSetType, int resultSetConcurrency) throws SQLException {
+    return (PreparedStatement) prepare(new ImplicitKey(sql, resultSetType, resultSetConcurrency, null, false));
+  }
+
+  public synchronized PreparedStatement prepareStatement(String sql, String[] columnNames) throws SQLException {
+    return (PreparedStatement) prepare(new ImplicitKey(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY, columnNames.clone(), false));
+  }
+
+  public synchronized CallableStatement prepareCall(String sql) throws SQLException {
+    return prepareCall(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+  }
+
+  public synchronized CallableStatement prepareCall(String sql, int resultSetType, int resultSetConcurrency) throws SQLException {
+    return (CallableStatement) prepare(new ImplicitKey(sql, resultSetType, resultSetConcurrency, null, true));
+  }
+
+  public synchronized PreparedStatement getStatementWithKey(String key) throws SQLException {
+    return (PreparedStatement) checkOutExplicit(key);
+  }
+
+  public synchronized CallableStatement getCallWithKey(String key) throws SQLException {
+    return (CallableStatement) checkOutExplicit(key);
+  }
+
+  public synchronized void setImplicitCachingEnabled(boolean enabled) throws SQLException {
+    checkOpen();
+    implicitCachingEnabled = enabled;
+  }
+
+  public synchronized boolean getImplicitCachingEnabled() {
+    return implicitCachingEnabled;
+  }
+
+  public synchronized void setExplicitCachingEnabled(boolean enabled) throws SQLException {
+    checkOpen();
+    explicitCachingEnabled = enabled;
+  }
+
+  public synchronized boolean getExplicitCachingEnabled() {
+    return explicitCachingEnabled;
+  }
+
+  public synchronized void setStatementCacheSize(int size) throws SQLException {
+    checkOpen();
+    if (size < 0) {
+      throw new SQLException("Invalid statement cache size: " + size);
+    }
+    statementCacheSize = size;
+    evictOverflow();
+  }
+
+  public synchronized int getStatementCacheSize() {
+    return statementCacheSize;
+  }
+
+  public synchronized void purgeImplicitCache() {
+    purge(ImplicitKey.class);
+  }
+
+  public synchronized void purgeExplicitCache() {
+    purge(String.class);
+  }
+
+  public synchronized void setAutoCommit(boolean autoCommit) {
+    this.autoCommit = autoCommit;
+  }
+
+  public synchronized boolean getAutoCommit() {
+    return autoCommit;
+  }
+
+  public synchronized void commit() {
+  }
+
+  public synchronized void rollback() {
+  }
+
+  public synchronized boolean isClosed() {
+    return closed;
+  }
+
+  public synchronized void close() {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    for (StandInStatement statement : cache.values()) {
+      statement.closePhysically();
+    }
+    cache.clear();
+  }
+
+  /**
+   * Called by a statement which is closed by the application. Returns whether the statement was cached.
+   */
+  synchronized boolean cacheImplicitly(StandInStatement statement) {
+    if (closed || !implicitCachingEnabled || statementCacheSize == 0) {
+      return false;
+    }
+    statement.resetForImplicitCache();
+    put(statement.getKey(), statement);
+    return true;
+  }
+
+  /**
+   * Called by a statement which is closed with a key by the application. Returns whether the statement was cached.
+   */
+  synchronized boolean cacheExplicitly(StandInStatement statement, String key) {
+    if (closed || !explicitCachingEnabled || statementCacheSize == 0) {
+      return false;
+    }
+    put(key, statement);
+    return true;
+  }
+
+  @Override
+  public String toString() {
+    return "StandInConnection[implicit=" + implicitCachingEnabled + ", explicit=" + explicitCachingEnabled + ", cacheSize=" + statementCacheSize + "]";
+  }
+
+  private OracleStatement prepare(ImplicitKey key) throws SQLException {
+    checkOpen();
+    if (implicitCachingEnabled) {
+      StandInStatement cached = cache.remove(key);
+      if (cached != null) {
+        return cached.checkOut(OracleStatement.IMPLICIT);
+      }
+    }
+    StandInStatement statement = new StandInStatement(this, key);
+    server.roundTrip(RoundTrip.PARSE);
+    server.cursorOpened();
+    return key.callable ? statement.createProxy(OracleCallableStatement.class) : statement.createProxy(OraclePreparedStatement.class);
+  }
+
+  private OracleStatement checkOutExplicit(String key) throws SQLException {
+    checkOpen();
+    if (!explicitCachingEnabled) {
+      return null;
+    }
+    StandInStatement cached = cache.remove(key);
+    return cached == null ? null : cached.checkOut(OracleStatement.EXPLICIT);
+  }
+
+  private void put(Object key, StandInStatement statement) {
+    StandInStatement replaced = cache.put(key, statement);
+    if (replaced != null && replaced != statement) {
+      replaced.closePhysically();
+    }
+    evictOverflow();
+  }
+
+  private void evictOverflow() {
+    Iterator<StandInStatement> eldest = cache.values().iterator();
+    while (cache.size() > statementCacheSize) {
+      eldest.next().closePhysically();
+      eldest.remove();
+    }
+  }
+
+  private void purge(Class<?> keyType) {
+    List<Object> purged = new ArrayList<>();
+    for (Map.Entry<Object, StandInStatement> entry : cache.entrySet()) {
+      if (keyType.isInstance(entry.getKey())) {
+        entry.getValue().closePhysically();
+        purged.add(entry.getKey());
+      }
+    }
+    cache.keySet().removeAll(purged);
+  }
+
+  private void checkOpen() throws SQLException {
+    if (closed) {
+      throw new SQLException("Closed Connection");
+    }
+  }
+
+  /**
+   * Key of an implicitly cached statement. The thin driver only returns a cached statement if all of these match.
+   */
+  static final class ImplicitKey {
+
+    final String sql;
+    final int resultSetType;
+    final int resultSetConcurrency;
+    final String[] generatedKeyColumns;
+    final boolean callable;
+
+    ImplicitKey(String sql, int resultSetType, int resultSetConcurrency, String[] generatedKeyColumns, boolean callable) {
+      this.sql = Objects.requireNonNull(sql);
+      this.resultSetType = resultSetType;
+      this.resultSetConcurrency = resultSetConcurrency;
+      this.generatedKeyColumns = generatedKeyColumns;
+      this.callable = callable;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof ImplicitKey)) {
+        return false;
+      }
+      ImplicitKey other = (ImplicitKey) o;
+      return resultSetType == other.resultSetType
+          && resultSetConcurrency == other.resultSetConcurrency
+          && callable == other.callable
+          && sql.equals(other.sql)
+          && Arrays.equals(generatedKeyColumns, other.generatedKeyColumns);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(sql, resultSetType, resultSetConcurrency, callable) * 31 + Arrays.hashCode(generatedKeyColumns);
+    }
+  }
+}
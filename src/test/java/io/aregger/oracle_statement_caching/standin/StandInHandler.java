@@ -0,0 +1,85 @@
+package io.aregger.oracle_statement_caching.standin;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Base class of the stand-in JDBC objects. The Oracle interfaces are far too large to implement by hand, so every
+ * stand-in object is a dynamic proxy that forwards each call to the public method of the handler with the same name and
+ * parameter types. Calls without such a method fail with a {@link SQLFeatureNotSupportedException}.
+ */
+abstract class StandInHandler implements InvocationHandler {
+
+  private static final ClassValue<ConcurrentMap<Method, Optional<Method>>> TARGETS = new ClassValue<>() {
+    @Override
+    protected ConcurrentMap<Method, Optional<Method>> computeValue(Class<?> type) {
+      return new ConcurrentHashMap<>();
+    }
+  };
+
+  private Object proxy;
+
+  <T> T createProxy(Class<T> type) {
+    T proxy = type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, this));
+    this.proxy = proxy;
+    return proxy;
+  }
+
+  Object getProxy() {
+    return proxy;
+  }
+
+  @Override
+  public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+    if (method.getDeclaringClass() == Object.class) {
+      return invokeObjectMethod(proxy, method, args);
+    }
+    Optional<Method> target = TARGETS.get(getClass()).computeIfAbsent(method, this::findTarget);
+    if (target.isEmpty()) {
+      throw new SQLFeatureNotSupportedException("Not supported by the stand-in: " + method.getDeclaringClass().getSimpleName() + "." + method.getName());
+    }
+    try {
+      return target.get().invoke(this, args);
+    } catch (InvocationTargetException e) {
+      throw e.getCause();
+    }
+  }
+
+  public <T> T unwrap(Class<T> type) throws SQLFeatureNotSupportedException {
+    if (type.isInstance(proxy)) {
+      return type.cast(proxy);
+    }
+    throw new SQLFeatureNotSupportedException("Not a wrapper for " + type.getName());
+  }
+
+  public boolean isWrapperFor(Class<?> type) {
+    return type.isInstance(proxy);
+  }
+
+  private Optional<Method> findTarget(Method method) {
+    try {
+      Method target = getClass().getMethod(method.getName(), method.getParameterTypes());
+      target.setAccessible(true);
+      return Optional.of(target);
+    } catch (NoSuchMethodException e) {
+      return Optional.empty();
+    }
+  }
+
+  private Object invokeObjectMethod(Object proxy, Method method, Object[] args) {
+    switch (method.getName()) {
+      case "equals":
+        return proxy == args[0];
+      case "hashCode":
+        return System.identityHashCode(proxy);
+      default:
+        return toString();
+    }
+  }
+}
@@ -0,0 +1,67 @@
+package io.aregger.oracle_statement_caching.standin;
+
+import java.sql.ParameterMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+
+/**
+ * Stand-in for the {@link ParameterMetaData} of a statement. All parameters are described as VARCHAR2 IN parameters.
+ */
+class StandInParameterMetaData extends StandInHandler {
+
+  private final int parameterCount;
+
+  StandInParameterMetaData(int parameterCount) {
+    this.parameterCount = parameterCount;
+  }
+
+  public int getParameterCount() {
+    return parameterCount;
+  }
+
+  public int getParameterType(int parameter) throws SQLException {
+    checkIndex(parameter);
+    return Types.VARCHAR;
+  }
+
+  public String getParameterTypeName(int parameter) throws SQLException {
+    checkIndex(parameter);
+    return "VARCHAR2";
+  }
+
+  public int getParameterMode(int parameter) throws SQLException {
+    checkIndex(parameter);
+    return ParameterMetaData.parameterModeIn;
+  }
+
+  public int isNullable(int parameter) throws SQLException {
+    checkIndex(parameter);
+    return ParameterMetaData.parameterNullableUnknown;
+  }
+
+  public String getParameterClassName(int parameter) throws SQLException {
+    checkIndex(parameter);
+    return "java.lang.String";
+  }
+
+  public boolean isSigned(int parameter) throws SQLException {
+    checkIndex(parameter);
+    return false;
+  }
+
+  public int getPrecision(int parameter) throws SQLException {
+    checkIndex(parameter);
+    return 0;
+  }
+
+  public int getScale(int parameter) throws SQLException {
+    checkIndex(parameter);
+    return 0;
+  }
+
+  private void checkIndex(int parameter) throws SQLException {
+    if (parameter < 1 || parameter > parameterCount) {
+      throw new SQLException("Invalid parameter index: " + parameter);
+    }
+  }
+}
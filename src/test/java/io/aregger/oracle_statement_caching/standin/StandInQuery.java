@@ -0,0 +1,104 @@
+package io.aregger.oracle_statement_caching.standin;
+
+import java.sql.Types;
+import java.util.Arrays;
+import java.util.function.IntFunction;
+
+/**
+ * Shape and content of the result set a stand-in server returns for a query. Rows are generated on demand, so a query
+ * with millions of rows costs no memory until a result set keeps them.
+ */
+public final class StandInQuery {
+
+  private final String[] columnNames;
+  private final int[] columnTypes;
+  private final int[] columnDisplaySizes;
+  private final int rowCount;
+  private final IntFunction<Object[]> rowGenerator;
+
+  public StandInQuery(String[] columnNames, int[] columnTypes, int rowCount, IntFunction<Object[]> rowGenerator) {
+    if (columnNames.length != columnTypes.length) {
+      throw new IllegalArgumentException("Got " + columnNames.length + " column names but " + columnTypes.length + " column types");
+    }
+    this.columnNames = columnNames.clone();
+    this.columnTypes = columnTypes.clone();
+    this.columnDisplaySizes = new int[columnTypes.length];
+    for (int i = 0; i < columnTypes.length; i++) {
+      columnDisplaySizes[i] = defaultDisplaySize(columnTypes[i]);
+    }
+    this.rowCount = rowCount;
+    this.rowGenerator = rowGenerator;
+  }
+
+  /**
+   * Creates a query whose columns are all of type VARCHAR2.
+   */
+  public static StandInQuery varchar(int rowCount, IntFunction<Object[]> rowGenerator, String... columnNames) {
+    int[] columnTypes = new int[columnNames.length];
+    Arrays.fill(columnTypes, Types.VARCHAR);
+    return new StandInQuery(columnNames, columnTypes, rowCount, rowGenerator);
+  }
+
+  public int getColumnCount() {
+    return columnNames.length;
+  }
+
+  public String getColumnName(int column) {
+    return columnNames[column - 1];
+  }
+
+  public int getColumnType(int column) {
+    return columnTypes[column - 1];
+  }
+
+  /**
+   * Returns a copy of this query with the given maximum column lengths. By default, character columns are 4000 bytes
+   * wide, numbers 22 bytes and LOB columns the 86 bytes of a locator.
+   */
+  public StandInQuery withColumnDisplaySizes(int... displaySizes) {
+    if (displaySizes.length != columnTypes.length) {
+      throw new IllegalArgumentException("Got " + displaySizes.length + " display sizes for " + columnTypes.length + " columns");
+    }
+    StandInQuery query = new StandInQuery(columnNames, columnTypes, rowCount, rowGenerator);
+    System.arraycopy(displaySizes, 0, query.columnDisplaySizes, 0, displaySizes.length);
+    return query;
+  }
+
+  public int getColumnDisplaySize(int column) {
+    return columnDisplaySizes[column - 1];
+  }
+
+  public int getRowCount() {
+    return rowCount;
+  }
+
+  Object[] getRow(int row) {
+    return rowGenerator.apply(row);
+  }
+
+  boolean isLob(int column) {
+    int type = getColumnType(column);
+    return type == Types.CLOB || type == Types.BLOB;
+  }
+
+  int findColumn(String columnName) {
+    for (int i = 0; i < columnNames.length; i++) {
+      if (columnNames[i].equalsIgnoreCase(columnName)) {
+        return i + 1;
+      }
+    }
+    return 0;
+  }
+
+  private static int defaultDisplaySize(int columnType) {
+    switch (columnType) {
+      case Types.NUMERIC:
+        return 22;
+      case Types.CLOB:
+      case Types.BLOB:
+        return 86;
+      default:
+        return 4000;
+    }
+  }
+}
@@ -0,0 +1,214 @@
+package io.aregger.oracle_statement_caching.standin;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Stand-in for {@link oracle.jdbc.OracleResultSet}. The first {@code rowPrefetch} rows arrive with the execution, every
+ * further batch of rows costs a fetch round trip. CLOB and BLOB values longer than the LOB prefetch size of the
+ * statement at execution time cost a LOB read round trip when they are read.
+ * <p>
+ * A scrollable result set keeps every row it fetched, plus a ROWID per row if it is updatable, like the client side
+ * result set cache of the thin driver. A forward-only result set keeps only the current row.
+ */
+class StandInResultSet extends StandInHandler {
+
+  private static final String ROWID_DIGITS = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/";
+
+  private final StandInStatement statement;
+  private final StandInQuery query;
+  private final int rowCount;
+  private final int lobPrefetchSize;
+  private final List<Object[]> rowCache;
+  private final boolean updatable;
+
+  private int fetchSize;
+  private int fetchedRows;
+  private boolean endOfFetch;
+  private int position = -1;
+  private Object[] currentRow;
+  private boolean wasNull;
+  private boolean closed;
+
+  StandInResultSet(StandInStatement statement, StandInQuery query, int fetchSize, int lobPrefetchSize) {
+    this.statement = statement;
+    this.query = query;
+    this.rowCount = query.getRowCount();
+    this.fetchSize = fetchSize;
+    this.lobPrefetchSize = lobPrefetchSize;
+    this.rowCache = statement.getResultSetType() == ResultSet.TYPE_FORWARD_ONLY ? null : new ArrayList<>();
+    this.updatable = statement.getResultSetConcurrency() == ResultSet.CONCUR_UPDATABLE;
+    fetch();
+  }
+
+  public boolean next() throws SQLException {
+    checkOpen();
+    currentRow = null;
+    if (position >= rowCount) {
+      return false;
+    }
+    position++;
+    if (position >= fetchedRows && !endOfFetch) {
+      statement.getServer().roundTrip(RoundTrip.FETCH);
+      fetch();
+    }
+    if (position >= fetchedRows) {
+      position = rowCount;
+      return false;
+    }
+    currentRow = query.getRow(position);
+    if (rowCache != null) {
+      rowCache.add(updatable ? withRowId(currentRow, position) : currentRow);
+    }
+    return true;
+  }
+
+  public String getString(int column) throws SQLException {
+    Object value = getValue(column);
+    return value == null ? null : value.toString();
+  }
+
+  public String getString(String column) throws SQLException {
+    return getString(findColumn(column));
+  }
+
+  public byte[] getBytes(int column) throws SQLException {
+    Object value = getValue(column);
+    return value == null ? null : (byte[]) value;
+  }
+
+  public byte[] getBytes(String column) throws SQLException {
+    return getBytes(findColumn(column));
+  }
+
+  public int getInt(int column) throws SQLException {
+    Object value = getValue(column);
+    return value == null ? 0 : ((Number) value).intValue();
+  }
+
+  public int getInt(String column) throws SQLException {
+    return getInt(findColumn(column));
+  }
+
+  public long getLong(int column) throws SQLException {
+    Object value = getValue(column);
+    return value == null ? 0 : ((Number) value).longValue();
+  }
+
+  public long getLong(String column) throws SQLException {
+    return getLong(findColumn(column));
+  }
+
+  public Object getObject(int column) throws SQLException {
+    return getValue(column);
+  }
+
+  public Object getObject(String column) throws SQLException {
+    return getObject(findColumn(column));
+  }
+
+  public boolean wasNull() throws SQLException {
+    checkOpen();
+    return wasNull;
+  }
+
+  public int findColumn(String column) throws SQLException {
+    int index = query.findColumn(column);
+    if (index == 0) {
+      throw new SQLException("Invalid column name: " + column);
+    }
+    return index;
+  }
+
+  public ResultSetMetaData getMetaData() throws SQLException {
+    checkOpen();
+    return new StandInResultSetMetaData(query).createProxy(ResultSetMetaData.class);
+  }
+
+  public int getFetchSize() {
+    return fetchSize;
+  }
+
+  public void setFetchSize(int fetchSize) throws SQLException {
+    if (fetchSize < 0) {
+      throw new SQLException("Invalid fetch size: " + fetchSize);
+    }
+    this.fetchSize = fetchSize == 0 ? StandInStatement.PREFETCH_SIZE_DEFAULT : fetchSize;
+  }
+
+  public int getType() {
+    return rowCache == null ? ResultSet.TYPE_FORWARD_ONLY : ResultSet.TYPE_SCROLL_INSENSITIVE;
+  }
+
+  public int getConcurrency() {
+    return updatable ? ResultSet.CONCUR_UPDATABLE : ResultSet.CONCUR_READ_ONLY;
+  }
+
+  public Statement getStatement() {
+    return (Statement) statement.getProxy();
+  }
+
+  public boolean isClosed() {
+    return closed;
+  }
+
+  public void close() {
+    closed = true;
+    currentRow = null;
+    if (rowCache != null) {
+      rowCache.clear();
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "StandInResultSet[row=" + position + " of " + rowCount + "]";
+  }
+
+  private void fetch() {
+    int rows = (int) Math.min(fetchSize, (long) rowCount - fetchedRows);
+    fetchedRows += rows;
+    endOfFetch = rows < fetchSize;
+  }
+
+  private static Object[] withRowId(Object[] row, int position) {
+    Object[] cached = Arrays.copyOf(row, row.length + 1);
+    char[] rowId = "AAAR3sAAEAAAACXAAA".toCharArray();
+    for (int i = rowId.length - 1, rest = position; rest > 0; i--, rest >>>= 6) {
+      rowId[i] = ROWID_DIGITS.charAt(rest & 63);
+    }
+    cached[row.length] = new String(rowId);
+    return cached;
+  }
+
+  private Object getValue(int column) throws SQLException {
+    checkOpen();
+    if (currentRow == null) {
+      throw new SQLException("ResultSet.next was not called");
+    }
+    if (column < 1 || column > currentRow.length) {
+      throw new SQLException("Invalid column index: " + column);
+    }
+    Object value = currentRow[column - 1];
+    wasNull = value == null;
+    if (value != null && query.isLob(column) && lobLength(value) > lobPrefetchSize) {
+      statement.getServer().roundTrip(RoundTrip.LOB_READ);
+    }
+    return value;
+  }
+
+  private static int lobLength(Object value) {
+    return value instanceof byte[] ? ((byte[]) value).length : value.toString().length();
+  }
+
+  private void checkOpen() throws SQLException {
+    if (closed) {
+      throw new SQLException("Closed ResultSet");
+    }
+  }
+}
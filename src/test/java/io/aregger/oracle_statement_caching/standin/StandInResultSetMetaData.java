@@ -0,0 +1,118 @@
+package io.aregger.oracle_statement_caching.standin;
+
+import java.sql.ResultSetMetaData;
+import java.sql.Types;
+
+/**
+ * Stand-in for the {@link ResultSetMetaData} of a query.
+ */
+class StandInResultSetMetaData extends StandInHandler {
+
+  private final StandInQuery query;
+
+  StandInResultSetMetaData(StandInQuery query) {
+    this.query = query;
+  }
+
+  public int getColumnCount() {
+    return query.getColumnCount();
+  }
+
+  public String getColumnLabel(int column) {
+    return query.getColumnName(column);
+  }
+
+  public String getColumnName(int column) {
+    return query.getColumnName(column);
+  }
+
+  public int getColumnType(int column) {
+    return query.getColumnType(column);
+  }
+
+  public String getColumnTypeName(int column) {
+    switch (query.getColumnType(column)) {
+      case Types.CLOB:
+        return "CLOB";
+      case Types.BLOB:
+        return "BLOB";
+      case Types.NUMERIC:
+        return "NUMBER";
+      default:
+        return "VARCHAR2";
+    }
+  }
+
+  public String getColumnClassName(int column) {
+    switch (query.getColumnType(column)) {
+      case Types.CLOB:
+        return "oracle.jdbc.OracleClob";
+      case Types.BLOB:
+        return "oracle.jdbc.OracleBlob";
+      case Types.NUMERIC:
+        return "java.math.BigDecimal";
+      default:
+        return "java.lang.String";
+    }
+  }
+
+  public int isNullable(int column) {
+    return ResultSetMetaData.columnNullableUnknown;
+  }
+
+  public boolean isAutoIncrement(int column) {
+    return false;
+  }
+
+  public boolean isCaseSensitive(int column) {
+    return query.getColumnType(column) != Types.NUMERIC;
+  }
+
+  public boolean isSearchable(int column) {
+    return true;
+  }
+
+  public boolean isCurrency(int column) {
+    return false;
+  }
+
+  public boolean isSigned(int column) {
+    return query.getColumnType(column) == Types.NUMERIC;
+  }
+
+  public int getColumnDisplaySize(int column) {
+    return query.getColumnDisplaySize(column);
+  }
+
+  public String getSchemaName(int column) {
+    return "";
+  }
+
+  public int getPrecision(int column) {
+    return 0;
+  }
+
+  public int getScale(int column) {
+    return 0;
+  }
+
+  public String getTableName(int column) {
+    return "";
+  }
+
+  public String getCatalogName(int column) {
+    return "";
+  }
+
+  public boolean isReadOnly(int column) {
+    return false;
+  }
+
+  public boolean isWritable(int column) {
+    return true;
+  }
+
+  public boolean isDefinitelyWritable(int column) {
+    return false;
+  }
+}
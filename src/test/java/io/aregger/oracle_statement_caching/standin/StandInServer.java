@@ -0,0 +1,184 @@
+package io.aregger.oracle_statement_caching.standin;
+
+import oracle.jdbc.OracleConnection;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * In-process stand-in for an Oracle server. Connections obtained from {@link #connect()} behave like connections of the
+ * thin driver as far as statement caching is concerned, and every call that would go to a real server burns the
+ * configured round trip latency. The latency is spun by default, which measures precisely. A blocking server parks
+ * the thread instead, like a socket read, so threads waiting for the server leave the CPU to others.
+ * <p>
+ * Queries return the result registered with {@link #registerQuery(String, StandInQuery)} or, if none was registered, a
+ * single row with the column {@code DUMMY} like {@code dual}. Inserts are counted per table. A PL/SQL call runs the body
+ * registered with {@link #registerCall(String, Consumer)}, if any.
+ * <p>
+ * The server counts the round trips of each {@link RoundTrip kind} and the open cursors, so tests can assert what a
+ * code path costs instead of reading a trace file.
+ */
+public final class StandInServer {
+
+  private static final Pattern INSERT = Pattern.compile("^\\s*insert\\s+into\\s+(\\w+)", Pattern.CASE_INSENSITIVE);
+
+  private static final StandInQuery DUAL = StandInQuery.varchar(1, row -> new Object[]{"X"}, "DUMMY").withColumnDisplaySizes(1);
+
+  private static final long MAX_PARK_NANOS = 1_000_000;
+
+  private final long roundTripNanos;
+  private final boolean blocking;
+  private final Map<String, StandInQuery> queries = new ConcurrentHashMap<>();
+  private final Map<String, Consumer<Object[]>> calls = new ConcurrentHashMap<>();
+  private final Map<String, AtomicLong> rowCounts = new ConcurrentHashMap<>();
+  private final LongAdder[] roundTrips = new LongAdder[RoundTrip.values().length];
+  private final LongAdder openCursors = new LongAdder();
+  private final LongAdder streamed = new LongAdder();
+
+  public StandInServer(long roundTripNanos) {
+    this(roundTripNanos, false);
+  }
+
+  /**
+   * @param blocking whether the latency of a round trip parks the thread instead of spinning
+   */
+  public StandInServer(long roundTripNanos, boolean blocking) {
+    if (roundTripNanos < 0) {
+      throw new IllegalArgumentException("Round trip latency must not be negative: " + roundTripNanos);
+    }
+    this.roundTripNanos = roundTripNanos;
+    this.blocking = blocking;
+    for (int i = 0; i < roundTrips.length; i++) {
+      roundTrips[i] = new LongAdder();
+    }
+  }
+
+  public OracleConnection connect() {
+    return new StandInConnection(this).createProxy(OracleConnection.class);
+  }
+
+  public void registerQuery(String sql, StandInQuery query) {
+    queries.put(sql, query);
+  }
+
+  /**
+   * Registers the body of a PL/SQL call, which gets the bind values of every execution. An index-by table is passed as
+   * an array of its elements and a stream as the number of characters or bytes read from it.
+   */
+  public void registerCall(String sql, Consumer<Object[]> body) {
+    calls.put(sql, body);
+  }
+
+  public long getRowCount(String table) {
+    AtomicLong rowCount = rowCounts.get(table.toUpperCase(Locale.ROOT));
+    return rowCount == null ? 0 : rowCount.get();
+  }
+
+  public long getRoundTripNanos() {
+    return roundTripNanos;
+  }
+
+  public long getRoundTrips(RoundTrip kind) {
+    return roundTrips[kind.ordinal()].sum();
+  }
+
+  public long getRoundTrips() {
+    long sum = 0;
+    for (LongAdder roundTrip : roundTrips) {
+      sum += roundTrip.sum();
+    }
+    return sum;
+  }
+
+  public void resetRoundTrips() {
+    for (LongAdder roundTrip : roundTrips) {
+      roundTrip.reset();
+    }
+  }
+
+  /**
+   * Returns the number of statements which were parsed and not yet closed physically, cached statements included.
+   */
+  public long getOpenCursors() {
+    return openCursors.sum();
+  }
+
+  /**
+   * Returns the number of characters and bytes read from stream binds.
+   */
+  public long getStreamedLength() {
+    return streamed.sum();
+  }
+
+  void streamed(long length) {
+    streamed.add(length);
+  }
+
+  void cursorOpened() {
+    openCursors.increment();
+  }
+
+  void cursorClosed() {
+    openCursors.decrement();
+  }
+
+  StandInQuery getQuery(String sql) {
+    return queries.getOrDefault(sql, DUAL);
+  }
+
+  void call(String sql, Object[] values) {
+    Consumer<Object[]> body = calls.get(sql);
+    if (body != null) {
+      body.accept(values);
+    }
+  }
+
+  /**
+   * Inserts rows into the table the given statement inserts into and returns the value of the identity column of the
+   * first new row, or 0 if the statement is not an insert.
+   */
+  long insert(String sql, int rows) {
+    Matcher matcher = INSERT.matcher(sql);
+    if (!matcher.find()) {
+      return 0;
+    }
+    AtomicLong rowCount = rowCounts.computeIfAbsent(matcher.group(1).toUpperCase(Locale.ROOT), table -> new AtomicLong());
+    return rowCount.getAndAdd(rows) + 1;
+  }
+
+  /**
+   * Counts a round trip and simulates its latency by spinning, sleeping is far too coarse for sub-millisecond
+   * latencies.
+   */
+  void roundTrip(RoundTrip kind) {
+    roundTrip(kind, null);
+  }
+
+  /**
+   * Counts a round trip and simulates its latency, which ends early when {@code cancelled} becomes true.
+   */
+  void roundTrip(RoundTrip kind, BooleanSupplier cancelled) {
+    roundTrips[kind.ordinal()].increment();
+    if (roundTripNanos == 0) {
+      return;
+    }
+    long deadline = System.nanoTime() + roundTripNanos;
+    long remaining;
+    while ((remaining = deadline - System.nanoTime()) > 0 && (cancelled == null || !cancelled.getAsBoolean())) {
+      if (blocking) {
+        // parks in slices, so a cancel is seen
+        LockSupport.parkNanos(Math.min(remaining, MAX_PARK_NANOS));
+      } else {
+        Thread.onSpinWait();
+      }
+    }
+  }
+}
@@ -0,0 +1,628 @@
+package io.aregger.oracle_statement_caching.standin;
+
+import oracle.jdbc.OracleStatement;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.lang.reflect.Array;
+import java.sql.Connection;
+import java.sql.ParameterMetaData;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.SQLWarning;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Stand-in for {@link oracle.jdbc.OraclePreparedStatement} and {@link oracle.jdbc.OracleCallableStatement}.
+ * <p>
+ * The state kept and reset by the statement caches mirrors what the tests in {@code StatementCacheTest} document for the
+ * thin driver: an implicitly cached statement loses its binds, batch, generated keys and tuned properties, an explicitly
+ * cached statement keeps all of them. A statement which is not poolable is closed physically instead of being cached
+ * implicitly. Like the thin driver, {@link #executeBatch()} does not clear the batch, and a batch of a callable
+ * statement is executed row by row, one round trip per row.
+ * <p>
+ * The select list is described with the first execution or the first {@link #getMetaData()} call and stays with the
+ * cursor in both caches. The bind description fetched by {@link #getParameterMetaData()} is only kept by the explicit
+ * cache.
+ * <p>
+ * A query allocates a define buffer of row prefetch times the row width, where a LOB column is as wide as its locator
+ * plus the LOB prefetch size. The buffer is reused while its size fits and stays with the statement in both caches, so
+ * the heap a cached query retains grows with its prefetch settings.
+ * <p>
+ * Readers and input streams bound with {@code setCharacterStream}, {@code setBinaryStream}, {@code setClob} and
+ * {@code setBlob} are read in chunks of 32 KB with every execution, up to their length or to their end. Like a bind
+ * value, the stream stays bound in the explicit cache, and a re-execution reads what is left of it.
+ * <p>
+ * A PL/SQL index-by table bound with {@code setPlsqlIndexTable} is sent with the execution like the thin driver sends
+ * it, as one array bind of scalar elements, a VARCHAR2 element is at most 32767 characters.
+ */
+class StandInStatement extends StandInHandler {
+
+  static final int PREFETCH_SIZE_DEFAULT = 10;
+  static final int LOB_PREFETCH_SIZE_DEFAULT = 4000;
+
+  private static final Object UNBOUND = new Object();
+  private static final int STREAM_CHUNK_SIZE = 32 * 1024;
+  private static final int MAX_INDEX_TABLE_VARCHAR_LENGTH = 32767;
+
+  private enum State {OPEN, CACHED, CLOSED}
+
+  private final StandInConnection connection;
+  private final StandInConnection.ImplicitKey key;
+  private final Object[] binds;
+  private final List<Object[]> batch = new ArrayList<>();
+
+  private State state = State.OPEN;
+  private int creationState = OracleStatement.NEW;
+
+  private int rowPrefetch = PREFETCH_SIZE_DEFAULT;
+  private int lobPrefetchSize = LOB_PREFETCH_SIZE_DEFAULT;
+  private int maxFieldSize;
+  private int queryTimeout;
+  private boolean poolable = true;
+
+  private StandInResultSet resultSet;
+  private int updateCount;
+  private boolean updateCountConsumed;
+  private long[] generatedKeys;
+  private boolean described;
+  private byte[] defineBuffer;
+  private ParameterMetaData parameterMetaData;
+  private volatile boolean executing;
+  private volatile boolean cancelRequested;
+  private final BooleanSupplier cancelled = () -> cancelRequested;
+
+  StandInStatement(StandInConnection connection, StandInConnection.ImplicitKey key) {
+    this.connection = connection;
+    this.key = key;
+    this.binds = new Object[countParameters(key.sql)];
+    Arrays.fill(binds, UNBOUND);
+  }
+
+  StandInConnection.ImplicitKey getKey() {
+    return key;
+  }
+
+  StandInServer getServer() {
+    return connection.getServer();
+  }
+
+  /*
+   * Lifecycle
+   */
+
+  OracleStatement checkOut(int creationState) {
+    this.state = State.OPEN;
+    this.creationState = creationState;
+    return (OracleStatement) getProxy();
+  }
+
+  void resetForImplicitCache() {
+    Arrays.fill(binds, UNBOUND);
+    batch.clear();
+    rowPrefetch = PREFETCH_SIZE_DEFAULT;
+    lobPrefetchSize = LOB_PREFETCH_SIZE_DEFAULT;
+    maxFieldSize = 0;
+    queryTimeout = 0;
+    updateCount = 0;
+    updateCountConsumed = false;
+    generatedKeys = null;
+    parameterMetaData = null;
+  }
+
+  void closePhysically() {
+    if (state != State.CLOSED) {
+      state = State.CLOSED;
+      getServer().cursorClosed();
+    }
+  }
+
+  public void close() throws SQLException {
+    if (state != State.OPEN) {
+      return;
+    }
+    closeResultSet();
+    state = State.CACHED;
+    if (!poolable || !connection.cacheImplicitly(this)) {
+      closePhysically();
+    }
+  }
+
+  public void closeWithKey(String cacheKey) throws SQLException {
+    if (state != State.OPEN) {
+      return;
+    }
+    closeResultSet();
+    state = State.CACHED;
+    if (!connection.cacheExplicitly(this, cacheKey)) {
+      closePhysically();
+    }
+  }
+
+  public boolean isClosed() {
+    return state != State.OPEN;
+  }
+
+  public int creationState() {
+    return creationState;
+  }
+
+  public Connection getConnection() throws SQLException {
+    checkOpen();
+    return (Connection) connection.getProxy();
+  }
+
+  /*
+   * Binds
+   */
+
+  public void setString(int index, String value) throws SQLException {
+    bind(index, value);
+  }
+
+  public void setInt(int index, int value) throws SQLException {
+    bind(index, value);
+  }
+
+  public void setLong(int index, long value) throws SQLException {
+    bind(index, value);
+  }
+
+  public void setObject(int index, Object value) throws SQLException {
+    bind(index, value);
+  }
+
+  public void setNull(int index, int sqlType) throws SQLException {
+    bind(index, null);
+  }
+
+  public void setCharacterStream(int index, Reader reader) throws SQLException {
+    bind(index, new StreamBind(reader, -1));
+  }
+
+  public void setCharacterStream(int index, Reader reader, int length) throws SQLException {
+    bind(index, new StreamBind(reader, length));
+  }
+
+  public void setCharacterStream(int index, Reader reader, long length) throws SQLException {
+    bind(index, new StreamBind(reader, length));
+  }
+
+  public void setClob(int index, Reader reader) throws SQLException {
+    bind(index, new StreamBind(reader, -1));
+  }
+
+  public void setClob(int index, Reader reader, long length) throws SQLException {
+    bind(index, new StreamBind(reader, length));
+  }
+
+  public void setBinaryStream(int index, InputStream stream) throws SQLException {
+    bind(index, new StreamBind(stream, -1));
+  }
+
+  public void setBinaryStream(int index, InputStream stream, int length) throws SQLException {
+    bind(index, new StreamBind(stream, length));
+  }
+
+  public void setBinaryStream(int index, InputStream stream, long length) throws SQLException {
+    bind(index, new StreamBind(stream, length));
+  }
+
+  public void setBlob(int index, InputStream stream) throws SQLException {
+    bind(index, new StreamBind(stream, -1));
+  }
+
+  public void setBlob(int index, InputStream stream, long length) throws SQLException {
+    bind(index, new StreamBind(stream, length));
+  }
+
+  public void setPlsqlIndexTable(int index, Object arrayData, int maxLen, int curLen, int elemSqlType, int elemMaxLen) throws SQLException {
+    if (arrayData == null || !arrayData.getClass().isArray() || curLen < 0 || curLen > maxLen || curLen > Array.getLength(arrayData)) {
+      throw new SQLException("Invalid PL/SQL index table: maxLen=" + maxLen + ", curLen=" + curLen);
+    }
+    boolean character = elemSqlType == Types.VARCHAR || elemSqlType == Types.CHAR;
+    if (!character && elemSqlType != Types.NUMERIC && elemSqlType != Types.DECIMAL && elemSqlType != Types.INTEGER
+        && elemSqlType != Types.BIGINT && elemSqlType != Types.DOUBLE && elemSqlType != Types.DATE && elemSqlType != Types.TIMESTAMP) {
+      throw new SQLException("Unsupported PL/SQL index table element type: " + elemSqlType);
+    }
+    if (character && (elemMaxLen < 1 || elemMaxLen > MAX_INDEX_TABLE_VARCHAR_LENGTH)) {
+      throw new SQLException("Invalid PL/SQL index table element length: " + elemMaxLen);
+    }
+    Object[] elements = new Object[curLen];
+    for (int i = 0; i < curLen; i++) {
+      elements[i] = Array.get(arrayData, i);
+      if (character && elements[i] != null && elements[i].toString().length() > elemMaxLen) {
+        throw new SQLException("PL/SQL index table element " + (i + 1) + " longer than " + elemMaxLen);
+      }
+    }
+    bind(index, new IndexTableBind(elements));
+  }
+
+  public void clearParameters() throws SQLException {
+    checkOpen();
+    Arrays.fill(binds, UNBOUND);
+  }
+
+  public void addBatch() throws SQLException {
+    checkOpen();
+    checkAllBound();
+    batch.add(binds.clone());
+  }
+
+  public void clearBatch() throws SQLException {
+    checkOpen();
+    batch.clear();
+  }
+
+  /*
+   * Execution
+   */
+
+  public ResultSet executeQuery() throws SQLException {
+    checkOpen();
+    checkAllBound();
+    closeResultSet();
+    send(binds);
+    executeRoundTrip();
+    described = true;
+    StandInQuery query = getServer().getQuery(key.sql);
+    allocateDefineBuffer(query);
+    resultSet = new StandInResultSet(this, query, rowPrefetch, lobPrefetchSize);
+    updateCount = -1;
+    return resultSet.createProxy(oracle.jdbc.OracleResultSet.class);
+  }
+
+  public int executeUpdate() throws SQLException {
+    checkOpen();
+    checkAllBound();
+    closeResultSet();
+    Object[] sent = send(binds);
+    executeRoundTrip();
+    if (key.callable) {
+      getServer().call(key.sql, sent);
+    }
+    long firstKey = getServer().insert(key.sql, 1);
+    generatedKeys = key.generatedKeyColumns == null || firstKey == 0 ? null : new long[]{firstKey};
+    updateCount = 1;
+    updateCountConsumed = false;
+    return updateCount;
+  }
+
+  public boolean execute() throws SQLException {
+    if (isQuery()) {
+      executeQuery();
+      return true;
+    }
+    executeUpdate();
+    return false;
+  }
+
+  public int[] executeBatch() throws SQLException {
+    checkOpen();
+    int[] updateCounts = new int[batch.size()];
+    if (batch.isEmpty()) {
+      return updateCounts;
+    }
+    if (key.callable) {
+      for (Object[] row : batch) {
+        Object[] sent = send(row);
+        executeRoundTrip();
+        getServer().call(key.sql, sent);
+      }
+      Arrays.fill(updateCounts, 1);
+      return updateCounts;
+    }
+    for (Object[] row : batch) {
+      send(row);
+    }
+    executeRoundTrip();
+    getServer().insert(key.sql, batch.size());
+    Arrays.fill(updateCounts, 1);
+    return updateCounts;
+  }
+
+  public ResultSet getResultSet() throws SQLException {
+    checkOpen();
+    return resultSet == null ? null : (ResultSet) resultSet.getProxy();
+  }
+
+  public int getUpdateCount() throws SQLException {
+    checkOpen();
+    if (updateCountConsumed) {
+      return -1;
+    }
+    if (updateCount > 0) {
+      updateCountConsumed = true;
+    }
+    return updateCount;
+  }
+
+  public ResultSet getGeneratedKeys() throws SQLException {
+    checkOpen();
+    String[] columns = key.generatedKeyColumns == null ? new String[]{"ROWID"} : key.generatedKeyColumns;
+    long[] keys = generatedKeys == null ? new long[0] : generatedKeys;
+    int[] types = new int[columns.length];
+    Arrays.fill(types, Types.NUMERIC);
+    StandInQuery query = new StandInQuery(columns, types, keys.length, row -> new Object[]{keys[row]});
+    return new StandInResultSet(this, query, Integer.MAX_VALUE, Integer.MAX_VALUE).createProxy(oracle.jdbc.OracleResultSet.class);
+  }
+
+  public ResultSetMetaData getMetaData() throws SQLException {
+    checkOpen();
+    if (!isQuery()) {
+      return null;
+    }
+    if (!described) {
+      getServer().roundTrip(RoundTrip.DESCRIBE);
+      described = true;
+    }
+    return new StandInResultSetMetaData(getServer().getQuery(key.sql)).createProxy(ResultSetMetaData.class);
+  }
+
+  public ParameterMetaData getParameterMetaData() throws SQLException {
+    checkOpen();
+    if (parameterMetaData == null) {
+      getServer().roundTrip(RoundTrip.DESCRIBE);
+      parameterMetaData = new StandInParameterMetaData(binds.length).createProxy(ParameterMetaData.class);
+    }
+    return parameterMetaData;
+  }
+
+  public SQLWarning getWarnings() throws SQLException {
+    checkOpen();
+    return null;
+  }
+
+  public void clearWarnings() throws SQLException {
+    checkOpen();
+  }
+
+  /*
+   * Properties
+   */
+
+  public int getResultSetType() {
+    return key.resultSetType;
+  }
+
+  public int getResultSetConcurrency() {
+    return key.resultSetConcurrency;
+  }
+
+  public int getRowPrefetch() {
+    return rowPrefetch;
+  }
+
+  public void setRowPrefetch(int rowPrefetch) throws SQLException {
+    if (rowPrefetch <= 0) {
+      throw new SQLException("Invalid row prefetch: " + rowPrefetch);
+    }
+    this.rowPrefetch = rowPrefetch;
+  }
+
+  public int getFetchSize() {
+    return rowPrefetch;
+  }
+
+  public void setFetchSize(int fetchSize) throws SQLException {
+    setRowPrefetch(fetchSize == 0 ? PREFETCH_SIZE_DEFAULT : fetchSize);
+  }
+
+  public int getLobPrefetchSize() {
+    return lobPrefetchSize;
+  }
+
+  public void setLobPrefetchSize(int lobPrefetchSize) throws SQLException {
+    if (lobPrefetchSize < -1) {
+      throw new SQLException("Invalid LOB prefetch size: " + lobPrefetchSize);
+    }
+    this.lobPrefetchSize = lobPrefetchSize;
+  }
+
+  public int getMaxFieldSize() {
+    return maxFieldSize;
+  }
+
+  public void setMaxFieldSize(int maxFieldSize) throws SQLException {
+    if (maxFieldSize < 0) {
+      throw new SQLException("Invalid max field size: " + maxFieldSize);
+    }
+    this.maxFieldSize = maxFieldSize;
+  }
+
+  public int getQueryTimeout() {
+    return queryTimeout;
+  }
+
+  public void setQueryTimeout(int queryTimeout) throws SQLException {
+    if (queryTimeout < 0) {
+      throw new SQLException("Invalid query timeout: " + queryTimeout);
+    }
+    this.queryTimeout = queryTimeout;
+  }
+
+  public boolean isPoolable() {
+    return poolable;
+  }
+
+  public void setPoolable(boolean poolable) throws SQLException {
+    checkOpen();
+    this.poolable = poolable;
+  }
+
+  @Override
+  public String toString() {
+    return "StandInStatement[" + key.sql + ", " + state + "]";
+  }
+
+  private boolean isQuery() {
+    String sql = key.sql.trim().toLowerCase(Locale.ROOT);
+    return sql.startsWith("select") || sql.startsWith("with");
+  }
+
+  private void bind(int index, Object value) throws SQLException {
+    checkOpen();
+    if (index < 1 || index > binds.length) {
+      throw new SQLException("Invalid column index: " + index);
+    }
+    binds[index - 1] = value;
+  }
+
+  /**
+   * Cancels the execution in progress, if any, which fails with ORA-01013. Like a break sent to the server, a cancel
+   * without an execution in progress is ignored.
+   */
+  public void cancel() {
+    if (executing) {
+      cancelRequested = true;
+    }
+  }
+
+  private void executeRoundTrip() throws SQLException {
+    cancelRequested = false;
+    executing = true;
+    try {
+      getServer().roundTrip(RoundTrip.EXECUTE, cancelled);
+    } finally {
+      executing = false;
+    }
+    if (cancelRequested) {
+      cancelRequested = false;
+      throw new SQLException("ORA-01013: user requested cancel of current operation", "72000", 1013);
+    }
+  }
+
+  /**
+   * Reads the stream binds and returns the bind values as the server gets them.
+   */
+  private Object[] send(Object[] values) throws SQLException {
+    Object[] sent = values.clone();
+    for (int i = 0; i < sent.length; i++) {
+      if (sent[i] instanceof StreamBind) {
+        long length = ((StreamBind) sent[i]).send();
+        getServer().streamed(length);
+        sent[i] = length;
+      } else if (sent[i] instanceof IndexTableBind) {
+        sent[i] = ((IndexTableBind) sent[i]).elements.clone();
+      }
+    }
+    return sent;
+  }
+
+  private void allocateDefineBuffer(StandInQuery query) throws SQLException {
+    long rowWidth = 0;
+    for (int column = 1; column <= query.getColumnCount(); column++) {
+      int displaySize = query.getColumnDisplaySize(column);
+      if (query.isLob(column)) {
+        rowWidth += displaySize + Math.max(lobPrefetchSize, 0);
+      } else if (query.getColumnType(column) == Types.NUMERIC) {
+        rowWidth += displaySize;
+      } else {
+        rowWidth += 2L * displaySize;
+      }
+    }
+    long size = rowWidth * rowPrefetch;
+    if (size > Integer.MAX_VALUE - 8) {
+      throw new SQLException("Define buffer of " + size + " bytes exceeds the maximum array size");
+    }
+    if (defineBuffer == null || defineBuffer.length != size) {
+      defineBuffer = new byte[(int) size];
+    }
+  }
+
+  private void checkAllBound() throws SQLException {
+    for (int i = 0; i < binds.length; i++) {
+      if (binds[i] == UNBOUND) {
+        throw new SQLException("Missing IN or OUT parameter at index:: " + (i + 1));
+      }
+    }
+  }
+
+  private void closeResultSet() {
+    if (resultSet != null) {
+      resultSet.close();
+    }
+  }
+
+  private void checkOpen() throws SQLException {
+    if (state != State.OPEN) {
+      throw new SQLException("Closed Statement");
+    }
+  }
+
+  private static int countParameters(String sql) {
+    int count = 0;
+    boolean inLiteral = false;
+    for (int i = 0; i < sql.length(); i++) {
+      char c = sql.charAt(i);
+      if (c == '\'') {
+        inLiteral = !inLiteral;
+      } else if (c == '?' && !inLiteral) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * A reader or input stream bound to a parameter.
+   */
+  private static final class StreamBind {
+
+    private final Object source;
+    private final long length;
+
+    private StreamBind(Object source, long length) {
+      this.source = source;
+      this.length = length;
+    }
+
+    /**
+     * Reads the stream in chunks up to its length or its end and returns the number of characters or bytes read.
+     */
+    long send() throws SQLException {
+      long sent = 0;
+      try {
+        if (source instanceof Reader) {
+          char[] chunk = new char[STREAM_CHUNK_SIZE];
+          int read;
+          while ((length < 0 || sent < length) && (read = ((Reader) source).read(chunk, 0, chunkLength(sent))) >= 0) {
+            sent += read;
+          }
+        } else {
+          byte[] chunk = new byte[STREAM_CHUNK_SIZE];
+          int read;
+          while ((length < 0 || sent < length) && (read = ((InputStream) source).read(chunk, 0, chunkLength(sent))) >= 0) {
+            sent += read;
+          }
+        }
+      } catch (IOException e) {
+        throw new SQLException("Error reading stream bind: " + e.getMessage(), e);
+      }
+      return sent;
+    }
+
+    private int chunkLength(long sent) {
+      return length < 0 ? STREAM_CHUNK_SIZE : (int) Math.min(STREAM_CHUNK_SIZE, length - sent);
+    }
+  }
+
+  /**
+   * A PL/SQL index-by table bound to a parameter.
+   */
+  private static final class IndexTableBind {
+
+    private final Object[] elements;
+
+    private IndexTableBind(Object[] elements) {
+      this.elements = elements;
+    }
+  }
+}